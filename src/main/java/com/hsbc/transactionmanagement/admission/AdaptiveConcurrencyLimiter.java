@@ -0,0 +1,127 @@
+package com.hsbc.transactionmanagement.admission;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Concurrency limit that adapts to observed latency, AIMD style.
+ * <p>
+ * Completed requests are aggregated into short windows. At the end of a window the limit
+ * is cut multiplicatively if the average latency exceeded the target or any request
+ * failed, and raised additively if the window was fast and the limit was actually being
+ * used. Requests beyond the current limit are rejected immediately instead of queueing.
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    private final String name;
+    private final int minLimit;
+    private final int maxLimit;
+    private final long targetLatencyNanos;
+    private final long windowNanos;
+    private final double backoffRatio;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private volatile int limit;
+
+    private final LongAdder windowLatencyNanos = new LongAdder();
+    private final LongAdder windowSamples = new LongAdder();
+    private final LongAdder windowDrops = new LongAdder();
+    private final AtomicInteger windowPeakInFlight = new AtomicInteger();
+    private final ReentrantLock windowLock = new ReentrantLock();
+    private volatile long windowStartNanos = System.nanoTime();
+
+    private final LongAdder rejected = new LongAdder();
+
+    public AdaptiveConcurrencyLimiter(String name, int initialLimit, int minLimit, int maxLimit,
+                                      long targetLatencyNanos, long windowNanos, double backoffRatio) {
+        if (minLimit < 1 || minLimit > maxLimit || initialLimit < minLimit || initialLimit > maxLimit) {
+            throw new IllegalArgumentException("Concurrency limits must satisfy 1 <= min <= initial <= max");
+        }
+        if (backoffRatio <= 0 || backoffRatio >= 1) {
+            throw new IllegalArgumentException("Backoff ratio must be between 0 and 1");
+        }
+        this.name = name;
+        this.limit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.targetLatencyNanos = targetLatencyNanos;
+        this.windowNanos = windowNanos;
+        this.backoffRatio = backoffRatio;
+    }
+
+    /**
+     * Takes a slot if the current limit allows it. Every successful call must be paired
+     * with {@link #release}.
+     */
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= limit) {
+                rejected.increment();
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                windowPeakInFlight.accumulateAndGet(current + 1, Math::max);
+                return true;
+            }
+        }
+    }
+
+    /**
+     * @param latencyNanos how long the admitted request took
+     * @param dropped      whether the request failed in a way that signals overload
+     */
+    public void release(long latencyNanos, boolean dropped) {
+        inFlight.decrementAndGet();
+        windowLatencyNanos.add(latencyNanos);
+        windowSamples.increment();
+        if (dropped) {
+            windowDrops.increment();
+        }
+        long now = System.nanoTime();
+        if (now - windowStartNanos >= windowNanos && windowLock.tryLock()) {
+            try {
+                if (now - windowStartNanos >= windowNanos) {
+                    closeWindow(now);
+                }
+            } finally {
+                windowLock.unlock();
+            }
+        }
+    }
+
+    private void closeWindow(long now) {
+        long samples = windowSamples.sumThenReset();
+        long latency = windowLatencyNanos.sumThenReset();
+        long drops = windowDrops.sumThenReset();
+        int peak = windowPeakInFlight.getAndSet(inFlight.get());
+        windowStartNanos = now;
+        if (samples == 0) {
+            return;
+        }
+        int current = limit;
+        if (drops > 0 || latency / samples > targetLatencyNanos) {
+            limit = Math.max(minLimit, (int) (current * backoffRatio));
+        } else if (peak * 2 >= current) {
+            // Only grow while the limit is being exercised, so an idle service keeps a sane value
+            limit = Math.min(maxLimit, current + Math.max(1, (int) Math.sqrt(current)));
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+}
@@ -0,0 +1,24 @@
+package com.hsbc.transactionmanagement.admission;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "transaction.admission")
+public record AdmissionControlProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("PT0.25S") Duration targetLatency,
+        @DefaultValue("PT0.1S") Duration window,
+        @DefaultValue("0.9") double backoffRatio,
+        @DefaultValue("PT1S") Duration retryAfter,
+        @DefaultValue Limit read,
+        @DefaultValue Limit write
+) {
+
+    public record Limit(
+            @DefaultValue("100") int initialLimit,
+            @DefaultValue("10") int minLimit,
+            @DefaultValue("1000") int maxLimit
+    ) {}
+}
@@ -0,0 +1,44 @@
+package com.hsbc.transactionmanagement.bulk;
+
+import org.springframework.http.MediaType;
+
+import java.util.Locale;
+import java.util.Optional;
+
+public enum BulkImportFormat {
+
+    /** Comma-separated values with a header row naming the transaction fields. */
+    CSV("text/csv"),
+    /** One JSON transaction object per line. */
+    NDJSON("application/x-ndjson");
+
+    private final String mediaType;
+
+    BulkImportFormat(String mediaType) {
+        this.mediaType = mediaType;
+    }
+
+    public String getMediaType() {
+        return mediaType;
+    }
+
+    public static Optional<BulkImportFormat> fromMediaType(MediaType contentType) {
+        for (BulkImportFormat format : values()) {
+            if (MediaType.parseMediaType(format.mediaType).isCompatibleWith(contentType)) {
+                return Optional.of(format);
+            }
+        }
+        return Optional.empty();
+    }
+
+    public static Optional<BulkImportFormat> fromFileName(String fileName) {
+        String name = fileName.toLowerCase(Locale.ROOT);
+        if (name.endsWith(".csv")) {
+            return Optional.of(CSV);
+        }
+        if (name.endsWith(".ndjson") || name.endsWith(".jsonl")) {
+            return Optional.of(NDJSON);
+        }
+        return Optional.empty();
+    }
+}
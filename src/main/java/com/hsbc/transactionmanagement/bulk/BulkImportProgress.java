@@ -0,0 +1,17 @@
+package com.hsbc.transactionmanagement.bulk;
+
+import java.time.Instant;
+
+/**
+ * Snapshot of the import currently running.
+ */
+public record BulkImportProgress(
+        String source,
+        Instant startedAt,
+        long totalBytes,
+        long processedBytes,
+        int percentComplete,
+        long importedRows,
+        long rejectedRows
+) {
+}
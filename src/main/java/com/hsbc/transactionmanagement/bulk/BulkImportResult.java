@@ -0,0 +1,24 @@
+package com.hsbc.transactionmanagement.bulk;
+
+import java.util.List;
+
+/**
+ * Outcome of one bulk import.
+ *
+ * @param rejections a sample of the rejected rows, ordered by offset and capped at
+ *                   {@code transaction.bulk.max-reported-rejections}
+ */
+public record BulkImportResult(
+        long importedRows,
+        long rejectedRows,
+        long bytes,
+        long elapsedMillis,
+        long rowsPerSecond,
+        List<RejectedRow> rejections
+) {
+
+    /**
+     * @param offset byte offset of the row in the imported file
+     */
+    public record RejectedRow(long offset, String reason) {}
+}
@@ -0,0 +1,42 @@
+package com.hsbc.transactionmanagement.bulk;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Command-line import: seeds the store from {@code --import=<file>} arguments (repeatable)
+ * passed to {@code TransactionManagementApplication} before it starts serving. The format
+ * follows the file extension unless {@code --import-format=CSV|NDJSON} is given.
+ */
+@Component
+public class BulkImportRunner implements ApplicationRunner {
+
+    private final BulkImporter bulkImporter;
+
+    @Autowired
+    public BulkImportRunner(BulkImporter bulkImporter) {
+        this.bulkImporter = bulkImporter;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        List<String> files = args.getOptionValues("import");
+        if (files == null) {
+            return;
+        }
+        List<String> formatOption = args.getOptionValues("import-format");
+        for (String file : files) {
+            BulkImportFormat format = formatOption != null && !formatOption.isEmpty()
+                    ? BulkImportFormat.valueOf(formatOption.get(0).toUpperCase(Locale.ROOT))
+                    : BulkImportFormat.fromFileName(file).orElseThrow(() -> new IllegalArgumentException(
+                            "Cannot tell the format of " + file + "; pass --import-format=CSV|NDJSON"));
+            bulkImporter.importFile(Path.of(file), format);
+        }
+    }
+}
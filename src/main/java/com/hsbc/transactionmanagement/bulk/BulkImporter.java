@@ -0,0 +1,353 @@
+package com.hsbc.transactionmanagement.bulk;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.hsbc.transactionmanagement.capacity.CapacityGuard;
+import com.hsbc.transactionmanagement.event.TransactionEventPublisher;
+import com.hsbc.transactionmanagement.exceptions.BulkImportInProgressException;
+import com.hsbc.transactionmanagement.exceptions.TransactionValidationException;
+import com.hsbc.transactionmanagement.model.Transaction;
+import com.hsbc.transactionmanagement.model.TransactionCreateRequest;
+import com.hsbc.transactionmanagement.repository.TransactionRepository;
+import jakarta.annotation.PreDestroy;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * Loads CSV or NDJSON files of transactions straight into the repository.
+ * <p>
+ * The file is memory-mapped and cut into line-aligned chunks, which are parsed and
+ * validated in parallel on a dedicated fork-join pool and inserted in batches through
+ * {@link TransactionRepository#insertAll}. Rows get the same validation as
+ * {@code POST /api/transactions}; invalid rows and duplicate IDs are counted and skipped
+ * rather than failing the import. When a file repeats an ID, which of its rows is kept
+ * depends on chunk scheduling. Only one import runs at a time.
+ */
+@Component
+public class BulkImporter {
+
+    private static final Logger logger = LoggerFactory.getLogger(BulkImporter.class);
+
+    private static final int BOUNDARY_PROBE_BYTES = 8 * 1024;
+
+    private final TransactionRepository transactionRepository;
+    private final TransactionEventPublisher eventPublisher;
+    private final CapacityGuard capacityGuard;
+    private final ObjectReader requestReader;
+    private final Validator validator;
+    private final long chunkSize;
+    private final int batchSize;
+    private final int maxReportedRejections;
+    private final ForkJoinPool pool;
+    private final AtomicReference<RunningImport> running = new AtomicReference<>();
+
+    @Autowired
+    public BulkImporter(TransactionRepository transactionRepository,
+                        TransactionEventPublisher eventPublisher,
+                        CapacityGuard capacityGuard,
+                        ObjectMapper objectMapper,
+                        Validator validator,
+                        @Value("${transaction.bulk.chunk-size:8MB}") DataSize chunkSize,
+                        @Value("${transaction.bulk.batch-size:1024}") int batchSize,
+                        @Value("${transaction.bulk.parallelism:0}") int parallelism,
+                        @Value("${transaction.bulk.max-reported-rejections:100}") int maxReportedRejections) {
+        if (chunkSize.toBytes() < 1 || chunkSize.toBytes() > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Import chunk size must be between 1 byte and 2GB");
+        }
+        this.transactionRepository = transactionRepository;
+        this.eventPublisher = eventPublisher;
+        this.capacityGuard = capacityGuard;
+        this.requestReader = objectMapper.readerFor(TransactionCreateRequest.class);
+        this.validator = validator;
+        this.chunkSize = chunkSize.toBytes();
+        this.batchSize = batchSize;
+        this.maxReportedRejections = maxReportedRejections;
+        this.pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Imports a file from local disk.
+     *
+     * @throws BulkImportInProgressException if another import is running
+     */
+    public BulkImportResult importFile(Path file, BulkImportFormat format) throws IOException {
+        return importFile(file, format, file.toString());
+    }
+
+    /**
+     * Spools {@code input} to a temporary file and imports it, so uploads can be
+     * memory-mapped like local files.
+     */
+    public BulkImportResult importStream(InputStream input, BulkImportFormat format, String source) throws IOException {
+        Path spool = Files.createTempFile("transaction-import-", "." + format.name().toLowerCase(Locale.ROOT));
+        try {
+            Files.copy(input, spool, StandardCopyOption.REPLACE_EXISTING);
+            return importFile(spool, format, source);
+        } finally {
+            Files.deleteIfExists(spool);
+        }
+    }
+
+    public Optional<BulkImportProgress> currentProgress() {
+        return Optional.ofNullable(running.get()).map(RunningImport::snapshot);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        pool.shutdownNow();
+    }
+
+    private BulkImportResult importFile(Path file, BulkImportFormat format, String source) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            RunningImport run = new RunningImport(source, channel.size());
+            if (!running.compareAndSet(null, run)) {
+                throw new BulkImportInProgressException(running.get().source);
+            }
+            try {
+                logger.info("Importing {} ({} bytes) as {}", source, run.totalBytes, format);
+                long dataStart = 0;
+                TransactionRowParser parser;
+                if (format == BulkImportFormat.CSV) {
+                    dataStart = nextLineStart(channel, 0);
+                    parser = TransactionRowParser.csv(readHeader(channel, dataStart));
+                    run.processedBytes.add(dataStart);
+                } else {
+                    parser = TransactionRowParser.ndjson(requestReader);
+                }
+
+                List<ForkJoinTask<?>> tasks = new ArrayList<>();
+                long start = dataStart;
+                while (start < run.totalBytes) {
+                    long end = nextLineStart(channel, Math.min(start + chunkSize, run.totalBytes) - 1);
+                    long chunkStart = start;
+                    tasks.add(pool.submit(() -> importChunk(channel, chunkStart, end, parser, run)));
+                    start = end;
+                }
+                try {
+                    tasks.forEach(ForkJoinTask::join);
+                } catch (RuntimeException ex) {
+                    tasks.forEach(task -> task.cancel(false));
+                    throw ex;
+                }
+
+                BulkImportResult result = run.result();
+                logger.info("Imported {} transactions from {} in {} ms ({} rows/s), {} rows rejected",
+                        result.importedRows(), source, result.elapsedMillis(), result.rowsPerSecond(),
+                        result.rejectedRows());
+                return result;
+            } finally {
+                running.set(null);
+            }
+        }
+    }
+
+    private void importChunk(FileChannel channel, long start, long end, TransactionRowParser parser,
+                             RunningImport run) {
+        MappedByteBuffer buffer;
+        try {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        List<Transaction> batch = new ArrayList<>(batchSize);
+        long[] offsets = new long[batchSize];
+        byte[] line = new byte[512];
+        int lineStart = 0;
+        int limit = buffer.limit();
+        for (int i = 0; i <= limit; i++) {
+            if (i < limit && buffer.get(i) != '\n') {
+                continue;
+            }
+            int length = i - lineStart;
+            if (length > 0 && buffer.get(lineStart + length - 1) == '\r') {
+                length--;
+            }
+            if (length > 0) {
+                if (line.length < length) {
+                    line = new byte[Math.max(length, line.length * 2)];
+                }
+                buffer.get(lineStart, line, 0, length);
+                String text = new String(line, 0, length, StandardCharsets.UTF_8);
+                long offset = start + lineStart;
+                Transaction transaction = text.isBlank() ? null : toTransaction(text, offset, parser, run);
+                if (transaction != null) {
+                    offsets[batch.size()] = offset;
+                    batch.add(transaction);
+                    if (batch.size() == batchSize) {
+                        insert(batch, offsets, run);
+                    }
+                }
+            }
+            lineStart = i + 1;
+        }
+        insert(batch, offsets, run);
+        run.processedBytes.add(end - start);
+        run.logProgress();
+    }
+
+    private Transaction toTransaction(String line, long offset, TransactionRowParser parser, RunningImport run) {
+        try {
+            TransactionCreateRequest request = parser.parse(line);
+            Set<ConstraintViolation<TransactionCreateRequest>> violations = validator.validate(request);
+            if (!violations.isEmpty()) {
+                run.reject(offset, violations.stream()
+                        .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                        .sorted()
+                        .collect(Collectors.joining(", ")));
+                return null;
+            }
+            Transaction transaction = request.toEntity();
+            transaction.validateBusinessRules();
+            return transaction;
+        } catch (IllegalArgumentException | TransactionValidationException ex) {
+            run.reject(offset, ex.getMessage());
+            return null;
+        }
+    }
+
+    private void insert(List<Transaction> batch, long[] offsets, RunningImport run) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        if (!capacityGuard.tryAdmitWrite()) {
+            // The rest of the file is still read, so the report lists every row that did not make it
+            for (int i = 0; i < batch.size(); i++) {
+                run.reject(offsets[i], "Transaction store at capacity: " + batch.get(i).getTransactionId());
+            }
+            batch.clear();
+            return;
+        }
+        List<Transaction> inserted = transactionRepository.insertAll(batch);
+        // insertAll keeps input order, so anything it skipped was a duplicate ID
+        int next = 0;
+        for (int i = 0; i < batch.size(); i++) {
+            Transaction transaction = batch.get(i);
+            if (next < inserted.size() && inserted.get(next) == transaction) {
+                next++;
+                eventPublisher.transactionCreated(transaction);
+            } else {
+                run.reject(offsets[i], "Duplicate transaction ID: " + transaction.getTransactionId());
+            }
+        }
+        run.importedRows.add(inserted.size());
+        batch.clear();
+    }
+
+    /**
+     * Offset just past the first line break at or after {@code position}, or the file size
+     * if there is none.
+     */
+    private static long nextLineStart(FileChannel channel, long position) throws IOException {
+        ByteBuffer probe = ByteBuffer.allocate(BOUNDARY_PROBE_BYTES);
+        long size = channel.size();
+        long cursor = Math.max(position, 0);
+        while (cursor < size) {
+            probe.clear();
+            int read = channel.read(probe, cursor);
+            if (read <= 0) {
+                break;
+            }
+            for (int i = 0; i < read; i++) {
+                if (probe.get(i) == '\n') {
+                    return cursor + i + 1;
+                }
+            }
+            cursor += read;
+        }
+        return size;
+    }
+
+    private static String readHeader(FileChannel channel, long headerEnd) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate((int) headerEnd);
+        channel.read(header, 0);
+        String text = new String(header.array(), 0, header.position(), StandardCharsets.UTF_8).strip();
+        // Spreadsheet exports often start with a byte order mark
+        return text.startsWith("\uFEFF") ? text.substring(1) : text;
+    }
+
+    private final class RunningImport {
+
+        private final String source;
+        private final long totalBytes;
+        private final Instant startedAt = Instant.now();
+        private final long startNanos = System.nanoTime();
+        private final LongAdder processedBytes = new LongAdder();
+        private final LongAdder importedRows = new LongAdder();
+        private final LongAdder rejectedRows = new LongAdder();
+        private final Queue<BulkImportResult.RejectedRow> rejections = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger reportedRejections = new AtomicInteger();
+        private final AtomicInteger loggedDecile = new AtomicInteger();
+
+        private RunningImport(String source, long totalBytes) {
+            this.source = source;
+            this.totalBytes = totalBytes;
+        }
+
+        private void reject(long offset, String reason) {
+            rejectedRows.increment();
+            if (reportedRejections.getAndIncrement() < maxReportedRejections) {
+                rejections.add(new BulkImportResult.RejectedRow(offset, reason));
+            }
+        }
+
+        private int percentComplete() {
+            return totalBytes == 0 ? 100 : (int) (processedBytes.sum() * 100 / totalBytes);
+        }
+
+        private void logProgress() {
+            int decile = percentComplete() / 10;
+            if (loggedDecile.getAndAccumulate(decile, Math::max) < decile) {
+                logger.info("Import of {} {}% complete: {} imported, {} rejected", source, decile * 10,
+                        importedRows.sum(), rejectedRows.sum());
+            }
+        }
+
+        private BulkImportProgress snapshot() {
+            return new BulkImportProgress(source, startedAt, totalBytes, processedBytes.sum(), percentComplete(),
+                    importedRows.sum(), rejectedRows.sum());
+        }
+
+        private BulkImportResult result() {
+            long elapsedNanos = Math.max(1, System.nanoTime() - startNanos);
+            long imported = importedRows.sum();
+            List<BulkImportResult.RejectedRow> sample = rejections.stream()
+                    .sorted(Comparator.comparingLong(BulkImportResult.RejectedRow::offset))
+                    .toList();
+            return new BulkImportResult(imported, rejectedRows.sum(), totalBytes, elapsedNanos / 1_000_000,
+                    imported * 1_000_000_000L / elapsedNanos, sample);
+        }
+    }
+}
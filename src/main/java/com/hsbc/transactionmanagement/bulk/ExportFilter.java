@@ -0,0 +1,44 @@
+package com.hsbc.transactionmanagement.bulk;
+
+import com.hsbc.transactionmanagement.exceptions.TransactionValidationException;
+
+import java.time.LocalDateTime;
+import java.util.Set;
+
+/**
+ * Optional restrictions on an export; {@code null} bounds and an empty status set match
+ * everything.
+ *
+ * @param from inclusive lower bound on the timestamp
+ * @param to   exclusive upper bound on the timestamp
+ */
+public record ExportFilter(LocalDateTime from, LocalDateTime to, Set<String> statuses) {
+
+    private static final Set<String> KNOWN_STATUSES = Set.of("PENDING", "COMPLETED", "FAILED", "CANCELLED");
+
+    public ExportFilter {
+        statuses = statuses == null ? Set.of() : Set.copyOf(statuses);
+        if (from != null && to != null && !from.isBefore(to)) {
+            throw new TransactionValidationException(
+                    "Export range start must be before its end",
+                    "INVALID_TIME_RANGE"
+            );
+        }
+        for (String status : statuses) {
+            if (!KNOWN_STATUSES.contains(status)) {
+                throw new TransactionValidationException(
+                        "Invalid status: " + status,
+                        "INVALID_STATUS"
+                );
+            }
+        }
+    }
+
+    public static ExportFilter all() {
+        return new ExportFilter(null, null, Set.of());
+    }
+
+    boolean hasTimeRange() {
+        return from != null || to != null;
+    }
+}
@@ -0,0 +1,13 @@
+package com.hsbc.transactionmanagement.bulk;
+
+/**
+ * @param file where the export was written, or {@code null} when it was streamed to a client
+ */
+public record ExportResult(
+        String file,
+        long rows,
+        int rowGroups,
+        long bytes,
+        long elapsedMillis
+) {
+}
@@ -0,0 +1,197 @@
+package com.hsbc.transactionmanagement.bulk;
+
+import com.hsbc.transactionmanagement.model.Transaction;
+import com.hsbc.transactionmanagement.repository.TransactionRepository;
+import com.hsbc.transactionmanagement.storage.columnar.ColumnarFileWriter;
+import com.hsbc.transactionmanagement.storage.columnar.EncodedRowGroup;
+import com.hsbc.transactionmanagement.storage.columnar.RowGroupCodec;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+/**
+ * Streams repository contents into the columnar format of {@link ColumnarFileWriter}.
+ * <p>
+ * Rows are pulled from the repository one row group at a time and encoded on a worker
+ * pool, with at most one group per worker in flight. Encoded groups are written in order
+ * as they complete, so memory stays bounded by {@code parallelism + 1} row groups however
+ * large the store is.
+ */
+@Component
+public class TransactionExporter {
+
+    private static final Logger logger = LoggerFactory.getLogger(TransactionExporter.class);
+
+    private static final DateTimeFormatter FILE_TIMESTAMP = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss");
+
+    private final TransactionRepository transactionRepository;
+    private final Path exportDirectory;
+    private final int rowGroupSize;
+    private final int parallelism;
+    private final ExecutorService encoders;
+
+    @Autowired
+    public TransactionExporter(TransactionRepository transactionRepository,
+                               @Value("${transaction.export.directory:${java.io.tmpdir}/transaction-exports}") Path exportDirectory,
+                               @Value("${transaction.export.row-group-size:65536}") int rowGroupSize,
+                               @Value("${transaction.export.parallelism:0}") int parallelism) {
+        if (rowGroupSize < 1) {
+            throw new IllegalArgumentException("Export row group size must be positive");
+        }
+        this.transactionRepository = transactionRepository;
+        this.exportDirectory = exportDirectory;
+        this.rowGroupSize = rowGroupSize;
+        this.parallelism = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        this.encoders = Executors.newFixedThreadPool(this.parallelism, runnable -> {
+            Thread thread = new Thread(runnable, "transaction-export-encoder");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Writes the matching transactions to {@code out}. The stream is not closed.
+     */
+    public ExportResult export(ExportFilter filter, OutputStream out) throws IOException {
+        long start = System.nanoTime();
+        ColumnarFileWriter writer = new ColumnarFileWriter(new NonClosingOutputStream(out));
+        int rowGroups = writeRowGroups(filter, writer);
+        writer.close();
+        return new ExportResult(null, writer.getRowCount(), rowGroups, writer.getPosition(),
+                (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Writes the matching transactions to a new file in {@code transaction.export.directory}.
+     * The file only appears under its final name once it is complete.
+     */
+    public ExportResult exportToDirectory(ExportFilter filter) throws IOException {
+        Files.createDirectories(exportDirectory);
+        String name = "transactions-" + LocalDateTime.now().format(FILE_TIMESTAMP);
+        Path partial = Files.createTempFile(exportDirectory, name + "-", ".partial");
+        try {
+            ExportResult result;
+            try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(partial), 1 << 16)) {
+                result = export(filter, out);
+            }
+            Path target = uniqueTarget(name);
+            Files.move(partial, target, StandardCopyOption.ATOMIC_MOVE);
+            logger.info("Exported {} transactions to {} ({} bytes) in {} ms", result.rows(), target, result.bytes(),
+                    result.elapsedMillis());
+            return new ExportResult(target.toString(), result.rows(), result.rowGroups(), result.bytes(),
+                    result.elapsedMillis());
+        } finally {
+            Files.deleteIfExists(partial);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        encoders.shutdownNow();
+    }
+
+    private int writeRowGroups(ExportFilter filter, ColumnarFileWriter writer) throws IOException {
+        Deque<Future<EncodedRowGroup>> pending = new ArrayDeque<>();
+        int rowGroups = 0;
+        try (Stream<Transaction> source = source(filter)) {
+            Iterator<Transaction> rows = source.iterator();
+            List<Transaction> batch = new ArrayList<>(rowGroupSize);
+            while (rows.hasNext()) {
+                batch.add(rows.next());
+                if (batch.size() == rowGroupSize) {
+                    if (pending.size() == parallelism) {
+                        writer.write(await(pending.removeFirst()));
+                    }
+                    List<Transaction> group = batch;
+                    pending.addLast(encoders.submit(() -> RowGroupCodec.encode(group)));
+                    rowGroups++;
+                    batch = new ArrayList<>(rowGroupSize);
+                }
+            }
+            if (!batch.isEmpty()) {
+                List<Transaction> group = batch;
+                pending.addLast(encoders.submit(() -> RowGroupCodec.encode(group)));
+                rowGroups++;
+            }
+            while (!pending.isEmpty()) {
+                writer.write(await(pending.removeFirst()));
+            }
+            return rowGroups;
+        } finally {
+            pending.forEach(future -> future.cancel(true));
+        }
+    }
+
+    private Stream<Transaction> source(ExportFilter filter) {
+        Stream<Transaction> rows = filter.hasTimeRange()
+                ? transactionRepository.streamByTimestampBetween(
+                        filter.from() != null ? filter.from() : LocalDateTime.MIN,
+                        filter.to() != null ? filter.to() : LocalDateTime.MAX)
+                : transactionRepository.stream();
+        return filter.statuses().isEmpty() ? rows : rows.filter(row -> filter.statuses().contains(row.getStatus()));
+    }
+
+    private Path uniqueTarget(String name) {
+        Path target = exportDirectory.resolve(name + ColumnarFileWriter.FILE_EXTENSION);
+        for (int i = 1; Files.exists(target); i++) {
+            target = exportDirectory.resolve(name + "-" + i + ColumnarFileWriter.FILE_EXTENSION);
+        }
+        return target;
+    }
+
+    private static EncodedRowGroup await(Future<EncodedRowGroup> future) throws IOException {
+        try {
+            return future.get();
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IOException("Encoding a row group failed", ex.getCause());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Export interrupted");
+        }
+    }
+
+    // The writer closes what it wraps, but callers own the response or file stream
+    private static final class NonClosingOutputStream extends FilterOutputStream {
+
+        private NonClosingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) throws IOException {
+            out.write(bytes, offset, length);
+        }
+
+        @Override
+        public void close() throws IOException {
+            flush();
+        }
+    }
+}
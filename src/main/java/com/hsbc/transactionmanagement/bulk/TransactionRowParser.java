@@ -0,0 +1,147 @@
+package com.hsbc.transactionmanagement.bulk;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.hsbc.transactionmanagement.exceptions.TransactionValidationException;
+import com.hsbc.transactionmanagement.model.TransactionCreateRequest;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Turns one line of an import file into a {@link TransactionCreateRequest}. Instances are
+ * immutable and shared by all import workers.
+ */
+abstract class TransactionRowParser {
+
+    static final List<String> CSV_COLUMNS = List.of("transactionId", "amount", "currency", "timestamp",
+            "description", "status", "senderAccountId", "receiverAccountId", "referenceNumber");
+
+    private static final List<String> OPTIONAL_CSV_COLUMNS = List.of("description", "referenceNumber");
+
+    /**
+     * @throws IllegalArgumentException if the line cannot be read as a transaction
+     */
+    abstract TransactionCreateRequest parse(String line);
+
+    static TransactionRowParser ndjson(ObjectReader reader) {
+        return new NdjsonParser(reader);
+    }
+
+    /**
+     * Builds a CSV parser from the header line. Columns may appear in any order; unknown
+     * columns are ignored.
+     */
+    static TransactionRowParser csv(String headerLine) {
+        List<String> header = splitCsv(headerLine);
+        int[] positions = new int[CSV_COLUMNS.size()];
+        for (int i = 0; i < positions.length; i++) {
+            String column = CSV_COLUMNS.get(i);
+            positions[i] = header.indexOf(column);
+            if (positions[i] < 0 && !OPTIONAL_CSV_COLUMNS.contains(column)) {
+                throw new TransactionValidationException(
+                        "Import header is missing required column: " + column,
+                        "INVALID_IMPORT_HEADER"
+                );
+            }
+        }
+        return new CsvParser(positions);
+    }
+
+    /**
+     * Splits a CSV line, honouring double-quoted fields and {@code ""} escapes. Quoted
+     * fields cannot span lines.
+     */
+    static List<String> splitCsv(String line) {
+        List<String> fields = new ArrayList<>(CSV_COLUMNS.size());
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString().trim());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("Unterminated quoted field");
+        }
+        fields.add(field.toString().trim());
+        return fields;
+    }
+
+    private static final class CsvParser extends TransactionRowParser {
+
+        private final int[] positions;
+
+        private CsvParser(int[] positions) {
+            this.positions = positions;
+        }
+
+        @Override
+        TransactionCreateRequest parse(String line) {
+            List<String> fields = splitCsv(line);
+            try {
+                return new TransactionCreateRequest(
+                        field(fields, 0),
+                        map(field(fields, 1), BigDecimal::new),
+                        field(fields, 2),
+                        map(field(fields, 3), LocalDateTime::parse),
+                        field(fields, 4),
+                        field(fields, 5),
+                        map(field(fields, 6), Long::valueOf),
+                        map(field(fields, 7), Long::valueOf),
+                        field(fields, 8));
+            } catch (RuntimeException ex) {
+                throw new IllegalArgumentException("Malformed value: " + ex.getMessage(), ex);
+            }
+        }
+
+        private String field(List<String> fields, int column) {
+            int position = positions[column];
+            if (position < 0 || position >= fields.size()) {
+                return null;
+            }
+            String value = fields.get(position);
+            return value.isEmpty() ? null : value;
+        }
+
+        private static <T> T map(String value, Function<String, T> converter) {
+            return value == null ? null : converter.apply(value);
+        }
+    }
+
+    private static final class NdjsonParser extends TransactionRowParser {
+
+        private final ObjectReader reader;
+
+        private NdjsonParser(ObjectReader reader) {
+            this.reader = reader;
+        }
+
+        @Override
+        TransactionCreateRequest parse(String line) {
+            try {
+                return reader.readValue(line);
+            } catch (JsonProcessingException ex) {
+                throw new IllegalArgumentException("Malformed JSON: " + ex.getOriginalMessage(), ex);
+            }
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.hsbc.transactionmanagement.capacity;
+
+import com.hsbc.transactionmanagement.repository.InMemoryTransactionRepository;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+
+/**
+ * Current footprint of the in-memory store against its limits, at {@code /actuator/capacity}.
+ */
+@Endpoint(id = "capacity")
+public class CapacityEndpoint {
+
+    private final CapacityGuard guard;
+    private final InMemoryTransactionRepository repository;
+
+    public CapacityEndpoint(CapacityGuard guard, InMemoryTransactionRepository repository) {
+        this.guard = guard;
+        this.repository = repository;
+    }
+
+    @ReadOperation
+    public CapacityReport capacity() {
+        long rows = repository.count();
+        long bytes = repository.estimatedBytes();
+        Runtime runtime = Runtime.getRuntime();
+        return new CapacityReport(guard.level(), rows, bytes, rows > 0 ? bytes / rows : 0,
+                repository.statusHistoryBytes(),
+                guard.getSoftLimitBytes(), guard.getHardLimitBytes(), (double) bytes / guard.getHardLimitBytes(),
+                guard.getRejectedWrites(), runtime.totalMemory() - runtime.freeMemory(), runtime.maxMemory());
+    }
+
+    /**
+     * @param rows               transactions held in the heap (archived ones are not counted)
+     * @param estimatedBytes     estimated heap held by those rows and their index entries
+     * @param statusHistoryBytes the part of it held by status histories
+     * @param utilization        estimated bytes as a fraction of the hard limit
+     * @param heapUsedBytes      everything on the heap right now, including garbage
+     */
+    public record CapacityReport(CapacityGuard.Level level, long rows, long estimatedBytes, long bytesPerRow,
+                                 long statusHistoryBytes, long softLimitBytes, long hardLimitBytes,
+                                 double utilization, long rejectedWrites, long heapUsedBytes, long heapMaxBytes) {}
+}
@@ -0,0 +1,125 @@
+package com.hsbc.transactionmanagement.capacity;
+
+import com.hsbc.transactionmanagement.exceptions.CapacityExceededException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Compares the store's estimated footprint with a soft and a hard limit.
+ * <p>
+ * Over the soft limit the guard reports {@link Level#SOFT_LIMIT} for alerting and asks for
+ * room through the relief action, at most once per relief interval. Over the hard limit it
+ * additionally rejects writes that add transactions; updates and deletes are always let
+ * through, since they are how an operator gets back under the limit.
+ */
+public class CapacityGuard {
+
+    private static final Logger logger = LoggerFactory.getLogger(CapacityGuard.class);
+
+    public enum Level { NORMAL, SOFT_LIMIT, HARD_LIMIT }
+
+    private final LongSupplier footprint;
+    private final long softLimitBytes;
+    private final long hardLimitBytes;
+    private final Runnable relief;
+    private final long reliefIntervalNanos;
+
+    private final AtomicReference<Level> lastLevel = new AtomicReference<>(Level.NORMAL);
+    private final AtomicLong lastReliefNanos;
+    private final LongAdder rejectedWrites = new LongAdder();
+
+    /**
+     * @param footprint estimated bytes currently held
+     * @param relief    action that frees memory, run when the soft limit is exceeded
+     */
+    public CapacityGuard(LongSupplier footprint, long softLimitBytes, long hardLimitBytes,
+                         Runnable relief, long reliefIntervalNanos) {
+        if (softLimitBytes <= 0 || softLimitBytes > hardLimitBytes) {
+            throw new IllegalArgumentException("Capacity limits must satisfy 0 < soft <= hard");
+        }
+        this.footprint = footprint;
+        this.softLimitBytes = softLimitBytes;
+        this.hardLimitBytes = hardLimitBytes;
+        this.relief = relief;
+        this.reliefIntervalNanos = reliefIntervalNanos;
+        this.lastReliefNanos = new AtomicLong(System.nanoTime() - reliefIntervalNanos);
+    }
+
+    /**
+     * Checks room for new transactions.
+     *
+     * @throws CapacityExceededException if the store is over its hard limit
+     */
+    public void checkWrite() {
+        long bytes = footprint.getAsLong();
+        if (evaluate(bytes) == Level.HARD_LIMIT) {
+            rejectedWrites.increment();
+            throw new CapacityExceededException(bytes, hardLimitBytes);
+        }
+    }
+
+    /**
+     * Like {@link #checkWrite()}, for callers that reject rows instead of failing.
+     *
+     * @return whether new transactions may be written
+     */
+    public boolean tryAdmitWrite() {
+        if (evaluate(footprint.getAsLong()) == Level.HARD_LIMIT) {
+            rejectedWrites.increment();
+            return false;
+        }
+        return true;
+    }
+
+    public Level level() {
+        return evaluate(footprint.getAsLong());
+    }
+
+    public long getEstimatedBytes() {
+        return footprint.getAsLong();
+    }
+
+    public long getSoftLimitBytes() {
+        return softLimitBytes;
+    }
+
+    public long getHardLimitBytes() {
+        return hardLimitBytes;
+    }
+
+    public long getRejectedWrites() {
+        return rejectedWrites.sum();
+    }
+
+    private Level evaluate(long bytes) {
+        Level level = bytes >= hardLimitBytes ? Level.HARD_LIMIT
+                : bytes >= softLimitBytes ? Level.SOFT_LIMIT
+                : Level.NORMAL;
+        Level previous = lastLevel.getAndSet(level);
+        if (previous != level) {
+            if (level.compareTo(previous) > 0) {
+                logger.warn("Transaction store reached {} at an estimated {} bytes (soft {}, hard {})",
+                        level, bytes, softLimitBytes, hardLimitBytes);
+            } else {
+                logger.info("Transaction store back to {} at an estimated {} bytes", level, bytes);
+            }
+        }
+        if (level != Level.NORMAL) {
+            requestRelief();
+        }
+        return level;
+    }
+
+    private void requestRelief() {
+        long now = System.nanoTime();
+        long last = lastReliefNanos.get();
+        if (now - last >= reliefIntervalNanos && lastReliefNanos.compareAndSet(last, now)) {
+            relief.run();
+        }
+    }
+}
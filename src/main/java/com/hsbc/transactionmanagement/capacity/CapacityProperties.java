@@ -0,0 +1,32 @@
+package com.hsbc.transactionmanagement.capacity;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+/**
+ * Limits on the estimated footprint of the in-memory store. Explicit sizes win; otherwise
+ * each limit is a fraction of the maximum heap, leaving room for caches, snapshots and
+ * request processing.
+ *
+ * @param reliefInterval how often, at most, to ask the archiver for room while over the soft limit
+ */
+@ConfigurationProperties(prefix = "transaction.capacity")
+public record CapacityProperties(
+        DataSize softLimit,
+        DataSize hardLimit,
+        @DefaultValue("0.5") double softLimitHeapRatio,
+        @DefaultValue("0.7") double hardLimitHeapRatio,
+        @DefaultValue("PT30S") Duration reliefInterval
+) {
+
+    public long softLimitBytes(long maxHeapBytes) {
+        return softLimit != null ? softLimit.toBytes() : (long) (maxHeapBytes * softLimitHeapRatio);
+    }
+
+    public long hardLimitBytes(long maxHeapBytes) {
+        return hardLimit != null ? hardLimit.toBytes() : (long) (maxHeapBytes * hardLimitHeapRatio);
+    }
+}
@@ -0,0 +1,70 @@
+package com.hsbc.transactionmanagement.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hsbc.transactionmanagement.admission.AdaptiveConcurrencyLimiter;
+import com.hsbc.transactionmanagement.admission.AdmissionControlFilter;
+import com.hsbc.transactionmanagement.admission.AdmissionControlProperties;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import java.io.IOException;
+import java.util.List;
+
+@Configuration
+@EnableConfigurationProperties(AdmissionControlProperties.class)
+@ConditionalOnProperty(name = "transaction.admission.enabled", havingValue = "true", matchIfMissing = true)
+public class AdmissionControlConfig {
+
+    @Bean
+    public AdaptiveConcurrencyLimiter readLimiter(AdmissionControlProperties properties) {
+        return limiter("read", properties.read(), properties);
+    }
+
+    @Bean
+    public AdaptiveConcurrencyLimiter writeLimiter(AdmissionControlProperties properties) {
+        return limiter("write", properties.write(), properties);
+    }
+
+    @Bean
+    public FilterRegistrationBean<AdmissionControlFilter> admissionControlFilter(
+            AdaptiveConcurrencyLimiter readLimiter, AdaptiveConcurrencyLimiter writeLimiter,
+            AdmissionControlProperties properties, ObjectMapper objectMapper) throws IOException {
+        FilterRegistrationBean<AdmissionControlFilter> registration = new FilterRegistrationBean<>(
+                new AdmissionControlFilter(readLimiter, writeLimiter, properties.retryAfter(), objectMapper));
+        registration.addUrlPatterns("/api/transactions", "/api/transactions/*", "/api/accounts/*");
+        // Shed load before any other filter spends time on the request
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 10);
+        return registration;
+    }
+
+    @Bean
+    public MeterBinder admissionControlMetrics(List<AdaptiveConcurrencyLimiter> limiters) {
+        return registry -> limiters.forEach(limiter -> {
+            Gauge.builder("admission.limit", limiter, AdaptiveConcurrencyLimiter::getLimit)
+                    .tag("type", limiter.getName())
+                    .description("Current adaptive concurrency limit")
+                    .register(registry);
+            Gauge.builder("admission.in.flight", limiter, AdaptiveConcurrencyLimiter::getInFlight)
+                    .tag("type", limiter.getName())
+                    .description("Requests currently admitted")
+                    .register(registry);
+            FunctionCounter.builder("admission.rejected", limiter, AdaptiveConcurrencyLimiter::getRejectedCount)
+                    .tag("type", limiter.getName())
+                    .description("Requests rejected because the concurrency limit was reached")
+                    .register(registry);
+        });
+    }
+
+    private static AdaptiveConcurrencyLimiter limiter(String name, AdmissionControlProperties.Limit limit,
+                                                      AdmissionControlProperties properties) {
+        return new AdaptiveConcurrencyLimiter(name, limit.initialLimit(), limit.minLimit(), limit.maxLimit(),
+                properties.targetLatency().toNanos(), properties.window().toNanos(), properties.backoffRatio());
+    }
+}
@@ -0,0 +1,26 @@
+package com.hsbc.transactionmanagement.config;
+
+import com.hsbc.transactionmanagement.model.TransactionResponse;
+import org.springframework.http.MediaType;
+
+/**
+ * Binary media types the transaction API can negotiate besides JSON. The versioned
+ * vendor types pin {@link TransactionResponse#SCHEMA_VERSION}; the generic types always
+ * carry the current schema.
+ */
+public final class ApiMediaTypes {
+
+    public static final String APPLICATION_CBOR_VALUE = "application/cbor";
+    public static final String APPLICATION_SMILE_VALUE = "application/x-jackson-smile";
+
+    public static final MediaType APPLICATION_CBOR = MediaType.parseMediaType(APPLICATION_CBOR_VALUE);
+    public static final MediaType APPLICATION_SMILE = MediaType.parseMediaType(APPLICATION_SMILE_VALUE);
+
+    public static final MediaType TRANSACTION_CBOR = MediaType.parseMediaType(
+            "application/vnd.hsbc.transaction.v" + TransactionResponse.SCHEMA_VERSION + "+cbor");
+    public static final MediaType TRANSACTION_SMILE = MediaType.parseMediaType(
+            "application/vnd.hsbc.transaction.v" + TransactionResponse.SCHEMA_VERSION + "+smile");
+
+    private ApiMediaTypes() {
+    }
+}
@@ -0,0 +1,68 @@
+package com.hsbc.transactionmanagement.config;
+
+import com.hsbc.transactionmanagement.capacity.CapacityEndpoint;
+import com.hsbc.transactionmanagement.capacity.CapacityGuard;
+import com.hsbc.transactionmanagement.capacity.CapacityProperties;
+import com.hsbc.transactionmanagement.repository.InMemoryTransactionRepository;
+import com.hsbc.transactionmanagement.repository.TransactionArchiver;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.BaseUnits;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.actuate.autoconfigure.endpoint.condition.ConditionalOnAvailableEndpoint;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(CapacityProperties.class)
+public class CapacityConfig {
+
+    @Bean
+    public CapacityGuard capacityGuard(InMemoryTransactionRepository repository, CapacityProperties properties,
+                                       ObjectProvider<TransactionArchiver> archiver) {
+        long maxHeap = Runtime.getRuntime().maxMemory();
+        // Without tiering there is nothing to move out of the heap; the guard then only alerts and rejects
+        Runnable relief = () -> archiver.ifAvailable(TransactionArchiver::archiveSettledSoon);
+        return new CapacityGuard(repository::estimatedBytes, properties.softLimitBytes(maxHeap),
+                properties.hardLimitBytes(maxHeap), relief, properties.reliefInterval().toNanos());
+    }
+
+    @Bean
+    @ConditionalOnAvailableEndpoint
+    public CapacityEndpoint capacityEndpoint(CapacityGuard guard, InMemoryTransactionRepository repository) {
+        return new CapacityEndpoint(guard, repository);
+    }
+
+    @Bean
+    public MeterBinder capacityMetrics(CapacityGuard guard, InMemoryTransactionRepository repository) {
+        return registry -> {
+            Gauge.builder("transaction.capacity.estimated", guard, CapacityGuard::getEstimatedBytes)
+                    .baseUnit(BaseUnits.BYTES)
+                    .description("Estimated heap held by stored transactions and their indexes")
+                    .register(registry);
+            Gauge.builder("transaction.capacity.status.history", repository,
+                            InMemoryTransactionRepository::statusHistoryBytes)
+                    .baseUnit(BaseUnits.BYTES)
+                    .description("Part of the estimated heap held by status histories")
+                    .register(registry);
+            Gauge.builder("transaction.capacity.limit", guard, CapacityGuard::getSoftLimitBytes)
+                    .tag("type", "soft")
+                    .baseUnit(BaseUnits.BYTES)
+                    .description("Capacity limit of the transaction store")
+                    .register(registry);
+            Gauge.builder("transaction.capacity.limit", guard, CapacityGuard::getHardLimitBytes)
+                    .tag("type", "hard")
+                    .baseUnit(BaseUnits.BYTES)
+                    .description("Capacity limit of the transaction store")
+                    .register(registry);
+            Gauge.builder("transaction.capacity.level", guard, g -> g.level().ordinal())
+                    .description("0 below the soft limit, 1 over the soft limit, 2 over the hard limit")
+                    .register(registry);
+            FunctionCounter.builder("transaction.capacity.rejected", guard, CapacityGuard::getRejectedWrites)
+                    .description("Writes rejected because the store was over its hard limit")
+                    .register(registry);
+        };
+    }
+}
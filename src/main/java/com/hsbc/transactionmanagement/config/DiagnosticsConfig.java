@@ -0,0 +1,19 @@
+package com.hsbc.transactionmanagement.config;
+
+import com.hsbc.transactionmanagement.diagnostics.FlightRecorderEndpoint;
+import com.hsbc.transactionmanagement.diagnostics.FlightRecordingProperties;
+import org.springframework.boot.actuate.autoconfigure.endpoint.condition.ConditionalOnAvailableEndpoint;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(FlightRecordingProperties.class)
+public class DiagnosticsConfig {
+
+    @Bean
+    @ConditionalOnAvailableEndpoint
+    public FlightRecorderEndpoint flightRecorderEndpoint(FlightRecordingProperties properties) {
+        return new FlightRecorderEndpoint(properties);
+    }
+}
@@ -0,0 +1,49 @@
+package com.hsbc.transactionmanagement.config;
+
+import com.hsbc.transactionmanagement.event.TransactionEventPublisher;
+import com.hsbc.transactionmanagement.expiry.ExpiryProperties;
+import com.hsbc.transactionmanagement.expiry.PendingExpiryScheduler;
+import com.hsbc.transactionmanagement.repository.TransactionRepository;
+import com.hsbc.transactionmanagement.service.TransactionService;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Pending expiry runs where writes are applied: on a follower the leader's expiries arrive
+ * through replication.
+ */
+@Configuration
+@EnableConfigurationProperties(ExpiryProperties.class)
+@ConditionalOnExpression("${transaction.expiry.enabled:false} and '${transaction.replication.role:none}' != 'follower'")
+public class ExpiryConfig {
+
+    /**
+     * Expires through the node's own service: with partitioning each node expires the
+     * transactions it owns.
+     */
+    @Bean
+    public PendingExpiryScheduler pendingExpiryScheduler(@Qualifier("transactionServiceImpl") TransactionService service,
+                                                         TransactionRepository repository,
+                                                         TransactionEventPublisher publisher,
+                                                         ExpiryProperties properties) {
+        return new PendingExpiryScheduler(service, repository, publisher, properties);
+    }
+
+    @Bean
+    public MeterBinder expiryMetrics(PendingExpiryScheduler scheduler) {
+        return registry -> {
+            Gauge.builder("expiry.pending", scheduler, PendingExpiryScheduler::pendingCount)
+                    .description("Pending transactions with a running expiry timer")
+                    .register(registry);
+            FunctionCounter.builder("expiry.expired", scheduler, PendingExpiryScheduler::expiredCount)
+                    .description("Pending transactions moved to FAILED after the timeout")
+                    .register(registry);
+        };
+    }
+}
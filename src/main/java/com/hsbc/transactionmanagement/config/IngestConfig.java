@@ -0,0 +1,47 @@
+package com.hsbc.transactionmanagement.config;
+
+import com.hsbc.transactionmanagement.capacity.CapacityGuard;
+import com.hsbc.transactionmanagement.event.TransactionEventPublisher;
+import com.hsbc.transactionmanagement.ingest.AsyncTransactionWriter;
+import com.hsbc.transactionmanagement.ingest.IngestProperties;
+import com.hsbc.transactionmanagement.repository.TransactionRepository;
+import com.hsbc.transactionmanagement.service.TransactionService;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(IngestProperties.class)
+public class IngestConfig {
+
+    @Bean
+    public AsyncTransactionWriter asyncTransactionWriter(TransactionRepository repository,
+                                                         TransactionService transactionService,
+                                                         TransactionEventPublisher eventPublisher,
+                                                         CapacityGuard capacityGuard,
+                                                         IngestProperties properties) {
+        return new AsyncTransactionWriter(repository, transactionService::insertAll, eventPublisher, capacityGuard,
+                properties);
+    }
+
+    @Bean
+    public MeterBinder ingestMetrics(AsyncTransactionWriter writer) {
+        return registry -> {
+            Gauge.builder("ingest.queued", writer, AsyncTransactionWriter::queued)
+                    .description("Asynchronous creates accepted and not yet written")
+                    .register(registry);
+            Gauge.builder("ingest.capacity", writer, AsyncTransactionWriter::capacity)
+                    .description("Asynchronous creates that may wait for the writer")
+                    .register(registry);
+            FunctionCounter.builder("ingest.written", writer, AsyncTransactionWriter::writtenCount)
+                    .description("Asynchronous creates written")
+                    .register(registry);
+            FunctionCounter.builder("ingest.rejected", writer, AsyncTransactionWriter::rejectedCount)
+                    .description("Asynchronous creates accepted but not written")
+                    .register(registry);
+        };
+    }
+}
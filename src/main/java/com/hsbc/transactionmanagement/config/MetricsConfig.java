@@ -0,0 +1,49 @@
+package com.hsbc.transactionmanagement.config;
+
+import com.hsbc.transactionmanagement.repository.InMemoryTransactionRepository;
+import com.hsbc.transactionmanagement.repository.LsmTransactionRepository;
+import com.hsbc.transactionmanagement.repository.MeteredTransactionRepository;
+import com.hsbc.transactionmanagement.repository.TieredTransactionRepository;
+import com.hsbc.transactionmanagement.repository.TransactionRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+@Configuration
+public class MetricsConfig {
+
+    /**
+     * The repository the rest of the application sees: the disk-resident store with
+     * {@code transaction.repository.engine=lsm}, else the tiered store when tiering is
+     * enabled, else the in-memory one, timed in every case. Tiering, replication and
+     * partitioning all work on the in-memory store, so none of them can be combined with
+     * the disk-resident one.
+     */
+    @Bean
+    @Primary
+    public MeteredTransactionRepository meteredTransactionRepository(
+            InMemoryTransactionRepository inMemoryRepository,
+            ObjectProvider<TieredTransactionRepository> tieredRepository,
+            ObjectProvider<LsmTransactionRepository> lsmRepository,
+            MeterRegistry meterRegistry,
+            @Value("${transaction.replication.role:none}") String replicationRole,
+            @Value("${transaction.partition.enabled:false}") boolean partitioningEnabled) {
+        TransactionRepository delegate = lsmRepository.getIfAvailable();
+        if (delegate != null && tieredRepository.getIfAvailable() != null) {
+            throw new IllegalStateException("transaction.tiering.enabled needs transaction.repository.engine=memory");
+        }
+        if (delegate != null && !"none".equals(replicationRole)) {
+            throw new IllegalStateException("transaction.replication.role needs transaction.repository.engine=memory");
+        }
+        if (delegate != null && partitioningEnabled) {
+            throw new IllegalStateException("transaction.partition.enabled needs transaction.repository.engine=memory");
+        }
+        if (delegate == null) {
+            delegate = tieredRepository.getIfAvailable();
+        }
+        return new MeteredTransactionRepository(delegate != null ? delegate : inMemoryRepository, meterRegistry);
+    }
+}
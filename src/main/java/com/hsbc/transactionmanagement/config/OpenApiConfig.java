@@ -4,12 +4,19 @@ import io.swagger.v3.oas.models.OpenAPI;
 import io.swagger.v3.oas.models.info.Contact;
 import io.swagger.v3.oas.models.info.Info;
 import io.swagger.v3.oas.models.info.License;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.BeanFactoryPostProcessor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
 
+// API docs are only needed once someone opens them, so they stay out of the startup path
 @Configuration
+@Lazy
 public class OpenApiConfig {
 
+    private static final String SPRINGDOC_PACKAGE = "org.springdoc.";
+
     @Bean
     public OpenAPI transactionManagementOpenAPI() {
         return new OpenAPI()
@@ -24,4 +31,29 @@ public class OpenApiConfig {
                                 .name("API License")
                                 .url("http://www.example.com/licenses")));
     }
-}
\ No newline at end of file
+
+    /**
+     * Makes springdoc's own beans lazy as well. Its doc and Swagger UI controllers are mapped by
+     * type at startup but only instantiated, together with the model scanning behind them, on
+     * the first request for the docs.
+     */
+    @Bean
+    @Lazy(false)
+    public static BeanFactoryPostProcessor lazySpringdocBeans() {
+        return beanFactory -> {
+            for (String name : beanFactory.getBeanDefinitionNames()) {
+                BeanDefinition definition = beanFactory.getBeanDefinition(name);
+                if (isSpringdocBean(definition) && !definition.isLazyInit()
+                        && definition.getRole() == BeanDefinition.ROLE_APPLICATION) {
+                    definition.setLazyInit(true);
+                }
+            }
+        };
+    }
+
+    private static boolean isSpringdocBean(BeanDefinition definition) {
+        String type = definition.getFactoryBeanName() != null
+                ? definition.getFactoryBeanName() : definition.getBeanClassName();
+        return type != null && type.startsWith(SPRINGDOC_PACKAGE);
+    }
+}
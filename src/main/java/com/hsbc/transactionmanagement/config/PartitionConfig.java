@@ -0,0 +1,108 @@
+package com.hsbc.transactionmanagement.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hsbc.transactionmanagement.partition.PartitionClient;
+import com.hsbc.transactionmanagement.partition.PartitionEndpoint;
+import com.hsbc.transactionmanagement.partition.PartitionMembership;
+import com.hsbc.transactionmanagement.partition.PartitionProperties;
+import com.hsbc.transactionmanagement.partition.PartitionRebalancer;
+import com.hsbc.transactionmanagement.partition.PartitionRoutingFilter;
+import com.hsbc.transactionmanagement.partition.PartitionedTransactionService;
+import com.hsbc.transactionmanagement.repository.InMemoryTransactionRepository;
+import com.hsbc.transactionmanagement.service.TransactionService;
+import com.hsbc.transactionmanagement.web.RequestForwarder;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.actuate.autoconfigure.endpoint.condition.ConditionalOnAvailableEndpoint;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.Ordered;
+
+import java.net.http.HttpClient;
+
+@Configuration
+@EnableConfigurationProperties(PartitionProperties.class)
+@ConditionalOnProperty(name = "transaction.partition.enabled", havingValue = "true")
+public class PartitionConfig {
+
+    @Bean
+    public PartitionMembership partitionMembership(PartitionProperties properties) {
+        return new PartitionMembership(properties.nodeId(), properties.members(), properties.virtualNodes());
+    }
+
+    @Bean
+    public HttpClient partitionHttpClient(PartitionProperties properties) {
+        return HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(properties.requestTimeout())
+                .build();
+    }
+
+    @Bean
+    public PartitionClient partitionClient(@Qualifier("partitionHttpClient") HttpClient httpClient,
+                                           ObjectMapper objectMapper, PartitionProperties properties) {
+        return new PartitionClient(httpClient, objectMapper, properties.requestTimeout());
+    }
+
+    /**
+     * Controllers and everything else asking for a {@link TransactionService} get the whole
+     * cluster's view; the node's own share stays reachable as {@code transactionServiceImpl}.
+     */
+    @Bean
+    @Primary
+    public PartitionedTransactionService partitionedTransactionService(
+            @Qualifier("transactionServiceImpl") TransactionService local, PartitionMembership membership,
+            PartitionClient client) {
+        return new PartitionedTransactionService(local, membership, client);
+    }
+
+    @Bean
+    public FilterRegistrationBean<PartitionRoutingFilter> partitionRoutingFilter(
+            PartitionMembership membership, @Qualifier("partitionHttpClient") HttpClient httpClient,
+            ObjectMapper objectMapper, PartitionProperties properties) {
+        FilterRegistrationBean<PartitionRoutingFilter> registration = new FilterRegistrationBean<>(
+                new PartitionRoutingFilter(membership, properties.routing(),
+                        new RequestForwarder(httpClient, properties.requestTimeout()), objectMapper));
+        registration.addUrlPatterns("/api/transactions/*");
+        // Ahead of admission control: relayed requests are limited by the owner's own
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 5);
+        return registration;
+    }
+
+    @Bean(destroyMethod = "close")
+    public PartitionRebalancer partitionRebalancer(PartitionMembership membership,
+                                                   InMemoryTransactionRepository store, PartitionClient client,
+                                                   CacheManager cacheManager, PartitionProperties properties) {
+        return new PartitionRebalancer(membership, store, client, cacheManager.getCache("transactions"),
+                properties.handoffBatchSize());
+    }
+
+    @Bean
+    @ConditionalOnAvailableEndpoint
+    public PartitionEndpoint partitionEndpoint(PartitionMembership membership, PartitionRebalancer rebalancer,
+                                               InMemoryTransactionRepository store) {
+        return new PartitionEndpoint(membership, rebalancer, store);
+    }
+
+    @Bean
+    public MeterBinder partitionMetrics(PartitionMembership membership, PartitionRebalancer rebalancer) {
+        return registry -> {
+            Gauge.builder("partition.members", membership, m -> m.view().ring().nodes().size())
+                    .description("Nodes on the partition hash ring")
+                    .register(registry);
+            Gauge.builder("partition.epoch", membership, m -> m.view().epoch())
+                    .description("Membership changes this node has seen")
+                    .register(registry);
+            FunctionCounter.builder("partition.rebalance.moved", rebalancer, r -> r.status().moved())
+                    .description("Transactions handed to their new owner after membership changes")
+                    .register(registry);
+        };
+    }
+}
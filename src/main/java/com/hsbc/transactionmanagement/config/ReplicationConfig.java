@@ -0,0 +1,126 @@
+package com.hsbc.transactionmanagement.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hsbc.transactionmanagement.replication.FollowerRequestFilter;
+import com.hsbc.transactionmanagement.replication.ReplicationClient;
+import com.hsbc.transactionmanagement.replication.ReplicationLog;
+import com.hsbc.transactionmanagement.replication.ReplicationProperties;
+import com.hsbc.transactionmanagement.replication.ReplicationServer;
+import com.hsbc.transactionmanagement.repository.InMemoryTransactionRepository;
+import com.hsbc.transactionmanagement.repository.TransactionRepository;
+import com.hsbc.transactionmanagement.web.RequestForwarder;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.util.concurrent.TimeUnit;
+
+@Configuration
+@EnableConfigurationProperties(ReplicationProperties.class)
+public class ReplicationConfig {
+
+    @Configuration
+    @ConditionalOnProperty(name = "transaction.replication.role", havingValue = "leader")
+    static class Leader {
+
+        @Bean
+        public ReplicationLog replicationLog(InMemoryTransactionRepository store, ReplicationProperties properties) {
+            ReplicationLog log = new ReplicationLog(properties.logCapacity());
+            store.setMutationListener(log);
+            return log;
+        }
+
+        @Bean
+        public ReplicationServer replicationServer(ReplicationLog log, TransactionRepository repository,
+                                                   ReplicationProperties properties) throws IOException {
+            ReplicationServer server = new ReplicationServer(log, repository, properties.port(),
+                    properties.heartbeatInterval());
+            server.start();
+            return server;
+        }
+
+        @Bean
+        public MeterBinder replicationLeaderMetrics(ReplicationLog log, ReplicationServer server) {
+            return registry -> {
+                FunctionCounter.builder("replication.log.mutations", log, l -> l.headSequence() - 1)
+                        .description("Mutations appended to the replication log")
+                        .register(registry);
+                Gauge.builder("replication.followers", server, ReplicationServer::getFollowerCount)
+                        .description("Followers connected to this leader")
+                        .register(registry);
+                FunctionCounter.builder("replication.snapshots.sent", server, ReplicationServer::getSnapshotsSent)
+                        .description("Full copies of the store sent to followers")
+                        .register(registry);
+            };
+        }
+    }
+
+    @Configuration
+    @ConditionalOnProperty(name = "transaction.replication.role", havingValue = "follower")
+    static class Follower {
+
+        @Bean
+        public ReplicationClient replicationClient(TransactionRepository repository, CacheManager cacheManager,
+                                                   ReplicationProperties properties) {
+            Cache cache = cacheManager.getCache("transactions");
+            ReplicationClient client = new ReplicationClient(repository, properties.leaderHost(),
+                    properties.leaderPort(), properties.heartbeatInterval(), properties.reconnectDelay(),
+                    id -> {
+                        if (cache != null) {
+                            cache.evict(id);
+                        }
+                    });
+            client.start();
+            return client;
+        }
+
+        @Bean
+        public FilterRegistrationBean<FollowerRequestFilter> followerRequestFilter(
+                ReplicationClient client, ReplicationProperties properties, ObjectMapper objectMapper)
+                throws IOException {
+            if (properties.leaderUrl() == null) {
+                throw new IllegalStateException("transaction.replication.leader-url is required on a follower");
+            }
+            HttpClient httpClient = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .connectTimeout(properties.forwardTimeout())
+                    .build();
+            FilterRegistrationBean<FollowerRequestFilter> registration = new FilterRegistrationBean<>(
+                    new FollowerRequestFilter(client, properties.leaderUrl(),
+                            new RequestForwarder(httpClient, properties.forwardTimeout()), objectMapper));
+            registration.addUrlPatterns("/api/*");
+            // Ahead of admission control: forwarded writes are limited by the leader's own
+            registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 5);
+            return registration;
+        }
+
+        @Bean
+        public MeterBinder replicationFollowerMetrics(ReplicationClient client) {
+            return registry -> {
+                TimeGauge.builder("replication.lag", client, TimeUnit.MILLISECONDS, ReplicationClient::getLagMillis)
+                        .description("Time since this replica last held everything the leader had")
+                        .register(registry);
+                Gauge.builder("replication.lag.entries", client, ReplicationClient::getLagEntries)
+                        .description("Leader mutations not yet applied by this replica")
+                        .register(registry);
+                Gauge.builder("replication.connected", client, c -> c.isConnected() ? 1 : 0)
+                        .description("1 while the replication stream from the leader is up")
+                        .register(registry);
+                FunctionCounter.builder("replication.resyncs", client, ReplicationClient::getResyncs)
+                        .description("Full copies of the store received from the leader")
+                        .register(registry);
+            };
+        }
+    }
+}
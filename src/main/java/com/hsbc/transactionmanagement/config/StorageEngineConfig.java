@@ -0,0 +1,72 @@
+package com.hsbc.transactionmanagement.config;
+
+import com.hsbc.transactionmanagement.repository.LsmProperties;
+import com.hsbc.transactionmanagement.repository.LsmTransactionRepository;
+import com.hsbc.transactionmanagement.storage.lsm.LsmStore;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.BaseUnits;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.IOException;
+import java.time.Duration;
+
+/**
+ * Replaces the heap store with the disk-resident one when
+ * {@code transaction.repository.engine=lsm}.
+ */
+@Configuration
+@EnableConfigurationProperties(LsmProperties.class)
+@ConditionalOnProperty(name = "transaction.repository.engine", havingValue = "lsm")
+public class StorageEngineConfig {
+
+    @Bean
+    public LsmTransactionRepository lsmTransactionRepository(
+            LsmProperties properties,
+            @Value("${transaction.repository.partition-width:PT1H}") Duration partitionWidth) throws IOException {
+        return new LsmTransactionRepository(properties, partitionWidth);
+    }
+
+    @Bean
+    public MeterBinder lsmMetrics(LsmTransactionRepository repository) {
+        LsmStore store = repository.store();
+        return registry -> {
+            Gauge.builder("lsm.tables", store, LsmStore::tableCount)
+                    .description("Sorted tables on disk")
+                    .register(registry);
+            Gauge.builder("lsm.table.bytes", store, LsmStore::tableBytes)
+                    .baseUnit(BaseUnits.BYTES)
+                    .description("Size of the sorted tables on disk")
+                    .register(registry);
+            Gauge.builder("lsm.memtable.bytes", store, LsmStore::memtableBytes)
+                    .baseUnit(BaseUnits.BYTES)
+                    .description("Writes buffered in memory, not yet in a table")
+                    .register(registry);
+            Gauge.builder("lsm.snapshots.pinned", store, LsmStore::pinnedSnapshots)
+                    .description("Open snapshots holding back compaction")
+                    .register(registry);
+            FunctionCounter.builder("lsm.block.cache.gets", store, LsmStore::blockCacheHits)
+                    .tag("result", "hit")
+                    .description("Block cache lookups of point reads")
+                    .register(registry);
+            FunctionCounter.builder("lsm.block.cache.gets", store, LsmStore::blockCacheMisses)
+                    .tag("result", "miss")
+                    .description("Block cache lookups of point reads")
+                    .register(registry);
+            FunctionCounter.builder("lsm.bloom.negatives", store, LsmStore::bloomNegatives)
+                    .description("Table reads skipped because the bloom filter ruled the key out")
+                    .register(registry);
+            FunctionCounter.builder("lsm.flushes", store, LsmStore::flushCount)
+                    .description("Memtables written to a table")
+                    .register(registry);
+            FunctionCounter.builder("lsm.compactions", store, LsmStore::compactionCount)
+                    .description("Table merges")
+                    .register(registry);
+        };
+    }
+}
@@ -0,0 +1,51 @@
+package com.hsbc.transactionmanagement.config;
+
+import com.hsbc.transactionmanagement.repository.InMemoryTransactionRepository;
+import com.hsbc.transactionmanagement.repository.TieredTransactionRepository;
+import com.hsbc.transactionmanagement.repository.TieringProperties;
+import com.hsbc.transactionmanagement.repository.TransactionArchiver;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.IOException;
+
+@Configuration
+@EnableConfigurationProperties(TieringProperties.class)
+@ConditionalOnProperty(name = "transaction.tiering.enabled", havingValue = "true")
+public class TieringConfig {
+
+    @Bean
+    public TieredTransactionRepository tieredTransactionRepository(InMemoryTransactionRepository hot,
+                                                                   TieringProperties properties) throws IOException {
+        return new TieredTransactionRepository(hot, properties);
+    }
+
+    @Bean
+    public TransactionArchiver transactionArchiver(TieredTransactionRepository repository,
+                                                   TieringProperties properties) {
+        return new TransactionArchiver(repository, properties);
+    }
+
+    @Bean
+    public MeterBinder tieringMetrics(TieredTransactionRepository repository) {
+        return registry -> {
+            Gauge.builder("tiering.segments", repository, TieredTransactionRepository::segmentCount)
+                    .description("Cold segments on disk")
+                    .register(registry);
+            Gauge.builder("tiering.cold.rows", repository, TieredTransactionRepository::coldCount)
+                    .description("Transactions held in cold segments")
+                    .register(registry);
+            Gauge.builder("tiering.cold.bytes", repository, TieredTransactionRepository::segmentBytes)
+                    .baseUnit("bytes")
+                    .description("Size of the cold segments on disk")
+                    .register(registry);
+            Gauge.builder("tiering.hot.rows", repository, TieredTransactionRepository::hotCount)
+                    .description("Transactions held in the heap")
+                    .register(registry);
+        };
+    }
+}
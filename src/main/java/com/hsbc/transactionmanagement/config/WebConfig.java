@@ -0,0 +1,66 @@
+package com.hsbc.transactionmanagement.config;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.hsbc.transactionmanagement.controller.PreferCondition;
+import com.hsbc.transactionmanagement.controller.Preferred;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.web.servlet.WebMvcRegistrations;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import org.springframework.web.servlet.mvc.condition.RequestCondition;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
+
+import java.lang.reflect.Method;
+import java.util.List;
+
+@Configuration
+public class WebConfig implements WebMvcConfigurer {
+
+    private final Jackson2ObjectMapperBuilder objectMapperBuilder;
+
+    @Autowired
+    public WebConfig(Jackson2ObjectMapperBuilder objectMapperBuilder) {
+        this.objectMapperBuilder = objectMapperBuilder;
+    }
+
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        // Appended after the JSON converter so JSON stays the default for Accept: */*
+        MappingJackson2CborHttpMessageConverter cbor = new MappingJackson2CborHttpMessageConverter(
+                objectMapperBuilder.factory(new CBORFactory()).build());
+        cbor.setSupportedMediaTypes(List.of(ApiMediaTypes.APPLICATION_CBOR, ApiMediaTypes.TRANSACTION_CBOR));
+
+        MappingJackson2SmileHttpMessageConverter smile = new MappingJackson2SmileHttpMessageConverter(
+                objectMapperBuilder.factory(new SmileFactory()).build());
+        smile.setSupportedMediaTypes(List.of(ApiMediaTypes.APPLICATION_SMILE, ApiMediaTypes.TRANSACTION_SMILE));
+
+        converters.add(cbor);
+        converters.add(smile);
+    }
+
+    /**
+     * Lets handler methods be mapped by a {@code Prefer} preference, see {@link Preferred}.
+     */
+    @Bean
+    public WebMvcRegistrations preferenceMappings() {
+        return new WebMvcRegistrations() {
+            @Override
+            public RequestMappingHandlerMapping getRequestMappingHandlerMapping() {
+                return new RequestMappingHandlerMapping() {
+                    @Override
+                    protected RequestCondition<?> getCustomMethodCondition(Method method) {
+                        Preferred preferred = AnnotatedElementUtils.findMergedAnnotation(method, Preferred.class);
+                        return preferred != null ? new PreferCondition(preferred.value()) : null;
+                    }
+                };
+            }
+        };
+    }
+}
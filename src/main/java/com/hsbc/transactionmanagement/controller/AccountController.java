@@ -0,0 +1,53 @@
+package com.hsbc.transactionmanagement.controller;
+
+import com.hsbc.transactionmanagement.model.AccountLedgerResponse;
+import com.hsbc.transactionmanagement.model.LedgerPage;
+import com.hsbc.transactionmanagement.service.TransactionService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/accounts")
+@Tag(name = "Account Ledger", description = "Transactions seen from one account")
+public class AccountController {
+
+    private static final Logger logger = LoggerFactory.getLogger(AccountController.class);
+
+    private final TransactionService transactionService;
+
+    @Autowired
+    public AccountController(TransactionService transactionService) {
+        this.transactionService = transactionService;
+    }
+
+    @Operation(summary = "Get an account's ledger",
+               description = "Transactions the account sent or received, newest first, each with the account's " +
+                       "running balance over completed transactions. Pass the returned nextCursor to read the " +
+                       "next, older page; new transactions never shift later pages")
+    @ApiResponse(responseCode = "200", description = "Ledger page retrieved successfully")
+    @ApiResponse(responseCode = "422", description = "Invalid cursor")
+    @GetMapping("/{id}/transactions")
+    public ResponseEntity<AccountLedgerResponse> getLedger(
+            @PathVariable long id,
+            @Parameter(description = "nextCursor of the previous page")
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") @Min(1) @Max(100) int size) {
+        logger.info("Fetching ledger of account {} - cursor: {}, size: {}", id, cursor, size);
+        LedgerPage page = this.transactionService.getAccountLedger(id, cursor, size);
+        logger.info("Retrieved {} ledger entries of account {}", page.entries().size(), id);
+        return ResponseEntity.ok(AccountLedgerResponse.fromPage(page));
+    }
+}
@@ -0,0 +1,99 @@
+package com.hsbc.transactionmanagement.controller;
+
+import com.hsbc.transactionmanagement.exceptions.TransactionNotFoundException;
+import com.hsbc.transactionmanagement.idempotency.IdempotencyStore;
+import com.hsbc.transactionmanagement.ingest.AsyncTransactionWriter;
+import com.hsbc.transactionmanagement.ingest.IngestOutcome;
+import com.hsbc.transactionmanagement.model.TransactionCreateRequest;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.net.URI;
+
+@RestController
+@RequestMapping("/api/transactions")
+@Tag(name = "Asynchronous Ingest", description = "Creates acknowledged before they are written")
+public class AsyncIngestController {
+
+    private static final Logger logger = LoggerFactory.getLogger(AsyncIngestController.class);
+
+    static final String PREFERENCE_APPLIED_HEADER = "Preference-Applied";
+    static final String RESPOND_ASYNC = "respond-async";
+
+    private final AsyncTransactionWriter writer;
+    private final IdempotencyStore idempotencyStore;
+
+    @Autowired
+    public AsyncIngestController(AsyncTransactionWriter writer, IdempotencyStore idempotencyStore) {
+        this.writer = writer;
+        this.idempotencyStore = idempotencyStore;
+    }
+
+    @Operation(summary = "Create a transaction asynchronously",
+               description = "Sent with a Prefer header asking for respond-async. The request is validated and " +
+                       "queued, and the response only says it was accepted. Poll the Location for the outcome, or " +
+                       "watch the event stream for CREATED or REJECTED with the transaction's ID")
+    @ApiResponse(responseCode = "202", description = "Transaction queued for writing, or an earlier queuing " +
+            "with the same Idempotency-Key replayed")
+    @ApiResponse(responseCode = "400", description = "Invalid request data")
+    @ApiResponse(responseCode = "409", description = "Transaction ID already stored or queued, or same " +
+            "Idempotency-Key still in progress")
+    @ApiResponse(responseCode = "422", description = "Idempotency-Key reused with a different request")
+    @ApiResponse(responseCode = "503", description = "Too many creates waiting; retry after Retry-After seconds")
+    @PostMapping
+    @Preferred(RESPOND_ASYNC)
+    public ResponseEntity<IngestOutcome> createTransactionAsync(
+            @RequestBody @Valid TransactionCreateRequest transactionCreateRequest,
+            @Parameter(description = "Client-generated key; retries with the same key replay the original response")
+            @RequestHeader(value = TransactionController.IDEMPOTENCY_KEY_HEADER, required = false)
+            String idempotencyKey) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.accepted();
+        IngestOutcome outcome;
+        if (idempotencyKey == null || idempotencyKey.isBlank()) {
+            outcome = writer.submit(transactionCreateRequest);
+        } else {
+            // Shares the key space with synchronous creates, so the fingerprint tells the two apart
+            IdempotencyStore.Result<IngestOutcome> result = idempotencyStore.execute(idempotencyKey,
+                    new AsyncCreate(transactionCreateRequest), () -> writer.submit(transactionCreateRequest));
+            outcome = result.response();
+            response.header(TransactionController.IDEMPOTENT_REPLAYED_HEADER, String.valueOf(result.replayed()));
+        }
+        logger.debug("Transaction {} queued for writing", outcome.transactionId());
+        return response
+                .location(URI.create("/api/transactions/" + outcome.transactionId() + "/ingest"))
+                .header(PREFERENCE_APPLIED_HEADER, RESPOND_ASYNC)
+                .body(outcome);
+    }
+
+    @Operation(summary = "Get the outcome of an asynchronous create",
+               description = "QUEUED until the writer gets to it, then CREATED or REJECTED with an error code")
+    @ApiResponse(responseCode = "200", description = "Outcome retrieved successfully")
+    @ApiResponse(responseCode = "404", description = "No create with this ID is known")
+    @GetMapping("/{id}/ingest")
+    public ResponseEntity<IngestOutcome> getOutcome(
+            @Parameter(description = "Transaction ID") @PathVariable String id) {
+        IngestOutcome outcome = writer.outcome(id).orElseThrow(() -> new TransactionNotFoundException(id));
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (outcome.state() == IngestOutcome.State.CREATED) {
+            response.header(HttpHeaders.CONTENT_LOCATION, "/api/transactions/" + id);
+        }
+        return response.body(outcome);
+    }
+
+    private record AsyncCreate(TransactionCreateRequest request) {}
+}
@@ -0,0 +1,84 @@
+package com.hsbc.transactionmanagement.controller;
+
+import com.hsbc.transactionmanagement.bulk.ExportFilter;
+import com.hsbc.transactionmanagement.bulk.ExportResult;
+import com.hsbc.transactionmanagement.bulk.TransactionExporter;
+import com.hsbc.transactionmanagement.storage.columnar.ColumnarFileWriter;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Set;
+
+@RestController
+@RequestMapping("/api/admin/exports")
+@Tag(name = "Bulk Export", description = "Columnar dumps of the transaction store")
+public class BulkExportController {
+
+    private static final Logger logger = LoggerFactory.getLogger(BulkExportController.class);
+
+    private final TransactionExporter transactionExporter;
+
+    @Autowired
+    public BulkExportController(TransactionExporter transactionExporter) {
+        this.transactionExporter = transactionExporter;
+    }
+
+    @Operation(summary = "Download an export",
+               description = "Streams matching transactions as a compressed columnar file")
+    @ApiResponse(responseCode = "200", description = "Export streamed")
+    @ApiResponse(responseCode = "422", description = "Invalid time range or status")
+    @GetMapping(produces = ColumnarFileWriter.MEDIA_TYPE)
+    public ResponseEntity<StreamingResponseBody> downloadExport(
+            @Parameter(description = "Range start (inclusive), ISO date-time")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @Parameter(description = "Range end (exclusive), ISO date-time")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @Parameter(description = "Statuses to include; all when omitted")
+            @RequestParam(required = false) Set<String> status) {
+        ExportFilter filter = new ExportFilter(from, to, status);
+        logger.info("Streaming export with filter {}", filter);
+        String fileName = "transactions-" + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss"))
+                + ColumnarFileWriter.FILE_EXTENSION;
+        StreamingResponseBody body = out -> {
+            ExportResult result = transactionExporter.export(filter, out);
+            logger.info("Streamed export of {} transactions ({} bytes)", result.rows(), result.bytes());
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(ColumnarFileWriter.MEDIA_TYPE))
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(fileName).build().toString())
+                .body(body);
+    }
+
+    @Operation(summary = "Export to the server's export directory",
+               description = "Writes matching transactions as a compressed columnar file under transaction.export.directory")
+    @ApiResponse(responseCode = "200", description = "Export written")
+    @ApiResponse(responseCode = "422", description = "Invalid time range or status")
+    @PostMapping
+    public ResponseEntity<ExportResult> exportToDirectory(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) Set<String> status) throws IOException {
+        ExportFilter filter = new ExportFilter(from, to, status);
+        logger.info("Exporting to directory with filter {}", filter);
+        return ResponseEntity.ok(transactionExporter.exportToDirectory(filter));
+    }
+}
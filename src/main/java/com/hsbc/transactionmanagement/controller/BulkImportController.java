@@ -0,0 +1,69 @@
+package com.hsbc.transactionmanagement.controller;
+
+import com.hsbc.transactionmanagement.bulk.BulkImportFormat;
+import com.hsbc.transactionmanagement.bulk.BulkImportProgress;
+import com.hsbc.transactionmanagement.bulk.BulkImportResult;
+import com.hsbc.transactionmanagement.bulk.BulkImporter;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.HttpMediaTypeNotSupportedException;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/admin/imports")
+@Tag(name = "Bulk Import", description = "Bulk loading of transaction files")
+public class BulkImportController {
+
+    private static final Logger logger = LoggerFactory.getLogger(BulkImportController.class);
+
+    private final BulkImporter bulkImporter;
+
+    @Autowired
+    public BulkImportController(BulkImporter bulkImporter) {
+        this.bulkImporter = bulkImporter;
+    }
+
+    @Operation(summary = "Import transactions",
+               description = "Loads a CSV (text/csv, with a header row) or NDJSON (application/x-ndjson) request body. " +
+                       "Invalid rows and duplicate IDs are skipped and reported; the rest are stored")
+    @ApiResponse(responseCode = "200", description = "Import finished")
+    @ApiResponse(responseCode = "409", description = "Another import is running")
+    @ApiResponse(responseCode = "415", description = "Unsupported file format")
+    @ApiResponse(responseCode = "422", description = "CSV header is missing required columns")
+    @PostMapping(consumes = {"text/csv", "application/x-ndjson"})
+    public ResponseEntity<BulkImportResult> importTransactions(
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+            HttpServletRequest request) throws IOException, HttpMediaTypeNotSupportedException {
+        BulkImportFormat format = BulkImportFormat.fromMediaType(contentType)
+                .orElseThrow(() -> new HttpMediaTypeNotSupportedException(contentType,
+                        List.of(MediaType.parseMediaType("text/csv"), MediaType.parseMediaType("application/x-ndjson"))));
+        logger.info("Starting bulk import of {} upload", format);
+        BulkImportResult result = bulkImporter.importStream(request.getInputStream(), format, "upload");
+        return ResponseEntity.ok(result);
+    }
+
+    @Operation(summary = "Get import progress", description = "Progress of the import currently running, if any")
+    @ApiResponse(responseCode = "200", description = "An import is running")
+    @ApiResponse(responseCode = "204", description = "No import is running")
+    @GetMapping("/progress")
+    public ResponseEntity<BulkImportProgress> getImportProgress() {
+        return bulkImporter.currentProgress()
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.noContent().build());
+    }
+}
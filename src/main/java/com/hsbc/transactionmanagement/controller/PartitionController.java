@@ -0,0 +1,106 @@
+package com.hsbc.transactionmanagement.controller;
+
+import com.hsbc.transactionmanagement.model.LedgerPage;
+import com.hsbc.transactionmanagement.model.Transaction;
+import com.hsbc.transactionmanagement.partition.LocalPartitionReader;
+import com.hsbc.transactionmanagement.partition.PartitionClient;
+import com.hsbc.transactionmanagement.partition.PartitionSlice;
+import com.hsbc.transactionmanagement.repository.TransactionRepository;
+import com.hsbc.transactionmanagement.repository.TransactionSort;
+import com.hsbc.transactionmanagement.service.TransactionService;
+import io.swagger.v3.oas.annotations.Hidden;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Node-to-node API of partitioned mode: each node answers for its own partition only, and
+ * the asking node merges the answers. Not part of the public API.
+ */
+@Hidden
+@RestController
+@RequestMapping(PartitionClient.BASE_PATH)
+@ConditionalOnProperty(name = "transaction.partition.enabled", havingValue = "true")
+public class PartitionController {
+
+    private static final Logger logger = LoggerFactory.getLogger(PartitionController.class);
+
+    private final LocalPartitionReader reader;
+    private final TransactionRepository repository;
+    private final Cache cache;
+
+    @Autowired
+    public PartitionController(@Qualifier("transactionServiceImpl") TransactionService localService,
+                               TransactionRepository repository, CacheManager cacheManager) {
+        this.reader = new LocalPartitionReader(localService);
+        this.repository = repository;
+        this.cache = cacheManager.getCache("transactions");
+    }
+
+    @GetMapping("/version")
+    public long version() {
+        return reader.version();
+    }
+
+    @GetMapping("/transactions")
+    public PartitionSlice transactions(@RequestParam long offset, @RequestParam int limit,
+                                       @RequestParam(required = false) String snapshot,
+                                       @RequestParam(required = false) List<String> sort) {
+        return reader.transactions(offset, limit, snapshot, TransactionSort.parse(sort));
+    }
+
+    @GetMapping("/range")
+    public PartitionSlice range(@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+                                @RequestParam int limit, @RequestParam(required = false) String snapshot,
+                                @RequestParam(required = false) List<String> sort) {
+        return reader.range(from, to, limit, snapshot, TransactionSort.parse(sort));
+    }
+
+    @GetMapping("/search")
+    public PartitionSlice search(@RequestParam String q, @RequestParam int limit) {
+        return reader.search(q, limit);
+    }
+
+    @GetMapping("/ledger")
+    public LedgerPage ledger(@RequestParam long account, @RequestParam(required = false) String cursor,
+                             @RequestParam int limit) {
+        return reader.ledger(account, cursor, limit);
+    }
+
+    @PostMapping("/snapshots")
+    public Map<String, String> openSnapshot() {
+        return Map.of("snapshotToken", reader.openSnapshot());
+    }
+
+    /**
+     * Takes over transactions this node now owns. Ones it already has are kept as they are.
+     *
+     * @return how many were new
+     */
+    @PostMapping("/handoff")
+    public int handoff(@RequestBody List<Transaction> transactions) {
+        List<Transaction> inserted = repository.insertAll(transactions);
+        if (cache != null) {
+            inserted.forEach(transaction -> cache.evict(transaction.getTransactionId()));
+        }
+        logger.info("Took over {} of {} transactions handed off by another node", inserted.size(),
+                transactions.size());
+        return inserted.size();
+    }
+}
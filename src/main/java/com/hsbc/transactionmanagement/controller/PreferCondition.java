@@ -0,0 +1,76 @@
+package com.hsbc.transactionmanagement.controller;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.web.cors.CorsUtils;
+import org.springframework.web.servlet.mvc.condition.AbstractRequestCondition;
+
+import java.util.Collection;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Request condition behind {@link Preferred}. Follows RFC 7240: the header may be repeated,
+ * each value lists preferences separated by commas, a preference may carry a value after
+ * {@code =} and parameters after {@code ;}, and preference names are case-insensitive.
+ */
+public final class PreferCondition extends AbstractRequestCondition<PreferCondition> {
+
+    static final String PREFER_HEADER = "Prefer";
+
+    private final String preference;
+
+    public PreferCondition(String preference) {
+        this.preference = preference.toLowerCase(Locale.ROOT);
+    }
+
+    @Override
+    protected Collection<?> getContent() {
+        return List.of(preference);
+    }
+
+    @Override
+    protected String getToStringInfix() {
+        return " && ";
+    }
+
+    // Only ever declared on methods, so there is nothing to combine with
+    @Override
+    public PreferCondition combine(PreferCondition other) {
+        return other;
+    }
+
+    @Override
+    public PreferCondition getMatchingCondition(HttpServletRequest request) {
+        if (CorsUtils.isPreFlightRequest(request)) {
+            return this;
+        }
+        Enumeration<String> values = request.getHeaders(PREFER_HEADER);
+        while (values != null && values.hasMoreElements()) {
+            for (String element : values.nextElement().split(",")) {
+                if (name(element).equals(preference)) {
+                    return this;
+                }
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public int compareTo(PreferCondition other, HttpServletRequest request) {
+        return 0;
+    }
+
+    private static String name(String element) {
+        int end = element.length();
+        int parameters = element.indexOf(';');
+        if (parameters >= 0) {
+            end = parameters;
+        }
+        int value = element.indexOf('=');
+        if (value >= 0 && value < end) {
+            end = value;
+        }
+        return element.substring(0, end).trim().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,25 @@
+package com.hsbc.transactionmanagement.controller;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Narrows a handler method to requests whose {@code Prefer} header asks for a preference,
+ * whatever else it asks for, e.g. {@code Prefer: respond-async, wait=5}. A plain
+ * {@code headers = "Prefer=..."} mapping only matches the header's exact value.
+ *
+ * @see PreferCondition
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface Preferred {
+
+    /**
+     * The preference token, e.g. {@code respond-async}.
+     */
+    String value();
+}
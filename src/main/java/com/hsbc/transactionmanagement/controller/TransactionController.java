@@ -1,9 +1,13 @@
 package com.hsbc.transactionmanagement.controller;
 
+import com.hsbc.transactionmanagement.idempotency.IdempotencyStore;
 import com.hsbc.transactionmanagement.model.Transaction;
+import com.hsbc.transactionmanagement.model.TransactionBatchStatusUpdateRequest;
 import com.hsbc.transactionmanagement.model.TransactionCreateRequest;
+import com.hsbc.transactionmanagement.model.TransactionHistoryResponse;
 import com.hsbc.transactionmanagement.model.TransactionResponse;
 import com.hsbc.transactionmanagement.model.TransactionUpdateRequest;
+import com.hsbc.transactionmanagement.repository.TransactionSort;
 import com.hsbc.transactionmanagement.service.TransactionService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -18,15 +22,20 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.atomic.AtomicLong;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 
 @RestController
 @RequestMapping("/api/transactions")
@@ -35,13 +44,20 @@ public class TransactionController {
 
     private static final Logger logger = LoggerFactory.getLogger(TransactionController.class);
     
+    static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    static final String IDEMPOTENT_REPLAYED_HEADER = "Idempotent-Replayed";
+    static final String SNAPSHOT_TOKEN_HEADER = "X-Snapshot-Token";
+
     private final TransactionService transactionService;
     private final AtomicLong idGenerator;
+    private final IdempotencyStore idempotencyStore;
 
     @Autowired
-    public TransactionController(TransactionService transactionService,AtomicLong idGenerator) {
+    public TransactionController(TransactionService transactionService,AtomicLong idGenerator,
+                                 IdempotencyStore idempotencyStore) {
         this.transactionService = transactionService;
         this.idGenerator = idGenerator;
+        this.idempotencyStore = idempotencyStore;
         logger.info("TransactionController initialized");
     }
 
@@ -49,13 +65,27 @@ public class TransactionController {
     @ApiResponse(responseCode = "201", description = "Transaction created successfully",
             content = @Content(schema = @Schema(implementation = TransactionResponse.class)))
     @ApiResponse(responseCode = "400", description = "Invalid request data")
+    @ApiResponse(responseCode = "409", description = "Duplicate transaction, or same Idempotency-Key still in progress")
+    @ApiResponse(responseCode = "422", description = "Idempotency-Key reused with a different request")
     @PostMapping
     public ResponseEntity<TransactionResponse> createTransaction(
-            @RequestBody @Valid TransactionCreateRequest transactionCreateRequest) {
+            @RequestBody @Valid TransactionCreateRequest transactionCreateRequest,
+            @Parameter(description = "Client-generated key; retries with the same key replay the original response")
+            @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
         logger.info("Creating new transaction: {}", transactionCreateRequest);
-        Transaction savedTransaction = this.transactionService.createTransaction(transactionCreateRequest);
-        logger.info("Transaction created successfully with ID: {}", savedTransaction.getTransactionId());
-        return ResponseEntity.status(HttpStatus.CREATED).body(TransactionResponse.fromEntity(savedTransaction));
+        if (idempotencyKey == null || idempotencyKey.isBlank()) {
+            Transaction savedTransaction = this.transactionService.createTransaction(transactionCreateRequest);
+            logger.info("Transaction created successfully with ID: {}", savedTransaction.getTransactionId());
+            return ResponseEntity.status(HttpStatus.CREATED).body(TransactionResponse.fromEntity(savedTransaction));
+        }
+        IdempotencyStore.Result<TransactionResponse> result = this.idempotencyStore.execute(
+                idempotencyKey, transactionCreateRequest,
+                () -> TransactionResponse.fromEntity(this.transactionService.createTransaction(transactionCreateRequest)));
+        logger.info("Transaction {} with ID: {}", result.replayed() ? "replayed" : "created successfully",
+                result.response().transactionId());
+        return ResponseEntity.status(HttpStatus.CREATED)
+                .header(IDEMPOTENT_REPLAYED_HEADER, String.valueOf(result.replayed()))
+                .body(result.response());
     }
 
     @Operation(summary = "Delete transaction", description = "Delete transaction by ID")
@@ -84,46 +114,175 @@ public class TransactionController {
         return ResponseEntity.ok(TransactionResponse.fromEntity(updatedTransaction));
     }
 
+    @Operation(summary = "Update the status of many transactions",
+               description = "Applies one status change to every listed transaction, all or nothing. " +
+                       "If any transaction is missing or cannot make the transition, none is changed")
+    @ApiResponse(responseCode = "200", description = "All transactions updated")
+    @ApiResponse(responseCode = "400", description = "Invalid request data")
+    @ApiResponse(responseCode = "422", description = "Batch rejected; the failures of every transaction are listed")
+    @PostMapping("/status-updates")
+    public ResponseEntity<List<TransactionResponse>> updateTransactionStatuses(
+            @RequestBody @Valid TransactionBatchStatusUpdateRequest batchRequest) {
+        logger.info("Updating {} transactions to status {}", batchRequest.transactionIds().size(), batchRequest.status());
+        List<Transaction> updatedTransactions = this.transactionService.updateTransactionStatuses(
+                batchRequest.transactionIds(), batchRequest.status());
+        logger.info("Batch status update applied to {} transactions", updatedTransactions.size());
+        return ResponseEntity.ok(updatedTransactions.stream().map(TransactionResponse::fromEntity).toList());
+    }
+
     @Operation(summary = "Get single transaction", description = "Get transaction details by ID")
     @ApiResponse(responseCode = "200", description = "Transaction retrieved successfully")
+    @ApiResponse(responseCode = "304", description = "Transaction unchanged since the given If-None-Match ETag")
     @ApiResponse(responseCode = "404", description = "Transaction not found")
     @GetMapping("/{id}")
     public ResponseEntity<TransactionResponse> getTransactionById(
-            @Parameter(description = "Transaction ID") @PathVariable String id) {
+            @Parameter(description = "Transaction ID") @PathVariable String id,
+            WebRequest webRequest) {
         logger.info("Fetching transaction with ID: {}", id);
         Transaction transaction = this.transactionService.getTransactionById(id);
-        return ResponseEntity.ok(TransactionResponse.fromEntity(transaction));
+        String etag = etag("t", transaction.getVersion(), webRequest);
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .varyBy(HttpHeaders.ACCEPT)
+                .body(TransactionResponse.fromEntity(transaction));
+    }
+
+    @Operation(summary = "Get a transaction's status history",
+               description = "Every status the transaction has held with the time it was entered, oldest first. " +
+                       "Times are absent for statuses entered before histories were kept")
+    @ApiResponse(responseCode = "200", description = "Status history retrieved successfully")
+    @ApiResponse(responseCode = "404", description = "Transaction not found")
+    @GetMapping("/{id}/history")
+    public ResponseEntity<TransactionHistoryResponse> getTransactionHistory(
+            @Parameter(description = "Transaction ID") @PathVariable String id) {
+        logger.info("Fetching status history of transaction {}", id);
+        Transaction transaction = this.transactionService.getTransactionById(id);
+        return ResponseEntity.ok(TransactionHistoryResponse.fromEntity(transaction));
     }
 
     @Operation(summary = "Get all transactions", description = "Get all transaction records in the system")
     @ApiResponse(responseCode = "200", description = "Transaction list retrieved successfully")
+    @ApiResponse(responseCode = "304", description = "No transaction changed since the given If-None-Match ETag")
     @GetMapping
-    public ResponseEntity<List<TransactionResponse>> getAllTransactions() {
+    public ResponseEntity<List<TransactionResponse>> getAllTransactions(WebRequest webRequest) {
         logger.info("Fetching all transactions");
+        // Read the version before the data, so a concurrent write can only make the tag stale-early
+        String etag = etag("c", this.transactionService.getCollectionVersion(), webRequest);
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
         List<Transaction> transactions = this.transactionService.getAllTransactions();
         logger.info("Retrieved {} transactions", transactions.size());
         List<TransactionResponse> responses = transactions.stream()
                 .map(TransactionResponse::fromEntity)
                 .toList();
-        return ResponseEntity.ok(responses);
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .varyBy(HttpHeaders.ACCEPT)
+                .body(responses);
     }
 
     @Operation(summary = "Get transactions with pagination", 
-               description = "Get transaction records with pagination support")
+               description = "Get transaction records with pagination support. With snapshot=true the pages are " +
+                       "read from a point-in-time snapshot, ordered by timestamp, and the response carries an " +
+                       "X-Snapshot-Token; send it back on later pages to see the same version of the data. " +
+                       "sort orders the pages by amount, timestamp or status, or by status and then amount or " +
+                       "timestamp, e.g. sort=status&sort=amount,desc")
     @ApiResponse(responseCode = "200", description = "Transactions retrieved successfully")
+    @ApiResponse(responseCode = "304", description = "No transaction changed since the given If-None-Match ETag")
+    @ApiResponse(responseCode = "410", description = "Snapshot token expired or unknown")
+    @ApiResponse(responseCode = "422", description = "Unsupported sort")
     @GetMapping("/paged")
     public ResponseEntity<Page<TransactionResponse>> getTransactionsPaged(
             @RequestParam(defaultValue = "0") @Min(0) int page,
-            @RequestParam(defaultValue = "5") @Min(1) @Max(100) int size) {
-        logger.info("Fetching paged transactions - page: {}, size: {}", page, size);
-        Pageable pageable = PageRequest.of(page, size);
-        Page<Transaction> transactionsPage = this.transactionService.getAllTransactionsPaged(pageable);
+            @RequestParam(defaultValue = "5") @Min(1) @Max(100) int size,
+            @Parameter(description = "Sort as property(,property)(,asc|desc); repeat for a second order")
+            @RequestParam(required = false) List<String> sort,
+            @Parameter(description = "Open a snapshot and read this and later pages from it")
+            @RequestParam(defaultValue = "false") boolean snapshot,
+            @Parameter(description = "Token of a snapshot opened by an earlier page")
+            @RequestHeader(value = SNAPSHOT_TOKEN_HEADER, required = false) String snapshotToken,
+            WebRequest webRequest) {
+        logger.info("Fetching paged transactions - page: {}, size: {}, sort: {}", page, size, sort);
+        Sort order = TransactionSort.parse(sort);
+        String token = snapshotToken(snapshot, snapshotToken);
+        String etag = token != null
+                ? etag("s", this.transactionService.getSnapshotVersion(token), webRequest)
+                : etag("c", this.transactionService.getCollectionVersion(), webRequest);
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
+        Pageable pageable = PageRequest.of(page, size, order);
+        Page<Transaction> transactionsPage = token != null
+                ? this.transactionService.getAllTransactionsPaged(token, pageable)
+                : this.transactionService.getAllTransactionsPaged(pageable);
         logger.info("Retrieved page {} of {} with {} transactions", 
                 transactionsPage.getNumber(), 
                 transactionsPage.getTotalPages(),
                 transactionsPage.getNumberOfElements());
         Page<TransactionResponse> responsePage = transactionsPage.map(TransactionResponse::fromEntity);
-        return ResponseEntity.ok(responsePage);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .eTag(etag)
+                .varyBy(HttpHeaders.ACCEPT);
+        if (token != null) {
+            response.header(SNAPSHOT_TOKEN_HEADER, token);
+        }
+        return response.body(responsePage);
+    }
+
+    @Operation(summary = "Get transactions in a time range",
+               description = "Get transaction records with from <= timestamp < to, ordered by timestamp unless " +
+                       "sort is given; sort takes the same orders as the paged listing")
+    @ApiResponse(responseCode = "200", description = "Transactions retrieved successfully")
+    @ApiResponse(responseCode = "410", description = "Snapshot token expired or unknown")
+    @ApiResponse(responseCode = "422", description = "Invalid time range or unsupported sort")
+    @GetMapping("/range")
+    public ResponseEntity<Page<TransactionResponse>> getTransactionsByTimeRange(
+            @Parameter(description = "Range start (inclusive), ISO date-time")
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @Parameter(description = "Range end (exclusive), ISO date-time")
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(defaultValue = "0") @Min(0) int page,
+            @RequestParam(defaultValue = "5") @Min(1) @Max(100) int size,
+            @Parameter(description = "Sort as property(,property)(,asc|desc); repeat for a second order")
+            @RequestParam(required = false) List<String> sort,
+            @Parameter(description = "Open a snapshot and read this and later pages from it")
+            @RequestParam(defaultValue = "false") boolean snapshot,
+            @Parameter(description = "Token of a snapshot opened by an earlier page")
+            @RequestHeader(value = SNAPSHOT_TOKEN_HEADER, required = false) String snapshotToken) {
+        logger.info("Fetching transactions between {} and {} - page: {}, size: {}, sort: {}", from, to, page, size, sort);
+        Pageable pageable = PageRequest.of(page, size, TransactionSort.parse(sort));
+        String token = snapshotToken(snapshot, snapshotToken);
+        Page<Transaction> transactionsPage = token != null
+                ? this.transactionService.getTransactionsByTimeRange(token, from, to, pageable)
+                : this.transactionService.getTransactionsByTimeRange(from, to, pageable);
+        logger.info("Retrieved {} of {} transactions in range",
+                transactionsPage.getNumberOfElements(),
+                transactionsPage.getTotalElements());
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (token != null) {
+            response.header(SNAPSHOT_TOKEN_HEADER, token);
+        }
+        return response.body(transactionsPage.map(TransactionResponse::fromEntity));
+    }
+
+    @Operation(summary = "Search transactions",
+               description = "Find transactions whose reference number or description contains the query " +
+                       "(case-insensitive, at least 3 characters). At most 1000 matches are returned, ordered by ID")
+    @ApiResponse(responseCode = "200", description = "Matching transactions retrieved successfully")
+    @ApiResponse(responseCode = "422", description = "Query too short")
+    @GetMapping("/search")
+    public ResponseEntity<Page<TransactionResponse>> searchTransactions(
+            @Parameter(description = "Text contained in the reference number or description") @RequestParam String q,
+            @RequestParam(defaultValue = "0") @Min(0) int page,
+            @RequestParam(defaultValue = "5") @Min(1) @Max(100) int size) {
+        logger.info("Searching transactions for '{}' - page: {}, size: {}", q, page, size);
+        Page<Transaction> transactionsPage = this.transactionService.searchTransactions(q, PageRequest.of(page, size));
+        logger.info("Search matched {} transactions", transactionsPage.getTotalElements());
+        return ResponseEntity.ok(transactionsPage.map(TransactionResponse::fromEntity));
     }
 
 
@@ -138,4 +297,26 @@ public class TransactionController {
         logger.info("Generated transaction ID: {}", nextId);
         return ResponseEntity.ok(Map.of("transactionId", nextId));
     }
+
+    private String snapshotToken(boolean openSnapshot, String snapshotToken) {
+        if (snapshotToken != null && !snapshotToken.isBlank()) {
+            return snapshotToken;
+        }
+        return openSnapshot ? this.transactionService.openSnapshot() : null;
+    }
+
+    /**
+     * Strong ETag for one representation of a versioned resource. JSON, CBOR and Smile bodies
+     * differ byte-for-byte, so the negotiated format is part of the tag.
+     */
+    private static String etag(String kind, long version, WebRequest webRequest) {
+        String accept = webRequest.getHeader(HttpHeaders.ACCEPT);
+        String format = "json";
+        if (accept != null && accept.contains("cbor")) {
+            format = "cbor";
+        } else if (accept != null && accept.contains("smile")) {
+            format = "smile";
+        }
+        return "\"" + kind + version + "-" + format + "\"";
+    }
 }
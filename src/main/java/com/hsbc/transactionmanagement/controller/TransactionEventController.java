@@ -0,0 +1,49 @@
+package com.hsbc.transactionmanagement.controller;
+
+import com.hsbc.transactionmanagement.event.TransactionEventStreamer;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+@RestController
+@RequestMapping("/api/transactions/events")
+@Tag(name = "Transaction Events", description = "Change stream of transaction mutations")
+public class TransactionEventController {
+
+    private static final Logger logger = LoggerFactory.getLogger(TransactionEventController.class);
+
+    private final TransactionEventStreamer eventStreamer;
+
+    @Autowired
+    public TransactionEventController(TransactionEventStreamer eventStreamer) {
+        this.eventStreamer = eventStreamer;
+    }
+
+    @Operation(summary = "Stream transaction events",
+               description = "Server-Sent Events stream of CREATED, STATUS_UPDATED and DELETED events, and REJECTED " +
+                       "for asynchronous creates that could not be applied. " +
+                       "Each event id is its sequence number; reconnect with Last-Event-ID or fromSequence to resume. " +
+                       "A 'lag' event reports how many events were missed when the subscriber fell too far behind")
+    @ApiResponse(responseCode = "200", description = "Event stream opened")
+    @GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamEvents(
+            @Parameter(description = "First sequence number to deliver")
+            @RequestParam(required = false) Long fromSequence,
+            @Parameter(description = "Sequence number of the last event received, sent by SSE clients on reconnect")
+            @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId) {
+        Long start = lastEventId != null ? Long.valueOf(lastEventId + 1) : fromSequence;
+        logger.info("Opening transaction event stream from sequence {}", start);
+        return eventStreamer.subscribe(start);
+    }
+}
@@ -0,0 +1,44 @@
+package com.hsbc.transactionmanagement.diagnostics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A read through a Spring cache; the duration of a miss includes loading the value.
+ */
+@Name("com.hsbc.transactionmanagement.CacheAccess")
+@Label("Cache Access")
+@Description("A cache lookup and whether it was served from the cache")
+@Category({"Transaction Management", "Cache"})
+@StackTrace(false)
+public class CacheAccessEvent extends Event {
+
+    @Label("Cache")
+    String cache;
+
+    @Label("Key")
+    String key;
+
+    @Label("Hit")
+    boolean hit;
+
+    public static CacheAccessEvent start() {
+        CacheAccessEvent event = new CacheAccessEvent();
+        event.begin();
+        return event;
+    }
+
+    public void finish(String cache, Object key, boolean hit) {
+        end();
+        if (shouldCommit()) {
+            this.cache = cache;
+            this.key = String.valueOf(key);
+            this.hit = hit;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.hsbc.transactionmanagement.diagnostics;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import org.springframework.cache.caffeine.CaffeineCache;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Caffeine-backed Spring cache that records lookups as {@link CacheAccessEvent}s. It stays a
+ * {@link CaffeineCache}, so Boot's cache meters still bind to it.
+ */
+public class FlightRecordedCaffeineCache extends CaffeineCache {
+
+    public FlightRecordedCaffeineCache(String name, AsyncCache<Object, Object> cache, boolean allowNullValues) {
+        super(name, cache, allowNullValues);
+    }
+
+    @Override
+    protected Object lookup(Object key) {
+        CacheAccessEvent event = CacheAccessEvent.start();
+        Object value = super.lookup(key);
+        event.finish(getName(), key, value != null);
+        return value;
+    }
+
+    @Override
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        CacheAccessEvent event = CacheAccessEvent.start();
+        if (!event.isEnabled()) {
+            return super.get(key, valueLoader);
+        }
+        // The loader only runs on a miss
+        AtomicBoolean loaded = new AtomicBoolean();
+        T value = super.get(key, () -> {
+            loaded.set(true);
+            return valueLoader.call();
+        });
+        event.finish(getName(), key, !loaded.get());
+        return value;
+    }
+}
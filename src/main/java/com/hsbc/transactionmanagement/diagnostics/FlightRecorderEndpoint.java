@@ -0,0 +1,147 @@
+package com.hsbc.transactionmanagement.diagnostics;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.boot.actuate.endpoint.web.annotation.WebEndpoint;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpStatus;
+import org.springframework.lang.Nullable;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Starts, stops and downloads a JDK Flight Recording at runtime under {@code /actuator/jfr}.
+ * <p>
+ * Only one recording exists at a time. It is bounded in both duration and disk size, stops
+ * by itself when its duration elapses, and stays downloadable until the next one starts.
+ * Besides the JVM's own events it captures the {@code com.hsbc.transactionmanagement.*}
+ * events for repository operations, cache lookups, validation failures and status transitions.
+ */
+@WebEndpoint(id = "jfr")
+public class FlightRecorderEndpoint implements DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(FlightRecorderEndpoint.class);
+
+    private static final String RECORDING_NAME = "transaction-management";
+
+    private final FlightRecordingProperties properties;
+    // Guarded by this
+    private Recording recording;
+
+    public FlightRecorderEndpoint(FlightRecordingProperties properties) {
+        this.properties = properties;
+    }
+
+    @ReadOperation
+    public synchronized RecordingStatus status() {
+        return recording != null ? RecordingStatus.of(recording) : null;
+    }
+
+    /**
+     * @param duration how long to record, capped at {@code transaction.jfr.max-duration}
+     */
+    @WriteOperation
+    public synchronized WebEndpointResponse<RecordingStatus> start(@Nullable Duration duration)
+            throws IOException, ParseException {
+        if (recording != null && recording.getState() == RecordingState.RUNNING) {
+            return new WebEndpointResponse<>(RecordingStatus.of(recording), HttpStatus.CONFLICT.value());
+        }
+        if (recording != null) {
+            recording.close();
+        }
+        Duration requested = duration != null ? duration : properties.defaultDuration();
+        Recording started = new Recording(Configuration.getConfiguration(properties.settings()));
+        started.setName(RECORDING_NAME);
+        started.setToDisk(true);
+        started.setMaxSize(properties.maxSize().toBytes());
+        started.setDuration(requested.compareTo(properties.maxDuration()) > 0 ? properties.maxDuration() : requested);
+        started.start();
+        recording = started;
+        logger.info("Started flight recording {} for {}", started.getId(), started.getDuration());
+        return new WebEndpointResponse<>(RecordingStatus.of(started), WebEndpointResponse.STATUS_OK);
+    }
+
+    @DeleteOperation
+    public synchronized RecordingStatus stop() {
+        if (recording == null) {
+            return null;
+        }
+        if (recording.getState() == RecordingState.RUNNING) {
+            recording.stop();
+            logger.info("Stopped flight recording {}", recording.getId());
+        }
+        return RecordingStatus.of(recording);
+    }
+
+    /**
+     * The recording as a {@code .jfr} file. A running recording is dumped as far as it has
+     * got and keeps running.
+     */
+    @ReadOperation(produces = "application/octet-stream")
+    public synchronized Resource download(@Selector long id) throws IOException {
+        if (recording == null || recording.getId() != id) {
+            return null;
+        }
+        Path file = Files.createTempFile(RECORDING_NAME + "-" + id + "-", ".jfr");
+        try {
+            recording.dump(file);
+        } catch (IOException | RuntimeException ex) {
+            Files.deleteIfExists(file);
+            throw ex;
+        }
+        return new TemporaryFileResource(file);
+    }
+
+    @Override
+    public synchronized void destroy() {
+        if (recording != null) {
+            recording.close();
+            recording = null;
+        }
+    }
+
+    public record RecordingStatus(long id, String state, Instant startTime, Duration duration, long maxSize,
+                                  long size) {
+
+        static RecordingStatus of(Recording recording) {
+            return new RecordingStatus(recording.getId(), recording.getState().name(), recording.getStartTime(),
+                    recording.getDuration(), recording.getMaxSize(), recording.getSize());
+        }
+    }
+
+    // Deletes the dump once it has been streamed to the client
+    private static final class TemporaryFileResource extends FileSystemResource {
+
+        TemporaryFileResource(Path file) {
+            super(file);
+        }
+
+        @Override
+        public InputStream getInputStream() throws IOException {
+            return Files.newInputStream(getFile().toPath(), StandardOpenOption.READ, StandardOpenOption.DELETE_ON_CLOSE);
+        }
+
+        @Override
+        public boolean isFile() {
+            // Keeps the response on the stream path instead of a zero-copy transfer of the file
+            return false;
+        }
+    }
+}
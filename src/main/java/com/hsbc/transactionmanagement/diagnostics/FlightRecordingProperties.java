@@ -0,0 +1,22 @@
+package com.hsbc.transactionmanagement.diagnostics;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+/**
+ * @param settings        JFR configuration to record with, {@code default} or {@code profile}
+ * @param defaultDuration how long a recording runs when started without a duration
+ * @param maxDuration     upper bound on any requested duration
+ * @param maxSize         disk space the recording may use before the oldest chunks are dropped
+ */
+@ConfigurationProperties(prefix = "transaction.jfr")
+public record FlightRecordingProperties(
+        @DefaultValue("profile") String settings,
+        @DefaultValue("PT1M") Duration defaultDuration,
+        @DefaultValue("PT10M") Duration maxDuration,
+        @DefaultValue("100MB") DataSize maxSize
+) {
+}
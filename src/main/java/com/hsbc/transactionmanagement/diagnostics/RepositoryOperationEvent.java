@@ -0,0 +1,46 @@
+package com.hsbc.transactionmanagement.diagnostics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * One call into the transaction repository. Created with {@link #start()} before the call
+ * and finished with {@link #finish} after it; when no recording has the event enabled,
+ * neither touches anything beyond the event object, which the JIT scalar-replaces.
+ */
+@Name("com.hsbc.transactionmanagement.RepositoryOperation")
+@Label("Repository Operation")
+@Description("A call into the transaction repository")
+@Category({"Transaction Management", "Repository"})
+@StackTrace(false)
+public class RepositoryOperationEvent extends Event {
+
+    @Label("Operation")
+    String operation;
+
+    @Label("Transaction ID")
+    @Description("Set for single-transaction operations")
+    String transactionId;
+
+    public static RepositoryOperationEvent start() {
+        RepositoryOperationEvent event = new RepositoryOperationEvent();
+        event.begin();
+        return event;
+    }
+
+    /**
+     * @param transactionId {@code null} for operations that are not about one transaction
+     */
+    public void finish(Enum<?> operation, String transactionId) {
+        end();
+        if (shouldCommit()) {
+            this.operation = operation.name();
+            this.transactionId = transactionId;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.hsbc.transactionmanagement.diagnostics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("com.hsbc.transactionmanagement.StatusTransition")
+@Label("Status Transition")
+@Description("A transaction moved from one status to another")
+@Category({"Transaction Management", "Service"})
+@StackTrace(false)
+public class StatusTransitionEvent extends Event {
+
+    @Label("Transaction ID")
+    String transactionId;
+
+    @Label("From Status")
+    String fromStatus;
+
+    @Label("To Status")
+    String toStatus;
+
+    public static void emit(String transactionId, String fromStatus, String toStatus) {
+        StatusTransitionEvent event = new StatusTransitionEvent();
+        if (event.shouldCommit()) {
+            event.transactionId = transactionId;
+            event.fromStatus = fromStatus;
+            event.toStatus = toStatus;
+            event.commit();
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.hsbc.transactionmanagement.diagnostics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("com.hsbc.transactionmanagement.ValidationFailure")
+@Label("Validation Failure")
+@Description("A transaction rejected by a business rule")
+@Category({"Transaction Management", "Service"})
+@StackTrace(false)
+public class ValidationFailureEvent extends Event {
+
+    @Label("Transaction ID")
+    String transactionId;
+
+    @Label("Error Code")
+    String errorCode;
+
+    @Label("Message")
+    String message;
+
+    public static void emit(String transactionId, String errorCode, String message) {
+        ValidationFailureEvent event = new ValidationFailureEvent();
+        if (event.shouldCommit()) {
+            event.transactionId = transactionId;
+            event.errorCode = errorCode;
+            event.message = message;
+            event.commit();
+        }
+    }
+}
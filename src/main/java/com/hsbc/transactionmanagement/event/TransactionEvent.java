@@ -0,0 +1,17 @@
+package com.hsbc.transactionmanagement.event;
+
+import java.time.Instant;
+
+/**
+ * A committed mutation of one transaction, or the rejection of an asynchronous create.
+ * {@code sequence} is assigned by the {@link TransactionEventBuffer} and is what subscribers
+ * resume from.
+ */
+public record TransactionEvent(
+        long sequence,
+        TransactionEventType type,
+        String transactionId,
+        String status,
+        String previousStatus,
+        Instant occurredAt
+) {}
@@ -0,0 +1,100 @@
+package com.hsbc.transactionmanagement.event;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bounded, lock-free, multi-producer ring buffer of {@link TransactionEvent}s.
+ * <p>
+ * Publishing claims a sequence with a single CAS and never waits for readers: once the
+ * buffer wraps, the oldest events are overwritten. Readers keep their own cursor and
+ * are told how many events they missed when they fall more than one lap behind.
+ */
+@Component
+public class TransactionEventBuffer {
+
+    private final AtomicReferenceArray<TransactionEvent> slots;
+    private final int mask;
+    // Next sequence to hand out; sequences start at 1 so a cursor of 1 means "from the beginning"
+    private final AtomicLong nextSequence = new AtomicLong(1);
+
+    public TransactionEventBuffer(@Value("${transaction.events.buffer-capacity:8192}") int requestedCapacity) {
+        if (requestedCapacity < 2 || requestedCapacity > (1 << 30)) {
+            throw new IllegalArgumentException("Event buffer capacity must be between 2 and 2^30");
+        }
+        int capacity = Integer.highestOneBit(requestedCapacity - 1) << 1;
+        this.slots = new AtomicReferenceArray<>(capacity);
+        this.mask = capacity - 1;
+    }
+
+    public TransactionEvent publish(TransactionEventType type, String transactionId,
+                                    String status, String previousStatus) {
+        long sequence = nextSequence.getAndIncrement();
+        TransactionEvent event = new TransactionEvent(sequence, type, transactionId, status, previousStatus, Instant.now());
+        slots.set(indexOf(sequence), event);
+        return event;
+    }
+
+    /**
+     * Sequence the next published event will get, i.e. the cursor of a subscriber that only
+     * wants events from now on.
+     */
+    public long headSequence() {
+        return nextSequence.get();
+    }
+
+    public int capacity() {
+        return slots.length();
+    }
+
+    /**
+     * Reads up to {@code maxEvents} events starting at {@code cursor}. If the events at the
+     * cursor were already overwritten, reading skips to the oldest retained event and
+     * reports the gap in {@link Batch#missed()}.
+     */
+    public Batch read(long cursor, int maxEvents) {
+        List<TransactionEvent> events = new ArrayList<>(Math.min(maxEvents, 64));
+        long missed = 0;
+        long position = Math.min(Math.max(cursor, 1), nextSequence.get());
+        while (events.size() < maxEvents) {
+            long head = nextSequence.get();
+            long oldest = Math.max(1, head - slots.length());
+            if (position < oldest) {
+                missed += oldest - position;
+                position = oldest;
+            }
+            if (position >= head) {
+                break;
+            }
+            TransactionEvent event = slots.get(indexOf(position));
+            if (event == null || event.sequence() < position) {
+                // Sequence claimed but its event is not visible yet; stop so order is preserved
+                break;
+            }
+            if (event.sequence() > position) {
+                // Lapped while reading, recompute the oldest retained sequence
+                continue;
+            }
+            events.add(event);
+            position++;
+        }
+        return new Batch(events, position, missed);
+    }
+
+    private int indexOf(long sequence) {
+        return (int) (sequence & mask);
+    }
+
+    /**
+     * @param events       events in sequence order
+     * @param nextCursor   cursor to pass to the next {@link #read} call
+     * @param missed       number of events overwritten before this reader got to them
+     */
+    public record Batch(List<TransactionEvent> events, long nextCursor, long missed) {}
+}
@@ -0,0 +1,19 @@
+package com.hsbc.transactionmanagement.event;
+
+import com.hsbc.transactionmanagement.model.Transaction;
+
+/**
+ * Told about every committed mutation synchronously, on the thread that made it, right after
+ * it was buffered. Implementations must be quick and must not throw.
+ */
+public interface TransactionEventListener {
+
+    default void transactionCreated(Transaction transaction) {
+    }
+
+    default void statusUpdated(Transaction transaction, String previousStatus) {
+    }
+
+    default void transactionDeleted(String transactionId) {
+    }
+}
@@ -0,0 +1,53 @@
+package com.hsbc.transactionmanagement.event;
+
+import com.hsbc.transactionmanagement.model.Transaction;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Entry point the service layer uses to record committed mutations. Publishing only
+ * appends to the {@link TransactionEventBuffer} and calls the registered
+ * {@link TransactionEventListener}s, so it never blocks the write path.
+ */
+@Component
+public class TransactionEventPublisher {
+
+    private final TransactionEventBuffer eventBuffer;
+    private final List<TransactionEventListener> listeners = new CopyOnWriteArrayList<>();
+
+    @Autowired
+    public TransactionEventPublisher(TransactionEventBuffer eventBuffer) {
+        this.eventBuffer = eventBuffer;
+    }
+
+    public void addListener(TransactionEventListener listener) {
+        listeners.add(listener);
+    }
+
+    public void transactionCreated(Transaction transaction) {
+        eventBuffer.publish(TransactionEventType.CREATED, transaction.getTransactionId(), transaction.getStatus(), null);
+        listeners.forEach(listener -> listener.transactionCreated(transaction));
+    }
+
+    public void statusUpdated(Transaction transaction, String previousStatus) {
+        eventBuffer.publish(TransactionEventType.STATUS_UPDATED, transaction.getTransactionId(),
+                transaction.getStatus(), previousStatus);
+        listeners.forEach(listener -> listener.statusUpdated(transaction, previousStatus));
+    }
+
+    public void transactionDeleted(String transactionId) {
+        eventBuffer.publish(TransactionEventType.DELETED, transactionId, null, null);
+        listeners.forEach(listener -> listener.transactionDeleted(transactionId));
+    }
+
+    /**
+     * An asynchronously accepted create was not applied; nothing changed, so listeners are
+     * not told.
+     */
+    public void transactionRejected(String transactionId) {
+        eventBuffer.publish(TransactionEventType.REJECTED, transactionId, null, null);
+    }
+}
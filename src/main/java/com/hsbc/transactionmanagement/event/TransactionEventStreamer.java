@@ -0,0 +1,160 @@
+package com.hsbc.transactionmanagement.event;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Fans events out of the {@link TransactionEventBuffer} to Server-Sent Event subscribers.
+ * <p>
+ * Every tick a dispatcher thread hands each idle subscriber one batch to send on its own
+ * virtual thread, so a slow consumer only delays itself, never other subscribers or writers.
+ * A subscriber that falls more than one buffer lap behind receives a {@code lag} event with
+ * the number of events it missed; one whose send has not returned within the send timeout is
+ * dropped.
+ */
+@Component
+public class TransactionEventStreamer {
+
+    private static final Logger logger = LoggerFactory.getLogger(TransactionEventStreamer.class);
+
+    static final String LAG_EVENT_NAME = "lag";
+
+    private final TransactionEventBuffer eventBuffer;
+    private final int batchSize;
+    private final long streamTimeoutMillis;
+    private final long sendTimeoutNanos;
+    private final Set<Subscription> subscriptions = ConcurrentHashMap.newKeySet();
+    private final ScheduledExecutorService dispatcher;
+    private final ExecutorService senders = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("transaction-event-sender-", 0).factory());
+
+    @Autowired
+    public TransactionEventStreamer(TransactionEventBuffer eventBuffer,
+                                    @Value("${transaction.events.poll-interval:PT0.1S}") Duration pollInterval,
+                                    @Value("${transaction.events.batch-size:256}") int batchSize,
+                                    @Value("${transaction.events.stream-timeout:PT30M}") Duration streamTimeout,
+                                    @Value("${transaction.events.send-timeout:PT10S}") Duration sendTimeout) {
+        this.eventBuffer = eventBuffer;
+        this.batchSize = batchSize;
+        this.streamTimeoutMillis = streamTimeout.toMillis();
+        this.sendTimeoutNanos = sendTimeout.toNanos();
+        this.dispatcher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "transaction-event-dispatcher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long intervalMillis = Math.max(1, pollInterval.toMillis());
+        dispatcher.scheduleWithFixedDelay(this::dispatch, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Opens a stream starting at {@code fromSequence}, or at the next published event when
+     * {@code null}.
+     */
+    public SseEmitter subscribe(Long fromSequence) {
+        return subscribe(new SseEmitter(streamTimeoutMillis), fromSequence);
+    }
+
+    SseEmitter subscribe(SseEmitter emitter, Long fromSequence) {
+        long cursor = fromSequence != null ? fromSequence : eventBuffer.headSequence();
+        Subscription subscription = new Subscription(emitter, cursor);
+        emitter.onCompletion(() -> subscriptions.remove(subscription));
+        emitter.onTimeout(() -> subscriptions.remove(subscription));
+        emitter.onError(error -> subscriptions.remove(subscription));
+        subscriptions.add(subscription);
+        logger.info("Event stream subscriber added at sequence {}, {} active", cursor, subscriptions.size());
+        return emitter;
+    }
+
+    public int subscriberCount() {
+        return subscriptions.size();
+    }
+
+    void dispatch() {
+        // 0 marks an idle subscriber
+        long now = Math.max(1, System.nanoTime());
+        for (Subscription subscription : subscriptions) {
+            long sendingSince = subscription.sendingSince.get();
+            if (sendingSince == 0) {
+                if (subscription.sendingSince.compareAndSet(0, now)) {
+                    senders.execute(subscription::send);
+                }
+            } else if (now - sendingSince > sendTimeoutNanos) {
+                drop(subscription, new IOException("No progress sending events for over "
+                        + TimeUnit.NANOSECONDS.toMillis(sendTimeoutNanos) + " ms"));
+            }
+        }
+    }
+
+    private void drop(Subscription subscription, Exception cause) {
+        if (subscriptions.remove(subscription)) {
+            logger.debug("Dropping event stream subscriber: {}", cause.getMessage());
+            subscription.emitter.completeWithError(cause);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        dispatcher.shutdownNow();
+        senders.shutdownNow();
+        subscriptions.forEach(subscription -> subscription.emitter.complete());
+        subscriptions.clear();
+    }
+
+    private final class Subscription {
+
+        private final SseEmitter emitter;
+        // When the running send started, or 0 while none is running; at most one runs at a time
+        private final AtomicLong sendingSince = new AtomicLong();
+        private long cursor;
+
+        private Subscription(SseEmitter emitter, long cursor) {
+            this.emitter = emitter;
+            this.cursor = cursor;
+        }
+
+        private void send() {
+            try {
+                drain();
+            } catch (IOException | RuntimeException ex) {
+                // The client went away; drop it and keep serving the others
+                drop(this, ex);
+            } finally {
+                sendingSince.set(0);
+            }
+        }
+
+        // Sends are serialized by sendingSince, which also publishes cursor between them
+        private void drain() throws IOException {
+            TransactionEventBuffer.Batch batch = eventBuffer.read(cursor, batchSize);
+            if (batch.missed() > 0) {
+                emitter.send(SseEmitter.event()
+                        .name(LAG_EVENT_NAME)
+                        .data(Map.of("missed", batch.missed(), "resumedAt", batch.nextCursor() - batch.events().size())));
+            }
+            for (TransactionEvent event : batch.events()) {
+                emitter.send(SseEmitter.event()
+                        .id(String.valueOf(event.sequence()))
+                        .name(event.type().name())
+                        .data(event));
+            }
+            cursor = batch.nextCursor();
+        }
+    }
+}
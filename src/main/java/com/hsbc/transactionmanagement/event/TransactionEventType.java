@@ -0,0 +1,9 @@
+package com.hsbc.transactionmanagement.event;
+
+public enum TransactionEventType {
+    CREATED,
+    STATUS_UPDATED,
+    DELETED,
+    // An asynchronously accepted create that the writer could not apply
+    REJECTED
+}
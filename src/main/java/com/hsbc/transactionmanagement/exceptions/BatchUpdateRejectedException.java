@@ -0,0 +1,18 @@
+package com.hsbc.transactionmanagement.exceptions;
+
+import java.util.List;
+
+public class BatchUpdateRejectedException extends RuntimeException {
+    private final List<Failure> failures;
+
+    public BatchUpdateRejectedException(List<Failure> failures) {
+        super(failures.size() + " transaction(s) in the batch cannot be updated; no transaction was changed");
+        this.failures = List.copyOf(failures);
+    }
+
+    public List<Failure> getFailures() {
+        return failures;
+    }
+
+    public record Failure(String transactionId, String errorCode, String message) {}
+}
@@ -0,0 +1,14 @@
+package com.hsbc.transactionmanagement.exceptions;
+
+public class BulkImportInProgressException extends RuntimeException {
+    private final String runningSource;
+
+    public BulkImportInProgressException(String runningSource) {
+        super("Another bulk import is still running: " + runningSource);
+        this.runningSource = runningSource;
+    }
+
+    public String getRunningSource() {
+        return runningSource;
+    }
+}
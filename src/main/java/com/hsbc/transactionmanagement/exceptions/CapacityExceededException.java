@@ -0,0 +1,21 @@
+package com.hsbc.transactionmanagement.exceptions;
+
+public class CapacityExceededException extends RuntimeException {
+    private final long estimatedBytes;
+    private final long hardLimitBytes;
+
+    public CapacityExceededException(long estimatedBytes, long hardLimitBytes) {
+        super("Transaction store is at capacity: an estimated " + estimatedBytes
+                + " bytes held against a hard limit of " + hardLimitBytes + " bytes");
+        this.estimatedBytes = estimatedBytes;
+        this.hardLimitBytes = hardLimitBytes;
+    }
+
+    public long getEstimatedBytes() {
+        return estimatedBytes;
+    }
+
+    public long getHardLimitBytes() {
+        return hardLimitBytes;
+    }
+}
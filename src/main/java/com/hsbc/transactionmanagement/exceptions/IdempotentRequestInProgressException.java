@@ -0,0 +1,14 @@
+package com.hsbc.transactionmanagement.exceptions;
+
+public class IdempotentRequestInProgressException extends RuntimeException {
+    private final String idempotencyKey;
+
+    public IdempotentRequestInProgressException(String idempotencyKey) {
+        super("A request with this idempotency key is still being processed: " + idempotencyKey);
+        this.idempotencyKey = idempotencyKey;
+    }
+
+    public String getIdempotencyKey() {
+        return idempotencyKey;
+    }
+}
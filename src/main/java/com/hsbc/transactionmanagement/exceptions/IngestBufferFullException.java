@@ -0,0 +1,14 @@
+package com.hsbc.transactionmanagement.exceptions;
+
+public class IngestBufferFullException extends RuntimeException {
+    private final int capacity;
+
+    public IngestBufferFullException(int capacity) {
+        super("All " + capacity + " slots for asynchronous creates are taken");
+        this.capacity = capacity;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+}
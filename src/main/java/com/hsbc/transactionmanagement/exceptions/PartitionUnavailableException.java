@@ -0,0 +1,19 @@
+package com.hsbc.transactionmanagement.exceptions;
+
+public class PartitionUnavailableException extends RuntimeException {
+    private final String node;
+
+    public PartitionUnavailableException(String node, Throwable cause) {
+        super("Partition " + node + " could not be reached", cause);
+        this.node = node;
+    }
+
+    public PartitionUnavailableException(String node, String reason) {
+        super("Partition " + node + " failed: " + reason);
+        this.node = node;
+    }
+
+    public String getNode() {
+        return node;
+    }
+}
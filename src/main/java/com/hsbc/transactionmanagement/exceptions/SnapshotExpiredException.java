@@ -0,0 +1,14 @@
+package com.hsbc.transactionmanagement.exceptions;
+
+public class SnapshotExpiredException extends RuntimeException {
+    private final String snapshotToken;
+
+    public SnapshotExpiredException(String snapshotToken) {
+        super("Snapshot expired or unknown: " + snapshotToken);
+        this.snapshotToken = snapshotToken;
+    }
+
+    public String getSnapshotToken() {
+        return snapshotToken;
+    }
+}
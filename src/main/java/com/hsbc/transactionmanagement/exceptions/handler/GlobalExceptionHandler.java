@@ -1,14 +1,24 @@
 package com.hsbc.transactionmanagement.exceptions.handler;
 
+import com.hsbc.transactionmanagement.exceptions.BatchUpdateRejectedException;
+import com.hsbc.transactionmanagement.exceptions.BulkImportInProgressException;
+import com.hsbc.transactionmanagement.exceptions.CapacityExceededException;
 import com.hsbc.transactionmanagement.exceptions.DuplicateTransactionException;
+import com.hsbc.transactionmanagement.exceptions.IdempotencyKeyReusedException;
+import com.hsbc.transactionmanagement.exceptions.IdempotentRequestInProgressException;
+import com.hsbc.transactionmanagement.exceptions.IngestBufferFullException;
+import com.hsbc.transactionmanagement.exceptions.PartitionUnavailableException;
+import com.hsbc.transactionmanagement.exceptions.SnapshotExpiredException;
 import com.hsbc.transactionmanagement.exceptions.TransactionNotFoundException;
 import com.hsbc.transactionmanagement.exceptions.TransactionValidationException;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ProblemDetail;
+import org.springframework.http.ResponseEntity;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -24,8 +34,11 @@ import java.util.stream.Collectors;
         @ApiResponse(responseCode = "403", description = "Forbidden"),
         @ApiResponse(responseCode = "404", description = "Resource not found"),
         @ApiResponse(responseCode = "409", description = "Conflict"),
+        @ApiResponse(responseCode = "410", description = "Snapshot expired"),
         @ApiResponse(responseCode = "422", description = "Validation error"),
-        @ApiResponse(responseCode = "500", description = "Internal server error")
+        @ApiResponse(responseCode = "500", description = "Internal server error"),
+        @ApiResponse(responseCode = "503", description = "A partition of the data could not be reached, or too many asynchronous creates are waiting"),
+        @ApiResponse(responseCode = "507", description = "Transaction store at capacity")
 })
 public class GlobalExceptionHandler {
 
@@ -91,6 +104,113 @@ public class GlobalExceptionHandler {
         return pd;
     }
     
+    @ExceptionHandler(BatchUpdateRejectedException.class)
+    public ProblemDetail handleBatchUpdateRejected(BatchUpdateRejectedException ex) {
+        logger.warn("Batch status update rejected: {}", ex.getMessage());
+
+        ProblemDetail pd = ProblemDetail.forStatus(HttpStatus.UNPROCESSABLE_ENTITY);
+        pd.setTitle("Batch Update Rejected");
+        pd.setDetail(ex.getMessage());
+        pd.setProperty("failures", ex.getFailures());
+        pd.setProperty("errorCode", "BATCH_UPDATE_REJECTED");
+
+        return pd;
+    }
+
+    @ExceptionHandler(IdempotencyKeyReusedException.class)
+    public ProblemDetail handleIdempotencyKeyReused(IdempotencyKeyReusedException ex) {
+        logger.warn("Idempotency key reused: {}", ex.getMessage());
+
+        ProblemDetail pd = ProblemDetail.forStatus(HttpStatus.UNPROCESSABLE_ENTITY);
+        pd.setTitle("Idempotency Key Reused");
+        pd.setDetail(ex.getMessage());
+        pd.setProperty("idempotencyKey", ex.getIdempotencyKey());
+        pd.setProperty("errorCode", "IDEMPOTENCY_KEY_REUSED");
+
+        return pd;
+    }
+
+    @ExceptionHandler(IdempotentRequestInProgressException.class)
+    public ProblemDetail handleIdempotentRequestInProgress(IdempotentRequestInProgressException ex) {
+        logger.warn("Idempotent request still in progress: {}", ex.getMessage());
+
+        ProblemDetail pd = ProblemDetail.forStatus(HttpStatus.CONFLICT);
+        pd.setTitle("Request In Progress");
+        pd.setDetail(ex.getMessage());
+        pd.setProperty("idempotencyKey", ex.getIdempotencyKey());
+        pd.setProperty("errorCode", "IDEMPOTENT_REQUEST_IN_PROGRESS");
+
+        return pd;
+    }
+
+    @ExceptionHandler(SnapshotExpiredException.class)
+    public ProblemDetail handleSnapshotExpired(SnapshotExpiredException ex) {
+        logger.warn("Snapshot read rejected: {}", ex.getMessage());
+
+        ProblemDetail pd = ProblemDetail.forStatus(HttpStatus.GONE);
+        pd.setTitle("Snapshot Expired");
+        pd.setDetail(ex.getMessage() + ". Start again without a snapshot token.");
+        pd.setProperty("snapshotToken", ex.getSnapshotToken());
+        pd.setProperty("errorCode", "SNAPSHOT_EXPIRED");
+
+        return pd;
+    }
+
+    @ExceptionHandler(BulkImportInProgressException.class)
+    public ProblemDetail handleBulkImportInProgress(BulkImportInProgressException ex) {
+        logger.warn("Bulk import rejected: {}", ex.getMessage());
+
+        ProblemDetail pd = ProblemDetail.forStatus(HttpStatus.CONFLICT);
+        pd.setTitle("Import In Progress");
+        pd.setDetail(ex.getMessage());
+        pd.setProperty("runningSource", ex.getRunningSource());
+        pd.setProperty("errorCode", "IMPORT_IN_PROGRESS");
+
+        return pd;
+    }
+
+    @ExceptionHandler(CapacityExceededException.class)
+    public ProblemDetail handleCapacityExceeded(CapacityExceededException ex) {
+        logger.warn("Write rejected: {}", ex.getMessage());
+
+        ProblemDetail pd = ProblemDetail.forStatus(HttpStatus.INSUFFICIENT_STORAGE);
+        pd.setTitle("Capacity Exceeded");
+        pd.setDetail("The transaction store is full. Updates and deletes are still accepted.");
+        pd.setProperty("estimatedBytes", ex.getEstimatedBytes());
+        pd.setProperty("hardLimitBytes", ex.getHardLimitBytes());
+        pd.setProperty("errorCode", "CAPACITY_EXCEEDED");
+
+        return pd;
+    }
+
+    @ExceptionHandler(IngestBufferFullException.class)
+    public ResponseEntity<ProblemDetail> handleIngestBufferFull(IngestBufferFullException ex) {
+        logger.warn("Asynchronous create rejected: {}", ex.getMessage());
+
+        ProblemDetail pd = ProblemDetail.forStatus(HttpStatus.SERVICE_UNAVAILABLE);
+        pd.setTitle("Ingest Buffer Full");
+        pd.setDetail("Too many creates are waiting to be written. Retry later or create synchronously.");
+        pd.setProperty("capacity", ex.getCapacity());
+        pd.setProperty("errorCode", "INGEST_BUFFER_FULL");
+
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(pd);
+    }
+
+    @ExceptionHandler(PartitionUnavailableException.class)
+    public ProblemDetail handlePartitionUnavailable(PartitionUnavailableException ex) {
+        logger.warn("Partitioned read failed: {}", ex.getMessage());
+
+        ProblemDetail pd = ProblemDetail.forStatus(HttpStatus.SERVICE_UNAVAILABLE);
+        pd.setTitle("Partition Unavailable");
+        pd.setDetail("Part of the data lives on a node that did not answer. Retry later.");
+        pd.setProperty("node", ex.getNode());
+        pd.setProperty("errorCode", "PARTITION_UNAVAILABLE");
+
+        return pd;
+    }
+
     @ExceptionHandler(Exception.class)
     public ProblemDetail handleGenericException(Exception ex) {
         logger.error("Unhandled exception occurred", ex);
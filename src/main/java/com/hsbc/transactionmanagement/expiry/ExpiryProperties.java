@@ -0,0 +1,25 @@
+package com.hsbc.transactionmanagement.expiry;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Expiry of transactions left {@code PENDING}.
+ *
+ * @param pendingTimeout how long after its timestamp a {@code PENDING} transaction is moved to {@code FAILED}
+ * @param tick           resolution of the timing wheel, and how often expired transactions are collected
+ * @param wheelSize      slots per wheel level, rounded up to a power of two
+ * @param levels         wheel levels; together they reach {@code tick * wheelSize^levels} ahead
+ * @param batchSize      transactions moved to {@code FAILED} per batch status update
+ */
+@ConfigurationProperties(prefix = "transaction.expiry")
+public record ExpiryProperties(
+        @DefaultValue("false") boolean enabled,
+        @DefaultValue("PT30M") Duration pendingTimeout,
+        @DefaultValue("PT1S") Duration tick,
+        @DefaultValue("256") int wheelSize,
+        @DefaultValue("4") int levels,
+        @DefaultValue("500") int batchSize
+) {}
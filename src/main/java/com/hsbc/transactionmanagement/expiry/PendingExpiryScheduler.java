@@ -0,0 +1,219 @@
+package com.hsbc.transactionmanagement.expiry;
+
+import com.hsbc.transactionmanagement.event.TransactionEventListener;
+import com.hsbc.transactionmanagement.event.TransactionEventPublisher;
+import com.hsbc.transactionmanagement.exceptions.BatchUpdateRejectedException;
+import com.hsbc.transactionmanagement.model.Transaction;
+import com.hsbc.transactionmanagement.repository.TransactionRepository;
+import com.hsbc.transactionmanagement.service.TransactionService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Moves transactions that stay {@code PENDING} for longer than the timeout to
+ * {@code FAILED}. Every pending transaction holds one timer in a {@link TimingWheel},
+ * started when it is created and cancelled when it leaves {@code PENDING} or is deleted, so
+ * nothing ever scans the store except once at startup.
+ * <p>
+ * Expired transactions are updated through {@link TransactionService#updateTransactionStatuses}
+ * in batches, so the usual transition rules, events and cache updates apply. A transaction
+ * that settled in the meantime fails the batch's validation and is left out of a second try.
+ * A timer is only released once its batch is committed; a batch that fails for any other
+ * reason is tried again on the next tick.
+ * <p>
+ * Timestamps are read as UTC, like everywhere else in the store.
+ */
+public class PendingExpiryScheduler implements TransactionEventListener, AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(PendingExpiryScheduler.class);
+
+    static final String PENDING = "PENDING";
+    static final String EXPIRED_STATUS = "FAILED";
+
+    private final TransactionService service;
+    private final Duration pendingTimeout;
+    private final int batchSize;
+    private final LongSupplier currentMillis;
+    private final long tickMillis;
+    private final TimingWheel<String> wheel;
+    private final Map<String, TimingWheel.Timer<String>> timers = new ConcurrentHashMap<>();
+    private final LongAdder expired = new LongAdder();
+    private final ScheduledExecutorService scheduler;
+
+    public PendingExpiryScheduler(TransactionService service, TransactionRepository repository,
+                                  TransactionEventPublisher publisher, ExpiryProperties properties) {
+        this(service, repository, publisher, properties, System::currentTimeMillis);
+    }
+
+    PendingExpiryScheduler(TransactionService service, TransactionRepository repository,
+                           TransactionEventPublisher publisher, ExpiryProperties properties,
+                           LongSupplier currentMillis) {
+        this.service = service;
+        this.pendingTimeout = properties.pendingTimeout();
+        this.batchSize = properties.batchSize();
+        this.currentMillis = currentMillis;
+        this.tickMillis = Math.max(1, properties.tick().toMillis());
+        this.wheel = new TimingWheel<>(tickMillis, properties.wheelSize(), properties.levels(), currentMillis.getAsLong());
+        // Listen before scanning, so nothing created during the scan is missed
+        publisher.addListener(this);
+        try (var pending = repository.stream()) {
+            pending.filter(transaction -> PENDING.equals(transaction.getStatus())).forEach(this::schedule);
+        }
+        logger.info("Tracking {} pending transactions for expiry after {}", timers.size(), pendingTimeout);
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "pending-expiry");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::tickSafely, tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void transactionCreated(Transaction transaction) {
+        if (PENDING.equals(transaction.getStatus())) {
+            schedule(transaction);
+        }
+    }
+
+    @Override
+    public void statusUpdated(Transaction transaction, String previousStatus) {
+        if (PENDING.equals(transaction.getStatus())) {
+            schedule(transaction);
+        } else {
+            cancel(transaction.getTransactionId());
+        }
+    }
+
+    @Override
+    public void transactionDeleted(String transactionId) {
+        cancel(transactionId);
+    }
+
+    /**
+     * Pending transactions with a running timer.
+     */
+    public int pendingCount() {
+        return timers.size();
+    }
+
+    /**
+     * Transactions this scheduler moved to {@code FAILED}.
+     */
+    public long expiredCount() {
+        return expired.sum();
+    }
+
+    /**
+     * Collects the timers due by now and fails their transactions.
+     *
+     * @return how many transactions were moved to {@code FAILED}
+     */
+    int tick() {
+        long now = currentMillis.getAsLong();
+        // The fired timer of each due transaction; it stays in timers until its batch commits
+        Map<String, TimingWheel.Timer<String>> due = new LinkedHashMap<>();
+        for (String id : wheel.advance(now)) {
+            TimingWheel.Timer<String> timer = timers.get(id);
+            // Scheduled again after this timer fired: the newer timer decides
+            if (timer == null || !timer.isScheduled()) {
+                due.put(id, timer);
+            }
+        }
+        List<String> ids = new ArrayList<>(due.keySet());
+        int failed = 0;
+        for (int from = 0; from < ids.size(); from += batchSize) {
+            List<String> batch = ids.subList(from, Math.min(ids.size(), from + batchSize));
+            try {
+                failed += expire(batch);
+                batch.forEach(id -> release(id, due.get(id)));
+            } catch (RuntimeException ex) {
+                logger.warn("Could not expire {} pending transactions, trying again on the next tick",
+                        batch.size(), ex);
+                batch.forEach(id -> rearm(id, due.get(id), now + tickMillis));
+            }
+        }
+        expired.add(failed);
+        return failed;
+    }
+
+    private int expire(List<String> batch) {
+        try {
+            return service.updateTransactionStatuses(batch, EXPIRED_STATUS).size();
+        } catch (BatchUpdateRejectedException ex) {
+            // Settled or deleted since the timer was set; the rest still expire
+            Set<String> rejected = new HashSet<>();
+            ex.getFailures().forEach(failure -> rejected.add(failure.transactionId()));
+            List<String> remaining = batch.stream().filter(id -> !rejected.contains(id)).toList();
+            if (remaining.isEmpty()) {
+                return 0;
+            }
+            return service.updateTransactionStatuses(remaining, EXPIRED_STATUS).size();
+        }
+    }
+
+    private void release(String transactionId, TimingWheel.Timer<String> fired) {
+        if (fired != null) {
+            timers.remove(transactionId, fired);
+        }
+    }
+
+    // Unless the transaction settled or was scheduled again in the meantime
+    private void rearm(String transactionId, TimingWheel.Timer<String> fired, long deadline) {
+        if (fired != null) {
+            timers.computeIfPresent(transactionId,
+                    (id, timer) -> timer == fired ? wheel.schedule(id, deadline) : timer);
+        }
+    }
+
+    private void schedule(Transaction transaction) {
+        long since = transaction.getTimestamp() != null
+                ? transaction.getTimestamp().toInstant(ZoneOffset.UTC).toEpochMilli()
+                : currentMillis.getAsLong();
+        long deadline = since + pendingTimeout.toMillis();
+        timers.compute(transaction.getTransactionId(), (id, previous) -> {
+            if (previous != null) {
+                wheel.cancel(previous);
+            }
+            return wheel.schedule(id, deadline);
+        });
+    }
+
+    private void cancel(String transactionId) {
+        TimingWheel.Timer<String> timer = timers.remove(transactionId);
+        if (timer != null) {
+            wheel.cancel(timer);
+        }
+    }
+
+    private void tickSafely() {
+        try {
+            int failed = tick();
+            if (failed > 0) {
+                logger.info("Expired {} pending transactions", failed);
+            }
+        } catch (RuntimeException ex) {
+            // Failed batches are re-armed by tick itself, so only the wheel can fail here
+            logger.error("Expiring pending transactions failed", ex);
+        }
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+    }
+}
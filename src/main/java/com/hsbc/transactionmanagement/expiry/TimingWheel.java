@@ -0,0 +1,198 @@
+package com.hsbc.transactionmanagement.expiry;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Hierarchical timing wheel: a stack of wheels whose slots each span a whole turn of the
+ * wheel below. A timer goes into the lowest wheel that reaches its deadline and cascades
+ * one wheel down whenever the clock enters its slot, so scheduling and cancelling are O(1)
+ * and advancing costs one step per tick plus one move per timer per level, however many
+ * timers there are.
+ * <p>
+ * Slots are intrusive doubly linked lists of {@link Timer}s, so a timer costs one small
+ * object. Deadlines are rounded up to the tick. All methods are thread-safe.
+ */
+public final class TimingWheel<T> {
+
+    /**
+     * A scheduled timer, handed back so it can be cancelled.
+     */
+    public static final class Timer<T> {
+
+        private final T value;
+        private final long deadline;
+        private Timer<T> previous;
+        private Timer<T> next;
+        // Read outside the wheel's lock by callers checking whether a timer has fired
+        private volatile boolean scheduled;
+
+        private Timer(T value, long deadline) {
+            this.value = value;
+            this.deadline = deadline;
+        }
+
+        public T value() {
+            return value;
+        }
+
+        /**
+         * Whether the timer has neither fired nor been cancelled.
+         */
+        public boolean isScheduled() {
+            return scheduled;
+        }
+    }
+
+    private final long tickMillis;
+    private final int bits;
+    private final int mask;
+    // wheels[level][slot] is the sentinel of a circular list
+    private final Timer<T>[][] wheels;
+    // Timers whose deadline had passed when they were scheduled
+    private final Timer<T> due;
+    private long currentTick;
+    private int size;
+
+    /**
+     * @param wheelSize   slots per wheel, rounded up to a power of two
+     * @param levels      wheels stacked on each other; deadlines beyond
+     *                    {@code tickMillis * wheelSize^levels} are held at that horizon and
+     *                    placed again when it is reached
+     * @param startMillis the current time
+     */
+    @SuppressWarnings("unchecked")
+    public TimingWheel(long tickMillis, int wheelSize, int levels, long startMillis) {
+        if (tickMillis < 1 || wheelSize < 2 || levels < 1) {
+            throw new IllegalArgumentException("A timing wheel needs a positive tick, two slots and one level");
+        }
+        this.tickMillis = tickMillis;
+        this.bits = Integer.SIZE - Integer.numberOfLeadingZeros(wheelSize - 1);
+        if ((long) bits * levels >= Long.SIZE - 1) {
+            throw new IllegalArgumentException("Timing wheel spans more than 2^62 ticks");
+        }
+        this.mask = (1 << bits) - 1;
+        this.wheels = new Timer[levels][1 << bits];
+        for (Timer<T>[] wheel : wheels) {
+            for (int slot = 0; slot < wheel.length; slot++) {
+                wheel[slot] = sentinel();
+            }
+        }
+        this.due = sentinel();
+        this.currentTick = startMillis / tickMillis;
+    }
+
+    /**
+     * Schedules {@code value} to come out of {@link #advance} once the clock reaches
+     * {@code deadlineMillis}.
+     */
+    public synchronized Timer<T> schedule(T value, long deadlineMillis) {
+        Timer<T> timer = new Timer<>(value, Math.floorDiv(deadlineMillis + tickMillis - 1, tickMillis));
+        place(timer);
+        size++;
+        return timer;
+    }
+
+    /**
+     * @return whether the timer was still pending
+     */
+    public synchronized boolean cancel(Timer<T> timer) {
+        if (!timer.scheduled) {
+            return false;
+        }
+        unlink(timer);
+        size--;
+        return true;
+    }
+
+    /**
+     * Moves the clock to {@code nowMillis} and returns the values of every timer that came
+     * due, tick by tick.
+     */
+    public synchronized List<T> advance(long nowMillis) {
+        List<T> expired = new ArrayList<>();
+        drain(due, expired);
+        long target = nowMillis / tickMillis;
+        while (currentTick < target) {
+            currentTick++;
+            // Bring down the slot of each wheel whose turn the clock just entered
+            for (int level = 1; level < wheels.length && (currentTick & ((1L << (bits * level)) - 1)) == 0; level++) {
+                drain(wheels[level][(int) (currentTick >>> (bits * level)) & mask], expired);
+            }
+            drain(wheels[0][(int) currentTick & mask], expired);
+            // Timers cascaded onto this very tick
+            drain(due, expired);
+        }
+        size -= expired.size();
+        return expired;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    private void place(Timer<T> timer) {
+        long delta = timer.deadline - currentTick;
+        if (delta <= 0) {
+            link(due, timer);
+            return;
+        }
+        for (int level = 0; level < wheels.length; level++) {
+            if (delta < 1L << (bits * (level + 1))) {
+                link(wheels[level][(int) (timer.deadline >>> (bits * level)) & mask], timer);
+                return;
+            }
+        }
+        // Beyond the top wheel: park in the top wheel's last slot of this turn and place again
+        // when it cascades
+        int top = wheels.length - 1;
+        long horizon = currentTick + (1L << (bits * wheels.length)) - 1;
+        link(wheels[top][(int) (horizon >>> (bits * top)) & mask], timer);
+    }
+
+    /**
+     * Empties a slot: timers that are due expire, the others are placed again, one level
+     * down or, if parked beyond the horizon, wherever they belong now.
+     */
+    private void drain(Timer<T> sentinel, List<T> expired) {
+        Timer<T> timer = sentinel.next;
+        // Detached first, since a timer placed again may land in this same slot
+        sentinel.next = sentinel;
+        sentinel.previous = sentinel;
+        while (timer != sentinel) {
+            Timer<T> next = timer.next;
+            timer.previous = null;
+            timer.next = null;
+            timer.scheduled = false;
+            if (timer.deadline > currentTick) {
+                place(timer);
+            } else {
+                expired.add(timer.value);
+            }
+            timer = next;
+        }
+    }
+
+    private static <T> void link(Timer<T> sentinel, Timer<T> timer) {
+        timer.previous = sentinel.previous;
+        timer.next = sentinel;
+        sentinel.previous.next = timer;
+        sentinel.previous = timer;
+        timer.scheduled = true;
+    }
+
+    private static <T> void unlink(Timer<T> timer) {
+        timer.previous.next = timer.next;
+        timer.next.previous = timer.previous;
+        timer.previous = null;
+        timer.next = null;
+        timer.scheduled = false;
+    }
+
+    private static <T> Timer<T> sentinel() {
+        Timer<T> sentinel = new Timer<>(null, 0);
+        sentinel.previous = sentinel;
+        sentinel.next = sentinel;
+        return sentinel;
+    }
+}
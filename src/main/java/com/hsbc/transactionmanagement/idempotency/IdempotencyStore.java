@@ -0,0 +1,96 @@
+package com.hsbc.transactionmanagement.idempotency;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.hsbc.transactionmanagement.exceptions.IdempotencyKeyReusedException;
+import com.hsbc.transactionmanagement.exceptions.IdempotentRequestInProgressException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Time- and size-bounded dedup window for requests carrying an {@code Idempotency-Key}.
+ * <p>
+ * The first request for a key runs the action; any duplicate arriving while it is in
+ * flight waits for the same outcome, and later duplicates replay the stored response
+ * without running the action again. Failed actions are not remembered, so a client can
+ * retry them with the same key.
+ */
+@Component
+public class IdempotencyStore {
+
+    private final Cache<String, Entry> entries;
+    private final long inFlightWaitMillis;
+
+    public IdempotencyStore(@Value("${transaction.idempotency.ttl:PT24H}") Duration ttl,
+                            @Value("${transaction.idempotency.max-keys:100000}") long maxKeys,
+                            @Value("${transaction.idempotency.in-flight-wait:PT10S}") Duration inFlightWait) {
+        this.entries = Caffeine.newBuilder()
+                .expireAfterWrite(ttl)
+                .maximumSize(maxKeys)
+                .build();
+        this.inFlightWaitMillis = inFlightWait.toMillis();
+    }
+
+    /**
+     * Runs {@code action} once per key within the dedup window.
+     *
+     * @param fingerprint the request the key was issued for; a different request with the same
+     *                    key is rejected with {@link IdempotencyKeyReusedException}
+     */
+    public <T> Result<T> execute(String key, Object fingerprint, Supplier<T> action) {
+        CompletableFuture<Object> outcome = new CompletableFuture<>();
+        Entry candidate = new Entry(fingerprint, outcome);
+        Entry existing = entries.asMap().putIfAbsent(key, candidate);
+        if (existing == null) {
+            try {
+                T response = action.get();
+                outcome.complete(response);
+                return new Result<>(response, false);
+            } catch (RuntimeException ex) {
+                entries.asMap().remove(key, candidate);
+                outcome.completeExceptionally(ex);
+                throw ex;
+            }
+        }
+        if (!existing.fingerprint().equals(fingerprint)) {
+            throw new IdempotencyKeyReusedException(key);
+        }
+        return new Result<>(awaitOutcome(key, existing), true);
+    }
+
+    public long size() {
+        return entries.estimatedSize();
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T awaitOutcome(String key, Entry entry) {
+        try {
+            return (T) entry.outcome().get(inFlightWaitMillis, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException ex) {
+            // Duplicates of a failed request see the same failure as the original
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(ex.getCause());
+        } catch (TimeoutException ex) {
+            throw new IdempotentRequestInProgressException(key);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IdempotentRequestInProgressException(key);
+        }
+    }
+
+    private record Entry(Object fingerprint, CompletableFuture<Object> outcome) {}
+
+    /**
+     * @param replayed {@code true} when the response came from an earlier request with the same key
+     */
+    public record Result<T>(T response, boolean replayed) {}
+}
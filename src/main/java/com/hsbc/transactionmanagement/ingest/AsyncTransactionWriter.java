@@ -0,0 +1,220 @@
+package com.hsbc.transactionmanagement.ingest;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.hsbc.transactionmanagement.capacity.CapacityGuard;
+import com.hsbc.transactionmanagement.diagnostics.ValidationFailureEvent;
+import com.hsbc.transactionmanagement.event.TransactionEventPublisher;
+import com.hsbc.transactionmanagement.exceptions.DuplicateTransactionException;
+import com.hsbc.transactionmanagement.exceptions.IngestBufferFullException;
+import com.hsbc.transactionmanagement.exceptions.TransactionValidationException;
+import com.hsbc.transactionmanagement.model.Transaction;
+import com.hsbc.transactionmanagement.model.TransactionCreateRequest;
+import com.hsbc.transactionmanagement.repository.TransactionRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Accepts creates on the request thread and applies them on a single writer thread.
+ * <p>
+ * {@link #submit} runs the same checks as a synchronous create, then queues the transaction
+ * in a {@link WriteRingBuffer} and returns. The writer drains the ring in batches of up to
+ * {@code batchSize} into a {@link BatchInserter}, which stores, caches and publishes a
+ * {@code CREATED} event per transaction, and publishes a {@code REJECTED} event for one that
+ * lost a race with a synchronous create of the same ID or found the store full. Queuing
+ * takes one CAS on the ring and never waits for the writer, and only the writer inserts.
+ * <p>
+ * Outcomes are kept for {@code outcomeTtl} so clients can poll them. Creates still queued at
+ * shutdown are written before the writer stops.
+ */
+public class AsyncTransactionWriter implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(AsyncTransactionWriter.class);
+
+    // Upper bound on how long an idle writer sleeps if a producer's wake-up is missed
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final long SHUTDOWN_WAIT_MILLIS = 5_000;
+
+    private final TransactionRepository repository;
+    private final BatchInserter inserter;
+    private final TransactionEventPublisher eventPublisher;
+    private final CapacityGuard capacityGuard;
+    private final WriteRingBuffer<Transaction> buffer;
+    private final int batchSize;
+    private final com.github.benmanes.caffeine.cache.Cache<String, IngestOutcome> outcomes;
+    private final LongAdder written = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final Thread writer;
+    private volatile boolean running = true;
+    private volatile boolean idle;
+
+    /**
+     * Stores the transactions of a batch whose IDs are new, and caches and publishes each
+     * under the same per-ID locks as synchronous writes, so a concurrent update of one of them
+     * is cached and published after its create.
+     */
+    @FunctionalInterface
+    public interface BatchInserter {
+
+        /**
+         * @return the inserted transactions, in input order
+         */
+        List<Transaction> insertAll(List<Transaction> batch);
+    }
+
+    public AsyncTransactionWriter(TransactionRepository repository, BatchInserter inserter,
+                                  TransactionEventPublisher eventPublisher, CapacityGuard capacityGuard,
+                                  IngestProperties properties) {
+        this.repository = repository;
+        this.inserter = inserter;
+        this.eventPublisher = eventPublisher;
+        this.capacityGuard = capacityGuard;
+        this.buffer = new WriteRingBuffer<>(properties.bufferCapacity());
+        this.batchSize = properties.batchSize();
+        this.outcomes = Caffeine.newBuilder()
+                .expireAfterWrite(properties.outcomeTtl())
+                .maximumSize(properties.maxOutcomes())
+                .build();
+        this.writer = new Thread(this::run, "async-transaction-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Validates {@code request} and queues it for the writer.
+     *
+     * @throws DuplicateTransactionException if the ID is stored or already queued
+     * @throws IngestBufferFullException     if the writer is too far behind
+     */
+    public IngestOutcome submit(TransactionCreateRequest request) {
+        capacityGuard.checkWrite();
+        Transaction transaction = request.toEntity();
+        try {
+            transaction.validateBusinessRules();
+        } catch (TransactionValidationException ex) {
+            ValidationFailureEvent.emit(transaction.getTransactionId(), ex.getErrorCode(), ex.getMessage());
+            throw ex;
+        }
+        String id = transaction.getTransactionId();
+        if (repository.existsById(id)) {
+            throw new DuplicateTransactionException(id);
+        }
+        // Holding the ID as QUEUED turns away a second create of it before the writer sees either
+        IngestOutcome queued = IngestOutcome.queued(id);
+        IngestOutcome current = outcomes.asMap().compute(id, (key, previous) ->
+                previous == null || previous.state() == IngestOutcome.State.REJECTED ? queued : previous);
+        if (current != queued) {
+            throw new DuplicateTransactionException(id);
+        }
+        if (!buffer.offer(transaction)) {
+            outcomes.asMap().remove(id, queued);
+            throw new IngestBufferFullException(buffer.capacity());
+        }
+        if (idle) {
+            LockSupport.unpark(writer);
+        }
+        return queued;
+    }
+
+    /**
+     * The outcome of a create accepted here. Once its outcome has expired, a stored
+     * transaction is reported as created, without a time.
+     */
+    public Optional<IngestOutcome> outcome(String transactionId) {
+        IngestOutcome outcome = outcomes.getIfPresent(transactionId);
+        if (outcome == null && repository.existsById(transactionId)) {
+            outcome = new IngestOutcome(transactionId, IngestOutcome.State.CREATED, null, null, null);
+        }
+        return Optional.ofNullable(outcome);
+    }
+
+    /**
+     * Creates accepted and not yet applied.
+     */
+    public int queued() {
+        return buffer.size();
+    }
+
+    public int capacity() {
+        return buffer.capacity();
+    }
+
+    public long writtenCount() {
+        return written.sum();
+    }
+
+    public long rejectedCount() {
+        return rejected.sum();
+    }
+
+    private void run() {
+        List<Transaction> batch = new ArrayList<>(batchSize);
+        while (running || buffer.size() > 0) {
+            if (buffer.drainTo(batch, batchSize) == 0) {
+                idle = true;
+                // Checked after raising the flag, so a producer either sees it or is seen here
+                if (buffer.size() == 0 && running) {
+                    LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+                } else {
+                    Thread.onSpinWait();
+                }
+                idle = false;
+                continue;
+            }
+            try {
+                write(batch);
+            } catch (RuntimeException ex) {
+                logger.error("Writing {} queued transactions failed", batch.size(), ex);
+                batch.forEach(transaction -> reject(transaction.getTransactionId(), "WRITE_FAILED", ex.getMessage()));
+            }
+            batch.clear();
+        }
+    }
+
+    private void write(List<Transaction> batch) {
+        if (!capacityGuard.tryAdmitWrite()) {
+            batch.forEach(transaction -> reject(transaction.getTransactionId(), "CAPACITY_EXCEEDED",
+                    "Transaction store at capacity"));
+            return;
+        }
+        List<Transaction> inserted = inserter.insertAll(batch);
+        // insertAll keeps input order, so anything it skipped was a duplicate ID
+        int next = 0;
+        for (Transaction transaction : batch) {
+            String id = transaction.getTransactionId();
+            if (next < inserted.size() && inserted.get(next) == transaction) {
+                next++;
+                outcomes.put(id, IngestOutcome.created(id));
+                written.increment();
+            } else {
+                reject(id, "TRANSACTION_DUPLICATE", "Duplicate transaction detected: " + id);
+            }
+        }
+    }
+
+    private void reject(String transactionId, String errorCode, String message) {
+        outcomes.put(transactionId, IngestOutcome.rejected(transactionId, errorCode, message));
+        rejected.increment();
+        eventPublisher.transactionRejected(transactionId);
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        LockSupport.unpark(writer);
+        try {
+            writer.join(SHUTDOWN_WAIT_MILLIS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        if (writer.isAlive()) {
+            logger.warn("Async writer still had {} queued transactions at shutdown", buffer.size());
+        }
+    }
+}
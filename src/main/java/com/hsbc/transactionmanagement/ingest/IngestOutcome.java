@@ -0,0 +1,37 @@
+package com.hsbc.transactionmanagement.ingest;
+
+import java.time.Instant;
+
+/**
+ * Where an asynchronously accepted create stands.
+ *
+ * @param errorCode why a {@link State#REJECTED} create was not applied; {@code null} otherwise
+ * @param updatedAt when the create was queued, or when it was applied or rejected; {@code null}
+ *                  if no longer known
+ */
+public record IngestOutcome(
+        String transactionId,
+        State state,
+        String errorCode,
+        String message,
+        Instant updatedAt
+) {
+
+    public enum State {
+        QUEUED,
+        CREATED,
+        REJECTED
+    }
+
+    static IngestOutcome queued(String transactionId) {
+        return new IngestOutcome(transactionId, State.QUEUED, null, null, Instant.now());
+    }
+
+    static IngestOutcome created(String transactionId) {
+        return new IngestOutcome(transactionId, State.CREATED, null, null, Instant.now());
+    }
+
+    static IngestOutcome rejected(String transactionId, String errorCode, String message) {
+        return new IngestOutcome(transactionId, State.REJECTED, errorCode, message, Instant.now());
+    }
+}
@@ -0,0 +1,23 @@
+package com.hsbc.transactionmanagement.ingest;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Asynchronous creates ({@code Prefer: respond-async}).
+ *
+ * @param bufferCapacity creates that may wait for the writer, rounded up to a power of two;
+ *                       beyond that requests are turned away with 503
+ * @param batchSize      creates the writer applies per repository call
+ * @param outcomeTtl     how long the outcome of a create can be polled
+ * @param maxOutcomes    outcomes kept at most, oldest dropped first
+ */
+@ConfigurationProperties(prefix = "transaction.ingest")
+public record IngestProperties(
+        @DefaultValue("65536") int bufferCapacity,
+        @DefaultValue("512") int batchSize,
+        @DefaultValue("PT1H") Duration outcomeTtl,
+        @DefaultValue("1000000") long maxOutcomes
+) {}
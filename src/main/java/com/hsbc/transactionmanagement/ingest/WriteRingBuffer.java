@@ -0,0 +1,92 @@
+package com.hsbc.transactionmanagement.ingest;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bounded, pre-allocated ring of pending writes with many producers and one consumer.
+ * <p>
+ * A producer claims a sequence with a single CAS, fills the slot and then publishes the
+ * sequence in that slot, so producers never wait for each other or for the consumer. The
+ * consumer takes published slots in sequence order and frees them in bulk. When every slot
+ * is taken, {@link #offer} fails instead of overwriting. Only one thread may call
+ * {@link #drainTo}.
+ */
+final class WriteRingBuffer<T> {
+
+    private final Object[] slots;
+    // Sequence held by each slot once its value is visible; -1 while never filled
+    private final AtomicLongArray published;
+    private final int mask;
+    private final AtomicLong nextSequence = new AtomicLong();
+    // Every sequence below this has been taken by the consumer and its slot may be reused
+    private final AtomicLong consumed = new AtomicLong();
+
+    WriteRingBuffer(int requestedCapacity) {
+        if (requestedCapacity < 2 || requestedCapacity > (1 << 30)) {
+            throw new IllegalArgumentException("Ring buffer capacity must be between 2 and 2^30");
+        }
+        int capacity = Integer.highestOneBit(requestedCapacity - 1) << 1;
+        this.slots = new Object[capacity];
+        this.published = new AtomicLongArray(capacity);
+        for (int slot = 0; slot < capacity; slot++) {
+            published.set(slot, -1);
+        }
+        this.mask = capacity - 1;
+    }
+
+    /**
+     * @return whether {@code value} was queued; {@code false} when the ring is full
+     */
+    boolean offer(T value) {
+        long sequence;
+        do {
+            sequence = nextSequence.get();
+            if (sequence - consumed.get() >= slots.length) {
+                return false;
+            }
+        } while (!nextSequence.compareAndSet(sequence, sequence + 1));
+        int slot = (int) sequence & mask;
+        slots[slot] = value;
+        // The volatile write makes the slot's value visible to the consumer that reads it
+        published.set(slot, sequence);
+        return true;
+    }
+
+    /**
+     * Moves up to {@code max} published values, in sequence order, into {@code out}.
+     *
+     * @return how many were moved
+     */
+    @SuppressWarnings("unchecked")
+    int drainTo(List<? super T> out, int max) {
+        long start = consumed.get();
+        long sequence = start;
+        while (sequence - start < max) {
+            int slot = (int) sequence & mask;
+            if (published.get(slot) != sequence) {
+                // Claimed but not filled yet, or nothing claimed; keep the order and stop
+                break;
+            }
+            out.add((T) slots[slot]);
+            slots[slot] = null;
+            sequence++;
+        }
+        if (sequence != start) {
+            consumed.set(sequence);
+        }
+        return (int) (sequence - start);
+    }
+
+    /**
+     * Values claimed and not yet drained.
+     */
+    int size() {
+        return (int) Math.max(0, nextSequence.get() - consumed.get());
+    }
+
+    int capacity() {
+        return slots.length;
+    }
+}
@@ -0,0 +1,49 @@
+package com.hsbc.transactionmanagement.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One timer per operation of a layer, all sharing a meter name and told apart by an
+ * {@code operation} tag. Timers are registered up front and looked up by ordinal, so
+ * recording a call allocates nothing: callers take {@link System#nanoTime()} before the
+ * call and pass it to {@link #record} afterwards.
+ * <p>
+ * Histogram buckets and SLO boundaries come from the
+ * {@code management.metrics.distribution.*} properties for the meter name.
+ */
+public final class OperationTimers<E extends Enum<E>> {
+
+    private final Timer[] timers;
+
+    public OperationTimers(MeterRegistry registry, String name, String description, Class<E> operations) {
+        E[] values = operations.getEnumConstants();
+        this.timers = new Timer[values.length];
+        for (E operation : values) {
+            timers[operation.ordinal()] = Timer.builder(name)
+                    .tag("operation", tagValue(operation))
+                    .description(description)
+                    .register(registry);
+        }
+    }
+
+    /**
+     * @param startNanos {@link System#nanoTime()} taken when the operation started
+     */
+    public void record(E operation, long startNanos) {
+        timers[operation.ordinal()].record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    // FIND_BY_ID -> findById, matching the method names operators see in traces and logs
+    private static String tagValue(Enum<?> operation) {
+        String[] words = operation.name().toLowerCase(Locale.ROOT).split("_");
+        StringBuilder value = new StringBuilder(words[0]);
+        for (int i = 1; i < words.length; i++) {
+            value.append(Character.toUpperCase(words[i].charAt(0))).append(words[i], 1, words[i].length());
+        }
+        return value.toString();
+    }
+}
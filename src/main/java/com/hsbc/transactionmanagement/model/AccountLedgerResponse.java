@@ -0,0 +1,33 @@
+package com.hsbc.transactionmanagement.model;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+public record AccountLedgerResponse(
+        long accountId,
+        List<Entry> entries,
+        @Schema(description = "Cursor of the next, older page; absent on the last page")
+        String nextCursor
+) {
+
+    public record Entry(
+            TransactionResponse transaction,
+            @Schema(allowableValues = {"CREDIT", "DEBIT"})
+            String direction,
+            @Schema(description = "Balance of the account after this and every older completed transaction")
+            BigDecimal runningBalance
+    ) {}
+
+    public static AccountLedgerResponse fromPage(LedgerPage page) {
+        List<Entry> entries = page.entries().stream()
+                .map(entry -> new Entry(
+                        TransactionResponse.fromEntity(entry.transaction()),
+                        Long.valueOf(page.accountId()).equals(entry.transaction().getReceiverAccountId())
+                                ? "CREDIT" : "DEBIT",
+                        entry.balance()))
+                .toList();
+        return new AccountLedgerResponse(page.accountId(), entries, page.nextCursor());
+    }
+}
@@ -0,0 +1,29 @@
+package com.hsbc.transactionmanagement.model;
+
+import java.math.BigDecimal;
+
+/**
+ * One transaction in an account's ledger.
+ *
+ * @param position where the transaction sits in the ledger, counting up from its oldest entry;
+ *                 stable for as long as the transaction is stored
+ * @param balance  the account's balance once this and every older entry are applied
+ */
+public record LedgerEntry(long position, Transaction transaction, BigDecimal balance) {
+
+    /**
+     * What the transaction adds to {@code accountId}'s balance: its amount when received, minus
+     * it when sent, and nothing unless it completed.
+     */
+    public static BigDecimal contribution(Transaction transaction, long accountId) {
+        if (!"COMPLETED".equals(transaction.getStatus()) || transaction.getAmount() == null) {
+            return BigDecimal.ZERO;
+        }
+        if (Long.valueOf(accountId).equals(transaction.getReceiverAccountId())) {
+            return transaction.getAmount();
+        }
+        return Long.valueOf(accountId).equals(transaction.getSenderAccountId())
+                ? transaction.getAmount().negate()
+                : BigDecimal.ZERO;
+    }
+}
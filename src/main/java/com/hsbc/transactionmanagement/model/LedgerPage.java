@@ -0,0 +1,10 @@
+package com.hsbc.transactionmanagement.model;
+
+import java.util.List;
+
+/**
+ * A page of an account's ledger, newest entry first.
+ *
+ * @param nextCursor where the next, older page starts, or {@code null} on the last page
+ */
+public record LedgerPage(long accountId, List<LedgerEntry> entries, String nextCursor) {}
@@ -0,0 +1,92 @@
+package com.hsbc.transactionmanagement.model;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A transaction's status history packed into a {@code long[]}, one element per status it
+ * has held, oldest first. Each element holds the status as a three-bit code and the epoch
+ * millisecond the status was entered in the bits above it, so a history costs one small
+ * array and no object per entry.
+ * <p>
+ * Histories only grow, and by copy: stored transactions share their arrays with snapshots
+ * and caches. The transition rules never return to an earlier status, so a history holds
+ * at most one entry per status.
+ */
+public final class StatusHistory {
+
+    /** Status codes are positions in this list plus one; 0 stands for {@code null} or unknown. */
+    private static final List<String> STATUSES = List.of("PENDING", "COMPLETED", "FAILED", "CANCELLED");
+    private static final int STATUS_BITS = 3;
+    private static final long STATUS_MASK = (1L << STATUS_BITS) - 1;
+    /** Time of a status entered before histories were kept. */
+    static final long UNKNOWN_TIME = 0;
+
+    private StatusHistory() {
+    }
+
+    /**
+     * A history of one entry: {@code status}, entered at {@code epochMillis}.
+     */
+    public static long[] start(String status, long epochMillis) {
+        return new long[]{pack(status, epochMillis)};
+    }
+
+    /**
+     * A copy of {@code history} with {@code status} appended. A missing history starts with
+     * {@code previousStatus} at an unknown time, so no status the transaction held is lost.
+     */
+    public static long[] append(long[] history, String previousStatus, String status, long epochMillis) {
+        if (history == null || history.length == 0) {
+            return new long[]{pack(previousStatus, UNKNOWN_TIME), pack(status, epochMillis)};
+        }
+        long[] appended = Arrays.copyOf(history, history.length + 1);
+        appended[history.length] = pack(status, epochMillis);
+        return appended;
+    }
+
+    public static long pack(String status, long epochMillis) {
+        if (epochMillis < 0 || epochMillis > (Long.MAX_VALUE >>> STATUS_BITS)) {
+            throw new IllegalArgumentException("Status time out of range: " + epochMillis);
+        }
+        // Unknown statuses never pass validation, so they are not worth a code of their own
+        int code = status == null ? 0 : STATUSES.indexOf(status) + 1;
+        return epochMillis << STATUS_BITS | code;
+    }
+
+    public static String status(long entry) {
+        int code = (int) (entry & STATUS_MASK);
+        return code == 0 ? null : STATUSES.get(code - 1);
+    }
+
+    /**
+     * When the entry's status was entered, or {@code null} if that was before histories
+     * were kept.
+     */
+    public static Instant enteredAt(long entry) {
+        long epochMillis = entry >>> STATUS_BITS;
+        return epochMillis == UNKNOWN_TIME ? null : Instant.ofEpochMilli(epochMillis);
+    }
+
+    /**
+     * The entries of {@code history}, or of the current status alone for a transaction
+     * stored before histories were kept.
+     */
+    public static List<Entry> entries(long[] history, String currentStatus) {
+        if (history == null || history.length == 0) {
+            return List.of(new Entry(currentStatus, null));
+        }
+        List<Entry> entries = new ArrayList<>(history.length);
+        for (long entry : history) {
+            entries.add(new Entry(status(entry), enteredAt(entry)));
+        }
+        return entries;
+    }
+
+    /**
+     * @param enteredAt {@code null} if not known
+     */
+    public record Entry(String status, Instant enteredAt) {}
+}
@@ -12,7 +12,7 @@ import java.util.Set;
 
 @Getter
 @Setter
-@Builder
+@Builder(toBuilder = true)
 @AllArgsConstructor
 @NoArgsConstructor
 public class Transaction {
@@ -27,11 +27,15 @@ public class Transaction {
     private Long senderAccountId;
     private Long receiverAccountId;
     private String referenceNumber;
+    // Assigned by the repository on every save; backs the resource's ETag
+    private long version;
+    // Every status held, oldest first, packed by StatusHistory; never modified in place
+    private long[] statusHistory;
 
 
     private static final Map<String, Set<String>> STATUS_TRANSITION_RULES = Map.of(
 
-            "PENDING",   Set.of("CANCELLED","COMPLETED"),
+            "PENDING",   Set.of("CANCELLED","COMPLETED","FAILED"),
             "COMPLETED", Set.of(),
             "FAILED",    Set.of("CANCELLED"),
             "CANCELLED", Set.of()
@@ -90,6 +94,8 @@ public class Transaction {
         }
 
 
+        this.statusHistory = StatusHistory.append(this.statusHistory, this.status, newStatus,
+                System.currentTimeMillis());
         this.status = newStatus;
     }
 }
@@ -0,0 +1,29 @@
+package com.hsbc.transactionmanagement.model;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+// Applies one status to many transactions at once, e.g. when a settlement run closes them out
+public record TransactionBatchStatusUpdateRequest(
+
+        @Schema(description = "IDs of the transactions to update; duplicates are ignored",
+                example = "[\"1001\", \"1002\"]")
+        @NotEmpty(message = "Transaction IDs cannot be empty")
+        @Size(max = 10000, message = "At most 10000 transactions can be updated at once")
+        List<@NotBlank(message = "Transaction ID cannot be blank") String> transactionIds,
+
+        @Schema(
+                description = "New status for every transaction in the batch",
+                allowableValues = {"PENDING", "COMPLETED", "FAILED", "CANCELLED"},
+                example = "COMPLETED"
+        )
+        @NotBlank(message = "Status cannot be blank")
+        @Pattern(regexp = "PENDING|COMPLETED|FAILED|CANCELLED",
+                message = "Invalid transaction status")
+        String status
+) {}
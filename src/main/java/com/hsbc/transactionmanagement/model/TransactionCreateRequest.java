@@ -62,6 +62,7 @@ public record TransactionCreateRequest(
                 .senderAccountId(this.senderAccountId())
                 .receiverAccountId(this.receiverAccountId())
                 .referenceNumber(this.referenceNumber())
+                .statusHistory(StatusHistory.start(this.status(), System.currentTimeMillis()))
                 .build();
     }
 
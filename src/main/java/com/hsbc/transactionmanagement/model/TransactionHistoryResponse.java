@@ -0,0 +1,17 @@
+package com.hsbc.transactionmanagement.model;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+public record TransactionHistoryResponse(
+        String transactionId,
+        @Schema(description = "Every status the transaction has held, oldest first; the last one is current")
+        List<StatusHistory.Entry> history
+) {
+
+    public static TransactionHistoryResponse fromEntity(Transaction transaction) {
+        return new TransactionHistoryResponse(transaction.getTransactionId(),
+                StatusHistory.entries(transaction.getStatusHistory(), transaction.getStatus()));
+    }
+}
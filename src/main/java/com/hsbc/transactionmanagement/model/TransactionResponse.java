@@ -16,6 +16,12 @@ public record TransactionResponse(
         String referenceNumber
 ) {
 
+    /**
+     * Version of this record's wire schema, exposed through the versioned binary media types.
+     * Bump it whenever a field is added, removed or changes type.
+     */
+    public static final int SCHEMA_VERSION = 1;
+
     public static TransactionResponse fromEntity(Transaction transaction) {
         return new TransactionResponse(
                 transaction.getTransactionId(),
@@ -0,0 +1,81 @@
+package com.hsbc.transactionmanagement.partition;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Immutable consistent-hash ring. Every node is placed on the ring at a number of virtual
+ * points, and a key belongs to the node owning the first point at or after the key's hash,
+ * wrapping around. Adding or removing a node therefore only moves the keys between its
+ * points and their predecessors, about {@code 1/n} of them, and the virtual points spread
+ * both the keys and the moves evenly over the remaining nodes.
+ */
+public final class ConsistentHashRing {
+
+    private final List<String> nodes;
+    // Parallel arrays sorted by point, so a lookup is one binary search with no boxing
+    private final long[] points;
+    private final String[] owners;
+
+    public ConsistentHashRing(Collection<String> nodes, int virtualNodes) {
+        if (nodes.isEmpty()) {
+            throw new IllegalArgumentException("A hash ring needs at least one node");
+        }
+        if (virtualNodes < 1) {
+            throw new IllegalArgumentException("Every node needs at least one virtual node");
+        }
+        this.nodes = nodes.stream().sorted().distinct().toList();
+        Point[] placed = new Point[this.nodes.size() * virtualNodes];
+        int i = 0;
+        for (String node : this.nodes) {
+            for (int v = 0; v < virtualNodes; v++) {
+                placed[i++] = new Point(hash(node + "#" + v), node);
+            }
+        }
+        // Ties are broken by node name so every member builds the same ring
+        Arrays.sort(placed, (a, b) -> a.point != b.point ? Long.compare(a.point, b.point) : a.node.compareTo(b.node));
+        this.points = new long[placed.length];
+        this.owners = new String[placed.length];
+        for (int p = 0; p < placed.length; p++) {
+            points[p] = placed[p].point;
+            owners[p] = placed[p].node;
+        }
+    }
+
+    public String ownerOf(String key) {
+        int index = Arrays.binarySearch(points, hash(key));
+        if (index < 0) {
+            index = -index - 1;
+        }
+        return owners[index == points.length ? 0 : index];
+    }
+
+    /**
+     * The member nodes, sorted by name.
+     */
+    public List<String> nodes() {
+        return nodes;
+    }
+
+    /**
+     * 64-bit FNV-1a over the UTF-8 bytes, finished with the MurmurHash3 mixer so that
+     * similar keys such as sequential IDs land far apart.
+     */
+    static long hash(String key) {
+        long h = 0xcbf29ce484222325L;
+        for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+            h ^= b;
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    private record Point(long point, String node) {}
+}
@@ -0,0 +1,86 @@
+package com.hsbc.transactionmanagement.partition;
+
+import com.hsbc.transactionmanagement.model.LedgerPage;
+import com.hsbc.transactionmanagement.model.Transaction;
+import com.hsbc.transactionmanagement.service.TransactionService;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * This node's share of a cluster-wide query, answered from the local service alone. Used
+ * both for the local part of a scatter-gather and to answer other nodes asking for theirs.
+ */
+public class LocalPartitionReader {
+
+    private final TransactionService local;
+
+    /**
+     * @param local the service over this node's own store, not a partitioned one
+     */
+    public LocalPartitionReader(TransactionService local) {
+        this.local = local;
+    }
+
+    /**
+     * Transactions {@code offset} to {@code offset + limit} in {@code sort}, or when unsorted
+     * in the store's own order, and in timestamp order when read from a snapshot.
+     */
+    public PartitionSlice transactions(long offset, int limit, String snapshotToken, Sort sort) {
+        PageRequest firstRows = firstRows(offset, limit).withSort(sort);
+        Page<Transaction> page = snapshotToken != null
+                ? local.getAllTransactionsPaged(snapshotToken, firstRows)
+                : local.getAllTransactionsPaged(firstRows);
+        return slice(page, offset, limit);
+    }
+
+    /**
+     * The first {@code limit} transactions of the range in {@code sort}, or in timestamp order
+     * when unsorted.
+     */
+    public PartitionSlice range(LocalDateTime from, LocalDateTime to, int limit, String snapshotToken, Sort sort) {
+        PageRequest firstRows = firstRows(0, limit).withSort(sort);
+        Page<Transaction> page = snapshotToken != null
+                ? local.getTransactionsByTimeRange(snapshotToken, from, to, firstRows)
+                : local.getTransactionsByTimeRange(from, to, firstRows);
+        return slice(page, 0, limit);
+    }
+
+    /**
+     * The first {@code limit} matches in ID order.
+     */
+    public PartitionSlice search(String query, int limit) {
+        return slice(local.searchTransactions(query, firstRows(0, limit)), 0, limit);
+    }
+
+    /**
+     * This node's part of an account's ledger, see
+     * {@link TransactionService#getAccountLedger(long, String, int)}.
+     */
+    public LedgerPage ledger(long accountId, String cursor, int limit) {
+        return local.getAccountLedger(accountId, cursor, limit);
+    }
+
+    public long version() {
+        return local.getCollectionVersion();
+    }
+
+    public String openSnapshot() {
+        return local.openSnapshot();
+    }
+
+    private static PageRequest firstRows(long offset, int limit) {
+        // A limit of 0 only asks for the total, but a page needs room for one row
+        return PageRequest.of(0, (int) Math.max(1, Math.min(Integer.MAX_VALUE, offset + limit)));
+    }
+
+    private static PartitionSlice slice(Page<Transaction> page, long offset, int limit) {
+        List<Transaction> rows = page.getContent();
+        int from = (int) Math.min(offset, rows.size());
+        List<Transaction> slice = rows.subList(from, (int) Math.min(rows.size(), (long) from + limit));
+        return new PartitionSlice(page.getTotalElements(), List.copyOf(slice));
+    }
+}
@@ -0,0 +1,139 @@
+package com.hsbc.transactionmanagement.partition;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hsbc.transactionmanagement.exceptions.PartitionUnavailableException;
+import com.hsbc.transactionmanagement.exceptions.SnapshotExpiredException;
+import com.hsbc.transactionmanagement.model.LedgerPage;
+import com.hsbc.transactionmanagement.model.Transaction;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Calls the internal partition API of other nodes, see
+ * {@link com.hsbc.transactionmanagement.controller.PartitionController}. Reads are
+ * asynchronous so one query can fan out to every node at once.
+ */
+public class PartitionClient {
+
+    public static final String BASE_PATH = "/internal/partitions";
+
+    private final HttpClient httpClient;
+    private final ObjectMapper objectMapper;
+    private final Duration timeout;
+
+    public PartitionClient(HttpClient httpClient, ObjectMapper objectMapper, Duration timeout) {
+        this.httpClient = httpClient;
+        this.objectMapper = objectMapper;
+        this.timeout = timeout;
+    }
+
+    /**
+     * @param query parameters of the slice, {@code null} values and empty collections are left
+     *              out, other collections are sent as a repeated parameter
+     */
+    public CompletableFuture<PartitionSlice> slice(String node, URI baseUrl, String path, Map<String, ?> query) {
+        UriComponentsBuilder uri = UriComponentsBuilder.fromUri(baseUrl).path(BASE_PATH).pathSegment(path);
+        query.forEach((name, value) -> {
+            if (value instanceof Collection<?> values) {
+                if (!values.isEmpty()) {
+                    uri.queryParam(name, values.toArray());
+                }
+            } else if (value != null) {
+                uri.queryParam(name, value);
+            }
+        });
+        return get(node, uri.encode().build().toUri(), PartitionSlice.class);
+    }
+
+    public CompletableFuture<LedgerPage> ledger(String node, URI baseUrl, long accountId, String cursor, int limit) {
+        UriComponentsBuilder uri = UriComponentsBuilder.fromUri(baseUrl).path(BASE_PATH + "/ledger")
+                .queryParam("account", accountId)
+                .queryParam("limit", limit);
+        if (cursor != null) {
+            uri.queryParam("cursor", cursor);
+        }
+        return get(node, uri.encode().build().toUri(), LedgerPage.class);
+    }
+
+    public CompletableFuture<Long> version(String node, URI baseUrl) {
+        return get(node, UriComponentsBuilder.fromUri(baseUrl).path(BASE_PATH + "/version").build().toUri(),
+                Long.class);
+    }
+
+    public CompletableFuture<String> openSnapshot(String node, URI baseUrl) {
+        HttpRequest request = HttpRequest.newBuilder(
+                        UriComponentsBuilder.fromUri(baseUrl).path(BASE_PATH + "/snapshots").build().toUri())
+                .timeout(timeout)
+                .POST(HttpRequest.BodyPublishers.noBody())
+                .build();
+        return this.<Map<String, String>>send(node, request,
+                        objectMapper.getTypeFactory().constructMapType(Map.class, String.class, String.class))
+                .thenApply(body -> body.get("snapshotToken"));
+    }
+
+    /**
+     * Stores {@code transactions} on {@code node} unless it already has them.
+     *
+     * @return how many were new to the node
+     */
+    public int handoff(String node, URI baseUrl, List<Transaction> transactions) {
+        byte[] body;
+        try {
+            body = objectMapper.writeValueAsBytes(transactions);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        HttpRequest request = HttpRequest.newBuilder(
+                        UriComponentsBuilder.fromUri(baseUrl).path(BASE_PATH + "/handoff").build().toUri())
+                .timeout(timeout)
+                .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                .POST(HttpRequest.BodyPublishers.ofByteArray(body))
+                .build();
+        return this.<Integer>send(node, request, objectMapper.getTypeFactory().constructType(Integer.class)).join();
+    }
+
+    private <T> CompletableFuture<T> get(String node, URI uri, Class<T> type) {
+        HttpRequest request = HttpRequest.newBuilder(uri)
+                .timeout(timeout)
+                .header(HttpHeaders.ACCEPT, MediaType.APPLICATION_JSON_VALUE)
+                .GET()
+                .build();
+        return send(node, request, objectMapper.getTypeFactory().constructType(type));
+    }
+
+    private <T> CompletableFuture<T> send(String node, HttpRequest request, JavaType type) {
+        return httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray())
+                .handle((response, failure) -> {
+                    if (failure != null) {
+                        throw new PartitionUnavailableException(node, failure);
+                    }
+                    if (response.statusCode() == HttpStatus.GONE.value()) {
+                        // Only snapshot reads answer 410: the node let its part of the snapshot expire
+                        throw new SnapshotExpiredException(node);
+                    }
+                    if (response.statusCode() / 100 != 2) {
+                        throw new PartitionUnavailableException(node, "status " + response.statusCode());
+                    }
+                    try {
+                        return objectMapper.readValue(response.body(), type);
+                    } catch (IOException ex) {
+                        throw new PartitionUnavailableException(node, ex);
+                    }
+                });
+    }
+}
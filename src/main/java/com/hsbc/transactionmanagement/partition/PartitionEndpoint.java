@@ -0,0 +1,59 @@
+package com.hsbc.transactionmanagement.partition;
+
+import com.hsbc.transactionmanagement.repository.InMemoryTransactionRepository;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+
+import java.net.URI;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Partition membership of this node at {@code /actuator/partitions}. Posting
+ * {@code {"members": "node-1=http://host-1:8080,node-2=http://host-2:8080"}} changes it; send
+ * the same change to every node.
+ */
+@Endpoint(id = "partitions")
+public class PartitionEndpoint {
+
+    private final PartitionMembership membership;
+    private final PartitionRebalancer rebalancer;
+    private final InMemoryTransactionRepository store;
+
+    public PartitionEndpoint(PartitionMembership membership, PartitionRebalancer rebalancer,
+                             InMemoryTransactionRepository store) {
+        this.membership = membership;
+        this.rebalancer = rebalancer;
+        this.store = store;
+    }
+
+    @ReadOperation
+    public PartitionReport partitions() {
+        PartitionMembership.View view = membership.view();
+        return new PartitionReport(membership.self(), view.epoch(), view.members(), view.ring().nodes(),
+                store.count(), rebalancer.status());
+    }
+
+    @WriteOperation
+    public PartitionReport update(String members) {
+        Map<String, URI> urls = new LinkedHashMap<>();
+        for (String member : members.split(",")) {
+            int separator = member.indexOf('=');
+            if (separator <= 0) {
+                throw new IllegalArgumentException("Expected name=url but got " + member);
+            }
+            urls.put(member.substring(0, separator).trim(), URI.create(member.substring(separator + 1).trim()));
+        }
+        membership.update(urls);
+        return partitions();
+    }
+
+    /**
+     * @param nodes     nodes on the hash ring, which is this node alone when it has no members
+     * @param localRows transactions held by this node
+     */
+    public record PartitionReport(String self, long epoch, Map<String, URI> members, List<String> nodes,
+                                  long localRows, PartitionRebalancer.Status rebalance) {}
+}
@@ -0,0 +1,93 @@
+package com.hsbc.transactionmanagement.partition;
+
+import java.net.URI;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * The cluster as this node currently sees it: its members and the hash ring built from
+ * them. Membership is replaced as a whole, and listeners such as the rebalancer are told
+ * after every change.
+ * <p>
+ * Nodes can briefly disagree on membership while a change is rolled out to each of them.
+ * Requests forwarded between nodes are therefore always served where they land, so a
+ * disagreement costs at most a stale read, never a forwarding loop.
+ */
+public class PartitionMembership {
+
+    private final String self;
+    private final int virtualNodes;
+    private final List<Consumer<View>> listeners = new CopyOnWriteArrayList<>();
+    private volatile View view;
+
+    /**
+     * @param members every node by name, or empty for this node alone
+     */
+    public PartitionMembership(String self, Map<String, URI> members, int virtualNodes) {
+        this.self = self;
+        this.virtualNodes = virtualNodes;
+        this.view = view(0, members);
+    }
+
+    public String self() {
+        return self;
+    }
+
+    public View view() {
+        return view;
+    }
+
+    public String ownerOf(String transactionId) {
+        return view.ring().ownerOf(transactionId);
+    }
+
+    public boolean isLocal(String transactionId) {
+        return self.equals(ownerOf(transactionId));
+    }
+
+    /**
+     * Replaces the membership. A node left out of {@code members} owns nothing afterwards,
+     * which is how a node is drained before it is taken away.
+     */
+    public View update(Map<String, URI> members) {
+        View updated;
+        synchronized (this) {
+            updated = view(view.epoch() + 1, members);
+            view = updated;
+        }
+        listeners.forEach(listener -> listener.accept(updated));
+        return updated;
+    }
+
+    public void addListener(Consumer<View> listener) {
+        listeners.add(listener);
+    }
+
+    private View view(long epoch, Map<String, URI> members) {
+        members.forEach((node, url) -> {
+            if (url == null || !url.isAbsolute()) {
+                throw new IllegalArgumentException("Partition member " + node + " needs an absolute base URL");
+            }
+        });
+        Map<String, URI> copy = Map.copyOf(members);
+        return new View(epoch, copy, new ConsistentHashRing(copy.isEmpty() ? List.of(self) : copy.keySet(),
+                virtualNodes));
+    }
+
+    /**
+     * @param epoch   number of membership changes this node has seen
+     * @param members base URL of every member by name; empty for a single node
+     */
+    public record View(long epoch, Map<String, URI> members, ConsistentHashRing ring) {
+
+        public URI urlOf(String node) {
+            URI url = members.get(node);
+            if (url == null) {
+                throw new IllegalStateException("No URL known for partition member " + node);
+            }
+            return url;
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.hsbc.transactionmanagement.partition;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Partitioning of the transaction store across nodes by consistent hashing of the ID.
+ *
+ * @param enabled          whether this node is one of several partitions; off, it holds everything itself
+ * @param nodeId           this node's name in {@code members}
+ * @param members          every node of the cluster, including this one, by name: the base URL of its HTTP API.
+ *                         Empty means this node alone
+ * @param virtualNodes     points per node on the hash ring; more spread the keys more evenly
+ * @param routing          whether a request for another node's transaction is proxied or redirected
+ * @param requestTimeout   how long to wait for another node when proxying or gathering
+ * @param handoffBatchSize transactions sent per request when moving them to a new owner
+ */
+@ConfigurationProperties(prefix = "transaction.partition")
+public record PartitionProperties(
+        @DefaultValue("false") boolean enabled,
+        @DefaultValue("node-1") String nodeId,
+        @DefaultValue Map<String, URI> members,
+        @DefaultValue("128") int virtualNodes,
+        @DefaultValue("proxy") Routing routing,
+        @DefaultValue("PT10S") Duration requestTimeout,
+        @DefaultValue("1000") int handoffBatchSize
+) {
+
+    public enum Routing {
+        /** Serve the request from the owner and relay its response. */
+        PROXY,
+        /** Answer {@code 307 Temporary Redirect} to the owner's URL. */
+        REDIRECT
+    }
+}
@@ -0,0 +1,144 @@
+package com.hsbc.transactionmanagement.partition;
+
+import com.hsbc.transactionmanagement.model.Transaction;
+import com.hsbc.transactionmanagement.repository.InMemoryTransactionRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Moves transactions this node no longer owns to their new owners after a membership
+ * change. Runs in the background, one change at a time.
+ * <p>
+ * Each batch is copied to the owner first and only then dropped here, and only rows still at
+ * the version that was copied are dropped. Requests go to the new owner as soon as the
+ * membership changes, so only a write already under way can race a move; its row stays
+ * here and is logged. Rows archived to cold segments are not moved.
+ */
+public class PartitionRebalancer implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(PartitionRebalancer.class);
+
+    private final PartitionMembership membership;
+    private final InMemoryTransactionRepository store;
+    private final PartitionClient client;
+    private final Cache cache;
+    private final int batchSize;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "partition-rebalancer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final AtomicLong moved = new AtomicLong();
+    private final AtomicLong pending = new AtomicLong();
+    private volatile long completedEpoch;
+    private volatile String lastError;
+
+    /**
+     * @param cache the transaction cache, or {@code null} if there is none
+     */
+    public PartitionRebalancer(PartitionMembership membership, InMemoryTransactionRepository store,
+                               PartitionClient client, Cache cache, int batchSize) {
+        this.membership = membership;
+        this.store = store;
+        this.client = client;
+        this.cache = cache;
+        this.batchSize = batchSize;
+        this.completedEpoch = membership.view().epoch();
+        membership.addListener(view -> {
+            pending.incrementAndGet();
+            executor.execute(() -> {
+                try {
+                    rebalance(view);
+                } finally {
+                    pending.decrementAndGet();
+                }
+            });
+        });
+    }
+
+    public Status status() {
+        return new Status(pending.get() > 0, completedEpoch, moved.get(), lastError);
+    }
+
+    /**
+     * @return whether this node holds no transaction it does not own, as of the last completed run
+     */
+    public boolean isSettled() {
+        return pending.get() == 0 && completedEpoch == membership.view().epoch() && lastError == null;
+    }
+
+    private void rebalance(PartitionMembership.View view) {
+        if (view.epoch() != membership.view().epoch()) {
+            // A later change is queued behind this one and covers it
+            return;
+        }
+        long start = System.nanoTime();
+        long before = moved.get();
+        String self = membership.self();
+        Map<String, List<Transaction>> batches = new HashMap<>();
+        try {
+            store.stream().forEach(transaction -> {
+                String owner = view.ring().ownerOf(transaction.getTransactionId());
+                if (!owner.equals(self)) {
+                    List<Transaction> batch = batches.computeIfAbsent(owner, node -> new ArrayList<>(batchSize));
+                    batch.add(transaction);
+                    if (batch.size() >= batchSize) {
+                        handoff(view, owner, batch);
+                        batch.clear();
+                    }
+                }
+            });
+            batches.forEach((owner, batch) -> {
+                if (!batch.isEmpty()) {
+                    handoff(view, owner, batch);
+                }
+            });
+            lastError = null;
+            completedEpoch = view.epoch();
+            logger.info("Rebalanced for membership epoch {}: moved {} transactions in {} ms", view.epoch(),
+                    moved.get() - before, (System.nanoTime() - start) / 1_000_000);
+        } catch (RuntimeException ex) {
+            lastError = ex.getMessage();
+            logger.warn("Rebalance for membership epoch {} stopped after moving {} transactions: {}", view.epoch(),
+                    moved.get() - before, ex.toString());
+        }
+    }
+
+    private void handoff(PartitionMembership.View view, String owner, List<Transaction> batch) {
+        client.handoff(owner, view.urlOf(owner), batch);
+        for (Transaction transaction : batch) {
+            if (store.deleteIfVersion(transaction.getTransactionId(), transaction.getVersion())) {
+                moved.incrementAndGet();
+            } else {
+                logger.warn("Transaction {} changed while moving to {}; kept here", transaction.getTransactionId(),
+                        owner);
+            }
+            if (cache != null) {
+                cache.evict(transaction.getTransactionId());
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * @param running        whether a rebalance is under way or queued
+     * @param completedEpoch membership epoch of the last rebalance that ran to the end
+     * @param moved          transactions handed to other nodes since start-up
+     * @param lastError      why the last rebalance stopped, if it did
+     */
+    public record Status(boolean running, long completedEpoch, long moved, String lastError) {}
+}
@@ -0,0 +1,246 @@
+package com.hsbc.transactionmanagement.partition;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.hsbc.transactionmanagement.web.RequestForwarder;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ProblemDetail;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Sends each request about a single transaction to the node that owns it, so clients can
+ * talk to any node. Depending on {@link PartitionProperties.Routing} the owner's response
+ * is relayed or the client is redirected there.
+ * <p>
+ * The owner is known from the path for reads, updates, deletes and the outcomes of
+ * asynchronous creates, and from the body for creates and batch status updates. A batch whose transactions all belong to one node is
+ * sent there; one spanning nodes is served here and rejected by
+ * {@link PartitionedTransactionService}. Everything else, including listings, runs here
+ * and is gathered from every node by that service.
+ */
+public class PartitionRoutingFilter extends OncePerRequestFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(PartitionRoutingFilter.class);
+
+    /** Marks a request relayed by another node; it is always served where it lands. */
+    public static final String FORWARDED_HEADER = "X-Partition-Forwarded";
+
+    private static final String BASE_PATH = "/api/transactions";
+    // Fixed paths under the base that are not transaction IDs
+    private static final Set<String> COLLECTION_PATHS = Set.of("paged", "range", "search", "next-id", "events",
+            "status-updates");
+    // Read-only resources under a transaction ID, served where that transaction is kept
+    private static final Set<String> ITEM_RESOURCES = Set.of("ingest", "history");
+
+    private final PartitionMembership membership;
+    private final PartitionProperties.Routing routing;
+    private final RequestForwarder forwarder;
+    private final ObjectMapper objectMapper;
+    private final ObjectMapper cborMapper = new ObjectMapper(new CBORFactory());
+    private final ObjectMapper smileMapper = new ObjectMapper(new SmileFactory());
+
+    public PartitionRoutingFilter(PartitionMembership membership, PartitionProperties.Routing routing,
+                                  RequestForwarder forwarder, ObjectMapper objectMapper) {
+        this.membership = membership;
+        this.routing = routing;
+        this.forwarder = forwarder;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        if (request.getHeader(FORWARDED_HEADER) != null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        String method = request.getMethod();
+        String owner = null;
+        byte[] body = null;
+        String itemId = HttpMethod.GET.matches(method) ? itemIdOf(path) : null;
+        if (path.startsWith(BASE_PATH + "/") && path.indexOf('/', BASE_PATH.length() + 1) < 0
+                && !COLLECTION_PATHS.contains(path.substring(BASE_PATH.length() + 1))
+                && (HttpMethod.GET.matches(method) || HttpMethod.HEAD.matches(method)
+                || HttpMethod.PUT.matches(method) || HttpMethod.DELETE.matches(method))) {
+            owner = membership.ownerOf(path.substring(BASE_PATH.length() + 1));
+        } else if (itemId != null) {
+            // The outcome of an asynchronous create is kept where it was written, a status
+            // history with its transaction
+            owner = membership.ownerOf(itemId);
+        } else if (HttpMethod.POST.matches(method)
+                && (path.equals(BASE_PATH) || path.equals(BASE_PATH + "/status-updates"))) {
+            body = request.getInputStream().readAllBytes();
+            owner = ownerOf(request, body);
+        }
+
+        if (owner == null || owner.equals(membership.self())) {
+            filterChain.doFilter(body != null ? new CachedBodyRequest(request, body) : request, response);
+        } else if (routing == PartitionProperties.Routing.REDIRECT) {
+            response.setStatus(HttpStatus.TEMPORARY_REDIRECT.value());
+            response.setHeader(HttpHeaders.LOCATION,
+                    RequestForwarder.target(request, membership.view().urlOf(owner)).toString());
+        } else {
+            forward(request, body, response, owner);
+        }
+    }
+
+    /**
+     * The transaction ID of a {@code BASE_PATH/{id}/{resource}} path naming one of the
+     * {@link #ITEM_RESOURCES}, or {@code null}.
+     */
+    private static String itemIdOf(String path) {
+        if (!path.startsWith(BASE_PATH + "/")) {
+            return null;
+        }
+        String rest = path.substring(BASE_PATH.length() + 1);
+        int slash = rest.indexOf('/');
+        return slash > 0 && ITEM_RESOURCES.contains(rest.substring(slash + 1)) ? rest.substring(0, slash) : null;
+    }
+
+    /**
+     * The one node owning every transaction named in the body, or {@code null} if there is
+     * none or the body cannot be read; the controller then answers it here.
+     */
+    private String ownerOf(HttpServletRequest request, byte[] body) {
+        JsonNode tree;
+        try {
+            tree = mapperFor(request.getContentType()).readTree(body);
+        } catch (IOException ex) {
+            return null;
+        }
+        if (tree == null) {
+            return null;
+        }
+        Set<String> ids = new HashSet<>();
+        if (tree.path("transactionId").isTextual()) {
+            ids.add(tree.get("transactionId").asText());
+        }
+        tree.path("transactionIds").forEach(id -> ids.add(id.asText()));
+        Set<String> owners = new HashSet<>();
+        ids.forEach(id -> owners.add(membership.ownerOf(id)));
+        return owners.size() == 1 ? owners.iterator().next() : null;
+    }
+
+    private ObjectMapper mapperFor(String contentType) {
+        if (contentType != null) {
+            if (contentType.contains("cbor")) {
+                return cborMapper;
+            }
+            if (contentType.contains("smile")) {
+                return smileMapper;
+            }
+        }
+        return objectMapper;
+    }
+
+    private void forward(HttpServletRequest request, byte[] body, HttpServletResponse response, String owner)
+            throws IOException {
+        try {
+            forwarder.forward(request, body, response, membership.view().urlOf(owner),
+                    Map.of(FORWARDED_HEADER, membership.self()));
+        } catch (IOException ex) {
+            if (response.isCommitted()) {
+                throw ex;
+            }
+            logger.warn("Could not forward {} {} to partition owner {}: {}", request.getMethod(),
+                    request.getRequestURI(), owner, ex.toString());
+            ProblemDetail pd = ProblemDetail.forStatus(HttpStatus.SERVICE_UNAVAILABLE);
+            pd.setTitle("Partition Unavailable");
+            pd.setDetail("Node " + owner + " owning this transaction could not be reached. Retry later.");
+            pd.setProperty("errorCode", "PARTITION_UNAVAILABLE");
+            pd.setProperty("node", owner);
+            byte[] problem = objectMapper.writeValueAsBytes(pd);
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            response.setContentType(MediaType.APPLICATION_PROBLEM_JSON_VALUE);
+            response.setContentLength(problem.length);
+            response.getOutputStream().write(problem);
+        }
+    }
+
+    /**
+     * Replays a body the filter already read.
+     */
+    private static class CachedBodyRequest extends HttpServletRequestWrapper {
+
+        private final byte[] body;
+
+        CachedBodyRequest(HttpServletRequest request, byte[] body) {
+            super(request);
+            this.body = body;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream in = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public int read() {
+                    return in.read();
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) {
+                    return in.read(b, off, len);
+                }
+
+                @Override
+                public boolean isFinished() {
+                    return in.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setReadListener(ReadListener listener) {
+                    throw new UnsupportedOperationException();
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            String encoding = getCharacterEncoding();
+            return new BufferedReader(new InputStreamReader(new ByteArrayInputStream(body),
+                    encoding != null ? Charset.forName(encoding)
+                            : StandardCharsets.UTF_8));
+        }
+
+        @Override
+        public int getContentLength() {
+            return body.length;
+        }
+
+        @Override
+        public long getContentLengthLong() {
+            return body.length;
+        }
+    }
+}
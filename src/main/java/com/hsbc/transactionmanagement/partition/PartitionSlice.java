@@ -0,0 +1,13 @@
+package com.hsbc.transactionmanagement.partition;
+
+import com.hsbc.transactionmanagement.model.Transaction;
+
+import java.util.List;
+
+/**
+ * Part of one node's answer to a query that spans the cluster.
+ *
+ * @param total        matches on that node
+ * @param transactions the requested part of them
+ */
+public record PartitionSlice(long total, List<Transaction> transactions) {}
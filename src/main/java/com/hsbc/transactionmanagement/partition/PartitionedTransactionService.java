@@ -0,0 +1,408 @@
+package com.hsbc.transactionmanagement.partition;
+
+import com.hsbc.transactionmanagement.exceptions.SnapshotExpiredException;
+import com.hsbc.transactionmanagement.exceptions.TransactionValidationException;
+import com.hsbc.transactionmanagement.model.LedgerEntry;
+import com.hsbc.transactionmanagement.model.LedgerPage;
+import com.hsbc.transactionmanagement.model.Transaction;
+import com.hsbc.transactionmanagement.model.TransactionCreateRequest;
+import com.hsbc.transactionmanagement.model.TransactionUpdateRequest;
+import com.hsbc.transactionmanagement.repository.TransactionSort;
+import com.hsbc.transactionmanagement.service.TransactionService;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import java.math.BigDecimal;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.BiFunction;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * The transaction service of a partitioned node. Requests for a single transaction have
+ * already been routed to its owner by {@link PartitionRoutingFilter} and run locally;
+ * listings, ranges and searches are scattered to every node and their answers merged.
+ * <p>
+ * Ordered queries ask each node for its first {@code offset + size} rows, since any of
+ * them may belong to the requested page, and merge those; so does a sorted listing. The
+ * plain listing has no order to merge by, so it reads as the nodes' listings one after
+ * another: the totals are gathered first, then each node is asked for exactly the part of
+ * the page it covers.
+ */
+public class PartitionedTransactionService implements TransactionService {
+
+    private static final Comparator<Transaction> TIMESTAMP_ORDER = Comparator
+            .comparing(Transaction::getTimestamp)
+            .thenComparing(Transaction::getTransactionId);
+    private static final Comparator<Transaction> LEDGER_ORDER = Comparator
+            .comparing(Transaction::getTimestamp, Comparator.nullsFirst(Comparator.<LocalDateTime>naturalOrder()))
+            .thenComparing(Transaction::getTransactionId);
+    private static final Comparator<Transaction> ID_ORDER = Comparator.comparing(Transaction::getTransactionId);
+    // Same cap as a single node's search
+    private static final int MAX_SEARCH_RESULTS = 1000;
+
+    private final TransactionService local;
+    private final LocalPartitionReader localReader;
+    private final PartitionMembership membership;
+    private final PartitionClient client;
+
+    public PartitionedTransactionService(TransactionService local, PartitionMembership membership,
+                                         PartitionClient client) {
+        this.local = local;
+        this.localReader = new LocalPartitionReader(local);
+        this.membership = membership;
+        this.client = client;
+    }
+
+    @Override
+    public Transaction createTransaction(TransactionCreateRequest transactionCreateRequest) {
+        return local.createTransaction(transactionCreateRequest);
+    }
+
+    @Override
+    public List<Transaction> insertAll(List<Transaction> batch) {
+        return local.insertAll(batch);
+    }
+
+    @Override
+    public void deleteTransactionById(String id) {
+        local.deleteTransactionById(id);
+    }
+
+    @Override
+    public Transaction updateTransaction(String id, TransactionUpdateRequest transactionUpdateRequest) {
+        return local.updateTransaction(id, transactionUpdateRequest);
+    }
+
+    /**
+     * All or nothing only holds within one node, so a batch must not span partitions.
+     */
+    @Override
+    public List<Transaction> updateTransactionStatuses(List<String> ids, String status) {
+        List<String> remote = ids.stream().filter(id -> !membership.isLocal(id)).toList();
+        if (!remote.isEmpty()) {
+            throw new TransactionValidationException(
+                    "A batch must only contain transactions of one partition; owned elsewhere: " + remote,
+                    "BATCH_SPANS_PARTITIONS"
+            );
+        }
+        return local.updateTransactionStatuses(ids, status);
+    }
+
+    @Override
+    public Transaction getTransactionById(String id) {
+        return local.getTransactionById(id);
+    }
+
+    @Override
+    public List<Transaction> getAllTransactions() {
+        Map<String, PartitionSlice> slices = gather(
+                (node, url) -> client.slice(node, url, "transactions", Map.of("offset", 0, "limit", Integer.MAX_VALUE)),
+                () -> localReader.transactions(0, Integer.MAX_VALUE, null, Sort.unsorted()));
+        return slices.values().stream().flatMap(slice -> slice.transactions().stream()).toList();
+    }
+
+    @Override
+    public Page<Transaction> getAllTransactionsPaged(Pageable pageable) {
+        if (pageable.getSort().isSorted()) {
+            Sort sort = pageable.getSort();
+            int limit = firstRows(pageable);
+            return merge(gather(
+                    (node, url) -> client.slice(node, url, "transactions",
+                            Map.of("offset", 0, "limit", limit, "sort", TransactionSort.format(sort))),
+                    () -> localReader.transactions(0, limit, null, sort)),
+                    TransactionSort.comparator(sort), pageable, Long.MAX_VALUE);
+        }
+        Map<String, PartitionSlice> totals = gather(
+                (node, url) -> client.slice(node, url, "transactions", Map.of("offset", 0, "limit", 0)),
+                () -> localReader.transactions(0, 0, null, Sort.unsorted()));
+        // Node i covers the positions after the rows of the nodes before it
+        Map<String, long[]> parts = new LinkedHashMap<>();
+        long start = 0;
+        for (Map.Entry<String, PartitionSlice> node : totals.entrySet()) {
+            long end = start + node.getValue().total();
+            long from = Math.max(pageable.getOffset(), start);
+            long to = Math.min(pageable.getOffset() + pageable.getPageSize(), end);
+            if (from < to) {
+                parts.put(node.getKey(), new long[]{from - start, to - from});
+            }
+            start = end;
+        }
+        long total = start;
+        Map<String, PartitionSlice> slices = gather(parts.keySet(),
+                (node, url) -> client.slice(node, url, "transactions",
+                        Map.of("offset", parts.get(node)[0], "limit", parts.get(node)[1])),
+                () -> localReader.transactions(parts.get(membership.self())[0],
+                        (int) parts.get(membership.self())[1], null, Sort.unsorted()));
+        List<Transaction> content = slices.values().stream().flatMap(slice -> slice.transactions().stream()).toList();
+        return new PageImpl<>(content, pageable, total);
+    }
+
+    @Override
+    public Page<Transaction> getTransactionsByTimeRange(LocalDateTime from, LocalDateTime to, Pageable pageable) {
+        int limit = firstRows(pageable);
+        Sort sort = pageable.getSort();
+        // Validates the range before anything is sent out
+        local.getTransactionsByTimeRange(from, to, Pageable.ofSize(1));
+        return merge(gather(
+                (node, url) -> client.slice(node, url, "range", Map.of("from", from.toString(), "to", to.toString(),
+                        "limit", limit, "sort", TransactionSort.format(sort))),
+                () -> localReader.range(from, to, limit, null, sort)),
+                sort.isSorted() ? TransactionSort.comparator(sort) : TIMESTAMP_ORDER, pageable, Long.MAX_VALUE);
+    }
+
+    @Override
+    public Page<Transaction> searchTransactions(String query, Pageable pageable) {
+        int limit = Math.min(firstRows(pageable), MAX_SEARCH_RESULTS);
+        // Validates the query before anything is sent out
+        local.searchTransactions(query, Pageable.ofSize(1));
+        return merge(gather(
+                (node, url) -> client.slice(node, url, "search", Map.of("q", query, "limit", limit)),
+                () -> localReader.search(query, limit)), ID_ORDER, pageable, MAX_SEARCH_RESULTS);
+    }
+
+    /**
+     * Merges the nodes' ledgers newest first, by timestamp. Like a snapshot token, the cursor
+     * holds one cursor per node; a node none of whose entries made it into the page is held
+     * at its newest entry, so no page is shifted by later writes. A node's balances only
+     * cover its own entries, so an entry's running balance is the sum of every node's
+     * balance at that point of the merge.
+     */
+    @Override
+    public LedgerPage getAccountLedger(long accountId, String cursor, int limit) {
+        Map<String, String> cursors = ledgerCursors(cursor);
+        Map<String, List<LedgerEntry>> entries = new LinkedHashMap<>();
+        Map<String, Boolean> more = new LinkedHashMap<>();
+        fanOut(nodes(), (node, url) -> client.ledger(node, url, accountId, cursors.get(node), limit),
+                () -> localReader.ledger(accountId, cursors.get(membership.self()), limit))
+                .forEach((node, future) -> {
+                    LedgerPage page = join(future);
+                    entries.put(node, page.entries());
+                    more.put(node, page.nextCursor() != null);
+                });
+
+        Map<String, Integer> consumed = new LinkedHashMap<>();
+        Map<String, BigDecimal> balances = new LinkedHashMap<>();
+        Map<String, String> nextCursors = new LinkedHashMap<>();
+        entries.forEach((node, rows) -> {
+            consumed.put(node, 0);
+            balances.put(node, rows.isEmpty() ? BigDecimal.ZERO : rows.get(0).balance());
+            nextCursors.put(node, rows.isEmpty() ? "0" : String.valueOf(rows.get(0).position() + 1));
+        });
+        List<LedgerEntry> merged = new ArrayList<>(limit);
+        while (merged.size() < limit) {
+            String newest = null;
+            for (String node : entries.keySet()) {
+                if (consumed.get(node) < entries.get(node).size() && (newest == null || LEDGER_ORDER.compare(
+                        entries.get(node).get(consumed.get(node)).transaction(),
+                        entries.get(newest).get(consumed.get(newest)).transaction()) > 0)) {
+                    newest = node;
+                }
+            }
+            if (newest == null) {
+                break;
+            }
+            LedgerEntry entry = entries.get(newest).get(consumed.get(newest));
+            BigDecimal balance = balances.values().stream().reduce(BigDecimal.ZERO, BigDecimal::add);
+            merged.add(new LedgerEntry(entry.position(), entry.transaction(), balance));
+            balances.put(newest, entry.balance().subtract(LedgerEntry.contribution(entry.transaction(), accountId)));
+            consumed.merge(newest, 1, Integer::sum);
+            nextCursors.put(newest, String.valueOf(entry.position()));
+        }
+        boolean hasMore = entries.keySet().stream()
+                .anyMatch(node -> consumed.get(node) < entries.get(node).size() || more.get(node));
+        String nextCursor = hasMore
+                ? nextCursors.entrySet().stream()
+                        .map(node -> node.getKey() + "=" + node.getValue())
+                        .collect(Collectors.joining(";"))
+                : null;
+        return new LedgerPage(accountId, merged, nextCursor);
+    }
+
+    /**
+     * The sum of every node's collection version. Versions only grow, so any write
+     * anywhere changes the sum.
+     */
+    @Override
+    public long getCollectionVersion() {
+        long version = 0;
+        for (Map.Entry<String, CompletableFuture<Long>> node : fanOut(nodes(),
+                client::version, localReader::version).entrySet()) {
+            version += join(node.getValue());
+        }
+        return version;
+    }
+
+    /**
+     * Opens a snapshot on every node. The token lists each node's own token, so later pages
+     * can be read from the same snapshots.
+     */
+    @Override
+    public String openSnapshot() {
+        return fanOut(nodes(), client::openSnapshot, localReader::openSnapshot).entrySet().stream()
+                .map(node -> node.getKey() + "=" + join(node.getValue()))
+                .collect(Collectors.joining(";"));
+    }
+
+    /**
+     * Snapshots never change, so any value that differs between tokens identifies the version:
+     * the leading 64 bits of the token's SHA-256, where a 32-bit hash would let two live
+     * snapshots share an ETag.
+     */
+    @Override
+    public long getSnapshotVersion(String snapshotToken) {
+        snapshotTokens(snapshotToken);
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(snapshotToken.getBytes(StandardCharsets.UTF_8));
+            return ByteBuffer.wrap(digest).getLong();
+        } catch (NoSuchAlgorithmException ex) {
+            // Every Java platform is required to provide SHA-256
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    @Override
+    public Page<Transaction> getAllTransactionsPaged(String snapshotToken, Pageable pageable) {
+        Map<String, String> tokens = snapshotTokens(snapshotToken);
+        int limit = firstRows(pageable);
+        Sort sort = pageable.getSort();
+        return merge(gather(tokens.keySet(),
+                (node, url) -> client.slice(node, url, "transactions", Map.of("offset", 0, "limit", limit,
+                        "snapshot", tokens.get(node), "sort", TransactionSort.format(sort))),
+                () -> localReader.transactions(0, limit, tokens.get(membership.self()), sort)),
+                sort.isSorted() ? TransactionSort.comparator(sort) : TIMESTAMP_ORDER, pageable, Long.MAX_VALUE);
+    }
+
+    @Override
+    public Page<Transaction> getTransactionsByTimeRange(String snapshotToken, LocalDateTime from, LocalDateTime to,
+                                                        Pageable pageable) {
+        Map<String, String> tokens = snapshotTokens(snapshotToken);
+        int limit = firstRows(pageable);
+        Sort sort = pageable.getSort();
+        local.getTransactionsByTimeRange(from, to, Pageable.ofSize(1));
+        return merge(gather(tokens.keySet(),
+                (node, url) -> client.slice(node, url, "range", Map.of("from", from.toString(), "to", to.toString(),
+                        "limit", limit, "snapshot", tokens.get(node), "sort", TransactionSort.format(sort))),
+                () -> localReader.range(from, to, limit, tokens.get(membership.self()), sort)),
+                sort.isSorted() ? TransactionSort.comparator(sort) : TIMESTAMP_ORDER, pageable, Long.MAX_VALUE);
+    }
+
+    private static int firstRows(Pageable pageable) {
+        return (int) Math.min(Integer.MAX_VALUE, pageable.getOffset() + pageable.getPageSize());
+    }
+
+    private static Page<Transaction> merge(Map<String, PartitionSlice> slices, Comparator<Transaction> order,
+                                           Pageable pageable, long maxTotal) {
+        List<Transaction> rows = new ArrayList<>();
+        long total = 0;
+        for (PartitionSlice slice : slices.values()) {
+            rows.addAll(slice.transactions());
+            total += slice.total();
+        }
+        rows.sort(order);
+        int from = (int) Math.min(pageable.getOffset(), rows.size());
+        int to = Math.min(from + pageable.getPageSize(), rows.size());
+        return new PageImpl<>(rows.subList(from, to), pageable, Math.min(total, maxTotal));
+    }
+
+    private Map<String, String> snapshotTokens(String snapshotToken) {
+        Map<String, String> tokens = new LinkedHashMap<>();
+        for (String part : snapshotToken.split(";")) {
+            int separator = part.indexOf('=');
+            if (separator <= 0) {
+                throw new SnapshotExpiredException(snapshotToken);
+            }
+            tokens.put(part.substring(0, separator), part.substring(separator + 1));
+        }
+        // A token from before a membership change does not cover the current partitions
+        if (!tokens.keySet().equals(new HashSet<>(nodes()))) {
+            throw new SnapshotExpiredException(snapshotToken);
+        }
+        return tokens;
+    }
+
+    private Map<String, String> ledgerCursors(String cursor) {
+        Map<String, String> cursors = new LinkedHashMap<>();
+        if (cursor == null) {
+            return cursors;
+        }
+        for (String part : cursor.split(";")) {
+            int separator = part.indexOf('=');
+            if (separator > 0) {
+                cursors.put(part.substring(0, separator), part.substring(separator + 1));
+            }
+        }
+        // Rows move between ledgers when the membership changes
+        if (!cursors.keySet().equals(new HashSet<>(nodes()))) {
+            throw new TransactionValidationException("Ledger cursor does not match the partitions: " + cursor,
+                    "INVALID_CURSOR");
+        }
+        return cursors;
+    }
+
+    private List<String> nodes() {
+        return membership.view().ring().nodes();
+    }
+
+    private Map<String, PartitionSlice> gather(BiFunction<String, URI, CompletableFuture<PartitionSlice>> remote,
+                                               Supplier<PartitionSlice> localPart) {
+        return gather(nodes(), remote, localPart);
+    }
+
+    private Map<String, PartitionSlice> gather(Iterable<String> nodes,
+                                               BiFunction<String, URI, CompletableFuture<PartitionSlice>> remote,
+                                               Supplier<PartitionSlice> localPart) {
+        Map<String, PartitionSlice> slices = new LinkedHashMap<>();
+        fanOut(nodes, remote, localPart).forEach((node, slice) -> slices.put(node, join(slice)));
+        return slices;
+    }
+
+    /**
+     * Sends to the other nodes first, then answers for this one while they work.
+     */
+    private <T> Map<String, CompletableFuture<T>> fanOut(Iterable<String> nodes,
+                                                         BiFunction<String, URI, CompletableFuture<T>> remote,
+                                                         Supplier<T> localPart) {
+        PartitionMembership.View view = membership.view();
+        Map<String, CompletableFuture<T>> futures = new LinkedHashMap<>();
+        boolean includesSelf = false;
+        for (String node : nodes) {
+            if (node.equals(membership.self())) {
+                includesSelf = true;
+                futures.put(node, null);
+            } else {
+                futures.put(node, remote.apply(node, view.urlOf(node)));
+            }
+        }
+        if (includesSelf) {
+            futures.put(membership.self(), CompletableFuture.completedFuture(localPart.get()));
+        }
+        return futures;
+    }
+
+    private static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw ex;
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.hsbc.transactionmanagement.replication;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hsbc.transactionmanagement.web.RequestForwarder;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ProblemDetail;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.Map;
+
+/**
+ * Front door of a follower. Reads are served from the local replica and carry its
+ * replication lag; writes are relayed to the leader and its response returned as is, so
+ * clients can talk to any replica.
+ */
+public class FollowerRequestFilter extends OncePerRequestFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(FollowerRequestFilter.class);
+
+    /** Milliseconds since the replica last held everything the leader had. */
+    public static final String LAG_HEADER = "X-Replication-Lag";
+    /** Leader mutations not yet applied by the replica. */
+    public static final String LAG_ENTRIES_HEADER = "X-Replication-Lag-Entries";
+
+    private final ReplicationClient replica;
+    private final URI leaderUrl;
+    private final RequestForwarder forwarder;
+    private final byte[] leaderUnavailableBody;
+
+    public FollowerRequestFilter(ReplicationClient replica, URI leaderUrl, RequestForwarder forwarder,
+                                 ObjectMapper objectMapper) throws IOException {
+        this.replica = replica;
+        this.leaderUrl = leaderUrl;
+        this.forwarder = forwarder;
+
+        ProblemDetail pd = ProblemDetail.forStatus(HttpStatus.BAD_GATEWAY);
+        pd.setTitle("Leader Unavailable");
+        pd.setDetail("This replica is read-only and the leader could not be reached. Retry the write later.");
+        pd.setProperty("errorCode", "LEADER_UNAVAILABLE");
+        this.leaderUnavailableBody = objectMapper.writeValueAsBytes(pd);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        if (isRead(request)) {
+            response.setHeader(LAG_HEADER, String.valueOf(replica.getLagMillis()));
+            response.setHeader(LAG_ENTRIES_HEADER, String.valueOf(replica.getLagEntries()));
+            filterChain.doFilter(request, response);
+        } else {
+            forward(request, response);
+        }
+    }
+
+    private void forward(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        try {
+            forwarder.forward(request, null, response, leaderUrl, Map.of());
+        } catch (IOException ex) {
+            if (response.isCommitted()) {
+                throw ex;
+            }
+            logger.warn("Could not forward {} {} to the leader: {}", request.getMethod(), request.getRequestURI(),
+                    ex.toString());
+            reject(response);
+        }
+    }
+
+    private void reject(HttpServletResponse response) throws IOException {
+        response.setStatus(HttpStatus.BAD_GATEWAY.value());
+        response.setContentType(MediaType.APPLICATION_PROBLEM_JSON_VALUE);
+        response.setContentLength(leaderUnavailableBody.length);
+        response.getOutputStream().write(leaderUnavailableBody);
+    }
+
+    private static boolean isRead(HttpServletRequest request) {
+        String method = request.getMethod();
+        return HttpMethod.GET.matches(method) || HttpMethod.HEAD.matches(method) || HttpMethod.OPTIONS.matches(method);
+    }
+}
@@ -0,0 +1,234 @@
+package com.hsbc.transactionmanagement.replication;
+
+import com.hsbc.transactionmanagement.model.Transaction;
+import com.hsbc.transactionmanagement.repository.TransactionRepository;
+import com.hsbc.transactionmanagement.storage.TransactionRowCodec;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Follows a {@link ReplicationServer}, applying its mutations to the local store on a
+ * single thread in the order the leader made them. Lost connections are retried with
+ * backoff, resuming where the stream left off if the leader still has that part of its log.
+ * <p>
+ * Lag is reported two ways: in log entries, exact as of the leader's last heartbeat, and
+ * in time, as how long ago this replica last held everything the leader had. The latter is
+ * measured on the local clock only, so it needs no clock agreement between the nodes, and
+ * keeps growing while the leader is unreachable.
+ */
+public class ReplicationClient implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReplicationClient.class);
+
+    private final TransactionRepository repository;
+    private final InetSocketAddress leader;
+    private final int readTimeoutMillis;
+    private final long reconnectDelayMillis;
+    private final Consumer<String> onApplied;
+
+    private final AtomicLong resyncs = new AtomicLong();
+    private volatile long epoch;
+    // Last sequence applied, and the sequence the leader will assign next, as of its last report
+    private volatile long appliedSequence;
+    private volatile long leaderHead;
+    private volatile long caughtUpAtNanos = System.nanoTime();
+    private volatile boolean synced;
+    private volatile boolean connected;
+    private volatile boolean closed;
+    private volatile Socket socket;
+
+    /**
+     * @param heartbeatInterval the leader's heartbeat interval; a connection silent for three of
+     *                          them is given up on
+     * @param onApplied         called with the ID of every transaction changed by replication
+     */
+    public ReplicationClient(TransactionRepository repository, String leaderHost, int leaderPort,
+                             Duration heartbeatInterval, Duration reconnectDelay, Consumer<String> onApplied) {
+        this.repository = repository;
+        this.leader = InetSocketAddress.createUnresolved(leaderHost, leaderPort);
+        this.readTimeoutMillis = (int) Math.max(1, heartbeatInterval.toMillis() * 3);
+        this.reconnectDelayMillis = Math.max(1, reconnectDelay.toMillis());
+        this.onApplied = onApplied;
+    }
+
+    public void start() {
+        Thread follower = new Thread(this::follow, "replication-follower");
+        follower.setDaemon(true);
+        follower.start();
+    }
+
+    /**
+     * Whether a full copy of the leader's store has been received, i.e. whether reads see
+     * anything but an empty store.
+     */
+    public boolean isSynced() {
+        return synced;
+    }
+
+    public boolean isConnected() {
+        return connected;
+    }
+
+    public long getAppliedSequence() {
+        return appliedSequence;
+    }
+
+    public long getLagEntries() {
+        return synced ? Math.max(0, leaderHead - 1 - appliedSequence) : Math.max(0, leaderHead - 1);
+    }
+
+    public long getLagMillis() {
+        if (connected && synced && getLagEntries() == 0) {
+            return 0;
+        }
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - caughtUpAtNanos);
+    }
+
+    /**
+     * Full copies received, including the initial one.
+     */
+    public long getResyncs() {
+        return resyncs.get();
+    }
+
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        Socket current = socket;
+        if (current != null) {
+            current.close();
+        }
+    }
+
+    private void follow() {
+        long delay = reconnectDelayMillis;
+        while (!closed) {
+            try (Socket connection = new Socket()) {
+                socket = connection;
+                connection.connect(new InetSocketAddress(leader.getHostString(), leader.getPort()), readTimeoutMillis);
+                connection.setSoTimeout(readTimeoutMillis);
+                connection.setTcpNoDelay(true);
+                DataOutputStream out = new DataOutputStream(new BufferedOutputStream(connection.getOutputStream()));
+                out.writeInt(ReplicationProtocol.MAGIC);
+                out.writeShort(ReplicationProtocol.VERSION);
+                out.writeLong(epoch);
+                out.writeLong(synced ? appliedSequence + 1 : 0);
+                out.flush();
+                connected = true;
+                delay = reconnectDelayMillis;
+                logger.info("Following the leader at {}", leader);
+                apply(new DataInputStream(new BufferedInputStream(connection.getInputStream(), 64 * 1024)));
+            } catch (IOException ex) {
+                if (!closed) {
+                    logger.warn("Lost the replication stream from {}, retrying in {} ms: {}", leader, delay, ex.toString());
+                }
+            } finally {
+                connected = false;
+            }
+            if (!closed) {
+                try {
+                    Thread.sleep(delay);
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                delay = Math.min(delay * 2, reconnectDelayMillis * 10);
+            }
+        }
+    }
+
+    private void apply(DataInputStream in) throws IOException {
+        while (!closed) {
+            byte type = in.readByte();
+            switch (type) {
+                case ReplicationProtocol.SNAPSHOT_BEGIN -> applySnapshot(in);
+                case ReplicationProtocol.PUT -> {
+                    long sequence = in.readLong();
+                    Transaction transaction = TransactionRowCodec.read(in);
+                    repository.save(transaction);
+                    applied(sequence, transaction.getTransactionId());
+                }
+                case ReplicationProtocol.DELETE -> {
+                    long sequence = in.readLong();
+                    String id = in.readUTF();
+                    repository.deleteById(id);
+                    applied(sequence, id);
+                }
+                case ReplicationProtocol.HEARTBEAT -> {
+                    // Everything before the stream's position was sent, so it has all been applied
+                    appliedSequence = Math.max(appliedSequence, in.readLong() - 1);
+                    leaderHead = in.readLong();
+                    markIfCaughtUp();
+                }
+                default -> throw new IOException("Unexpected replication message " + type);
+            }
+        }
+    }
+
+    /**
+     * Replaces the local store with the leader's copy. Rows are overwritten in place and
+     * only the leftovers deleted at the end, so readers never see the store empty.
+     */
+    private void applySnapshot(DataInputStream in) throws IOException {
+        long snapshotEpoch = in.readLong();
+        long resumeAt = in.readLong();
+        Set<String> stale;
+        try (Stream<Transaction> local = repository.stream()) {
+            stale = local.map(Transaction::getTransactionId).collect(Collectors.toCollection(HashSet::new));
+        }
+        long rows = 0;
+        for (byte type = in.readByte(); type != ReplicationProtocol.SNAPSHOT_END; type = in.readByte()) {
+            if (type != ReplicationProtocol.ROW) {
+                throw new IOException("Unexpected replication message " + type + " in a snapshot");
+            }
+            Transaction transaction = TransactionRowCodec.read(in);
+            stale.remove(transaction.getTransactionId());
+            repository.save(transaction);
+            onApplied.accept(transaction.getTransactionId());
+            rows++;
+        }
+        for (String id : stale) {
+            repository.deleteById(id);
+            onApplied.accept(id);
+        }
+        epoch = snapshotEpoch;
+        appliedSequence = resumeAt - 1;
+        leaderHead = resumeAt;
+        synced = true;
+        resyncs.incrementAndGet();
+        markIfCaughtUp();
+        logger.info("Received a copy of {} transactions from the leader, resuming at sequence {}", rows, resumeAt);
+    }
+
+    private void applied(long sequence, String id) {
+        onApplied.accept(id);
+        appliedSequence = sequence;
+        if (sequence >= leaderHead) {
+            leaderHead = sequence + 1;
+        }
+        markIfCaughtUp();
+    }
+
+    private void markIfCaughtUp() {
+        if (synced && appliedSequence >= leaderHead - 1) {
+            caughtUpAtNanos = System.nanoTime();
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.hsbc.transactionmanagement.replication;
+
+import com.hsbc.transactionmanagement.model.Transaction;
+import com.hsbc.transactionmanagement.repository.MutationListener;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * The leader's ordered, bounded log of store mutations, built like the event buffer: a
+ * lock-free ring that writers append to with a single CAS and never wait on.
+ * <p>
+ * Sequences are only meaningful within one {@link #epoch()}, which is drawn afresh every
+ * time the leader starts, so a follower can tell a restarted leader from the one it was
+ * following and resync instead of resuming at a sequence that means something else now.
+ */
+public class ReplicationLog implements MutationListener {
+
+    private final long epoch = ThreadLocalRandom.current().nextLong();
+    private final AtomicReferenceArray<Mutation> slots;
+    private final int mask;
+    // Sequences start at 1, so a cursor of 0 never matches and always leads to a resync
+    private final AtomicLong nextSequence = new AtomicLong(1);
+
+    private final Object appended = new Object();
+    private final AtomicInteger waiters = new AtomicInteger();
+
+    public ReplicationLog(int requestedCapacity) {
+        if (requestedCapacity < 2 || requestedCapacity > (1 << 30)) {
+            throw new IllegalArgumentException("Replication log capacity must be between 2 and 2^30");
+        }
+        int capacity = Integer.highestOneBit(requestedCapacity - 1) << 1;
+        this.slots = new AtomicReferenceArray<>(capacity);
+        this.mask = capacity - 1;
+    }
+
+    @Override
+    public void onMutation(long version, String id, Transaction after) {
+        long sequence = nextSequence.getAndIncrement();
+        slots.set(indexOf(sequence), new Mutation(sequence, version, id, after));
+        if (waiters.get() > 0) {
+            synchronized (appended) {
+                appended.notifyAll();
+            }
+        }
+    }
+
+    public long epoch() {
+        return epoch;
+    }
+
+    /**
+     * Sequence the next mutation will get.
+     */
+    public long headSequence() {
+        return nextSequence.get();
+    }
+
+    /**
+     * Whether a reader at {@code cursor} can still be served from the log.
+     */
+    public boolean isRetained(long cursor) {
+        long head = nextSequence.get();
+        return cursor >= 1 && cursor <= head && cursor >= head - slots.length();
+    }
+
+    /**
+     * Reads up to {@code max} mutations starting at {@code cursor}.
+     *
+     * @return the mutations in sequence order, or {@code null} if the ones at the cursor were
+     *         already overwritten
+     */
+    public List<Mutation> read(long cursor, int max) {
+        List<Mutation> mutations = new ArrayList<>(Math.min(max, 64));
+        long position = cursor;
+        while (mutations.size() < max) {
+            if (!isRetained(position)) {
+                return null;
+            }
+            if (position >= nextSequence.get()) {
+                break;
+            }
+            Mutation mutation = slots.get(indexOf(position));
+            if (mutation == null || mutation.sequence() < position) {
+                // Sequence claimed but its mutation is not visible yet; stop so order is preserved
+                break;
+            }
+            if (mutation.sequence() > position) {
+                return null;
+            }
+            mutations.add(mutation);
+            position++;
+        }
+        return mutations;
+    }
+
+    /**
+     * Waits up to {@code timeoutNanos} for a mutation at or after {@code cursor} to be appended.
+     */
+    public void awaitAppend(long cursor, long timeoutNanos) throws InterruptedException {
+        waiters.incrementAndGet();
+        try {
+            synchronized (appended) {
+                if (nextSequence.get() <= cursor) {
+                    TimeUnit.NANOSECONDS.timedWait(appended, timeoutNanos);
+                }
+            }
+        } finally {
+            waiters.decrementAndGet();
+        }
+    }
+
+    private int indexOf(long sequence) {
+        return (int) (sequence & mask);
+    }
+
+    /**
+     * @param version the leader's collection version for the write, see {@link MutationListener}
+     * @param after   the new state, or {@code null} for a delete
+     */
+    public record Mutation(long sequence, long version, String transactionId, Transaction after) {}
+}
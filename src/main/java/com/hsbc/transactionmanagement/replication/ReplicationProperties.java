@@ -0,0 +1,43 @@
+package com.hsbc.transactionmanagement.replication;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.net.URI;
+import java.time.Duration;
+
+/**
+ * Leader-follower replication of the transaction store.
+ *
+ * @param port              leader: port the replication log is served on, {@code 0} for any free port
+ * @param logCapacity       leader: mutations kept for followers that reconnect; one further behind is resynced
+ * @param heartbeatInterval leader: how often an idle stream reports the log head, so followers can tell a
+ *                          quiet leader from a dead connection
+ * @param leaderHost        follower: host of the leader's replication port
+ * @param leaderPort        follower: the leader's replication port
+ * @param leaderUrl         follower: base URL of the leader's HTTP API, where writes are forwarded
+ * @param forwardTimeout    follower: how long to wait for the leader's response to a forwarded write
+ * @param reconnectDelay    follower: initial delay before reconnecting, doubled per failure up to ten times as long
+ */
+@ConfigurationProperties(prefix = "transaction.replication")
+public record ReplicationProperties(
+        @DefaultValue("none") Role role,
+        @DefaultValue("7070") int port,
+        @DefaultValue("65536") int logCapacity,
+        @DefaultValue("PT1S") Duration heartbeatInterval,
+        @DefaultValue("localhost") String leaderHost,
+        @DefaultValue("7070") int leaderPort,
+        URI leaderUrl,
+        @DefaultValue("PT30S") Duration forwardTimeout,
+        @DefaultValue("PT1S") Duration reconnectDelay
+) {
+
+    public enum Role {
+        /** A single node; nothing is replicated. */
+        NONE,
+        /** Accepts writes and streams them to followers. */
+        LEADER,
+        /** Serves reads from a replicated copy and forwards writes to the leader. */
+        FOLLOWER
+    }
+}
@@ -0,0 +1,35 @@
+package com.hsbc.transactionmanagement.replication;
+
+/**
+ * Wire format between leader and follower: a plain TCP stream of
+ * {@link java.io.DataOutputStream} primitives, rows encoded with
+ * {@link com.hsbc.transactionmanagement.storage.TransactionRowCodec}.
+ * <p>
+ * The follower opens with {@code HELLO}: {@link #MAGIC}, {@link #VERSION}, the epoch and
+ * the next sequence it wants. Everything after flows from the leader, each message led by
+ * its type byte:
+ * <ul>
+ *     <li>{@link #SNAPSHOT_BEGIN} epoch, sequence the stream resumes at afterwards</li>
+ *     <li>{@link #ROW} a row of the snapshot</li>
+ *     <li>{@link #SNAPSHOT_END}</li>
+ *     <li>{@link #PUT} sequence, row</li>
+ *     <li>{@link #DELETE} sequence, ID</li>
+ *     <li>{@link #HEARTBEAT} sequence the stream has reached, log head</li>
+ * </ul>
+ */
+final class ReplicationProtocol {
+
+    static final int MAGIC = 0x54585250; // "TXRP"
+    // 2: rows carry their status history
+    static final short VERSION = 2;
+
+    static final byte SNAPSHOT_BEGIN = 'S';
+    static final byte ROW = 'R';
+    static final byte SNAPSHOT_END = 'E';
+    static final byte PUT = 'P';
+    static final byte DELETE = 'D';
+    static final byte HEARTBEAT = 'H';
+
+    private ReplicationProtocol() {
+    }
+}
@@ -0,0 +1,203 @@
+package com.hsbc.transactionmanagement.replication;
+
+import com.hsbc.transactionmanagement.model.Transaction;
+import com.hsbc.transactionmanagement.repository.TransactionRepository;
+import com.hsbc.transactionmanagement.repository.TransactionSnapshot;
+import com.hsbc.transactionmanagement.storage.TransactionRowCodec;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Serves the {@link ReplicationLog} to followers, one thread per connection.
+ * <p>
+ * A follower that asks for a sequence the log still holds is streamed from there. Any
+ * other follower first gets a full copy: the log head is read, then a snapshot of the
+ * store is opened and sent, and streaming resumes at that head. Mutations in between
+ * that the snapshot already contains are recognised by their version and skipped, so the
+ * follower applies every write exactly once.
+ */
+public class ReplicationServer implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReplicationServer.class);
+
+    private static final int BATCH_SIZE = 1024;
+
+    private final ReplicationLog log;
+    private final TransactionRepository repository;
+    private final long heartbeatNanos;
+    private final ServerSocket serverSocket;
+    private final Set<Socket> followers = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger sessionIds = new AtomicInteger();
+    private final AtomicLong snapshotsSent = new AtomicLong();
+    private volatile boolean closed;
+
+    public ReplicationServer(ReplicationLog log, TransactionRepository repository, int port,
+                             Duration heartbeatInterval) throws IOException {
+        this.log = log;
+        this.repository = repository;
+        this.heartbeatNanos = heartbeatInterval.toNanos();
+        this.serverSocket = new ServerSocket(port);
+    }
+
+    public void start() {
+        Thread acceptor = new Thread(this::accept, "replication-acceptor");
+        acceptor.setDaemon(true);
+        acceptor.start();
+        logger.info("Serving the replication log on port {}", getPort());
+    }
+
+    /**
+     * The bound port, which differs from the configured one when that was {@code 0}.
+     */
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    public int getFollowerCount() {
+        return followers.size();
+    }
+
+    public long getSnapshotsSent() {
+        return snapshotsSent.get();
+    }
+
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        serverSocket.close();
+        for (Socket follower : followers) {
+            follower.close();
+        }
+    }
+
+    private void accept() {
+        while (!closed) {
+            try {
+                Socket socket = serverSocket.accept();
+                socket.setTcpNoDelay(true);
+                followers.add(socket);
+                Thread session = new Thread(() -> serve(socket), "replication-session-" + sessionIds.incrementAndGet());
+                session.setDaemon(true);
+                session.start();
+            } catch (IOException ex) {
+                if (!closed) {
+                    logger.warn("Failed to accept a follower connection", ex);
+                }
+            }
+        }
+    }
+
+    private void serve(Socket socket) {
+        try (socket) {
+            DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream(), 64 * 1024));
+            if (in.readInt() != ReplicationProtocol.MAGIC || in.readShort() != ReplicationProtocol.VERSION) {
+                logger.warn("Rejecting replication connection from {}: unknown protocol", socket.getRemoteSocketAddress());
+                return;
+            }
+            long epoch = in.readLong();
+            long requested = in.readLong();
+            logger.info("Follower {} connected at sequence {}", socket.getRemoteSocketAddress(), requested);
+            stream(out, epoch == log.epoch() && log.isRetained(requested) ? requested : -1);
+        } catch (IOException ex) {
+            if (!closed) {
+                logger.info("Follower {} disconnected: {}", socket.getRemoteSocketAddress(), ex.toString());
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        } finally {
+            followers.remove(socket);
+        }
+    }
+
+    /**
+     * @param cursor the first sequence to send, or {@code -1} to start with a full copy
+     */
+    private void stream(DataOutputStream out, long cursor) throws IOException, InterruptedException {
+        // Mutations at or below this version are already in the copy the follower was sent
+        long snapshotVersion = -1;
+        if (cursor < 0) {
+            cursor = log.headSequence();
+            snapshotVersion = sendSnapshot(out, cursor);
+        }
+        long lastHeartbeat = System.nanoTime();
+        while (!closed) {
+            List<ReplicationLog.Mutation> batch = log.read(cursor, BATCH_SIZE);
+            if (batch == null) {
+                // The follower fell more than a log's length behind
+                cursor = log.headSequence();
+                snapshotVersion = sendSnapshot(out, cursor);
+                continue;
+            }
+            for (ReplicationLog.Mutation mutation : batch) {
+                if (mutation.version() > snapshotVersion) {
+                    send(out, mutation);
+                }
+                cursor = mutation.sequence() + 1;
+            }
+            long now = System.nanoTime();
+            if (now - lastHeartbeat >= heartbeatNanos) {
+                out.writeByte(ReplicationProtocol.HEARTBEAT);
+                out.writeLong(cursor);
+                out.writeLong(log.headSequence());
+                lastHeartbeat = now;
+            }
+            if (batch.isEmpty()) {
+                out.flush();
+                log.awaitAppend(cursor, heartbeatNanos - (now - lastHeartbeat));
+            }
+        }
+    }
+
+    /**
+     * Sends the whole store as of now and returns the version it was read at.
+     *
+     * @param resumeAt the log head read before the snapshot was opened
+     */
+    private long sendSnapshot(DataOutputStream out, long resumeAt) throws IOException {
+        long rows = 0;
+        try (TransactionSnapshot snapshot = repository.openSnapshot(); Stream<Transaction> stream = snapshot.stream()) {
+            out.writeByte(ReplicationProtocol.SNAPSHOT_BEGIN);
+            out.writeLong(log.epoch());
+            out.writeLong(resumeAt);
+            for (Iterator<Transaction> it = stream.iterator(); it.hasNext(); rows++) {
+                out.writeByte(ReplicationProtocol.ROW);
+                TransactionRowCodec.write(out, it.next());
+            }
+            out.writeByte(ReplicationProtocol.SNAPSHOT_END);
+            out.flush();
+            snapshotsSent.incrementAndGet();
+            logger.info("Sent a copy of {} transactions at version {}", rows, snapshot.version());
+            return snapshot.version();
+        }
+    }
+
+    private static void send(DataOutputStream out, ReplicationLog.Mutation mutation) throws IOException {
+        if (mutation.after() != null) {
+            out.writeByte(ReplicationProtocol.PUT);
+            out.writeLong(mutation.sequence());
+            TransactionRowCodec.write(out, mutation.after());
+        } else {
+            out.writeByte(ReplicationProtocol.DELETE);
+            out.writeLong(mutation.sequence());
+            out.writeUTF(mutation.transactionId());
+        }
+    }
+}
@@ -0,0 +1,273 @@
+package com.hsbc.transactionmanagement.repository;
+
+import com.hsbc.transactionmanagement.model.LedgerEntry;
+import com.hsbc.transactionmanagement.model.Transaction;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * One ledger per account: the transactions it sent or received, in the order they were
+ * stored. A ledger only ever appends, so an entry keeps its position and a cursor into the
+ * ledger stays valid however many entries arrive after it.
+ * <p>
+ * Positions are held in chunks of {@link #CHUNK_SIZE}. A deleted entry leaves a gap in its
+ * chunk, and a chunk whose positions have all been handed out and deleted is dropped, so a
+ * ledger holds its live entries plus one sum per chunk, and a page steps over dropped chunks
+ * without walking their positions.
+ * <p>
+ * Balances come from a Fenwick tree over the chunks' sums of each entry's
+ * {@link LedgerEntry#contribution}, so a page costs one O(log n) prefix sum plus at most a
+ * chunk of steps per entry, and a status change anywhere in the ledger costs O(log n).
+ */
+final class AccountLedgers {
+
+    static final int CHUNK_SIZE = 256;
+
+    private static final class Chunk {
+
+        final Transaction[] entries = new Transaction[CHUNK_SIZE];
+        final BigDecimal[] contributions = new BigDecimal[CHUNK_SIZE];
+        int live;
+    }
+
+    private static final class Ledger {
+
+        // chunk index -> chunk, holding positions [index * CHUNK_SIZE, (index + 1) * CHUNK_SIZE)
+        private final NavigableMap<Integer, Chunk> chunks = new TreeMap<>();
+        // 1-based Fenwick tree over chunk sums; slot 0 is unused
+        private final List<BigDecimal> tree = new ArrayList<>(List.of(BigDecimal.ZERO));
+        private final Map<String, Integer> positions = new HashMap<>();
+        private final ReadWriteLock lock = new ReentrantReadWriteLock();
+        private final long accountId;
+        // Positions handed out so far
+        private int size;
+
+        Ledger(long accountId) {
+            this.accountId = accountId;
+        }
+
+        /**
+         * Appends {@code transaction}, or repoints its entry if the ledger has it already.
+         */
+        void put(Transaction transaction) {
+            BigDecimal contribution = LedgerEntry.contribution(transaction, accountId);
+            lock.writeLock().lock();
+            try {
+                Integer position = positions.get(transaction.getTransactionId());
+                if (position != null) {
+                    Chunk chunk = chunks.get(position / CHUNK_SIZE);
+                    int offset = position % CHUNK_SIZE;
+                    chunk.entries[offset] = transaction;
+                    adjust(position / CHUNK_SIZE, contribution.subtract(chunk.contributions[offset]));
+                    chunk.contributions[offset] = contribution;
+                    return;
+                }
+                position = size++;
+                int index = position / CHUNK_SIZE;
+                Chunk chunk = chunks.get(index);
+                if (chunk == null) {
+                    chunk = new Chunk();
+                    chunks.put(index, chunk);
+                    int node = index + 1;
+                    // The new node covers (node - lowbit, node]: the chunks it shares with its
+                    // predecessors plus its own, still empty
+                    tree.add(prefix(node - 1).subtract(prefix(node - (node & -node))));
+                }
+                positions.put(transaction.getTransactionId(), position);
+                chunk.entries[position % CHUNK_SIZE] = transaction;
+                chunk.contributions[position % CHUNK_SIZE] = contribution;
+                chunk.live++;
+                adjust(index, contribution);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        void remove(String id) {
+            lock.writeLock().lock();
+            try {
+                Integer position = positions.remove(id);
+                if (position == null) {
+                    return;
+                }
+                int index = position / CHUNK_SIZE;
+                Chunk chunk = chunks.get(index);
+                int offset = position % CHUNK_SIZE;
+                adjust(index, chunk.contributions[offset].negate());
+                chunk.entries[offset] = null;
+                chunk.contributions[offset] = null;
+                // The chunk still taking appends stays, however empty
+                if (--chunk.live == 0 && (index + 1) * CHUNK_SIZE <= size) {
+                    chunks.remove(index);
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        List<LedgerEntry> page(long before, int limit) {
+            lock.readLock().lock();
+            try {
+                int from = (int) Math.min(before, size);
+                BigDecimal balance = balanceBefore(from);
+                List<LedgerEntry> page = new ArrayList<>(Math.min(limit, from));
+                int position = from - 1;
+                while (position >= 0 && page.size() < limit) {
+                    Map.Entry<Integer, Chunk> next = chunks.floorEntry(position / CHUNK_SIZE);
+                    if (next == null) {
+                        break;
+                    }
+                    Chunk chunk = next.getValue();
+                    int start = next.getKey() * CHUNK_SIZE;
+                    position = Math.min(position, start + CHUNK_SIZE - 1);
+                    for (; position >= start && page.size() < limit; position--) {
+                        Transaction transaction = chunk.entries[position - start];
+                        if (transaction != null) {
+                            page.add(new LedgerEntry(position, transaction, balance));
+                            balance = balance.subtract(chunk.contributions[position - start]);
+                        }
+                    }
+                }
+                return page;
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        int chunkCount() {
+            lock.readLock().lock();
+            try {
+                return chunks.size();
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        // Sum of the contributions at positions below position
+        private BigDecimal balanceBefore(int position) {
+            int index = position / CHUNK_SIZE;
+            BigDecimal sum = prefix(index);
+            Chunk chunk = chunks.get(index);
+            if (chunk != null) {
+                for (int offset = 0; offset < position % CHUNK_SIZE; offset++) {
+                    if (chunk.contributions[offset] != null) {
+                        sum = sum.add(chunk.contributions[offset]);
+                    }
+                }
+            }
+            return sum;
+        }
+
+        // Sum of the first count chunks
+        private BigDecimal prefix(int count) {
+            BigDecimal sum = BigDecimal.ZERO;
+            for (int node = count; node > 0; node -= node & -node) {
+                sum = sum.add(tree.get(node));
+            }
+            return sum;
+        }
+
+        private void adjust(int index, BigDecimal delta) {
+            if (delta.signum() == 0) {
+                return;
+            }
+            for (int node = index + 1; node < tree.size(); node += node & -node) {
+                tree.set(node, tree.get(node).add(delta));
+            }
+        }
+    }
+
+    // Empty ledgers are kept: an account that had transactions is likely to get more
+    private final Map<Long, Ledger> ledgers = new ConcurrentHashMap<>();
+
+    void add(Transaction transaction) {
+        for (Long account : accounts(transaction)) {
+            ledgers.computeIfAbsent(account, Ledger::new).put(transaction);
+        }
+    }
+
+    void remove(Transaction transaction) {
+        for (Long account : accounts(transaction)) {
+            Ledger ledger = ledgers.get(account);
+            if (ledger != null) {
+                ledger.remove(transaction.getTransactionId());
+            }
+        }
+    }
+
+    /**
+     * Replaces {@code previous} with {@code transaction}, a new instance of the same row. The
+     * entries keep their positions unless the accounts changed.
+     */
+    void replace(Transaction previous, Transaction transaction) {
+        if (!Objects.equals(previous.getSenderAccountId(), transaction.getSenderAccountId())
+                || !Objects.equals(previous.getReceiverAccountId(), transaction.getReceiverAccountId())) {
+            remove(previous);
+        }
+        add(transaction);
+    }
+
+    /**
+     * Up to {@code limit} entries of {@code accountId}'s ledger before {@code before}, newest
+     * first.
+     */
+    List<LedgerEntry> page(long accountId, long before, int limit) {
+        Ledger ledger = ledgers.get(accountId);
+        return ledger == null ? List.of() : ledger.page(before, limit);
+    }
+
+    int chunkCount(long accountId) {
+        Ledger ledger = ledgers.get(accountId);
+        return ledger == null ? 0 : ledger.chunkCount();
+    }
+
+    /**
+     * The same page for stores without ledgers, with the account's transactions in timestamp
+     * order standing in for the order they were stored. This reads every transaction, and
+     * positions shift when an older transaction is added or removed.
+     */
+    static List<LedgerEntry> scan(Stream<Transaction> transactions, long accountId, long before, int limit) {
+        List<Transaction> ledger = transactions
+                .filter(transaction -> accounts(transaction).contains(accountId))
+                .sorted(Comparator.comparing(Transaction::getTimestamp,
+                                Comparator.nullsFirst(Comparator.<LocalDateTime>naturalOrder()))
+                        .thenComparing(Transaction::getTransactionId))
+                .toList();
+        int from = (int) Math.min(before, ledger.size());
+        BigDecimal balance = ledger.subList(0, from).stream()
+                .map(transaction -> LedgerEntry.contribution(transaction, accountId))
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        List<LedgerEntry> page = new ArrayList<>(Math.min(limit, from));
+        for (int position = from - 1; position >= 0 && page.size() < limit; position--) {
+            Transaction transaction = ledger.get(position);
+            page.add(new LedgerEntry(position, transaction, balance));
+            balance = balance.subtract(LedgerEntry.contribution(transaction, accountId));
+        }
+        return page;
+    }
+
+    private static List<Long> accounts(Transaction transaction) {
+        List<Long> accounts = new ArrayList<>(2);
+        if (transaction.getSenderAccountId() != null) {
+            accounts.add(transaction.getSenderAccountId());
+        }
+        if (transaction.getReceiverAccountId() != null
+                && !transaction.getReceiverAccountId().equals(transaction.getSenderAccountId())) {
+            accounts.add(transaction.getReceiverAccountId());
+        }
+        return accounts;
+    }
+}
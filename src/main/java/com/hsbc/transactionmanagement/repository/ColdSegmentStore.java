@@ -0,0 +1,438 @@
+package com.hsbc.transactionmanagement.repository;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.hsbc.transactionmanagement.model.Transaction;
+import com.hsbc.transactionmanagement.storage.columnar.ColumnarFileReader;
+import com.hsbc.transactionmanagement.storage.columnar.ColumnarFileWriter;
+import com.hsbc.transactionmanagement.storage.columnar.RowGroupCodec;
+import com.hsbc.transactionmanagement.storage.columnar.RowGroupInfo;
+import com.hsbc.transactionmanagement.storage.lsm.BloomFilter;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Immutable on-disk segments holding transactions moved out of the heap.
+ * <p>
+ * Each segment is a columnar file whose rows are sorted by ID and cut into small blocks,
+ * mapped once when the segment opens. A lookup first asks the segment's Bloom filter, so
+ * segments that do not hold the ID are skipped without touching the file; otherwise the
+ * footer's per-block ID ranges act as a sparse index and only the candidate block is
+ * decoded, through a cache of recently decoded blocks shared by all segments. Deletes are
+ * recorded as per-segment tombstones, since segments are never rewritten in place.
+ * <p>
+ * Runs of {@link #MERGE_FACTOR} similarly sized segments are merged into one, up to the
+ * segment size limit, so the number of segments grows with the logarithm of the archived
+ * rows rather than with the number of archive runs.
+ * <p>
+ * Segments extend the heap rather than persist it, so the directory is cleared on start.
+ */
+class ColdSegmentStore implements Closeable {
+
+    private static final String SEGMENT_SUFFIX = ".seg";
+    private static final int BLOOM_BITS_PER_KEY = 10;
+    static final int MERGE_FACTOR = 4;
+
+    private record BlockKey(Segment segment, int block) {}
+
+    private record SegmentBlock(Segment segment, RowGroupInfo block) {}
+
+    private final Path directory;
+    private final int rowsPerBlock;
+    private final int maxRowsPerSegment;
+    // Oldest first; replaced whole, so readers always see one consistent list
+    private volatile List<Segment> segments = List.of();
+    private final AtomicLong segmentSequence = new AtomicLong();
+    private final Cache<BlockKey, List<Transaction>> blockCache;
+    // Deletes share it; replacing merged segments takes it alone, so no tombstone is lost
+    private final ReadWriteLock tombstoneLock = new ReentrantReadWriteLock();
+
+    ColdSegmentStore(Path directory, int rowsPerBlock, int maxRowsPerSegment, long blockCacheRows)
+            throws IOException {
+        if (rowsPerBlock < 1 || maxRowsPerSegment < 1) {
+            throw new IllegalArgumentException("Rows per block and per segment must be positive");
+        }
+        this.directory = directory;
+        this.rowsPerBlock = rowsPerBlock;
+        this.maxRowsPerSegment = maxRowsPerSegment;
+        this.blockCache = Caffeine.newBuilder()
+                .maximumWeight(blockCacheRows)
+                .<BlockKey, List<Transaction>>weigher((key, rows) -> rows.size())
+                .build();
+        Files.createDirectories(directory);
+        try (DirectoryStream<Path> stale = Files.newDirectoryStream(directory, "*" + SEGMENT_SUFFIX)) {
+            for (Path file : stale) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    /**
+     * Writes {@code rows} as a new segment and makes it readable.
+     */
+    Segment write(List<Transaction> rows) throws IOException {
+        Segment segment = create(rows);
+        List<Segment> appended = new ArrayList<>(segments);
+        appended.add(segment);
+        segments = List.copyOf(appended);
+        return segment;
+    }
+
+    /**
+     * Merges the newest segments while the last {@link #MERGE_FACTOR} of them are of one size
+     * tier and fit in one segment together. Must not run concurrently with {@link #write}.
+     *
+     * @return how many merges ran
+     */
+    int compact() throws IOException {
+        int merges = 0;
+        for (List<Segment> current = segments; current.size() >= MERGE_FACTOR; current = segments) {
+            List<Segment> run = current.subList(current.size() - MERGE_FACTOR, current.size());
+            long rows = run.stream().mapToLong(Segment::liveRows).sum();
+            int tier = tier(run.get(0));
+            if (rows > maxRowsPerSegment || run.stream().anyMatch(segment -> tier(segment) != tier)) {
+                break;
+            }
+            merge(run);
+            merges++;
+        }
+        return merges;
+    }
+
+    Optional<Transaction> findById(String id) {
+        byte[] key = id.getBytes(StandardCharsets.UTF_8);
+        List<Segment> current = segments;
+        // Newest first: an ID archived again after being re-created must win over its old copy
+        for (int i = current.size() - 1; i >= 0; i--) {
+            Optional<Transaction> found = current.get(i).findById(id, key);
+            if (found.isPresent()) {
+                return found;
+            }
+        }
+        return Optional.empty();
+    }
+
+    boolean existsById(String id) {
+        return findById(id).isPresent();
+    }
+
+    /**
+     * Hides {@code id} in every segment holding it.
+     *
+     * @return whether any live copy was found
+     */
+    boolean delete(String id) {
+        byte[] key = id.getBytes(StandardCharsets.UTF_8);
+        boolean deleted = false;
+        tombstoneLock.readLock().lock();
+        try {
+            for (Segment segment : segments) {
+                deleted |= segment.delete(id, key);
+            }
+        } finally {
+            tombstoneLock.readLock().unlock();
+        }
+        return deleted;
+    }
+
+    Stream<Transaction> stream() {
+        return segments.stream().flatMap(Segment::stream);
+    }
+
+    /**
+     * Transactions with {@code from <= timestamp < to}; blocks whose time range misses the
+     * query are skipped without decoding. Not ordered.
+     */
+    Stream<Transaction> range(LocalDateTime from, LocalDateTime to) {
+        long fromSecond = from.toEpochSecond(ZoneOffset.UTC);
+        long toSecond = to.toEpochSecond(ZoneOffset.UTC) + 1;
+        return segments.stream()
+                .flatMap(segment -> segment.blocks(block -> block.mayOverlap(fromSecond, toSecond)))
+                .filter(row -> inRange(row, from, to));
+    }
+
+    /**
+     * {@link #range} in {@link TimePartitionedIndex#TIMESTAMP_ORDER}. Blocks of all segments
+     * are decoded in order of their earliest second, and a row is released once no block still
+     * to be decoded can hold an earlier one, so reading the front of a range only decodes the
+     * blocks overlapping it.
+     */
+    Stream<Transaction> sortedRange(LocalDateTime from, LocalDateTime to) {
+        long fromSecond = from.toEpochSecond(ZoneOffset.UTC);
+        long toSecond = to.toEpochSecond(ZoneOffset.UTC) + 1;
+        List<SegmentBlock> pending = segments.stream()
+                .flatMap(segment -> segment.blocks.stream()
+                        .filter(block -> block.mayOverlap(fromSecond, toSecond))
+                        .map(block -> new SegmentBlock(segment, block)))
+                .sorted(Comparator.comparingLong(pair -> pair.block().minEpochSecond()))
+                .toList();
+        Iterator<Transaction> rows = new Iterator<>() {
+            private final PriorityQueue<Transaction> decoded = new PriorityQueue<>(TimePartitionedIndex.TIMESTAMP_ORDER);
+            private int opened;
+
+            @Override
+            public boolean hasNext() {
+                while (opened < pending.size() && (decoded.isEmpty()
+                        || decoded.peek().getTimestamp().toEpochSecond(ZoneOffset.UTC)
+                                >= pending.get(opened).block().minEpochSecond())) {
+                    SegmentBlock next = pending.get(opened++);
+                    next.segment().rows(next.block()).filter(row -> inRange(row, from, to)).forEach(decoded::add);
+                }
+                return !decoded.isEmpty();
+            }
+
+            @Override
+            public Transaction next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return decoded.poll();
+            }
+        };
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(rows,
+                Spliterator.ORDERED | Spliterator.NONNULL), false);
+    }
+
+    /**
+     * The number of rows {@link #range} yields that pass {@code visible}, counted segment by
+     * segment without keeping the rows.
+     */
+    long count(LocalDateTime from, LocalDateTime to, Predicate<Transaction> visible) {
+        long fromSecond = from.toEpochSecond(ZoneOffset.UTC);
+        long toSecond = to.toEpochSecond(ZoneOffset.UTC) + 1;
+        return segments.stream()
+                .mapToLong(segment -> segment.blocks(block -> block.mayOverlap(fromSecond, toSecond))
+                        .filter(row -> inRange(row, from, to) && visible.test(row))
+                        .count())
+                .sum();
+    }
+
+    private static boolean inRange(Transaction row, LocalDateTime from, LocalDateTime to) {
+        return row.getTimestamp() != null && !row.getTimestamp().isBefore(from) && row.getTimestamp().isBefore(to);
+    }
+
+    long rowCount() {
+        return segments.stream().mapToLong(Segment::liveRows).sum();
+    }
+
+    int segmentCount() {
+        return segments.size();
+    }
+
+    long sizeOnDisk() {
+        return segments.stream().mapToLong(segment -> segment.size).sum();
+    }
+
+    @Override
+    public void close() throws IOException {
+        for (Segment segment : segments) {
+            segment.reader.close();
+        }
+        segments = List.of();
+        blockCache.invalidateAll();
+    }
+
+    private Segment create(List<Transaction> rows) throws IOException {
+        List<Transaction> sorted = new ArrayList<>(rows);
+        sorted.sort(Comparator.comparing(Transaction::getTransactionId));
+        String name = String.format("segment-%06d", segmentSequence.incrementAndGet());
+        Path partial = directory.resolve(name + ".partial");
+        BloomFilter filter = BloomFilter.create(sorted.size(), BLOOM_BITS_PER_KEY);
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(partial), 1 << 16);
+             ColumnarFileWriter writer = new ColumnarFileWriter(out)) {
+            for (int start = 0; start < sorted.size(); start += rowsPerBlock) {
+                writer.write(RowGroupCodec.encode(sorted.subList(start, Math.min(start + rowsPerBlock, sorted.size()))));
+            }
+        }
+        sorted.forEach(row -> filter.add(row.getTransactionId().getBytes(StandardCharsets.UTF_8)));
+        Path file = directory.resolve(name + SEGMENT_SUFFIX);
+        Files.move(partial, file, StandardCopyOption.ATOMIC_MOVE);
+        return new Segment(file, ColumnarFileReader.open(file), filter, blockCache);
+    }
+
+    /**
+     * Replaces {@code run}, the newest segments, with one holding the newest live copy of
+     * each of their rows.
+     */
+    private void merge(List<Segment> run) throws IOException {
+        Map<Segment, Set<String>> tombstonesRead = new HashMap<>();
+        Map<String, Transaction> newest = new HashMap<>();
+        for (Segment segment : run) {
+            tombstonesRead.put(segment, Set.copyOf(segment.tombstones));
+            segment.blocks(block -> true).forEach(row -> newest.put(row.getTransactionId(), row));
+        }
+        Segment merged = create(new ArrayList<>(newest.values()));
+        tombstoneLock.writeLock().lock();
+        try {
+            // A delete reaches every segment, so any tombstone set since the read hides the merged copy
+            Set<String> deletedSince = new HashSet<>();
+            for (Segment segment : run) {
+                segment.tombstones.stream()
+                        .filter(id -> !tombstonesRead.get(segment).contains(id))
+                        .forEach(deletedSince::add);
+            }
+            deletedSince.forEach(id -> merged.delete(id, id.getBytes(StandardCharsets.UTF_8)));
+            List<Segment> replaced = new ArrayList<>(segments.subList(0, segments.size() - run.size()));
+            replaced.add(merged);
+            segments = List.copyOf(replaced);
+        } finally {
+            tombstoneLock.writeLock().unlock();
+        }
+        for (Segment segment : run) {
+            // Readers still holding the old list keep reading the mapping, which outlives the channel
+            segment.reader.close();
+            Files.deleteIfExists(segment.file);
+            blockCache.invalidateAll(blockCache.asMap().keySet().stream()
+                    .filter(key -> key.segment() == segment)
+                    .toList());
+        }
+    }
+
+    // Segments within a factor of MERGE_FACTOR of each other in live rows share a tier
+    private static int tier(Segment segment) {
+        long rows = Math.max(1, segment.liveRows());
+        return (63 - Long.numberOfLeadingZeros(rows)) / (Integer.numberOfTrailingZeros(MERGE_FACTOR));
+    }
+
+    static final class Segment {
+
+        private final Path file;
+        private final ColumnarFileReader reader;
+        private final List<RowGroupInfo> blocks;
+        private final BloomFilter filter;
+        private final Cache<BlockKey, List<Transaction>> blockCache;
+        private final long rows;
+        private final long size;
+        private final Set<String> tombstones = ConcurrentHashMap.newKeySet();
+
+        private Segment(Path file, ColumnarFileReader reader, BloomFilter filter,
+                        Cache<BlockKey, List<Transaction>> blockCache) throws IOException {
+            this.file = file;
+            this.reader = reader;
+            this.blocks = reader.getRowGroups();
+            this.filter = filter;
+            this.blockCache = blockCache;
+            this.rows = reader.getRowCount();
+            this.size = Files.size(file);
+        }
+
+        Optional<Transaction> findById(String id) {
+            return findById(id, id.getBytes(StandardCharsets.UTF_8));
+        }
+
+        private Optional<Transaction> findById(String id, byte[] key) {
+            if (!filter.mightContain(key) || tombstones.contains(id)) {
+                return Optional.empty();
+            }
+            int block = blockFor(id);
+            if (block < 0) {
+                return Optional.empty();
+            }
+            List<Transaction> rows = read(block);
+            int low = 0;
+            int high = rows.size() - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                int comparison = rows.get(mid).getTransactionId().compareTo(id);
+                if (comparison == 0) {
+                    return Optional.of(rows.get(mid));
+                }
+                if (comparison < 0) {
+                    low = mid + 1;
+                } else {
+                    high = mid - 1;
+                }
+            }
+            return Optional.empty();
+        }
+
+        boolean delete(String id) {
+            return delete(id, id.getBytes(StandardCharsets.UTF_8));
+        }
+
+        private boolean delete(String id, byte[] key) {
+            return !tombstones.contains(id) && findById(id, key).isPresent() && tombstones.add(id);
+        }
+
+        long liveRows() {
+            return rows - tombstones.size();
+        }
+
+        Stream<Transaction> stream() {
+            return blocks(block -> true);
+        }
+
+        /**
+         * Rows of the blocks passing {@code filter}, decoded as they are reached. Scans bypass
+         * the block cache, so they do not push out the blocks lookups keep hitting.
+         */
+        Stream<Transaction> blocks(Predicate<RowGroupInfo> filter) {
+            return blocks.stream().filter(filter).flatMap(this::rows);
+        }
+
+        private Stream<Transaction> rows(RowGroupInfo block) {
+            Stream<Transaction> rows = decode(block).stream();
+            return tombstones.isEmpty() ? rows : rows.filter(row -> !tombstones.contains(row.getTransactionId()));
+        }
+
+        // Blocks are sorted and disjoint by ID, so the candidate is the last one starting at or before id
+        private int blockFor(String id) {
+            int low = 0;
+            int high = blocks.size() - 1;
+            int candidate = -1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                if (blocks.get(mid).minId().compareTo(id) <= 0) {
+                    candidate = mid;
+                    low = mid + 1;
+                } else {
+                    high = mid - 1;
+                }
+            }
+            return candidate >= 0 && blocks.get(candidate).mayContainId(id) ? candidate : -1;
+        }
+
+        private List<Transaction> read(int block) {
+            return blockCache.get(new BlockKey(this, block), key -> decode(blocks.get(block)));
+        }
+
+        private List<Transaction> decode(RowGroupInfo block) {
+            try {
+                return reader.readRowGroup(block);
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        }
+    }
+}
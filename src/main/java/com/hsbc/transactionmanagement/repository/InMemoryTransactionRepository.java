@@ -1,31 +1,163 @@
 package com.hsbc.transactionmanagement.repository;
 
+import com.hsbc.transactionmanagement.model.LedgerEntry;
 import com.hsbc.transactionmanagement.model.Transaction;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Repository;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 @Repository
 public class InMemoryTransactionRepository implements TransactionRepository{
 
+    private static final Duration DEFAULT_PARTITION_WIDTH = Duration.ofHours(1);
+
     private final Map<String, Transaction> transactions = new ConcurrentHashMap<>();
+    private final TimePartitionedIndex timeIndex;
+    private final TextSearchIndex textIndex = new TextSearchIndex();
+    private final SortedIndexes sortedIndexes = new SortedIndexes();
+    private final AccountLedgers ledgers = new AccountLedgers();
+    private final AtomicLong version = new AtomicLong();
+    private final VersionHistory history = new VersionHistory();
+    // Stamps handed out whose write is not in the map yet; a snapshot waits for those below it
+    private final ConcurrentSkipListSet<Long> installing = new ConcurrentSkipListSet<>();
+    // Writers share it while taking a stamp and a pin reads the version alone, so every stamp
+    // the pin sees is already in installing
+    private final ReadWriteLock stampLock = new ReentrantReadWriteLock();
+    private final LongAdder estimatedBytes = new LongAdder();
+    private final LongAdder statusHistoryBytes = new LongAdder();
+    private volatile MutationListener mutationListener = MutationListener.NONE;
+
+    public InMemoryTransactionRepository() {
+        this(DEFAULT_PARTITION_WIDTH);
+    }
+
+    @Autowired
+    public InMemoryTransactionRepository(
+            @Value("${transaction.repository.partition-width:PT1H}") Duration partitionWidth) {
+        this.timeIndex = new TimePartitionedIndex(partitionWidth);
+    }
 
 
     public Transaction save(Transaction transaction) {
-        transactions.put(transaction.getTransactionId(),transaction);
+        long[] stamp = new long[1];
+        try {
+            // Index maintenance runs under the map's per-key lock so concurrent saves of one ID stay consistent
+            transactions.compute(transaction.getTransactionId(), (id, previous) -> {
+                // Snapshots read the previous instance as the before-image, so callers must save a
+                // new instance rather than modify the stored one
+                stamp[0] = nextVersion(id, previous, transaction);
+                transaction.setVersion(stamp[0]);
+                mutationListener.onMutation(transaction.getVersion(), id, transaction);
+                if (previous == null) {
+                    index(transaction);
+                } else if (previous != transaction) {
+                    if (sameIndexKeys(previous, transaction)) {
+                        // A status change: the time entry is repointed and the text postings stay as they are
+                        timeIndex.add(transaction);
+                    } else {
+                        timeIndex.remove(previous);
+                        textIndex.remove(previous);
+                        timeIndex.add(transaction);
+                        textIndex.add(transaction);
+                    }
+                    // Replaced in place, so the row keeps its ledger positions
+                    sortedIndexes.replace(previous, transaction);
+                    ledgers.replace(previous, transaction);
+                }
+                return transaction;
+            });
+        } finally {
+            installed(stamp[0]);
+        }
         return transaction;
     }
 
+    @Override
+    public List<Transaction> insertAll(Collection<Transaction> batch) {
+        List<Transaction> inserted = new ArrayList<>(batch.size());
+        for (Transaction transaction : batch) {
+            long[] stamp = new long[1];
+            Transaction stored;
+            try {
+                stored = transactions.computeIfAbsent(transaction.getTransactionId(), id -> {
+                    stamp[0] = nextVersion(id, null, transaction);
+                    transaction.setVersion(stamp[0]);
+                    mutationListener.onMutation(transaction.getVersion(), id, transaction);
+                    index(transaction);
+                    return transaction;
+                });
+            } finally {
+                installed(stamp[0]);
+            }
+            if (stored == transaction) {
+                inserted.add(transaction);
+            }
+        }
+        return inserted;
+    }
+
     public void deleteById(String id) {
-        transactions.remove(id);
+        long[] stamp = new long[1];
+        try {
+            transactions.computeIfPresent(id, (key, previous) -> {
+                stamp[0] = nextVersion(key, previous, null);
+                mutationListener.onMutation(stamp[0], key, null);
+                unindex(previous);
+                return null;
+            });
+        } finally {
+            installed(stamp[0]);
+        }
+    }
+
+    /**
+     * Deletes {@code id} only while it is still at {@code expectedVersion}, so a transaction
+     * copied elsewhere can be dropped without losing a concurrent write. The row moves rather
+     * than disappears, so the {@link MutationListener} is not told.
+     *
+     * @return whether the transaction was deleted
+     */
+    public boolean deleteIfVersion(String id, long expectedVersion) {
+        long[] stamp = new long[1];
+        try {
+            transactions.computeIfPresent(id, (key, current) -> {
+                if (current.getVersion() != expectedVersion) {
+                    return current;
+                }
+                stamp[0] = nextVersion(key, current, null);
+                unindex(current);
+                return null;
+            });
+        } finally {
+            installed(stamp[0]);
+        }
+        return stamp[0] != 0;
     }
 
     public Optional<Transaction> findById(String id) {
@@ -40,8 +172,20 @@ public class InMemoryTransactionRepository implements TransactionRepository{
         return transactions.containsKey(id);
     }
 
+    @Override
+    public long count() {
+        return transactions.size();
+    }
+
+    /**
+     * Pages in no particular order, or from the sorted indexes when {@code pageable} has one of
+     * the {@link TransactionSort} sorts.
+     */
     @Override
     public Page<Transaction> findAll(Pageable pageable) {
+        if (pageable.getSort().isSorted()) {
+            return sortedIndexes.page(pageable);
+        }
         List<Transaction> allTransactions = new ArrayList<>(transactions.values());
         
         int start = (int) pageable.getOffset();
@@ -55,4 +199,355 @@ public class InMemoryTransactionRepository implements TransactionRepository{
         List<Transaction> pageContent = allTransactions.subList(start, end);
         return new PageImpl<>(pageContent, pageable, allTransactions.size());
     }
+
+    @Override
+    public Stream<Transaction> stream() {
+        return transactions.values().stream();
+    }
+
+    @Override
+    public List<Transaction> findByTimestampBetween(LocalDateTime from, LocalDateTime to) {
+        return timeIndex.range(from, to).toList();
+    }
+
+    @Override
+    public Page<Transaction> findByTimestampBetween(LocalDateTime from, LocalDateTime to, Pageable pageable) {
+        List<Transaction> pageContent = timeIndex.page(from, to, pageable.getOffset(), pageable.getPageSize());
+        return new PageImpl<>(pageContent, pageable, timeIndex.count(from, to));
+    }
+
+    @Override
+    public Stream<Transaction> streamByTimestampBetween(LocalDateTime from, LocalDateTime to) {
+        return timeIndex.range(from, to);
+    }
+
+    long countByTimestampBetween(LocalDateTime from, LocalDateTime to) {
+        return timeIndex.count(from, to);
+    }
+
+    @Override
+    public List<Transaction> dropPartitionsBefore(LocalDateTime cutoff) {
+        List<Transaction> detached = timeIndex.detachBefore(cutoff);
+        for (Transaction transaction : detached) {
+            long[] stamp = new long[1];
+            try {
+                transactions.computeIfPresent(transaction.getTransactionId(), (id, current) -> {
+                    if (current != transaction) {
+                        return current;
+                    }
+                    stamp[0] = nextVersion(id, current, null);
+                    mutationListener.onMutation(stamp[0], id, null);
+                    textIndex.remove(current);
+                    sortedIndexes.remove(current);
+                    ledgers.remove(current);
+                    return null;
+                });
+            } finally {
+                installed(stamp[0]);
+            }
+        }
+        return detached;
+    }
+
+    @Override
+    public List<LedgerEntry> findByAccount(long accountId, long before, int limit) {
+        return ledgers.page(accountId, before, limit);
+    }
+
+    @Override
+    public List<Transaction> search(String query, int limit) {
+        // Posting sets iterate in hash order, so every verified match competes for the limit
+        return TextSearchIndex.firstById(textIndex.candidates(query).stream()
+                .map(transactions::get)
+                .filter(transaction -> transaction != null && TextSearchIndex.matches(transaction, query)), limit);
+    }
+
+    @Override
+    public long currentVersion() {
+        return version.get();
+    }
+
+    /**
+     * Pins the newest version whose writes are all in the map. A write is stamped, and told to
+     * the {@link MutationListener}, before its row is installed, so pinning the bare counter
+     * could miss a row whose mutation a follower resuming from the pin would then skip.
+     */
+    @Override
+    public Snapshot openSnapshot() {
+        return new Snapshot(history.pin(this::installedVersion));
+    }
+
+    /**
+     * Estimated heap held by the stored transactions and their index entries, excluding
+     * snapshot history. See {@link TransactionFootprint}.
+     */
+    public long estimatedBytes() {
+        return estimatedBytes.sum();
+    }
+
+    /**
+     * The part of {@link #estimatedBytes()} held by status histories.
+     */
+    public long statusHistoryBytes() {
+        return statusHistoryBytes.sum();
+    }
+
+    public void setMutationListener(MutationListener mutationListener) {
+        this.mutationListener = mutationListener != null ? mutationListener : MutationListener.NONE;
+    }
+
+    /**
+     * Reports the delete of a row this store no longer holds, such as one only found in the
+     * cold tier. The write gets a version of its own but leaves no history, since snapshots
+     * never saw the row here.
+     */
+    void publishDelete(String id) {
+        mutationListener.onMutation(version.incrementAndGet(), id, null);
+    }
+
+    int partitionCount() {
+        return timeIndex.partitionCount();
+    }
+
+    int historySize() {
+        return history.size();
+    }
+
+    int ledgerChunkCount(long accountId) {
+        return ledgers.chunkCount(accountId);
+    }
+
+    /**
+     * Stamps a write to {@code id} with the next collection version, keeping the replaced
+     * state for open snapshots, and accounts for the change in footprint. Must run under the
+     * map's lock for {@code id}, and the caller must pass the stamp to {@link #installed}
+     * once the map's update has returned.
+     *
+     * @param after the new state, or {@code null} for a delete
+     */
+    private long nextVersion(String id, Transaction before, Transaction after) {
+        estimatedBytes.add(TransactionFootprint.estimate(after) - TransactionFootprint.estimate(before));
+        statusHistoryBytes.add(TransactionFootprint.statusHistory(after) - TransactionFootprint.statusHistory(before));
+        long next;
+        stampLock.readLock().lock();
+        try {
+            next = version.incrementAndGet();
+            installing.add(next);
+        } finally {
+            stampLock.readLock().unlock();
+        }
+        history.recordIfPinned(next, id, before);
+        return next;
+    }
+
+    /**
+     * Marks the write stamped {@code stamp} as in the map; {@code 0} if the write took no stamp.
+     */
+    private void installed(long stamp) {
+        if (stamp != 0) {
+            installing.remove(stamp);
+        }
+    }
+
+    /**
+     * The current version, once no write stamped at or below it is still being installed.
+     * Installs are short map updates, so the wait spins.
+     */
+    private long installedVersion() {
+        long current;
+        stampLock.writeLock().lock();
+        try {
+            current = version.get();
+        } finally {
+            stampLock.writeLock().unlock();
+        }
+        while (installing.floor(current) != null) {
+            Thread.onSpinWait();
+        }
+        return current;
+    }
+
+    private static boolean sameIndexKeys(Transaction previous, Transaction transaction) {
+        return Objects.equals(previous.getTimestamp(), transaction.getTimestamp())
+                && Objects.equals(previous.getDescription(), transaction.getDescription())
+                && Objects.equals(previous.getReferenceNumber(), transaction.getReferenceNumber());
+    }
+
+    private void index(Transaction transaction) {
+        timeIndex.add(transaction);
+        textIndex.add(transaction);
+        sortedIndexes.add(transaction);
+        ledgers.add(transaction);
+    }
+
+    private void unindex(Transaction transaction) {
+        timeIndex.remove(transaction);
+        textIndex.remove(transaction);
+        sortedIndexes.remove(transaction);
+        ledgers.remove(transaction);
+    }
+
+    /**
+     * Live rows still at or below the pinned version are read in place; rows written since
+     * are replaced by their before-image from the {@link VersionHistory}.
+     */
+    final class Snapshot implements TransactionSnapshot {
+
+        private final long version;
+        private final AtomicBoolean closed = new AtomicBoolean();
+        // Per range, keyed by its bounds
+        private final Map<List<LocalDateTime>, Long> totals = new ConcurrentHashMap<>();
+        private final Map<List<LocalDateTime>, Cursor> cursors = new ConcurrentHashMap<>();
+
+        private Snapshot(long version) {
+            this.version = version;
+        }
+
+        @Override
+        public long version() {
+            return version;
+        }
+
+        @Override
+        public Optional<Transaction> findById(String id) {
+            Transaction live = transactions.get(id);
+            if (live != null && live.getVersion() <= version) {
+                return Optional.of(live);
+            }
+            // The history is written before the live map, so a newer live row always has an entry
+            VersionHistory.Change change = history.firstChangeAfter(version, id);
+            return change != null ? Optional.ofNullable(change.before()) : Optional.empty();
+        }
+
+        @Override
+        public Page<Transaction> findAll(Pageable pageable) {
+            return page(LocalDateTime.MIN, LocalDateTime.MAX, pageable);
+        }
+
+        @Override
+        public Stream<Transaction> stream() {
+            return rows(LocalDateTime.MIN, LocalDateTime.MAX);
+        }
+
+        @Override
+        public Page<Transaction> findByTimestampBetween(LocalDateTime from, LocalDateTime to, Pageable pageable) {
+            return page(from, to, pageable);
+        }
+
+        /**
+         * The snapshot's rows with {@code from <= timestamp < to}, in timestamp order.
+         */
+        Stream<Transaction> rows(LocalDateTime from, LocalDateTime to) {
+            return rowsAfter(from, to, null);
+        }
+
+        /**
+         * The number of {@link #rows}, counted once per range.
+         */
+        long count(LocalDateTime from, LocalDateTime to) {
+            return totals.computeIfAbsent(List.of(from, to), key -> rows(from, to).count());
+        }
+
+        /**
+         * Whether {@code id} was written since the snapshot was taken.
+         */
+        boolean hasChanged(String id) {
+            return history.firstChangeAfter(version, id) != null;
+        }
+
+        /**
+         * IDs written since the snapshot was taken.
+         */
+        Set<String> changedIds() {
+            return history.changedSince(version);
+        }
+
+        /**
+         * A page of {@link #rows}. The view never changes, so the total is counted once per
+         * range, and a page starting where the previous one ended resumes from its last row
+         * instead of skipping everything before it.
+         */
+        private Page<Transaction> page(LocalDateTime from, LocalDateTime to, Pageable pageable) {
+            List<LocalDateTime> range = List.of(from, to);
+            Cursor cursor = cursors.get(range);
+            Stream<Transaction> rows = cursor != null && cursor.offset() == pageable.getOffset()
+                    ? rowsAfter(from, to, cursor.last())
+                    : rowsAfter(from, to, null).skip(pageable.getOffset());
+            List<Transaction> content = rows.limit(pageable.getPageSize()).toList();
+            if (!content.isEmpty()) {
+                cursors.put(range, new Cursor(pageable.getOffset() + content.size(), content.get(content.size() - 1)));
+            }
+            return new PageImpl<>(content, pageable, count(from, to));
+        }
+
+        /**
+         * Live rows still at or below the pinned version merged with the before-images of rows
+         * written since, both in timestamp order, starting after {@code after} if given.
+         */
+        private Stream<Transaction> rowsAfter(LocalDateTime from, LocalDateTime to, Transaction after) {
+            if (!from.isBefore(to)) {
+                return Stream.empty();
+            }
+            Iterator<Transaction> live = timeIndex.range(after != null ? after.getTimestamp() : from, to)
+                    .filter(transaction -> transaction.getVersion() <= version)
+                    .filter(transaction -> after == null
+                            || TimePartitionedIndex.TIMESTAMP_ORDER.compare(transaction, after) > 0)
+                    .iterator();
+            Iterator<Transaction> merged = new Iterator<>() {
+                private Transaction liveHead;
+                private Transaction last = after;
+                private Transaction next;
+
+                @Override
+                public boolean hasNext() {
+                    if (next != null) {
+                        return true;
+                    }
+                    if (liveHead == null && live.hasNext()) {
+                        liveHead = live.next();
+                    }
+                    // Looked up after the live head on every step, so an image recorded while
+                    // its live row was moving out of the walk's way is not missed
+                    Transaction image = last != null
+                            ? history.nextImageAt(version, last.getTimestamp(), last.getTransactionId(), to)
+                            : history.nextImageAt(version, from, "", to);
+                    int comparison = image == null ? -1
+                            : liveHead == null ? 1
+                            : TimePartitionedIndex.TIMESTAMP_ORDER.compare(liveHead, image);
+                    if (liveHead != null && comparison <= 0) {
+                        // Equal keys are one row whose write is still in flight: the live row is its image
+                        next = liveHead;
+                        liveHead = null;
+                    } else {
+                        next = image;
+                    }
+                    if (next != null) {
+                        last = next;
+                    }
+                    return next != null;
+                }
+
+                @Override
+                public Transaction next() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    Transaction result = next;
+                    next = null;
+                    return result;
+                }
+            };
+            return StreamSupport.stream(Spliterators.spliteratorUnknownSize(merged,
+                    Spliterator.ORDERED | Spliterator.NONNULL), false);
+        }
+
+        @Override
+        public void close() {
+            if (closed.compareAndSet(false, true)) {
+                history.unpin(version, InMemoryTransactionRepository.this.version.get());
+            }
+        }
+    }
+
+    private record Cursor(long offset, Transaction last) {}
 }
@@ -0,0 +1,39 @@
+package com.hsbc.transactionmanagement.repository;
+
+import com.hsbc.transactionmanagement.storage.lsm.LsmStore;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+
+/**
+ * Settings of the disk-resident engine, used with {@code transaction.repository.engine=lsm}.
+ *
+ * @param directory         where the store keeps its files; defaults to {@code transaction-lsm} under
+ *                          the system temp directory
+ * @param memtableSize      writes buffered in memory before they are written to a table
+ * @param blockCacheSize    heap for cached table blocks
+ * @param compactionTrigger number of similarly sized tables merged into one
+ * @param syncWrites        whether each write is forced to disk before it is acknowledged
+ */
+@ConfigurationProperties(prefix = "transaction.repository.lsm")
+public record LsmProperties(
+        Path directory,
+        @DefaultValue("16MB") DataSize memtableSize,
+        @DefaultValue("4KB") DataSize blockSize,
+        @DefaultValue("64MB") DataSize blockCacheSize,
+        @DefaultValue("10") int bloomBitsPerKey,
+        @DefaultValue("4") int compactionTrigger,
+        @DefaultValue("false") boolean syncWrites
+) {
+
+    public Path dataDirectory() {
+        return directory != null ? directory : Path.of(System.getProperty("java.io.tmpdir"), "transaction-lsm");
+    }
+
+    LsmStore.Options storeOptions() {
+        return new LsmStore.Options(memtableSize.toBytes(), (int) blockSize.toBytes(), blockCacheSize.toBytes(),
+                bloomBitsPerKey, compactionTrigger, syncWrites);
+    }
+}
@@ -0,0 +1,365 @@
+package com.hsbc.transactionmanagement.repository;
+
+import com.hsbc.transactionmanagement.model.LedgerEntry;
+import com.hsbc.transactionmanagement.model.Transaction;
+import com.hsbc.transactionmanagement.storage.TransactionRowCodec;
+import com.hsbc.transactionmanagement.storage.lsm.LsmStore;
+import com.hsbc.transactionmanagement.storage.lsm.WriteBatch;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Repository on the disk-resident {@link LsmStore}, for data sets larger than the heap.
+ * <p>
+ * Each transaction is stored twice in one write batch: under {@code r<id>} for lookups, and
+ * under {@code t<timestamp><id>} so time-range reads and timestamp-ordered pages are a
+ * single sorted scan that never goes back to the rows. The store's sequence number of the
+ * write is the transaction's version, and repository snapshots are store snapshots, so they
+ * need no history of their own.
+ * <p>
+ * Search has no index here and scans every row.
+ */
+public class LsmTransactionRepository implements TransactionRepository, Closeable {
+
+    private static final byte ROW = 'r';
+    private static final byte TIME = 't';
+    private static final byte[] ROWS_FROM = {ROW};
+    private static final byte[] ROWS_TO = {ROW + 1};
+    private static final byte[] TIMES_FROM = {TIME};
+    private static final byte[] TIMES_TO = {TIME + 1};
+
+    private final LsmStore store;
+    private final long partitionSeconds;
+    // Serialises the read-modify-write of a save or delete per ID
+    private final Object[] locks = new Object[256];
+    private final LongAdder rowCount = new LongAdder();
+
+    public LsmTransactionRepository(LsmProperties properties, Duration partitionWidth) throws IOException {
+        this.store = new LsmStore(properties.dataDirectory(), properties.storeOptions());
+        this.partitionSeconds = partitionWidth.toSeconds();
+        Arrays.setAll(locks, i -> new Object());
+        store.scan(ROWS_FROM, ROWS_TO).forEachRemaining(entry -> rowCount.increment());
+    }
+
+    @Override
+    public Transaction save(Transaction transaction) {
+        String id = transaction.getTransactionId();
+        synchronized (lockFor(id)) {
+            Optional<LsmStore.Entry> previous = store.get(rowKey(id));
+            WriteBatch batch = new WriteBatch();
+            byte[] value = encode(transaction);
+            byte[] timeKey = timeKey(transaction);
+            batch.put(rowKey(id), value);
+            if (previous.isPresent()) {
+                byte[] previousTimeKey = timeKey(decode(previous.get().value()));
+                if (previousTimeKey != null && !Arrays.equals(previousTimeKey, timeKey)) {
+                    batch.delete(previousTimeKey);
+                }
+            }
+            if (timeKey != null) {
+                batch.put(timeKey, value);
+            }
+            transaction.setVersion(store.write(batch));
+            if (previous.isEmpty()) {
+                rowCount.increment();
+            }
+        }
+        return transaction;
+    }
+
+    @Override
+    public List<Transaction> insertAll(Collection<Transaction> transactions) {
+        List<Transaction> inserted = new ArrayList<>(transactions.size());
+        for (Transaction transaction : transactions) {
+            synchronized (lockFor(transaction.getTransactionId())) {
+                if (!existsById(transaction.getTransactionId())) {
+                    save(transaction);
+                    inserted.add(transaction);
+                }
+            }
+        }
+        return inserted;
+    }
+
+    @Override
+    public void deleteById(String id) {
+        synchronized (lockFor(id)) {
+            store.get(rowKey(id)).ifPresent(previous -> delete(id, decode(previous.value())));
+        }
+    }
+
+    @Override
+    public Optional<Transaction> findById(String id) {
+        return store.get(rowKey(id)).map(LsmTransactionRepository::toTransaction);
+    }
+
+    @Override
+    public List<Transaction> findAll() {
+        return stream().toList();
+    }
+
+    @Override
+    public boolean existsById(String id) {
+        return store.get(rowKey(id)).isPresent();
+    }
+
+    @Override
+    public long count() {
+        return rowCount.sum();
+    }
+
+    /**
+     * Pages in transaction ID order, or sorted by a full scan when {@code pageable} has a
+     * {@link TransactionSort} sort.
+     */
+    @Override
+    public Page<Transaction> findAll(Pageable pageable) {
+        if (pageable.getSort().isSorted()) {
+            return TransactionSort.page(stream(), pageable);
+        }
+        List<Transaction> content = toStream(store.scan(ROWS_FROM, ROWS_TO))
+                .skip(pageable.getOffset())
+                .limit(pageable.getPageSize())
+                .toList();
+        return new PageImpl<>(content, pageable, count());
+    }
+
+    @Override
+    public Stream<Transaction> stream() {
+        return toStream(store.scan(ROWS_FROM, ROWS_TO));
+    }
+
+    @Override
+    public List<Transaction> findByTimestampBetween(LocalDateTime from, LocalDateTime to) {
+        return streamByTimestampBetween(from, to).toList();
+    }
+
+    @Override
+    public Page<Transaction> findByTimestampBetween(LocalDateTime from, LocalDateTime to, Pageable pageable) {
+        return page(store.scan(timeBound(from), timeBound(to)), pageable);
+    }
+
+    @Override
+    public Stream<Transaction> streamByTimestampBetween(LocalDateTime from, LocalDateTime to) {
+        return toStream(store.scan(timeBound(from), timeBound(to)));
+    }
+
+    /**
+     * Deletes, oldest first, the transactions before the start of the partition holding
+     * {@code cutoff}. A transaction written again while the scan runs is kept.
+     */
+    @Override
+    public List<Transaction> dropPartitionsBefore(LocalDateTime cutoff) {
+        long boundary = Math.floorDiv(cutoff.toEpochSecond(ZoneOffset.UTC), partitionSeconds) * partitionSeconds;
+        List<Transaction> dropped = new ArrayList<>();
+        Iterator<LsmStore.Entry> expired = store.scan(TIMES_FROM,
+                timeBound(LocalDateTime.ofEpochSecond(boundary, 0, ZoneOffset.UTC)));
+        while (expired.hasNext()) {
+            LsmStore.Entry entry = expired.next();
+            Transaction transaction = toTransaction(entry);
+            String id = transaction.getTransactionId();
+            synchronized (lockFor(id)) {
+                Optional<LsmStore.Entry> current = store.get(rowKey(id));
+                if (current.isPresent() && current.get().sequence() == entry.sequence()) {
+                    delete(id, transaction);
+                    dropped.add(transaction);
+                }
+            }
+        }
+        return dropped;
+    }
+
+    /**
+     * Scans the store; it keeps no ledgers.
+     */
+    @Override
+    public List<LedgerEntry> findByAccount(long accountId, long before, int limit) {
+        return AccountLedgers.scan(stream(), accountId, before, limit);
+    }
+
+    @Override
+    public List<Transaction> search(String query, int limit) {
+        // Rows are scanned in ID order, so the first matches are the smallest IDs
+        return stream()
+                .filter(transaction -> TextSearchIndex.matches(transaction, query))
+                .limit(limit)
+                .toList();
+    }
+
+    @Override
+    public long currentVersion() {
+        return store.lastSequence();
+    }
+
+    @Override
+    public TransactionSnapshot openSnapshot() {
+        return new Snapshot(store.openSnapshot());
+    }
+
+    public LsmStore store() {
+        return store;
+    }
+
+    @Override
+    public void close() throws IOException {
+        store.close();
+    }
+
+    private void delete(String id, Transaction previous) {
+        WriteBatch batch = new WriteBatch().delete(rowKey(id));
+        byte[] timeKey = timeKey(previous);
+        if (timeKey != null) {
+            batch.delete(timeKey);
+        }
+        store.write(batch);
+        rowCount.decrement();
+    }
+
+    private Object lockFor(String id) {
+        return locks[Math.floorMod(id.hashCode(), locks.length)];
+    }
+
+    /**
+     * One page of {@code entries}, decoding only the rows on it; the rest are just counted.
+     */
+    private static Page<Transaction> page(Iterator<LsmStore.Entry> entries, Pageable pageable) {
+        List<Transaction> content = new ArrayList<>(pageable.getPageSize());
+        long total = 0;
+        while (entries.hasNext()) {
+            LsmStore.Entry entry = entries.next();
+            if (total >= pageable.getOffset() && content.size() < pageable.getPageSize()) {
+                content.add(toTransaction(entry));
+            }
+            total++;
+        }
+        return new PageImpl<>(content, pageable, total);
+    }
+
+    private static Stream<Transaction> toStream(Iterator<LsmStore.Entry> entries) {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(entries, Spliterator.ORDERED), false)
+                .map(LsmTransactionRepository::toTransaction);
+    }
+
+    private static Transaction toTransaction(LsmStore.Entry entry) {
+        Transaction transaction = decode(entry.value());
+        transaction.setVersion(entry.sequence());
+        return transaction;
+    }
+
+    private static byte[] rowKey(String id) {
+        byte[] utf8 = id.getBytes(StandardCharsets.UTF_8);
+        byte[] key = new byte[1 + utf8.length];
+        key[0] = ROW;
+        System.arraycopy(utf8, 0, key, 1, utf8.length);
+        return key;
+    }
+
+    /**
+     * {@code t}, the epoch second with its sign bit flipped so negative ones sort first, the
+     * nanos and the ID; or {@code null} for a transaction without a timestamp.
+     */
+    private static byte[] timeKey(Transaction transaction) {
+        if (transaction.getTimestamp() == null) {
+            return null;
+        }
+        byte[] utf8 = transaction.getTransactionId().getBytes(StandardCharsets.UTF_8);
+        return timePrefix(transaction.getTimestamp(), utf8.length).put(utf8).array();
+    }
+
+    // Sorts before every key of a transaction at exactly this time
+    private static byte[] timeBound(LocalDateTime time) {
+        return timePrefix(time, 0).array();
+    }
+
+    private static ByteBuffer timePrefix(LocalDateTime time, int extra) {
+        return ByteBuffer.allocate(1 + Long.BYTES + Integer.BYTES + extra)
+                .put(TIME)
+                .putLong(time.toEpochSecond(ZoneOffset.UTC) ^ Long.MIN_VALUE)
+                .putInt(time.getNano());
+    }
+
+    private static byte[] encode(Transaction transaction) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+        try {
+            TransactionRowCodec.write(new DataOutputStream(bytes), transaction);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static Transaction decode(byte[] value) {
+        try {
+            return TransactionRowCodec.read(new DataInputStream(new ByteArrayInputStream(value)));
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    /**
+     * Reads at the pinned store sequence; compaction keeps the versions it needs until closed.
+     */
+    final class Snapshot implements TransactionSnapshot {
+
+        private final LsmStore.Snapshot snapshot;
+
+        private Snapshot(LsmStore.Snapshot snapshot) {
+            this.snapshot = snapshot;
+        }
+
+        @Override
+        public long version() {
+            return snapshot.sequence();
+        }
+
+        @Override
+        public Optional<Transaction> findById(String id) {
+            return store.get(rowKey(id), snapshot).map(LsmTransactionRepository::toTransaction);
+        }
+
+        @Override
+        public Page<Transaction> findAll(Pageable pageable) {
+            return page(store.scan(TIMES_FROM, TIMES_TO, snapshot), pageable);
+        }
+
+        @Override
+        public Stream<Transaction> stream() {
+            return toStream(store.scan(ROWS_FROM, ROWS_TO, snapshot));
+        }
+
+        @Override
+        public Page<Transaction> findByTimestampBetween(LocalDateTime from, LocalDateTime to, Pageable pageable) {
+            return page(store.scan(timeBound(from), timeBound(to), snapshot), pageable);
+        }
+
+        @Override
+        public void close() {
+            snapshot.close();
+        }
+    }
+}
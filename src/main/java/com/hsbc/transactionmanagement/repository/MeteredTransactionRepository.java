@@ -0,0 +1,226 @@
+package com.hsbc.transactionmanagement.repository;
+
+import com.hsbc.transactionmanagement.diagnostics.RepositoryOperationEvent;
+import com.hsbc.transactionmanagement.metrics.OperationTimers;
+import com.hsbc.transactionmanagement.model.LedgerEntry;
+import com.hsbc.transactionmanagement.model.Transaction;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Times every repository operation under {@code transaction.repository}, tagged by
+ * operation, and records it as a {@link RepositoryOperationEvent} for JFR. Stream-returning
+ * methods are not timed, since the work happens as the caller consumes the stream; neither
+ * is the constant-time {@link #currentVersion()}.
+ */
+public class MeteredTransactionRepository implements TransactionRepository {
+
+    enum Operation {
+        SAVE, INSERT_ALL, DELETE_BY_ID, FIND_BY_ID, FIND_ALL, EXISTS_BY_ID, COUNT, FIND_PAGE,
+        FIND_BY_TIMESTAMP_BETWEEN, FIND_PAGE_BY_TIMESTAMP_BETWEEN, DROP_PARTITIONS_BEFORE, SEARCH, FIND_BY_ACCOUNT,
+        OPEN_SNAPSHOT
+    }
+
+    private final TransactionRepository delegate;
+    private final OperationTimers<Operation> timers;
+
+    public MeteredTransactionRepository(TransactionRepository delegate, MeterRegistry registry) {
+        this.delegate = delegate;
+        this.timers = new OperationTimers<>(registry, "transaction.repository",
+                "Latency of transaction repository operations", Operation.class);
+        Gauge.builder("transaction.repository.size", delegate, TransactionRepository::count)
+                .description("Transactions held by the repository")
+                .register(registry);
+    }
+
+    @Override
+    public Transaction save(Transaction transaction) {
+        long start = System.nanoTime();
+        RepositoryOperationEvent event = RepositoryOperationEvent.start();
+        try {
+            return delegate.save(transaction);
+        } finally {
+            timers.record(Operation.SAVE, start);
+            event.finish(Operation.SAVE, transaction.getTransactionId());
+        }
+    }
+
+    @Override
+    public List<Transaction> insertAll(Collection<Transaction> transactions) {
+        long start = System.nanoTime();
+        RepositoryOperationEvent event = RepositoryOperationEvent.start();
+        try {
+            return delegate.insertAll(transactions);
+        } finally {
+            timers.record(Operation.INSERT_ALL, start);
+            event.finish(Operation.INSERT_ALL, null);
+        }
+    }
+
+    @Override
+    public void deleteById(String id) {
+        long start = System.nanoTime();
+        RepositoryOperationEvent event = RepositoryOperationEvent.start();
+        try {
+            delegate.deleteById(id);
+        } finally {
+            timers.record(Operation.DELETE_BY_ID, start);
+            event.finish(Operation.DELETE_BY_ID, id);
+        }
+    }
+
+    @Override
+    public Optional<Transaction> findById(String id) {
+        long start = System.nanoTime();
+        RepositoryOperationEvent event = RepositoryOperationEvent.start();
+        try {
+            return delegate.findById(id);
+        } finally {
+            timers.record(Operation.FIND_BY_ID, start);
+            event.finish(Operation.FIND_BY_ID, id);
+        }
+    }
+
+    @Override
+    public List<Transaction> findAll() {
+        long start = System.nanoTime();
+        RepositoryOperationEvent event = RepositoryOperationEvent.start();
+        try {
+            return delegate.findAll();
+        } finally {
+            timers.record(Operation.FIND_ALL, start);
+            event.finish(Operation.FIND_ALL, null);
+        }
+    }
+
+    @Override
+    public boolean existsById(String id) {
+        long start = System.nanoTime();
+        RepositoryOperationEvent event = RepositoryOperationEvent.start();
+        try {
+            return delegate.existsById(id);
+        } finally {
+            timers.record(Operation.EXISTS_BY_ID, start);
+            event.finish(Operation.EXISTS_BY_ID, id);
+        }
+    }
+
+    @Override
+    public long count() {
+        long start = System.nanoTime();
+        RepositoryOperationEvent event = RepositoryOperationEvent.start();
+        try {
+            return delegate.count();
+        } finally {
+            timers.record(Operation.COUNT, start);
+            event.finish(Operation.COUNT, null);
+        }
+    }
+
+    @Override
+    public Page<Transaction> findAll(Pageable pageable) {
+        long start = System.nanoTime();
+        RepositoryOperationEvent event = RepositoryOperationEvent.start();
+        try {
+            return delegate.findAll(pageable);
+        } finally {
+            timers.record(Operation.FIND_PAGE, start);
+            event.finish(Operation.FIND_PAGE, null);
+        }
+    }
+
+    @Override
+    public Stream<Transaction> stream() {
+        return delegate.stream();
+    }
+
+    @Override
+    public List<Transaction> findByTimestampBetween(LocalDateTime from, LocalDateTime to) {
+        long start = System.nanoTime();
+        RepositoryOperationEvent event = RepositoryOperationEvent.start();
+        try {
+            return delegate.findByTimestampBetween(from, to);
+        } finally {
+            timers.record(Operation.FIND_BY_TIMESTAMP_BETWEEN, start);
+            event.finish(Operation.FIND_BY_TIMESTAMP_BETWEEN, null);
+        }
+    }
+
+    @Override
+    public Page<Transaction> findByTimestampBetween(LocalDateTime from, LocalDateTime to, Pageable pageable) {
+        long start = System.nanoTime();
+        RepositoryOperationEvent event = RepositoryOperationEvent.start();
+        try {
+            return delegate.findByTimestampBetween(from, to, pageable);
+        } finally {
+            timers.record(Operation.FIND_PAGE_BY_TIMESTAMP_BETWEEN, start);
+            event.finish(Operation.FIND_PAGE_BY_TIMESTAMP_BETWEEN, null);
+        }
+    }
+
+    @Override
+    public Stream<Transaction> streamByTimestampBetween(LocalDateTime from, LocalDateTime to) {
+        return delegate.streamByTimestampBetween(from, to);
+    }
+
+    @Override
+    public List<Transaction> dropPartitionsBefore(LocalDateTime cutoff) {
+        long start = System.nanoTime();
+        RepositoryOperationEvent event = RepositoryOperationEvent.start();
+        try {
+            return delegate.dropPartitionsBefore(cutoff);
+        } finally {
+            timers.record(Operation.DROP_PARTITIONS_BEFORE, start);
+            event.finish(Operation.DROP_PARTITIONS_BEFORE, null);
+        }
+    }
+
+    @Override
+    public List<Transaction> search(String query, int limit) {
+        long start = System.nanoTime();
+        RepositoryOperationEvent event = RepositoryOperationEvent.start();
+        try {
+            return delegate.search(query, limit);
+        } finally {
+            timers.record(Operation.SEARCH, start);
+            event.finish(Operation.SEARCH, null);
+        }
+    }
+
+    @Override
+    public List<LedgerEntry> findByAccount(long accountId, long before, int limit) {
+        long start = System.nanoTime();
+        RepositoryOperationEvent event = RepositoryOperationEvent.start();
+        try {
+            return delegate.findByAccount(accountId, before, limit);
+        } finally {
+            timers.record(Operation.FIND_BY_ACCOUNT, start);
+            event.finish(Operation.FIND_BY_ACCOUNT, null);
+        }
+    }
+
+    @Override
+    public long currentVersion() {
+        return delegate.currentVersion();
+    }
+
+    @Override
+    public TransactionSnapshot openSnapshot() {
+        long start = System.nanoTime();
+        RepositoryOperationEvent event = RepositoryOperationEvent.start();
+        try {
+            return delegate.openSnapshot();
+        } finally {
+            timers.record(Operation.OPEN_SNAPSHOT, start);
+            event.finish(Operation.OPEN_SNAPSHOT, null);
+        }
+    }
+}
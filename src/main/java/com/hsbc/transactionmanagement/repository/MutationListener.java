@@ -0,0 +1,23 @@
+package com.hsbc.transactionmanagement.repository;
+
+import com.hsbc.transactionmanagement.model.Transaction;
+
+/**
+ * Observes every logical write to the {@link InMemoryTransactionRepository}, in version
+ * order per ID. Moves between storage tiers are not logical writes and are not reported.
+ * <p>
+ * Called under the repository's lock for the ID, so implementations must be quick and
+ * must not call back into the repository.
+ */
+@FunctionalInterface
+public interface MutationListener {
+
+    MutationListener NONE = (version, id, after) -> {
+    };
+
+    /**
+     * @param version the collection version the write was stamped with
+     * @param after   the new state, or {@code null} for a delete
+     */
+    void onMutation(long version, String id, Transaction after);
+}
@@ -0,0 +1,194 @@
+package com.hsbc.transactionmanagement.repository;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.ToIntFunction;
+
+/**
+ * Sorted map that also knows the rank of every key: a treap whose nodes count their
+ * subtree. Finding the key at a rank, the rank of a position and the entries between two
+ * ranks all take O(log n), plus one step per entry returned, so a page deep into the order
+ * costs no more than the first one.
+ * <p>
+ * Not thread-safe; {@link SortedIndexes} guards it.
+ */
+final class RankedIndex<K, V> {
+
+    private static final class Node<K, V> {
+        final K key;
+        V value;
+        final int priority;
+        int size = 1;
+        Node<K, V> left;
+        Node<K, V> right;
+
+        Node(K key, V value, int priority) {
+            this.key = key;
+            this.value = value;
+            this.priority = priority;
+        }
+    }
+
+    private final Comparator<? super K> order;
+    private Node<K, V> root;
+
+    RankedIndex(Comparator<? super K> order) {
+        this.order = order;
+    }
+
+    Comparator<? super K> order() {
+        return order;
+    }
+
+    int size() {
+        return size(root);
+    }
+
+    /**
+     * Adds {@code key}, or repoints it to {@code value} if it is already there.
+     */
+    void put(K key, V value) {
+        Node<K, V> node = root;
+        while (node != null) {
+            int comparison = order.compare(key, node.key);
+            if (comparison == 0) {
+                node.value = value;
+                return;
+            }
+            node = comparison < 0 ? node.left : node.right;
+        }
+        root = insert(root, new Node<>(key, value, ThreadLocalRandom.current().nextInt()));
+    }
+
+    void remove(K key) {
+        root = remove(root, key);
+    }
+
+    /**
+     * The number of keys before a position, where {@code position} returns a negative number
+     * for keys that sort before it and a positive number for the others.
+     */
+    int rank(ToIntFunction<? super K> position) {
+        int rank = 0;
+        Node<K, V> node = root;
+        while (node != null) {
+            if (position.applyAsInt(node.key) < 0) {
+                rank += size(node.left) + 1;
+                node = node.right;
+            } else {
+                node = node.left;
+            }
+        }
+        return rank;
+    }
+
+    K keyAt(int rank) {
+        Node<K, V> node = root;
+        while (true) {
+            int leftSize = size(node.left);
+            if (rank < leftSize) {
+                node = node.left;
+            } else if (rank == leftSize) {
+                return node.key;
+            } else {
+                rank -= leftSize + 1;
+                node = node.right;
+            }
+        }
+    }
+
+    /**
+     * Appends the values ranked {@code from} (inclusive) to {@code to} (exclusive), in order.
+     */
+    void collect(int from, int to, List<? super V> out) {
+        collect(root, 0, from, to, out);
+    }
+
+    private void collect(Node<K, V> node, int firstRank, int from, int to, List<? super V> out) {
+        if (node == null || from >= firstRank + node.size || to <= firstRank) {
+            return;
+        }
+        collect(node.left, firstRank, from, to, out);
+        int rank = firstRank + size(node.left);
+        if (rank >= from && rank < to) {
+            out.add(node.value);
+        }
+        collect(node.right, rank + 1, from, to, out);
+    }
+
+    private Node<K, V> insert(Node<K, V> node, Node<K, V> fresh) {
+        if (node == null) {
+            return fresh;
+        }
+        if (fresh.priority > node.priority) {
+            split(node, fresh);
+            return resize(fresh);
+        }
+        if (order.compare(fresh.key, node.key) < 0) {
+            node.left = insert(node.left, fresh);
+        } else {
+            node.right = insert(node.right, fresh);
+        }
+        return resize(node);
+    }
+
+    // Splits node's subtree around fresh.key into fresh's children
+    private void split(Node<K, V> node, Node<K, V> fresh) {
+        if (node == null) {
+            fresh.left = null;
+            fresh.right = null;
+            return;
+        }
+        if (order.compare(node.key, fresh.key) < 0) {
+            split(node.right, fresh);
+            node.right = fresh.left;
+            fresh.left = resize(node);
+        } else {
+            split(node.left, fresh);
+            node.left = fresh.right;
+            fresh.right = resize(node);
+        }
+    }
+
+    private Node<K, V> remove(Node<K, V> node, K key) {
+        if (node == null) {
+            return null;
+        }
+        int comparison = order.compare(key, node.key);
+        if (comparison == 0) {
+            return merge(node.left, node.right);
+        }
+        if (comparison < 0) {
+            node.left = remove(node.left, key);
+        } else {
+            node.right = remove(node.right, key);
+        }
+        return resize(node);
+    }
+
+    // Every key of left sorts before every key of right
+    private Node<K, V> merge(Node<K, V> left, Node<K, V> right) {
+        if (left == null) {
+            return right;
+        }
+        if (right == null) {
+            return left;
+        }
+        if (left.priority > right.priority) {
+            left.right = merge(left.right, right);
+            return resize(left);
+        }
+        right.left = merge(left, right.left);
+        return resize(right);
+    }
+
+    private static <K, V> Node<K, V> resize(Node<K, V> node) {
+        node.size = size(node.left) + size(node.right) + 1;
+        return node;
+    }
+
+    private static int size(Node<?, ?> node) {
+        return node == null ? 0 : node.size;
+    }
+}
@@ -0,0 +1,308 @@
+package com.hsbc.transactionmanagement.repository;
+
+import com.hsbc.transactionmanagement.model.Transaction;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Ranked indexes behind the {@link TransactionSort} orders: by amount, by timestamp, and by
+ * status then amount or timestamp. A sorted page jumps straight to its first rank, so it
+ * costs O(log n + page size) however deep it lies.
+ * <p>
+ * Rows are striped by ID over {@value #SHARDS} shards, each with its own indexes and lock, so
+ * writes to different shards never wait for each other. A page read-locks every shard, so a
+ * page and its total always agree, and finds its first row by a selection across the shards:
+ * O(shards² · log² n), independent of the page's depth.
+ * <p>
+ * Rows missing the sorted field come after all others whichever the direction, and so do
+ * rows missing the status in a sort by status.
+ */
+final class SortedIndexes {
+
+    /**
+     * The indexed fields of one row, copied when it is indexed.
+     */
+    record SortKey(String id, String status, BigDecimal amount, LocalDateTime timestamp) {
+
+        static SortKey of(Transaction transaction) {
+            return new SortKey(transaction.getTransactionId(), transaction.getStatus(),
+                    transaction.getAmount(), transaction.getTimestamp());
+        }
+    }
+
+    private static final int SHARDS = 8;
+
+    private static final Comparator<String> STATUS_ORDER = Comparator.nullsLast(Comparator.naturalOrder());
+    private static final Comparator<SortKey> BY_ID = Comparator.comparing(SortKey::id);
+    private static final Comparator<SortKey> BY_AMOUNT = Comparator
+            .comparing(SortKey::amount, Comparator.nullsLast(Comparator.<BigDecimal>naturalOrder()))
+            .thenComparing(BY_ID);
+    private static final Comparator<SortKey> BY_TIMESTAMP = Comparator
+            .comparing(SortKey::timestamp, Comparator.nullsLast(Comparator.<LocalDateTime>naturalOrder()))
+            .thenComparing(BY_ID);
+    private static final Comparator<SortKey> BY_STATUS = Comparator.comparing(SortKey::status, STATUS_ORDER);
+
+    private static final class Shard {
+        final RankedIndex<SortKey, Transaction> byAmount = new RankedIndex<>(BY_AMOUNT);
+        final RankedIndex<SortKey, Transaction> byTimestamp = new RankedIndex<>(BY_TIMESTAMP);
+        final RankedIndex<SortKey, Transaction> byStatusAmount =
+                new RankedIndex<>(BY_STATUS.thenComparing(BY_AMOUNT));
+        final RankedIndex<SortKey, Transaction> byStatusTimestamp =
+                new RankedIndex<>(BY_STATUS.thenComparing(BY_TIMESTAMP));
+        final ReadWriteLock lock = new ReentrantReadWriteLock();
+    }
+
+    /**
+     * A stretch of the merged order, given as a rank range in each shard, that is read in one
+     * direction.
+     */
+    private record Run(int[] from, int[] to) {
+
+        long length() {
+            long length = 0;
+            for (int i = 0; i < from.length; i++) {
+                length += to[i] - from[i];
+            }
+            return length;
+        }
+    }
+
+    private final Shard[] shards = new Shard[SHARDS];
+
+    SortedIndexes() {
+        for (int i = 0; i < SHARDS; i++) {
+            shards[i] = new Shard();
+        }
+    }
+
+    void add(Transaction transaction) {
+        SortKey key = SortKey.of(transaction);
+        Shard shard = shard(key.id());
+        shard.lock.writeLock().lock();
+        try {
+            shard.byAmount.put(key, transaction);
+            shard.byTimestamp.put(key, transaction);
+            shard.byStatusAmount.put(key, transaction);
+            shard.byStatusTimestamp.put(key, transaction);
+        } finally {
+            shard.lock.writeLock().unlock();
+        }
+    }
+
+    void remove(Transaction transaction) {
+        SortKey key = SortKey.of(transaction);
+        Shard shard = shard(key.id());
+        shard.lock.writeLock().lock();
+        try {
+            shard.byAmount.remove(key);
+            shard.byTimestamp.remove(key);
+            shard.byStatusAmount.remove(key);
+            shard.byStatusTimestamp.remove(key);
+        } finally {
+            shard.lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Replaces {@code previous} with {@code transaction}, a new instance of the same row.
+     */
+    void replace(Transaction previous, Transaction transaction) {
+        SortKey before = SortKey.of(previous);
+        SortKey after = SortKey.of(transaction);
+        Shard shard = shard(after.id());
+        shard.lock.writeLock().lock();
+        try {
+            move(shard.byAmount, before, after, transaction);
+            move(shard.byTimestamp, before, after, transaction);
+            move(shard.byStatusAmount, before, after, transaction);
+            move(shard.byStatusTimestamp, before, after, transaction);
+        } finally {
+            shard.lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * One page in {@code pageable}'s sort, which must be one {@link TransactionSort} supports.
+     */
+    Page<Transaction> page(Pageable pageable) {
+        List<Sort.Order> orders = TransactionSort.orders(pageable.getSort());
+        Sort.Order first = orders.get(0);
+        // The order the rows of one run are read in: the sort's only or second order
+        Sort.Order field = orders.get(orders.size() - 1);
+        boolean byAmount = field.getProperty().equals(TransactionSort.AMOUNT);
+        Function<SortKey, Object> value = byAmount ? SortKey::amount : SortKey::timestamp;
+        boolean byStatus = first.getProperty().equals(TransactionSort.STATUS);
+        for (Shard shard : shards) {
+            shard.lock.readLock().lock();
+        }
+        try {
+            List<RankedIndex<SortKey, Transaction>> indexes = new ArrayList<>(SHARDS);
+            for (Shard shard : shards) {
+                indexes.add(byStatus
+                        ? byAmount ? shard.byStatusAmount : shard.byStatusTimestamp
+                        : byAmount ? shard.byAmount : shard.byTimestamp);
+            }
+            List<Run> runs = byStatus
+                    ? statusRuns(indexes, value, first.isDescending())
+                    : List.of(run(indexes, key -> 1, key -> value.apply(key) == null ? 1 : -1),
+                            run(indexes, key -> value.apply(key) == null ? 1 : -1, key -> -1));
+            long total = indexes.stream().mapToLong(RankedIndex::size).sum();
+            List<Transaction> content = new ArrayList<>(pageable.getPageSize());
+            long skip = pageable.getOffset();
+            for (Run run : runs) {
+                long length = run.length();
+                if (skip >= length) {
+                    skip -= length;
+                    continue;
+                }
+                read(indexes, run, skip, pageable.getPageSize() - content.size(), field.isDescending(), content);
+                skip = 0;
+                if (content.size() == pageable.getPageSize()) {
+                    break;
+                }
+            }
+            return new PageImpl<>(content, pageable, total);
+        } finally {
+            for (int i = SHARDS - 1; i >= 0; i--) {
+                shards[i].lock.readLock().unlock();
+            }
+        }
+    }
+
+    private Shard shard(String id) {
+        return shards[Math.floorMod(id.hashCode(), SHARDS)];
+    }
+
+    /**
+     * Each status as two runs, the rows with the field and then the rows without it, in
+     * {@code descending} status order with the rows missing the status last.
+     */
+    private static List<Run> statusRuns(List<RankedIndex<SortKey, Transaction>> indexes,
+                                        Function<SortKey, Object> value, boolean descending) {
+        List<String> statuses = new ArrayList<>();
+        for (RankedIndex<SortKey, Transaction> index : indexes) {
+            int start = 0;
+            while (start < index.size()) {
+                String status = index.keyAt(start).status();
+                if (!statuses.contains(status)) {
+                    statuses.add(status);
+                }
+                start = index.rank(key -> STATUS_ORDER.compare(key.status(), status) <= 0 ? -1 : 1);
+            }
+        }
+        statuses.sort(STATUS_ORDER);
+        if (descending) {
+            int present = statuses.contains(null) ? statuses.size() - 1 : statuses.size();
+            Collections.reverse(statuses.subList(0, present));
+        }
+        List<Run> runs = new ArrayList<>(2 * statuses.size());
+        for (String status : statuses) {
+            ToIntFunction<SortKey> before = key -> STATUS_ORDER.compare(key.status(), status) < 0 ? -1 : 1;
+            ToIntFunction<SortKey> missing = key -> {
+                int comparison = STATUS_ORDER.compare(key.status(), status);
+                return comparison != 0 ? comparison : value.apply(key) == null ? 1 : -1;
+            };
+            ToIntFunction<SortKey> after = key -> STATUS_ORDER.compare(key.status(), status) <= 0 ? -1 : 1;
+            runs.add(run(indexes, before, missing));
+            runs.add(run(indexes, missing, after));
+        }
+        return runs;
+    }
+
+    /**
+     * The rows between two positions, see {@link RankedIndex#rank(ToIntFunction)}.
+     */
+    private static Run run(List<RankedIndex<SortKey, Transaction>> indexes, ToIntFunction<SortKey> from,
+                           ToIntFunction<SortKey> to) {
+        int[] starts = new int[indexes.size()];
+        int[] ends = new int[indexes.size()];
+        for (int i = 0; i < indexes.size(); i++) {
+            starts[i] = indexes.get(i).rank(from);
+            ends[i] = indexes.get(i).rank(to);
+        }
+        return new Run(starts, ends);
+    }
+
+    /**
+     * Appends up to {@code limit} rows of {@code run} after skipping {@code skip}, reading from
+     * its end when {@code descending}.
+     */
+    private static void read(List<RankedIndex<SortKey, Transaction>> indexes, Run run, long skip, int limit,
+                             boolean descending, List<Transaction> out) {
+        long length = run.length();
+        long count = Math.min(limit, length - skip);
+        long first = descending ? length - skip - count : skip;
+        int[] starts = cut(indexes, run, first);
+        int[] ends = cut(indexes, run, first + count);
+        List<Transaction> rows = new ArrayList<>((int) count);
+        for (int i = 0; i < indexes.size(); i++) {
+            indexes.get(i).collect(starts[i], ends[i], rows);
+        }
+        Comparator<? super SortKey> order = indexes.get(0).order();
+        rows.sort((a, b) -> order.compare(SortKey.of(a), SortKey.of(b)));
+        if (descending) {
+            Collections.reverse(rows);
+        }
+        out.addAll(rows);
+    }
+
+    /**
+     * Where the first {@code count} rows of {@code run} end in each shard. Each step ranks the
+     * middle key of the widest remaining range in every shard and drops the half of each range
+     * on the wrong side of it.
+     */
+    private static int[] cut(List<RankedIndex<SortKey, Transaction>> indexes, Run run, long count) {
+        int[] low = run.from().clone();
+        int[] high = run.to().clone();
+        long remaining = count;
+        while (remaining > 0) {
+            int widest = 0;
+            for (int i = 1; i < low.length; i++) {
+                if (high[i] - low[i] > high[widest] - low[widest]) {
+                    widest = i;
+                }
+            }
+            int middle = (low[widest] + high[widest]) >>> 1;
+            RankedIndex<SortKey, Transaction> pivotIndex = indexes.get(widest);
+            SortKey pivot = pivotIndex.keyAt(middle);
+            int[] below = new int[low.length];
+            long before = 0;
+            for (int i = 0; i < low.length; i++) {
+                int rank = i == widest ? middle
+                        : indexes.get(i).rank(key -> pivotIndex.order().compare(key, pivot) < 0 ? -1 : 1);
+                below[i] = Math.max(low[i], Math.min(high[i], rank));
+                before += below[i] - low[i];
+            }
+            if (before < remaining) {
+                // The pivot and everything before it are among the first rows
+                low = below;
+                low[widest] = middle + 1;
+                remaining -= before + 1;
+            } else {
+                high = below;
+            }
+        }
+        return low;
+    }
+
+    private static void move(RankedIndex<SortKey, Transaction> index, SortKey before, SortKey after,
+                             Transaction transaction) {
+        if (index.order().compare(before, after) != 0) {
+            index.remove(before);
+        }
+        index.put(after, transaction);
+    }
+}
@@ -0,0 +1,131 @@
+package com.hsbc.transactionmanagement.repository;
+
+import com.hsbc.transactionmanagement.model.Transaction;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * Case-insensitive trigram index over {@link Transaction#getDescription()} and
+ * {@link Transaction#getReferenceNumber()}. Any substring (and so any prefix or word) of at
+ * least {@link #MIN_QUERY_LENGTH} characters can be answered from the posting list of its
+ * rarest trigram instead of scanning every transaction.
+ */
+class TextSearchIndex {
+
+    static final int MIN_QUERY_LENGTH = 3;
+
+    private static final int GRAM_LENGTH = 3;
+
+    // trigram -> IDs of transactions whose searchable text contains it
+    private final Map<String, Set<String>> postings = new ConcurrentHashMap<>();
+
+    void add(Transaction transaction) {
+        String id = transaction.getTransactionId();
+        for (String gram : gramsOf(transaction)) {
+            postings.compute(gram, (key, ids) -> {
+                Set<String> target = ids != null ? ids : ConcurrentHashMap.newKeySet();
+                target.add(id);
+                return target;
+            });
+        }
+    }
+
+    void remove(Transaction transaction) {
+        String id = transaction.getTransactionId();
+        for (String gram : gramsOf(transaction)) {
+            postings.computeIfPresent(gram, (key, ids) -> {
+                ids.remove(id);
+                return ids.isEmpty() ? null : ids;
+            });
+        }
+    }
+
+    /**
+     * The {@code limit} matches with the smallest IDs, in ID order, keeping no more than
+     * {@code limit} of them in memory. Matches arrive in any order, so stopping at the first
+     * {@code limit} would return an arbitrary subset.
+     */
+    static List<Transaction> firstById(Stream<Transaction> matches, int limit) {
+        Comparator<Transaction> byId = Comparator.comparing(Transaction::getTransactionId);
+        // Max-heap: its head is the first to drop
+        PriorityQueue<Transaction> first = new PriorityQueue<>(byId.reversed());
+        matches.forEach(transaction -> {
+            if (first.size() < limit) {
+                first.add(transaction);
+            } else if (limit > 0 && byId.compare(transaction, first.peek()) < 0) {
+                first.poll();
+                first.add(transaction);
+            }
+        });
+        List<Transaction> sorted = new ArrayList<>(first);
+        sorted.sort(byId);
+        return sorted;
+    }
+
+    /**
+     * Returns the IDs that may contain {@code query}: the smallest posting list among the
+     * query's trigrams. Callers still need to verify each candidate with {@link #matches}.
+     */
+    Set<String> candidates(String query) {
+        String normalized = normalize(query);
+        if (normalized.length() < MIN_QUERY_LENGTH) {
+            return Collections.emptySet();
+        }
+        Set<String> smallest = null;
+        for (int i = 0; i + GRAM_LENGTH <= normalized.length(); i++) {
+            Set<String> ids = postings.get(normalized.substring(i, i + GRAM_LENGTH));
+            if (ids == null) {
+                return Collections.emptySet();
+            }
+            if (smallest == null || ids.size() < smallest.size()) {
+                smallest = ids;
+            }
+        }
+        return smallest;
+    }
+
+    static boolean matches(Transaction transaction, String query) {
+        String normalized = normalize(query);
+        return contains(transaction.getReferenceNumber(), normalized)
+                || contains(transaction.getDescription(), normalized);
+    }
+
+    int gramCount() {
+        return postings.size();
+    }
+
+    private static boolean contains(String field, String normalizedQuery) {
+        return field != null && normalize(field).contains(normalizedQuery);
+    }
+
+    private static Set<String> gramsOf(Transaction transaction) {
+        Set<String> grams = new HashSet<>();
+        collectGrams(transaction.getDescription(), grams);
+        collectGrams(transaction.getReferenceNumber(), grams);
+        return grams;
+    }
+
+    private static void collectGrams(String field, Set<String> grams) {
+        if (field == null) {
+            return;
+        }
+        String normalized = normalize(field);
+        for (int i = 0; i + GRAM_LENGTH <= normalized.length(); i++) {
+            grams.add(normalized.substring(i, i + GRAM_LENGTH));
+        }
+    }
+
+    private static String normalize(String text) {
+        return text.toLowerCase(Locale.ROOT);
+    }
+}
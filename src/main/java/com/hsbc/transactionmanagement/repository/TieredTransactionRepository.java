@@ -0,0 +1,382 @@
+package com.hsbc.transactionmanagement.repository;
+
+import com.hsbc.transactionmanagement.model.LedgerEntry;
+import com.hsbc.transactionmanagement.model.Transaction;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Two-tier repository: the in-memory store holds the working set, and settled transactions
+ * past a minimum age are moved to {@link ColdSegmentStore} segments on disk by
+ * {@link #archive}. Reads consult the hot tier first, so callers see one store.
+ */
+public class TieredTransactionRepository implements TransactionRepository, Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(TieredTransactionRepository.class);
+
+    // No transition leaves these states, so archived copies can never go stale
+    static final Set<String> TERMINAL_STATUSES = Set.of("COMPLETED", "CANCELLED");
+
+    private final InMemoryTransactionRepository hot;
+    private final ColdSegmentStore cold;
+    // Deletes in the cold tier do not touch the hot tier's version counter
+    private final AtomicLong coldDeletes = new AtomicLong();
+
+    TieredTransactionRepository(InMemoryTransactionRepository hot, ColdSegmentStore cold) {
+        this.hot = hot;
+        this.cold = cold;
+    }
+
+    public TieredTransactionRepository(InMemoryTransactionRepository hot, TieringProperties properties)
+            throws IOException {
+        this(hot, new ColdSegmentStore(properties.segmentDirectory(), properties.rowsPerBlock(),
+                properties.maxRowsPerSegment(), properties.blockCacheRows()));
+    }
+
+    /**
+     * Moves up to {@code maxRows} terminal transactions with a timestamp before
+     * {@code olderThan} from the heap into a new segment, oldest first.
+     *
+     * @return how many transactions were archived
+     */
+    public synchronized int archive(LocalDateTime olderThan, int maxRows) throws IOException {
+        List<Transaction> candidates = hot.streamByTimestampBetween(LocalDateTime.MIN, olderThan)
+                .filter(transaction -> TERMINAL_STATUSES.contains(transaction.getStatus()))
+                .limit(maxRows)
+                .toList();
+        if (candidates.isEmpty()) {
+            return 0;
+        }
+        long[] versions = candidates.stream().mapToLong(Transaction::getVersion).toArray();
+        ColdSegmentStore.Segment segment = cold.write(candidates);
+        // The segment is readable now; hot copies shadow it until they are dropped. A copy that
+        // was deleted or rewritten in the meantime must not resurface from the segment.
+        int archived = 0;
+        for (int i = 0; i < versions.length; i++) {
+            String id = candidates.get(i).getTransactionId();
+            if (hot.deleteIfVersion(id, versions[i])) {
+                archived++;
+            } else {
+                segment.delete(id);
+            }
+        }
+        logger.info("Archived {} transactions older than {} into a cold segment", archived, olderThan);
+        int merges = cold.compact();
+        if (merges > 0) {
+            logger.info("Merged cold segments {} times, {} left", merges, cold.segmentCount());
+        }
+        return archived;
+    }
+
+    @Override
+    public Transaction save(Transaction transaction) {
+        return hot.save(transaction);
+    }
+
+    @Override
+    public List<Transaction> insertAll(Collection<Transaction> transactions) {
+        List<Transaction> fresh = transactions.stream()
+                .filter(transaction -> !cold.existsById(transaction.getTransactionId()))
+                .toList();
+        return hot.insertAll(fresh);
+    }
+
+    @Override
+    public void deleteById(String id) {
+        boolean wasHot = hot.existsById(id);
+        hot.deleteById(id);
+        if (cold.delete(id)) {
+            coldDeletes.incrementAndGet();
+            if (!wasHot) {
+                hot.publishDelete(id);
+            }
+        }
+    }
+
+    @Override
+    public Optional<Transaction> findById(String id) {
+        Optional<Transaction> transaction = hot.findById(id);
+        return transaction.isPresent() ? transaction : cold.findById(id);
+    }
+
+    @Override
+    public List<Transaction> findAll() {
+        return stream().toList();
+    }
+
+    @Override
+    public boolean existsById(String id) {
+        return hot.existsById(id) || cold.existsById(id);
+    }
+
+    /**
+     * Pages in {@link #stream()} order, or sorted by a full pass over both tiers when
+     * {@code pageable} has a {@link TransactionSort} sort.
+     */
+    @Override
+    public Page<Transaction> findAll(Pageable pageable) {
+        if (pageable.getSort().isSorted()) {
+            return TransactionSort.page(stream(), pageable);
+        }
+        List<Transaction> content = stream()
+                .skip(pageable.getOffset())
+                .limit(pageable.getPageSize())
+                .toList();
+        return new PageImpl<>(content, pageable, count());
+    }
+
+    /** Hot transactions first, then archived ones. */
+    @Override
+    public Stream<Transaction> stream() {
+        return Stream.concat(hot.stream(), cold.stream().filter(transaction -> !hot.existsById(transaction.getTransactionId())));
+    }
+
+    @Override
+    public List<Transaction> findByTimestampBetween(LocalDateTime from, LocalDateTime to) {
+        return mergedRange(from, to).toList();
+    }
+
+    /**
+     * Pages the merge of both tiers' time-ordered ranges; the total adds the hot index's count
+     * to the cold segments' counts.
+     */
+    @Override
+    public Page<Transaction> findByTimestampBetween(LocalDateTime from, LocalDateTime to, Pageable pageable) {
+        List<Transaction> content = mergedRange(from, to)
+                .skip(pageable.getOffset())
+                .limit(pageable.getPageSize())
+                .toList();
+        long total = hot.countByTimestampBetween(from, to) + coldCount(from, to, this::notHot);
+        return new PageImpl<>(content, pageable, total);
+    }
+
+    @Override
+    public Stream<Transaction> streamByTimestampBetween(LocalDateTime from, LocalDateTime to) {
+        return Stream.concat(hot.streamByTimestampBetween(from, to), coldRange(from, to));
+    }
+
+    /**
+     * Drops expired partitions from the hot tier only; archived transactions are already off
+     * the heap.
+     */
+    @Override
+    public List<Transaction> dropPartitionsBefore(LocalDateTime cutoff) {
+        return hot.dropPartitionsBefore(cutoff);
+    }
+
+    /**
+     * Scans both tiers, since archived transactions have left the hot tier's ledgers.
+     */
+    @Override
+    public List<LedgerEntry> findByAccount(long accountId, long before, int limit) {
+        return AccountLedgers.scan(stream(), accountId, before, limit);
+    }
+
+    /**
+     * Archived transactions have no text index, so they are scanned, and only when the hot
+     * tier has fewer than {@code limit} matches.
+     */
+    @Override
+    public List<Transaction> search(String query, int limit) {
+        List<Transaction> matches = hot.search(query, limit);
+        if (matches.size() < limit) {
+            // Cold segments are not in ID order, so every cold match competes for the limit
+            return TextSearchIndex.firstById(Stream.concat(matches.stream(), cold.stream()
+                    .filter(transaction -> TextSearchIndex.matches(transaction, query)
+                            && !hot.existsById(transaction.getTransactionId()))), limit);
+        }
+        return matches;
+    }
+
+    @Override
+    public long currentVersion() {
+        return hot.currentVersion() + coldDeletes.get();
+    }
+
+    /**
+     * The snapshot isolates the hot tier. Archived rows are read as they are now, which only
+     * differs from the snapshot's version for archived rows deleted since it was opened.
+     */
+    @Override
+    public TransactionSnapshot openSnapshot() {
+        return new Snapshot(hot.openSnapshot());
+    }
+
+    @Override
+    public long count() {
+        return hot.count() + cold.rowCount();
+    }
+
+    public long hotCount() {
+        return hot.count();
+    }
+
+    public long coldCount() {
+        return cold.rowCount();
+    }
+
+    public int segmentCount() {
+        return cold.segmentCount();
+    }
+
+    public long segmentBytes() {
+        return cold.sizeOnDisk();
+    }
+
+    @Override
+    public void close() throws IOException {
+        cold.close();
+    }
+
+    private boolean notHot(Transaction transaction) {
+        return !hot.existsById(transaction.getTransactionId());
+    }
+
+    private Stream<Transaction> coldRange(LocalDateTime from, LocalDateTime to) {
+        if (!from.isBefore(to)) {
+            return Stream.empty();
+        }
+        return cold.range(from, to).filter(this::notHot);
+    }
+
+    private long coldCount(LocalDateTime from, LocalDateTime to, Predicate<Transaction> visible) {
+        return from.isBefore(to) ? cold.count(from, to, visible) : 0;
+    }
+
+    private Stream<Transaction> mergedRange(LocalDateTime from, LocalDateTime to) {
+        if (!from.isBefore(to)) {
+            return Stream.empty();
+        }
+        return merge(hot.streamByTimestampBetween(from, to), cold.sortedRange(from, to).filter(this::notHot));
+    }
+
+    /**
+     * Merges two streams already in {@link TimePartitionedIndex#TIMESTAMP_ORDER}, pulling rows
+     * only as the result is consumed.
+     */
+    private static Stream<Transaction> merge(Stream<Transaction> first, Stream<Transaction> second) {
+        Iterator<Transaction> left = first.iterator();
+        Iterator<Transaction> right = second.iterator();
+        Iterator<Transaction> merged = new Iterator<>() {
+            private Transaction leftHead;
+            private Transaction rightHead;
+
+            @Override
+            public boolean hasNext() {
+                if (leftHead == null && left.hasNext()) {
+                    leftHead = left.next();
+                }
+                if (rightHead == null && right.hasNext()) {
+                    rightHead = right.next();
+                }
+                return leftHead != null || rightHead != null;
+            }
+
+            @Override
+            public Transaction next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                Transaction result;
+                if (rightHead == null || leftHead != null
+                        && TimePartitionedIndex.TIMESTAMP_ORDER.compare(leftHead, rightHead) <= 0) {
+                    result = leftHead;
+                    leftHead = null;
+                } else {
+                    result = rightHead;
+                    rightHead = null;
+                }
+                return result;
+            }
+        };
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(merged,
+                Spliterator.ORDERED | Spliterator.NONNULL), false).onClose(() -> {
+            first.close();
+            second.close();
+        });
+    }
+
+    private final class Snapshot implements TransactionSnapshot {
+
+        private final InMemoryTransactionRepository.Snapshot hotSnapshot;
+
+        private Snapshot(InMemoryTransactionRepository.Snapshot hotSnapshot) {
+            this.hotSnapshot = hotSnapshot;
+        }
+
+        @Override
+        public long version() {
+            return hotSnapshot.version();
+        }
+
+        @Override
+        public Optional<Transaction> findById(String id) {
+            Optional<Transaction> transaction = hotSnapshot.findById(id);
+            if (transaction.isPresent() || hotSnapshot.hasChanged(id)) {
+                return transaction;
+            }
+            return cold.findById(id);
+        }
+
+        /** Hot transactions in timestamp order, then archived ones. */
+        @Override
+        public Page<Transaction> findAll(Pageable pageable) {
+            // Rows archived after the snapshot was opened are already in the hot view as before-images
+            Set<String> changed = hotSnapshot.changedIds();
+            Predicate<Transaction> unchanged = transaction -> !changed.contains(transaction.getTransactionId());
+            List<Transaction> content = Stream.concat(hotSnapshot.rows(LocalDateTime.MIN, LocalDateTime.MAX),
+                            cold.stream().filter(unchanged))
+                    .skip(pageable.getOffset())
+                    .limit(pageable.getPageSize())
+                    .toList();
+            long total = hotSnapshot.count(LocalDateTime.MIN, LocalDateTime.MAX) + cold.stream().filter(unchanged).count();
+            return new PageImpl<>(content, pageable, total);
+        }
+
+        @Override
+        public Stream<Transaction> stream() {
+            Set<String> changed = hotSnapshot.changedIds();
+            return Stream.concat(hotSnapshot.stream(),
+                    cold.stream().filter(transaction -> !changed.contains(transaction.getTransactionId())));
+        }
+
+        @Override
+        public Page<Transaction> findByTimestampBetween(LocalDateTime from, LocalDateTime to, Pageable pageable) {
+            if (!from.isBefore(to)) {
+                return new PageImpl<>(List.of(), pageable, 0);
+            }
+            Set<String> changed = hotSnapshot.changedIds();
+            Predicate<Transaction> unchanged = transaction -> !changed.contains(transaction.getTransactionId());
+            List<Transaction> content = merge(hotSnapshot.rows(from, to), cold.sortedRange(from, to).filter(unchanged))
+                    .skip(pageable.getOffset())
+                    .limit(pageable.getPageSize())
+                    .toList();
+            long total = hotSnapshot.count(from, to) + cold.count(from, to, unchanged);
+            return new PageImpl<>(content, pageable, total);
+        }
+
+        @Override
+        public void close() {
+            hotSnapshot.close();
+        }
+    }
+}
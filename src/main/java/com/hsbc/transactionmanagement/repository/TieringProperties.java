@@ -0,0 +1,29 @@
+package com.hsbc.transactionmanagement.repository;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * @param directory where cold segments are written; defaults to {@code transaction-segments} under
+ *                  the system temp directory
+ * @param minAge    how far a terminal transaction's timestamp must lie in the past before it is archived
+ * @param blockCacheRows decoded rows kept for lookups into cold segments
+ */
+@ConfigurationProperties(prefix = "transaction.tiering")
+public record TieringProperties(
+        @DefaultValue("false") boolean enabled,
+        Path directory,
+        @DefaultValue("P1D") Duration minAge,
+        @DefaultValue("PT5M") Duration interval,
+        @DefaultValue("1024") int rowsPerBlock,
+        @DefaultValue("500000") int maxRowsPerSegment,
+        @DefaultValue("65536") long blockCacheRows
+) {
+
+    public Path segmentDirectory() {
+        return directory != null ? directory : Path.of(System.getProperty("java.io.tmpdir"), "transaction-segments");
+    }
+}
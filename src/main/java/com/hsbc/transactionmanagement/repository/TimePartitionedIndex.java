@@ -0,0 +1,241 @@
+package com.hsbc.transactionmanagement.repository;
+
+import com.hsbc.transactionmanagement.model.Transaction;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * Secondary index partitioning transactions into fixed-width time buckets keyed by
+ * {@link Transaction#getTimestamp()}. Each bucket is sorted by timestamp, so a range
+ * query only walks the buckets overlapping the requested range.
+ * <p>
+ * Buckets count their entries, so a page skips whole buckets without walking them. A
+ * bucket leaves the index once it is empty or detached; writers share its lock and the
+ * one taking it out holds it exclusively, so no write lands in a bucket that is gone.
+ */
+class TimePartitionedIndex {
+
+    static final Comparator<Transaction> TIMESTAMP_ORDER = Comparator
+            .comparing(Transaction::getTimestamp)
+            .thenComparing(Transaction::getTransactionId);
+
+    private static final class Bucket {
+
+        final ConcurrentSkipListMap<TimeKey, Transaction> entries = new ConcurrentSkipListMap<>();
+        final AtomicInteger size = new AtomicInteger();
+        final ReadWriteLock lock = new ReentrantReadWriteLock();
+        // Set under the write lock once the bucket has left the index; writers then use its successor
+        boolean retired;
+
+        /**
+         * The number of entries between the two keys, counting the whole bucket without a walk
+         * when it lies inside them.
+         */
+        long count(TimeKey lower, TimeKey upper) {
+            Map.Entry<TimeKey, Transaction> first = entries.firstEntry();
+            Map.Entry<TimeKey, Transaction> last = entries.lastEntry();
+            if (first == null) {
+                return 0;
+            }
+            if (first.getKey().compareTo(lower) >= 0 && last.getKey().compareTo(upper) < 0) {
+                return size.get();
+            }
+            return entries.subMap(lower, true, upper, false).size();
+        }
+    }
+
+    private final long bucketSeconds;
+
+    // bucket start (epoch seconds, UTC) -> entries of that bucket sorted by time
+    private final ConcurrentSkipListMap<Long, Bucket> buckets = new ConcurrentSkipListMap<>();
+
+    TimePartitionedIndex(Duration bucketWidth) {
+        if (bucketWidth.isNegative() || bucketWidth.getSeconds() < 1) {
+            throw new IllegalArgumentException("Partition width must be at least one second");
+        }
+        this.bucketSeconds = bucketWidth.getSeconds();
+    }
+
+    void add(Transaction transaction) {
+        if (transaction.getTimestamp() == null) {
+            return;
+        }
+        long start = bucketOf(transaction.getTimestamp());
+        while (true) {
+            Bucket bucket = buckets.computeIfAbsent(start, k -> new Bucket());
+            bucket.lock.readLock().lock();
+            try {
+                if (!bucket.retired) {
+                    if (bucket.entries.put(TimeKey.of(transaction), transaction) == null) {
+                        bucket.size.incrementAndGet();
+                    }
+                    return;
+                }
+            } finally {
+                bucket.lock.readLock().unlock();
+            }
+        }
+    }
+
+    void remove(Transaction transaction) {
+        if (transaction.getTimestamp() == null) {
+            return;
+        }
+        long start = bucketOf(transaction.getTimestamp());
+        Bucket bucket = buckets.get(start);
+        if (bucket == null) {
+            return;
+        }
+        boolean emptied = false;
+        bucket.lock.readLock().lock();
+        try {
+            if (!bucket.retired && bucket.entries.remove(TimeKey.of(transaction)) != null) {
+                emptied = bucket.size.decrementAndGet() == 0;
+            }
+        } finally {
+            bucket.lock.readLock().unlock();
+        }
+        if (emptied) {
+            bucket.lock.writeLock().lock();
+            try {
+                // A writer may have refilled it in the meantime
+                if (!bucket.retired && bucket.size.get() == 0) {
+                    bucket.retired = true;
+                    buckets.remove(start, bucket);
+                }
+            } finally {
+                bucket.lock.writeLock().unlock();
+            }
+        }
+    }
+
+    /**
+     * Streams the transactions with {@code from <= timestamp < to} in timestamp order.
+     */
+    Stream<Transaction> range(LocalDateTime from, LocalDateTime to) {
+        if (!from.isBefore(to)) {
+            return Stream.empty();
+        }
+        TimeKey lower = new TimeKey(from, "");
+        TimeKey upper = new TimeKey(to, "");
+        return overlapping(from, to).stream()
+                .flatMap(bucket -> bucket.entries.subMap(lower, true, upper, false).values().stream());
+    }
+
+    /**
+     * Up to {@code limit} transactions of {@link #range} after skipping {@code offset}. Buckets
+     * that fall wholly within the skipped part are not walked.
+     */
+    List<Transaction> page(LocalDateTime from, LocalDateTime to, long offset, int limit) {
+        List<Transaction> page = new ArrayList<>(Math.min(limit, 1024));
+        if (!from.isBefore(to)) {
+            return page;
+        }
+        TimeKey lower = new TimeKey(from, "");
+        TimeKey upper = new TimeKey(to, "");
+        long skip = offset;
+        for (Bucket bucket : overlapping(from, to)) {
+            if (page.size() >= limit) {
+                break;
+            }
+            if (skip > 0) {
+                long count = bucket.count(lower, upper);
+                if (count <= skip) {
+                    skip -= count;
+                    continue;
+                }
+            }
+            for (Transaction transaction : bucket.entries.subMap(lower, true, upper, false).values()) {
+                if (skip > 0) {
+                    skip--;
+                } else if (page.size() < limit) {
+                    page.add(transaction);
+                } else {
+                    break;
+                }
+            }
+        }
+        return page;
+    }
+
+    /**
+     * The number of transactions with {@code from <= timestamp < to}; only the buckets at
+     * either end of the range are walked.
+     */
+    long count(LocalDateTime from, LocalDateTime to) {
+        if (!from.isBefore(to)) {
+            return 0;
+        }
+        TimeKey lower = new TimeKey(from, "");
+        TimeKey upper = new TimeKey(to, "");
+        long count = 0;
+        for (Bucket bucket : overlapping(from, to)) {
+            count += bucket.count(lower, upper);
+        }
+        return count;
+    }
+
+    /**
+     * Detaches every bucket that ends at or before {@code cutoff} and returns its content,
+     * oldest first. Buckets still open for writes should not be dropped.
+     */
+    List<Transaction> detachBefore(LocalDateTime cutoff) {
+        List<Transaction> detached = new ArrayList<>();
+        NavigableMap<Long, Bucket> expired = buckets.headMap(bucketOf(cutoff) - bucketSeconds, true);
+        for (Map.Entry<Long, Bucket> entry : expired.entrySet()) {
+            Bucket bucket = entry.getValue();
+            // Waits for writes in flight, so each row is either detached or added to a successor
+            bucket.lock.writeLock().lock();
+            try {
+                if (!bucket.retired) {
+                    bucket.retired = true;
+                    buckets.remove(entry.getKey(), bucket);
+                    detached.addAll(bucket.entries.values());
+                }
+            } finally {
+                bucket.lock.writeLock().unlock();
+            }
+        }
+        return detached;
+    }
+
+    int partitionCount() {
+        return buckets.size();
+    }
+
+    private Collection<Bucket> overlapping(LocalDateTime from, LocalDateTime to) {
+        return buckets.subMap(bucketOf(from), true, bucketOf(to), true).values();
+    }
+
+    private long bucketOf(LocalDateTime timestamp) {
+        return Math.floorDiv(timestamp.toEpochSecond(ZoneOffset.UTC), bucketSeconds) * bucketSeconds;
+    }
+
+    private record TimeKey(LocalDateTime timestamp, String transactionId) implements Comparable<TimeKey> {
+
+        private static final Comparator<TimeKey> ORDER = Comparator.comparing(TimeKey::timestamp)
+                .thenComparing(TimeKey::transactionId);
+
+        static TimeKey of(Transaction transaction) {
+            return new TimeKey(transaction.getTimestamp(), transaction.getTransactionId());
+        }
+
+        @Override
+        public int compareTo(TimeKey other) {
+            return ORDER.compare(this, other);
+        }
+    }
+}
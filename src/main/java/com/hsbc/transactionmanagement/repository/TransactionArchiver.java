@@ -0,0 +1,79 @@
+package com.hsbc.transactionmanagement.repository;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Periodically moves settled transactions older than {@code minAge} into the cold tier,
+ * one segment per batch, until nothing eligible is left.
+ */
+public class TransactionArchiver implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(TransactionArchiver.class);
+
+    private final TieredTransactionRepository repository;
+    private final Duration minAge;
+    private final int maxRowsPerSegment;
+    private final ScheduledExecutorService scheduler;
+
+    public TransactionArchiver(TieredTransactionRepository repository, TieringProperties properties) {
+        this.repository = repository;
+        this.minAge = properties.minAge();
+        this.maxRowsPerSegment = properties.maxRowsPerSegment();
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "transaction-archiver");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long intervalMillis = Math.max(1, properties.interval().toMillis());
+        scheduler.scheduleWithFixedDelay(() -> runSafely(minAge), intervalMillis, intervalMillis,
+                TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * @return how many transactions were archived in this run
+     */
+    public int archiveNow() throws IOException {
+        return archive(minAge);
+    }
+
+    /**
+     * Queues a run on the archiver thread that moves every settled transaction, however
+     * recent, to the cold tier. Used to make room when the heap runs short.
+     */
+    public void archiveSettledSoon() {
+        scheduler.execute(() -> runSafely(Duration.ZERO));
+    }
+
+    private int archive(Duration age) throws IOException {
+        LocalDateTime cutoff = LocalDateTime.now().minus(age);
+        int total = 0;
+        int archived;
+        do {
+            archived = repository.archive(cutoff, maxRowsPerSegment);
+            total += archived;
+        } while (archived == maxRowsPerSegment);
+        return total;
+    }
+
+    private void runSafely(Duration age) {
+        try {
+            archive(age);
+        } catch (IOException | RuntimeException ex) {
+            // Rows that failed to archive stay in the heap and are retried on the next run
+            logger.error("Archiving transactions to the cold tier failed", ex);
+        }
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+    }
+}
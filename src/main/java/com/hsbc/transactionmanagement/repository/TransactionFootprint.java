@@ -0,0 +1,77 @@
+package com.hsbc.transactionmanagement.repository;
+
+import com.hsbc.transactionmanagement.model.Transaction;
+
+/**
+ * Estimated heap cost of one stored transaction on a 64-bit JVM with compressed oops: the
+ * object graph of the row, including its status history, plus its entries in the ID map,
+ * the time index, the sorted indexes, the account ledgers and the trigram index. Strings
+ * are counted as Latin-1. The
+ * figures are per-object layout sizes, checked against measured heap growth for typical
+ * rows; they are meant for capacity planning, not byte-exact accounting.
+ */
+final class TransactionFootprint {
+
+    private static final int TRANSACTION_BYTES = 64;
+    private static final int STRING_BYTES = 24 + 16;
+    private static final int BIG_DECIMAL_BYTES = 40;
+    // LocalDateTime plus its LocalDate and LocalTime
+    private static final int DATE_TIME_BYTES = 3 * 24;
+    private static final int BOXED_LONG_BYTES = 16;
+    private static final int ARRAY_HEADER_BYTES = 16;
+    // ConcurrentHashMap node plus its share of the table
+    private static final int MAP_ENTRY_BYTES = 48;
+    // Skip list node, its share of index nodes, and the TimeKey
+    private static final int TIME_INDEX_ENTRY_BYTES = 72;
+    // Its SortKey plus a treap node in each of the four sorted indexes
+    private static final int SORTED_INDEX_BYTES = 32 + 4 * 40;
+    // Ledger slot, contribution, Fenwick node and position map entry in one account's ledger
+    private static final int LEDGER_ENTRY_BYTES = 4 + 4 + 40 + 56;
+    // One ID in one trigram's posting set
+    private static final int POSTING_BYTES = 40;
+    private static final int GRAM_LENGTH = 3;
+
+    private TransactionFootprint() {
+    }
+
+    static long estimate(Transaction transaction) {
+        if (transaction == null) {
+            return 0;
+        }
+        long bytes = TRANSACTION_BYTES + MAP_ENTRY_BYTES + TIME_INDEX_ENTRY_BYTES + SORTED_INDEX_BYTES;
+        bytes += string(transaction.getTransactionId());
+        bytes += string(transaction.getCurrency());
+        bytes += string(transaction.getDescription());
+        bytes += string(transaction.getStatus());
+        bytes += string(transaction.getReferenceNumber());
+        bytes += transaction.getAmount() != null ? BIG_DECIMAL_BYTES : 0;
+        bytes += transaction.getTimestamp() != null ? DATE_TIME_BYTES : 0;
+        bytes += transaction.getSenderAccountId() != null ? BOXED_LONG_BYTES + LEDGER_ENTRY_BYTES : 0;
+        bytes += transaction.getReceiverAccountId() != null ? BOXED_LONG_BYTES + LEDGER_ENTRY_BYTES : 0;
+        bytes += statusHistory(transaction);
+        bytes += (long) POSTING_BYTES * (grams(transaction.getDescription()) + grams(transaction.getReferenceNumber()));
+        return bytes;
+    }
+
+    /**
+     * The part of {@link #estimate} taken by the status history: one array of at most one
+     * entry per status.
+     */
+    static long statusHistory(Transaction transaction) {
+        long[] history = transaction == null ? null : transaction.getStatusHistory();
+        return history == null ? 0 : align(ARRAY_HEADER_BYTES + (long) Long.BYTES * history.length);
+    }
+
+    private static long string(String value) {
+        return value == null ? 0 : STRING_BYTES + align(value.length());
+    }
+
+    // Upper bound: repeated trigrams share a posting
+    private static int grams(String value) {
+        return value == null ? 0 : Math.max(0, value.length() - GRAM_LENGTH + 1);
+    }
+
+    private static long align(long bytes) {
+        return (bytes + 7) & ~7L;
+    }
+}
@@ -1,18 +1,72 @@
 package com.hsbc.transactionmanagement.repository;
 
+import com.hsbc.transactionmanagement.model.LedgerEntry;
 import com.hsbc.transactionmanagement.model.Transaction;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface TransactionRepository {
 
     Transaction save(Transaction transaction);
+
+    /**
+     * Stores every transaction whose ID is not taken yet and returns those, in input order.
+     * Transactions with an existing ID are skipped, not overwritten.
+     */
+    List<Transaction> insertAll(Collection<Transaction> transactions);
+
     void deleteById(String id);
     Optional<Transaction> findById(String id);
     List<Transaction> findAll();
     boolean existsById(String id);
+    long count();
     Page<Transaction> findAll(Pageable pageable);
+
+    /**
+     * Weakly consistent stream over every transaction, for scans that must not copy the store.
+     */
+    Stream<Transaction> stream();
+
+    /**
+     * Finds transactions with {@code from <= timestamp < to}, ordered by timestamp.
+     */
+    List<Transaction> findByTimestampBetween(LocalDateTime from, LocalDateTime to);
+    Page<Transaction> findByTimestampBetween(LocalDateTime from, LocalDateTime to, Pageable pageable);
+    Stream<Transaction> streamByTimestampBetween(LocalDateTime from, LocalDateTime to);
+
+    /**
+     * Removes every time partition that ends at or before {@code cutoff} and returns the removed
+     * transactions, oldest first, so callers can archive them.
+     */
+    List<Transaction> dropPartitionsBefore(LocalDateTime cutoff);
+
+    /**
+     * Finds up to {@code limit} transactions whose reference number or description contains
+     * {@code query} (case-insensitive), ordered by transaction ID.
+     */
+    List<Transaction> search(String query, int limit);
+
+    /**
+     * Up to {@code limit} transactions sent or received by {@code accountId}, newest first,
+     * from the entries of its ledger before position {@code before}.
+     */
+    List<LedgerEntry> findByAccount(long accountId, long before, int limit);
+
+    /**
+     * Version of the whole collection; changes on every save or delete. Saved transactions
+     * are stamped with the version of their write.
+     */
+    long currentVersion();
+
+    /**
+     * Opens a consistent view of the store at {@link #currentVersion()}. Opening is cheap and
+     * does not block writers; the caller must close the snapshot to release its history.
+     */
+    TransactionSnapshot openSnapshot();
 }
@@ -0,0 +1,45 @@
+package com.hsbc.transactionmanagement.repository;
+
+import com.hsbc.transactionmanagement.model.Transaction;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Read-only view of the repository as of one collection version. Writes made after the
+ * snapshot was opened are invisible to it, so pages read from one snapshot never overlap
+ * or skip rows and agree on the total. A snapshot pins history in memory until closed.
+ */
+public interface TransactionSnapshot extends AutoCloseable {
+
+    /**
+     * The {@link TransactionRepository#currentVersion()} this snapshot reads at.
+     */
+    long version();
+
+    Optional<Transaction> findById(String id);
+
+    /**
+     * Every transaction of the snapshot, ordered by timestamp.
+     */
+    Page<Transaction> findAll(Pageable pageable);
+
+    /**
+     * Every transaction of the snapshot, in no particular order, without the cost of paging.
+     */
+    Stream<Transaction> stream();
+
+    /**
+     * Transactions with {@code from <= timestamp < to}, ordered by timestamp.
+     */
+    Page<Transaction> findByTimestampBetween(LocalDateTime from, LocalDateTime to, Pageable pageable);
+
+    /**
+     * Releases the history pinned by this snapshot. Idempotent.
+     */
+    @Override
+    void close();
+}
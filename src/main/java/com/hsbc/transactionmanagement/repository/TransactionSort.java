@@ -0,0 +1,155 @@
+package com.hsbc.transactionmanagement.repository;
+
+import com.hsbc.transactionmanagement.exceptions.TransactionValidationException;
+import com.hsbc.transactionmanagement.model.Transaction;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.PriorityQueue;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * The sorts paged listings support: by {@code amount} or {@code timestamp}, by {@code status}
+ * alone, or by {@code status} and then {@code amount} or {@code timestamp}. Status alone
+ * orders each status by timestamp. Ties are broken by transaction ID in the direction of the
+ * last order, so the order is total: a row only moves between pages when it is written.
+ * Missing values sort last, whichever the direction.
+ */
+public final class TransactionSort {
+
+    public static final String AMOUNT = "amount";
+    public static final String TIMESTAMP = "timestamp";
+    public static final String STATUS = "status";
+
+    private static final String SUPPORTED = "amount, timestamp, status, status and amount, or status and timestamp";
+
+    private TransactionSort() {
+    }
+
+    /**
+     * Parses {@code sort} request parameters in the Spring Data form
+     * {@code property(,property)*(,asc|desc)}, e.g. {@code sort=status&sort=amount,desc}.
+     * A lone parameter reaches a {@code List} already split at its commas, so a value that is
+     * only a direction applies to the single-property values before it.
+     */
+    public static Sort parse(List<String> values) {
+        if (values == null || values.isEmpty()) {
+            return Sort.unsorted();
+        }
+        List<Sort.Order> orders = new ArrayList<>();
+        // Orders still waiting for a direction
+        int undirected = 0;
+        for (String value : values) {
+            String[] parts = value.split(",");
+            if (parts.length > 1) {
+                undirected = 0;
+            }
+            for (String part : parts) {
+                String token = part.trim();
+                if (token.isEmpty()) {
+                    throw invalid("Sort properties must not be empty");
+                }
+                String direction = token.toLowerCase(Locale.ROOT);
+                if ((direction.equals("asc") || direction.equals("desc")) && undirected > 0) {
+                    for (int i = orders.size() - undirected; i < orders.size(); i++) {
+                        orders.set(i, orders.get(i).with(Sort.Direction.fromString(direction)));
+                    }
+                    undirected = 0;
+                } else {
+                    orders.add(Sort.Order.asc(token));
+                    undirected++;
+                }
+            }
+        }
+        Sort sort = Sort.by(orders);
+        orders(sort);
+        return sort;
+    }
+
+    /**
+     * The reverse of {@link #parse(List)}, for passing a sort on to another node.
+     */
+    public static List<String> format(Sort sort) {
+        return sort.stream().map(order -> order.getProperty() + "," + order.getDirection().name().toLowerCase(Locale.ROOT))
+                .toList();
+    }
+
+    public static Comparator<Transaction> comparator(Sort sort) {
+        List<Sort.Order> orders = orders(sort);
+        Comparator<Transaction> comparator = null;
+        for (Sort.Order order : orders) {
+            Comparator<Transaction> next = switch (order.getProperty()) {
+                case AMOUNT -> nullsLast(Transaction::getAmount, order.isDescending());
+                case TIMESTAMP -> nullsLast(Transaction::getTimestamp, order.isDescending());
+                default -> nullsLast(Transaction::getStatus, order.isDescending());
+            };
+            comparator = comparator == null ? next : comparator.thenComparing(next);
+        }
+        Comparator<Transaction> byId = Comparator.comparing(Transaction::getTransactionId);
+        return comparator.thenComparing(orders.get(orders.size() - 1).isDescending() ? byId.reversed() : byId);
+    }
+
+    /**
+     * Sorts {@code transactions} and cuts out one page, keeping only the rows up to the end of
+     * the page in memory. For stores without sorted indexes.
+     */
+    public static Page<Transaction> page(Stream<Transaction> transactions, Pageable pageable) {
+        Comparator<Transaction> comparator = comparator(pageable.getSort());
+        long keep = pageable.getOffset() + pageable.getPageSize();
+        // Max-heap of the first rows seen so far; its head is the first to drop
+        PriorityQueue<Transaction> first = new PriorityQueue<>(comparator.reversed());
+        long[] total = new long[1];
+        transactions.forEach(transaction -> {
+            total[0]++;
+            if (first.size() < keep) {
+                first.add(transaction);
+            } else if (comparator.compare(transaction, first.peek()) < 0) {
+                first.poll();
+                first.add(transaction);
+            }
+        });
+        List<Transaction> rows = new ArrayList<>(first);
+        rows.sort(comparator);
+        int from = (int) Math.min(pageable.getOffset(), rows.size());
+        return new PageImpl<>(rows.subList(from, rows.size()), pageable, total[0]);
+    }
+
+    /**
+     * Validates {@code sort} and spells out the implied timestamp order of a sort by status
+     * alone.
+     */
+    static List<Sort.Order> orders(Sort sort) {
+        List<Sort.Order> orders = sort.toList();
+        for (Sort.Order order : orders) {
+            if (!List.of(AMOUNT, TIMESTAMP, STATUS).contains(order.getProperty())) {
+                throw invalid("Cannot sort by " + order.getProperty());
+            }
+        }
+        if (orders.isEmpty() || orders.size() > 2
+                || orders.size() == 2 && (!orders.get(0).getProperty().equals(STATUS)
+                || orders.get(1).getProperty().equals(STATUS))) {
+            throw invalid("Transactions can be sorted by " + SUPPORTED);
+        }
+        if (orders.size() == 1 && orders.get(0).getProperty().equals(STATUS)) {
+            return List.of(orders.get(0), new Sort.Order(orders.get(0).getDirection(), TIMESTAMP));
+        }
+        return orders;
+    }
+
+    private static <T extends Comparable<? super T>> Comparator<Transaction> nullsLast(
+            Function<Transaction, T> property, boolean descending) {
+        return Comparator.comparing(property, Comparator.nullsLast(
+                descending ? Comparator.<T>reverseOrder() : Comparator.<T>naturalOrder()));
+    }
+
+    private static TransactionValidationException invalid(String message) {
+        return new TransactionValidationException(message, "INVALID_SORT");
+    }
+}
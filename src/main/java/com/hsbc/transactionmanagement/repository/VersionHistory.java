@@ -0,0 +1,174 @@
+package com.hsbc.transactionmanagement.repository;
+
+import com.hsbc.transactionmanagement.model.Transaction;
+
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.LongSupplier;
+
+/**
+ * Before-images of overwritten and deleted transactions, keyed by the version of the write
+ * that replaced them. Together with the live map this lets a reader reconstruct the store
+ * as of any pinned version without copying it.
+ * <p>
+ * Changes are also indexed by ID and version, so a reader finds the first change to an ID
+ * after its version in O(log n), and by the before-image's timestamp, so a reader walks the
+ * images in timestamp order alongside the time index instead of collecting them all.
+ * <p>
+ * History is only kept while at least one version is pinned, and is pruned up to the
+ * oldest pin whenever a pin is released. Writers never wait on readers: while nothing is
+ * pinned they do not record at all, and while something is they share a lock that only
+ * pruning takes exclusively, so no change is recorded behind a prune and left over.
+ */
+class VersionHistory {
+
+    private final ConcurrentSkipListMap<Long, Change> changes = new ConcurrentSkipListMap<>();
+    private final ConcurrentSkipListMap<IdVersion, Change> byId = new ConcurrentSkipListMap<>();
+    private final ConcurrentSkipListMap<ImageKey, Change> byTimestamp = new ConcurrentSkipListMap<>();
+    // pinned version -> number of snapshots at that version, guarded by this
+    private final TreeMap<Long, Integer> pins = new TreeMap<>();
+    private final ReadWriteLock pruneLock = new ReentrantReadWriteLock();
+    private volatile boolean recording;
+
+    /**
+     * Records the write stamped {@code version} if any version is pinned.
+     *
+     * @param before the transaction as it was before the write, or {@code null} if the ID did
+     *               not exist
+     */
+    void recordIfPinned(long version, String id, Transaction before) {
+        if (!recording) {
+            return;
+        }
+        pruneLock.readLock().lock();
+        try {
+            // Checked again: a prune that switched recording off may have run in between
+            if (recording) {
+                Change change = new Change(version, id, before);
+                changes.put(version, change);
+                byId.put(new IdVersion(id, version), change);
+                if (before != null && before.getTimestamp() != null) {
+                    byTimestamp.put(ImageKey.of(before, version), change);
+                }
+            }
+        } finally {
+            pruneLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Pins the version returned by {@code currentVersion}. Recording is switched on before the
+     * version is read, so every write stamped after it is captured.
+     */
+    synchronized long pin(LongSupplier currentVersion) {
+        recording = true;
+        long version = currentVersion.getAsLong();
+        pins.merge(version, 1, Integer::sum);
+        return version;
+    }
+
+    synchronized void unpin(long version, long currentVersion) {
+        pins.computeIfPresent(version, (key, count) -> count > 1 ? count - 1 : null);
+        pruneLock.writeLock().lock();
+        try {
+            if (pins.isEmpty()) {
+                recording = false;
+                prune(currentVersion);
+            } else {
+                // No remaining reader looks at writes up to its own pinned version
+                prune(pins.firstKey());
+            }
+        } finally {
+            pruneLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * IDs written since {@code version}.
+     */
+    Set<String> changedSince(long version) {
+        Set<String> ids = new HashSet<>();
+        for (Change change : changes.tailMap(version, false).values()) {
+            ids.add(change.id());
+        }
+        return ids;
+    }
+
+    /**
+     * The first write to {@code id} after {@code version}, or {@code null} if there was none.
+     */
+    Change firstChangeAfter(long version, String id) {
+        Map.Entry<IdVersion, Change> entry = byId.higherEntry(new IdVersion(id, version));
+        return entry != null && entry.getKey().id().equals(id) ? entry.getValue() : null;
+    }
+
+    /**
+     * The first before-image in timestamp order after {@code (timestamp, id)} and before
+     * {@code to} that is the state as of {@code version}: the image left by the first write
+     * to its ID after that version.
+     */
+    Transaction nextImageAt(long version, LocalDateTime timestamp, String id, LocalDateTime to) {
+        ImageKey after = new ImageKey(timestamp, id, Long.MAX_VALUE);
+        ImageKey end = new ImageKey(to, "", Long.MIN_VALUE);
+        for (Map.Entry<ImageKey, Change> entry : byTimestamp.subMap(after, false, end, false).entrySet()) {
+            Change change = entry.getValue();
+            if (change.version() > version && firstChangeAfter(version, change.id()) == change) {
+                return change.before();
+            }
+        }
+        return null;
+    }
+
+    int size() {
+        return changes.size();
+    }
+
+    // Caller holds the prune lock exclusively
+    private void prune(long upTo) {
+        Map<Long, Change> pruned = changes.headMap(upTo, true);
+        for (Change change : pruned.values()) {
+            byId.remove(new IdVersion(change.id(), change.version()));
+            if (change.before() != null && change.before().getTimestamp() != null) {
+                byTimestamp.remove(ImageKey.of(change.before(), change.version()));
+            }
+        }
+        pruned.clear();
+    }
+
+    record Change(long version, String id, Transaction before) {}
+
+    private record IdVersion(String id, long version) implements Comparable<IdVersion> {
+
+        private static final Comparator<IdVersion> ORDER = Comparator.comparing(IdVersion::id)
+                .thenComparingLong(IdVersion::version);
+
+        @Override
+        public int compareTo(IdVersion other) {
+            return ORDER.compare(this, other);
+        }
+    }
+
+    // Sorts like TimePartitionedIndex.TIMESTAMP_ORDER, then by the version of the write
+    private record ImageKey(LocalDateTime timestamp, String id, long version) implements Comparable<ImageKey> {
+
+        private static final Comparator<ImageKey> ORDER = Comparator.comparing(ImageKey::timestamp)
+                .thenComparing(ImageKey::id)
+                .thenComparingLong(ImageKey::version);
+
+        static ImageKey of(Transaction before, long version) {
+            return new ImageKey(before.getTimestamp(), before.getTransactionId(), version);
+        }
+
+        @Override
+        public int compareTo(ImageKey other) {
+            return ORDER.compare(this, other);
+        }
+    }
+}
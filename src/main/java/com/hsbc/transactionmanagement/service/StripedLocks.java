@@ -0,0 +1,78 @@
+package com.hsbc.transactionmanagement.service;
+
+import java.util.Collection;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Fixed pool of locks that keys are hashed onto, so per-key mutual exclusion costs no
+ * allocation and no map. Writers on keys in different stripes run in parallel.
+ * <p>
+ * Multi-key callers lock their stripes in ascending index order, each at most once. Since
+ * every caller follows the same global order, no two callers can wait on each other in a
+ * cycle.
+ */
+final class StripedLocks {
+
+    private final ReentrantLock[] stripes;
+    private final int mask;
+
+    StripedLocks(int stripeCount) {
+        if (stripeCount < 1 || Integer.bitCount(stripeCount) != 1) {
+            throw new IllegalArgumentException("Stripe count must be a positive power of two");
+        }
+        this.stripes = new ReentrantLock[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+        this.mask = stripeCount - 1;
+    }
+
+    Held lock(String key) {
+        return lockStripes(new int[] {stripeOf(key)});
+    }
+
+    /**
+     * Locks the stripes of all {@code keys}; close the returned handle to release them.
+     */
+    Held lockAll(Collection<String> keys) {
+        int[] indexes = keys.stream().mapToInt(this::stripeOf).sorted().distinct().toArray();
+        return lockStripes(indexes);
+    }
+
+    int stripeOf(String key) {
+        int hash = key.hashCode();
+        // Spread the high bits down, as HashMap does, so similar keys do not share stripes
+        return (hash ^ (hash >>> 16)) & mask;
+    }
+
+    private Held lockStripes(int[] indexes) {
+        for (int index : indexes) {
+            stripes[index].lock();
+        }
+        return new Held(indexes);
+    }
+
+    private void unlock(int[] indexes, int count) {
+        for (int i = count - 1; i >= 0; i--) {
+            stripes[indexes[i]].unlock();
+        }
+    }
+
+    final class Held implements AutoCloseable {
+
+        private final int[] indexes;
+
+        private Held(int[] indexes) {
+            this.indexes = indexes;
+        }
+
+        int stripeCount() {
+            return indexes.length;
+        }
+
+        @Override
+        public void close() {
+            unlock(indexes, indexes.length);
+        }
+    }
+}
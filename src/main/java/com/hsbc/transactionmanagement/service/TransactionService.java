@@ -1,11 +1,13 @@
 package com.hsbc.transactionmanagement.service;
 
+import com.hsbc.transactionmanagement.model.LedgerPage;
 import com.hsbc.transactionmanagement.model.Transaction;
 import com.hsbc.transactionmanagement.model.TransactionCreateRequest;
 import com.hsbc.transactionmanagement.model.TransactionUpdateRequest;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 public interface TransactionService {
@@ -13,8 +15,41 @@ public interface TransactionService {
     Transaction createTransaction(TransactionCreateRequest transactionCreateRequest) ;
     void deleteTransactionById(String id);
     Transaction updateTransaction(String id, TransactionUpdateRequest transactionUpdateRequest);
+
+    /**
+     * Moves every listed transaction to {@code status}, or none of them: if any ID is unknown
+     * or any transition is not allowed, nothing is written and all failures are reported.
+     */
+    List<Transaction> updateTransactionStatuses(List<String> ids, String status);
+
+    /**
+     * Stores the transactions of {@code batch} whose IDs are new, caching and publishing each
+     * under the same per-ID locks as a create. The batch must already be validated and
+     * admitted; IDs already stored are skipped.
+     *
+     * @return the inserted transactions, in input order
+     */
+    List<Transaction> insertAll(List<Transaction> batch);
     Transaction getTransactionById(String id);
     List<Transaction> getAllTransactions();
     Page<Transaction> getAllTransactionsPaged(Pageable pageable);
+    Page<Transaction> getTransactionsByTimeRange(LocalDateTime from, LocalDateTime to, Pageable pageable);
+    Page<Transaction> searchTransactions(String query, Pageable pageable);
+
+    /**
+     * The latest {@code limit} transactions sent or received by {@code accountId}, or the ones
+     * before {@code cursor}, the {@link LedgerPage#nextCursor()} of a previous page.
+     */
+    LedgerPage getAccountLedger(long accountId, String cursor, int limit);
+    long getCollectionVersion();
+
+    /**
+     * Pins the current collection version and returns a token for reading at it.
+     */
+    String openSnapshot();
+    long getSnapshotVersion(String snapshotToken);
+    Page<Transaction> getAllTransactionsPaged(String snapshotToken, Pageable pageable);
+    Page<Transaction> getTransactionsByTimeRange(String snapshotToken, LocalDateTime from, LocalDateTime to,
+                                                 Pageable pageable);
 
 }
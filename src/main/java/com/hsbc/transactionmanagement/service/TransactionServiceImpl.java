@@ -1,85 +1,389 @@
 package com.hsbc.transactionmanagement.service;
 
+import com.hsbc.transactionmanagement.capacity.CapacityGuard;
+import com.hsbc.transactionmanagement.diagnostics.StatusTransitionEvent;
+import com.hsbc.transactionmanagement.diagnostics.ValidationFailureEvent;
+import com.hsbc.transactionmanagement.event.TransactionEventPublisher;
+import com.hsbc.transactionmanagement.exceptions.BatchUpdateRejectedException;
 import com.hsbc.transactionmanagement.exceptions.DuplicateTransactionException;
 import com.hsbc.transactionmanagement.exceptions.TransactionNotFoundException;
+import com.hsbc.transactionmanagement.exceptions.TransactionValidationException;
+import com.hsbc.transactionmanagement.metrics.OperationTimers;
+import com.hsbc.transactionmanagement.model.LedgerEntry;
+import com.hsbc.transactionmanagement.model.LedgerPage;
 import com.hsbc.transactionmanagement.model.Transaction;
 import com.hsbc.transactionmanagement.model.TransactionCreateRequest;
 import com.hsbc.transactionmanagement.model.TransactionUpdateRequest;
 import com.hsbc.transactionmanagement.repository.TransactionRepository;
+import com.hsbc.transactionmanagement.repository.TransactionSnapshot;
+import com.hsbc.transactionmanagement.repository.TransactionSort;
+import com.hsbc.transactionmanagement.snapshot.SnapshotRegistry;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.cache.annotation.CacheEvict;
-import org.springframework.cache.annotation.CachePut;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 
 @Service
 public class TransactionServiceImpl implements TransactionService {
 
+    // Upper bound on matches collected for one search, whatever page is requested
+    static final int MAX_SEARCH_RESULTS = 1000;
+    static final int MIN_SEARCH_QUERY_LENGTH = 3;
+    static final String TRANSACTIONS_CACHE = "transactions";
+    private static final int LOCK_STRIPES = 1024;
+
+    enum Operation {
+        CREATE, UPDATE, UPDATE_STATUSES, DELETE, GET, LIST, PAGE, RANGE, SEARCH, LEDGER, SNAPSHOT_PAGE, SNAPSHOT_RANGE
+    }
+
     private final TransactionRepository transactionRepository;
+    private final TransactionEventPublisher eventPublisher;
+    private final SnapshotRegistry snapshotRegistry;
+    private final CacheManager cacheManager;
+    private final CapacityGuard capacityGuard;
+    // Serializes read-modify-write cycles per transaction ID; reads never take these
+    private final StripedLocks locks = new StripedLocks(LOCK_STRIPES);
+    private final OperationTimers<Operation> timers;
 
     @Autowired
-    public TransactionServiceImpl(TransactionRepository transactionRepository) {
+    public TransactionServiceImpl(TransactionRepository transactionRepository,
+                                  TransactionEventPublisher eventPublisher,
+                                  SnapshotRegistry snapshotRegistry,
+                                  CacheManager cacheManager,
+                                  CapacityGuard capacityGuard,
+                                  MeterRegistry meterRegistry) {
         this.transactionRepository = transactionRepository;
+        this.eventPublisher = eventPublisher;
+        this.snapshotRegistry = snapshotRegistry;
+        this.cacheManager = cacheManager;
+        this.capacityGuard = capacityGuard;
+        // Cache hits on getTransactionById never reach this class, so GET times loads only
+        this.timers = new OperationTimers<>(meterRegistry, "transaction.service",
+                "Latency of transaction service operations", Operation.class);
     }
 
 
     @Override
-    @CachePut(value = "transactions", key = "#result.transactionId")
     public Transaction createTransaction(TransactionCreateRequest transactionCreateRequest){
+        long start = System.nanoTime();
+        try {
+            capacityGuard.checkWrite();
 
-        // DTO to Domain entity and validate
-        Transaction initTransaction = transactionCreateRequest.toEntity();
+            // DTO to Domain entity and validate
+            Transaction initTransaction = transactionCreateRequest.toEntity();
 
-        initTransaction.validateBusinessRules();
+            try {
+                initTransaction.validateBusinessRules();
+            } catch (TransactionValidationException ex) {
+                ValidationFailureEvent.emit(initTransaction.getTransactionId(), ex.getErrorCode(), ex.getMessage());
+                throw ex;
+            }
 
-        if (initTransaction.getTransactionId() != null && transactionRepository.existsById(initTransaction.getTransactionId())) {
-            throw new DuplicateTransactionException(initTransaction.getTransactionId());
+            Transaction savedTransaction;
+            try (StripedLocks.Held ignored = locks.lock(initTransaction.getTransactionId())) {
+                if (transactionRepository.existsById(initTransaction.getTransactionId())) {
+                    throw new DuplicateTransactionException(initTransaction.getTransactionId());
+                }
+                savedTransaction = transactionRepository.save(initTransaction);
+                cachePut(savedTransaction);
+                eventPublisher.transactionCreated(savedTransaction);
+            }
+            return savedTransaction;
+        } finally {
+            timers.record(Operation.CREATE, start);
         }
-        return transactionRepository.save(initTransaction);
-
     }
 
 
 
     @Override
-    @CacheEvict(value = "transactions", key = "#id")
     public void deleteTransactionById(String id){
-        if (!transactionRepository.existsById(id)) {
-            throw new TransactionNotFoundException(id);
+        long start = System.nanoTime();
+        try {
+            try (StripedLocks.Held ignored = locks.lock(id)) {
+                if (!transactionRepository.existsById(id)) {
+                    throw new TransactionNotFoundException(id);
+                }
+                transactionRepository.deleteById(id);
+                cacheEvict(id);
+                eventPublisher.transactionDeleted(id);
+            }
+        } finally {
+            timers.record(Operation.DELETE, start);
         }
-        transactionRepository.deleteById(id);
     }
 
     @Override
-    @CachePut(value = "transactions", key = "#id")
     public Transaction updateTransaction(String id, TransactionUpdateRequest transactionUpdateRequest){
+        long start = System.nanoTime();
+        try {
+            String previousStatus;
+            Transaction savedTransaction;
+            try (StripedLocks.Held ignored = locks.lock(id)) {
+                Transaction currentTransaction = transactionRepository.findById(id)
+                        .orElseThrow(() -> new TransactionNotFoundException(id));
+
+                previousStatus = currentTransaction.getStatus();
+                // Stored instances are never modified in place: snapshots and caches may still hold them
+                Transaction updatedTransaction = currentTransaction.toBuilder().build();
+                try {
+                    updatedTransaction.updateStatus(transactionUpdateRequest.status());
+                } catch (TransactionValidationException ex) {
+                    ValidationFailureEvent.emit(id, ex.getErrorCode(), ex.getMessage());
+                    throw ex;
+                }
+
+                savedTransaction = transactionRepository.save(updatedTransaction);
+                cachePut(savedTransaction);
+                StatusTransitionEvent.emit(id, previousStatus, savedTransaction.getStatus());
+                eventPublisher.statusUpdated(savedTransaction, previousStatus);
+            }
+            return savedTransaction;
+        } finally {
+            timers.record(Operation.UPDATE, start);
+        }
+    }
 
-        Transaction currentTransaction = transactionRepository.findById(id)
-                .orElseThrow(() -> new TransactionNotFoundException(id));
+    @Override
+    public List<Transaction> updateTransactionStatuses(List<String> ids, String status) {
+        long start = System.nanoTime();
+        try {
+            List<String> distinctIds = ids.stream().distinct().toList();
+            List<Transaction> updated = new ArrayList<>(distinctIds.size());
+            List<String> previousStatuses = new ArrayList<>(distinctIds.size());
+            try (StripedLocks.Held ignored = locks.lockAll(distinctIds)) {
+                // Validate the whole batch before the first write, so a rejected batch changes nothing
+                List<BatchUpdateRejectedException.Failure> failures = new ArrayList<>();
+                for (String id : distinctIds) {
+                    Optional<Transaction> current = transactionRepository.findById(id);
+                    if (current.isEmpty()) {
+                        failures.add(new BatchUpdateRejectedException.Failure(
+                                id, "TRANSACTION_NOT_FOUND", "Transaction not found with ID: " + id));
+                        continue;
+                    }
+                    Transaction candidate = current.get().toBuilder().build();
+                    try {
+                        candidate.updateStatus(status);
+                    } catch (TransactionValidationException ex) {
+                        ValidationFailureEvent.emit(id, ex.getErrorCode(), ex.getMessage());
+                        failures.add(new BatchUpdateRejectedException.Failure(id, ex.getErrorCode(), ex.getMessage()));
+                        continue;
+                    }
+                    updated.add(candidate);
+                    previousStatuses.add(current.get().getStatus());
+                }
+                if (!failures.isEmpty()) {
+                    throw new BatchUpdateRejectedException(failures);
+                }
+                updated.forEach(transactionRepository::save);
+                updated.forEach(this::cachePut);
+                for (int i = 0; i < updated.size(); i++) {
+                    StatusTransitionEvent.emit(updated.get(i).getTransactionId(), previousStatuses.get(i),
+                            updated.get(i).getStatus());
+                    eventPublisher.statusUpdated(updated.get(i), previousStatuses.get(i));
+                }
+            }
+            return updated;
+        } finally {
+            timers.record(Operation.UPDATE_STATUSES, start);
+        }
+    }
+
+    @Override
+    public List<Transaction> insertAll(List<Transaction> batch) {
+        List<String> ids = batch.stream().map(Transaction::getTransactionId).toList();
+        try (StripedLocks.Held ignored = locks.lockAll(ids)) {
+            List<Transaction> inserted = transactionRepository.insertAll(batch);
+            for (Transaction transaction : inserted) {
+                cachePut(transaction);
+                eventPublisher.transactionCreated(transaction);
+            }
+            return inserted;
+        }
+    }
 
-        currentTransaction.updateStatus(transactionUpdateRequest.status());
+    // Cache writes and events happen under the write's stripe lock, so the cache and event stream
+    // see writes to one ID in the same order as the repository does
+    private void cachePut(Transaction transaction) {
+        Cache cache = cacheManager.getCache(TRANSACTIONS_CACHE);
+        if (cache != null) {
+            cache.put(transaction.getTransactionId(), transaction);
+        }
+    }
 
-        // Update currentTransaction by  transactionUpdateRequest
-        return transactionRepository.save(currentTransaction);
+    private void cacheEvict(String id) {
+        Cache cache = cacheManager.getCache(TRANSACTIONS_CACHE);
+        if (cache != null) {
+            cache.evict(id);
+        }
     }
 
     @Override
-    @Cacheable(value = "transactions", key = "#id")
+    // sync = true: N concurrent misses for one ID trigger exactly one repository load
+    @Cacheable(value = "transactions", key = "#id", sync = true)
     public Transaction getTransactionById(String id){
-        return transactionRepository.findById(id)
-                .orElseThrow(() -> new TransactionNotFoundException(id));
+        long start = System.nanoTime();
+        try {
+            return transactionRepository.findById(id)
+                    .orElseThrow(() -> new TransactionNotFoundException(id));
+        } finally {
+            timers.record(Operation.GET, start);
+        }
     }
 
     @Override
     public List<Transaction> getAllTransactions() {
-        return transactionRepository.findAll();
+        long start = System.nanoTime();
+        try {
+            return transactionRepository.findAll();
+        } finally {
+            timers.record(Operation.LIST, start);
+        }
     }
 
     @Override
     public Page<Transaction> getAllTransactionsPaged(Pageable pageable) {
-        return transactionRepository.findAll(pageable);
+        long start = System.nanoTime();
+        try {
+            return transactionRepository.findAll(pageable);
+        } finally {
+            timers.record(Operation.PAGE, start);
+        }
+    }
+
+    @Override
+    public Page<Transaction> getTransactionsByTimeRange(LocalDateTime from, LocalDateTime to, Pageable pageable) {
+        long start = System.nanoTime();
+        try {
+            validateTimeRange(from, to);
+            if (pageable.getSort().isSorted()) {
+                // The time index only yields timestamp order
+                try (Stream<Transaction> rows = transactionRepository.streamByTimestampBetween(from, to)) {
+                    return TransactionSort.page(rows, pageable);
+                }
+            }
+            return transactionRepository.findByTimestampBetween(from, to, pageable);
+        } finally {
+            timers.record(Operation.RANGE, start);
+        }
+    }
+
+    @Override
+    public Page<Transaction> searchTransactions(String query, Pageable pageable) {
+        long start = System.nanoTime();
+        try {
+            String trimmed = query == null ? "" : query.trim();
+            if (trimmed.length() < MIN_SEARCH_QUERY_LENGTH) {
+                throw new TransactionValidationException(
+                        "Search query must contain at least " + MIN_SEARCH_QUERY_LENGTH + " characters",
+                        "INVALID_SEARCH_QUERY"
+                );
+            }
+            List<Transaction> matches = transactionRepository.search(trimmed, MAX_SEARCH_RESULTS);
+            int from = (int) Math.min(pageable.getOffset(), matches.size());
+            int to = Math.min(from + pageable.getPageSize(), matches.size());
+            return new PageImpl<>(matches.subList(from, to), pageable, matches.size());
+        } finally {
+            timers.record(Operation.SEARCH, start);
+        }
+    }
+
+    /**
+     * The cursor is the ledger position of the last entry returned, so later pages are not
+     * shifted by transactions added in the meantime.
+     */
+    @Override
+    public LedgerPage getAccountLedger(long accountId, String cursor, int limit) {
+        long start = System.nanoTime();
+        try {
+            long before = cursor == null ? Long.MAX_VALUE : ledgerPosition(cursor);
+            // One extra entry tells whether there is a next page
+            List<LedgerEntry> entries = transactionRepository.findByAccount(accountId, before, limit + 1);
+            if (entries.size() <= limit) {
+                return new LedgerPage(accountId, entries, null);
+            }
+            List<LedgerEntry> page = entries.subList(0, limit);
+            return new LedgerPage(accountId, List.copyOf(page), String.valueOf(page.get(limit - 1).position()));
+        } finally {
+            timers.record(Operation.LEDGER, start);
+        }
+    }
+
+    @Override
+    public long getCollectionVersion() {
+        return transactionRepository.currentVersion();
+    }
+
+    @Override
+    public String openSnapshot() {
+        return snapshotRegistry.open();
+    }
+
+    @Override
+    public long getSnapshotVersion(String snapshotToken) {
+        return snapshotRegistry.get(snapshotToken).version();
+    }
+
+    @Override
+    public Page<Transaction> getAllTransactionsPaged(String snapshotToken, Pageable pageable) {
+        long start = System.nanoTime();
+        try {
+            TransactionSnapshot snapshot = snapshotRegistry.get(snapshotToken);
+            // Snapshots keep no sorted indexes of their own
+            return pageable.getSort().isSorted()
+                    ? TransactionSort.page(snapshot.stream(), pageable)
+                    : snapshot.findAll(pageable);
+        } finally {
+            timers.record(Operation.SNAPSHOT_PAGE, start);
+        }
+    }
+
+    @Override
+    public Page<Transaction> getTransactionsByTimeRange(String snapshotToken, LocalDateTime from, LocalDateTime to,
+                                                        Pageable pageable) {
+        long start = System.nanoTime();
+        try {
+            validateTimeRange(from, to);
+            TransactionSnapshot snapshot = snapshotRegistry.get(snapshotToken);
+            if (pageable.getSort().isSorted()) {
+                return TransactionSort.page(snapshot.stream().filter(transaction -> transaction.getTimestamp() != null
+                        && !transaction.getTimestamp().isBefore(from)
+                        && transaction.getTimestamp().isBefore(to)), pageable);
+            }
+            return snapshot.findByTimestampBetween(from, to, pageable);
+        } finally {
+            timers.record(Operation.SNAPSHOT_RANGE, start);
+        }
+    }
+
+    private static void validateTimeRange(LocalDateTime from, LocalDateTime to) {
+        if (from == null || to == null || !from.isBefore(to)) {
+            throw new TransactionValidationException(
+                    "Time range start must be before its end",
+                    "INVALID_TIME_RANGE"
+            );
+        }
+    }
+
+    private static long ledgerPosition(String cursor) {
+        try {
+            long position = Long.parseLong(cursor);
+            if (position >= 0) {
+                return position;
+            }
+        } catch (NumberFormatException ignored) {
+            // Reported below
+        }
+        throw new TransactionValidationException("Invalid ledger cursor: " + cursor, "INVALID_CURSOR");
     }
 }
@@ -0,0 +1,78 @@
+package com.hsbc.transactionmanagement.snapshot;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.github.benmanes.caffeine.cache.Scheduler;
+import com.hsbc.transactionmanagement.exceptions.SnapshotExpiredException;
+import com.hsbc.transactionmanagement.repository.TransactionRepository;
+import com.hsbc.transactionmanagement.repository.TransactionSnapshot;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.UUID;
+
+/**
+ * Open repository snapshots, addressed by an opaque token that clients send back to keep
+ * reading the same version.
+ * <p>
+ * A snapshot holds the history of every write made after it in memory, so snapshots expire
+ * after a period without reads, and after a maximum lifetime however often they are read,
+ * and the oldest are evicted beyond a fixed count. Either way the snapshot is closed and its
+ * history released; clients then get {@link SnapshotExpiredException} and have to start over.
+ */
+@Component
+public class SnapshotRegistry {
+
+    private final TransactionRepository transactionRepository;
+    private final Cache<String, TransactionSnapshot> snapshots;
+
+    public SnapshotRegistry(TransactionRepository transactionRepository,
+                            @Value("${transaction.snapshot.ttl:PT5M}") Duration ttl,
+                            @Value("${transaction.snapshot.max-lifetime:PT1H}") Duration maxLifetime,
+                            @Value("${transaction.snapshot.max-open:1000}") long maxOpen) {
+        this.transactionRepository = transactionRepository;
+        this.snapshots = Caffeine.newBuilder()
+                .expireAfterAccess(ttl)
+                // Snapshots are written once, so this bounds how long a polling client can pin history
+                .expireAfterWrite(maxLifetime)
+                .maximumSize(maxOpen)
+                // Expire idle snapshots on time rather than on the next registry access
+                .scheduler(Scheduler.systemScheduler())
+                .removalListener((String token, TransactionSnapshot snapshot, RemovalCause cause) -> {
+                    if (snapshot != null) {
+                        snapshot.close();
+                    }
+                })
+                .build();
+    }
+
+    public String open() {
+        TransactionSnapshot snapshot = transactionRepository.openSnapshot();
+        String token = UUID.randomUUID().toString();
+        snapshots.put(token, snapshot);
+        return token;
+    }
+
+    /**
+     * @throws SnapshotExpiredException if the token is unknown or its snapshot has expired
+     */
+    public TransactionSnapshot get(String token) {
+        TransactionSnapshot snapshot = snapshots.getIfPresent(token);
+        if (snapshot == null) {
+            throw new SnapshotExpiredException(token);
+        }
+        return snapshot;
+    }
+
+    public long size() {
+        return snapshots.estimatedSize();
+    }
+
+    @PreDestroy
+    void closeAll() {
+        snapshots.invalidateAll();
+    }
+}
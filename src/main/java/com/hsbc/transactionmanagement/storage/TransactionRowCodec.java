@@ -0,0 +1,134 @@
+package com.hsbc.transactionmanagement.storage;
+
+import com.hsbc.transactionmanagement.model.Transaction;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.EOFException;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Compact binary form of a single {@link Transaction}, for streaming rows one at a time
+ * where the columnar format's row groups would only add latency.
+ * <p>
+ * Layout: a bitmask of the fields that are present, then each present field in declaration
+ * order, then the number of status history entries and the packed entries. The repository
+ * version is not written, since the receiving store stamps its own.
+ */
+public final class TransactionRowCodec {
+
+    private static final int AMOUNT = 1;
+    private static final int CURRENCY = 1 << 1;
+    private static final int TIMESTAMP = 1 << 2;
+    private static final int DESCRIPTION = 1 << 3;
+    private static final int STATUS = 1 << 4;
+    private static final int SENDER = 1 << 5;
+    private static final int RECEIVER = 1 << 6;
+    private static final int REFERENCE = 1 << 7;
+
+    private TransactionRowCodec() {
+    }
+
+    public static void write(DataOutput out, Transaction transaction) throws IOException {
+        int present = (transaction.getAmount() != null ? AMOUNT : 0)
+                | (transaction.getCurrency() != null ? CURRENCY : 0)
+                | (transaction.getTimestamp() != null ? TIMESTAMP : 0)
+                | (transaction.getDescription() != null ? DESCRIPTION : 0)
+                | (transaction.getStatus() != null ? STATUS : 0)
+                | (transaction.getSenderAccountId() != null ? SENDER : 0)
+                | (transaction.getReceiverAccountId() != null ? RECEIVER : 0)
+                | (transaction.getReferenceNumber() != null ? REFERENCE : 0);
+        out.writeByte(present);
+        out.writeUTF(transaction.getTransactionId());
+        if ((present & AMOUNT) != 0) {
+            byte[] unscaled = transaction.getAmount().unscaledValue().toByteArray();
+            out.writeInt(transaction.getAmount().scale());
+            out.writeShort(unscaled.length);
+            out.write(unscaled);
+        }
+        if ((present & CURRENCY) != 0) {
+            out.writeUTF(transaction.getCurrency());
+        }
+        if ((present & TIMESTAMP) != 0) {
+            out.writeLong(transaction.getTimestamp().toEpochSecond(ZoneOffset.UTC));
+            out.writeInt(transaction.getTimestamp().getNano());
+        }
+        if ((present & DESCRIPTION) != 0) {
+            out.writeUTF(transaction.getDescription());
+        }
+        if ((present & STATUS) != 0) {
+            out.writeUTF(transaction.getStatus());
+        }
+        if ((present & SENDER) != 0) {
+            out.writeLong(transaction.getSenderAccountId());
+        }
+        if ((present & RECEIVER) != 0) {
+            out.writeLong(transaction.getReceiverAccountId());
+        }
+        if ((present & REFERENCE) != 0) {
+            out.writeUTF(transaction.getReferenceNumber());
+        }
+        long[] history = transaction.getStatusHistory();
+        out.writeByte(history == null ? 0 : history.length);
+        if (history != null) {
+            for (long entry : history) {
+                out.writeLong(entry);
+            }
+        }
+    }
+
+    public static Transaction read(DataInput in) throws IOException {
+        int present = in.readUnsignedByte();
+        Transaction.TransactionBuilder builder = Transaction.builder().transactionId(in.readUTF());
+        if ((present & AMOUNT) != 0) {
+            int scale = in.readInt();
+            byte[] unscaled = new byte[in.readUnsignedShort()];
+            in.readFully(unscaled);
+            builder.amount(new BigDecimal(new BigInteger(unscaled), scale));
+        }
+        if ((present & CURRENCY) != 0) {
+            builder.currency(in.readUTF());
+        }
+        if ((present & TIMESTAMP) != 0) {
+            builder.timestamp(LocalDateTime.ofEpochSecond(in.readLong(), in.readInt(), ZoneOffset.UTC));
+        }
+        if ((present & DESCRIPTION) != 0) {
+            builder.description(in.readUTF());
+        }
+        if ((present & STATUS) != 0) {
+            builder.status(in.readUTF());
+        }
+        if ((present & SENDER) != 0) {
+            builder.senderAccountId(in.readLong());
+        }
+        if ((present & RECEIVER) != 0) {
+            builder.receiverAccountId(in.readLong());
+        }
+        if ((present & REFERENCE) != 0) {
+            builder.referenceNumber(in.readUTF());
+        }
+        return builder.statusHistory(readHistory(in)).build();
+    }
+
+    private static long[] readHistory(DataInput in) throws IOException {
+        int length;
+        try {
+            length = in.readUnsignedByte();
+        } catch (EOFException ex) {
+            // Rows written before histories were kept end here
+            return null;
+        }
+        if (length == 0) {
+            return null;
+        }
+        long[] history = new long[length];
+        for (int i = 0; i < length; i++) {
+            history[i] = in.readLong();
+        }
+        return history;
+    }
+}
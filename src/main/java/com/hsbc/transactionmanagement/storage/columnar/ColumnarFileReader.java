@@ -0,0 +1,108 @@
+package com.hsbc.transactionmanagement.storage.columnar;
+
+import com.hsbc.transactionmanagement.model.Transaction;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Reads files written by {@link ColumnarFileWriter}. Only the footer is loaded up front;
+ * the file is memory-mapped once and row groups are decoded on demand from slices of it.
+ */
+public final class ColumnarFileReader implements Closeable {
+
+    private static final int TRAILER_LENGTH = Long.BYTES + 4;
+
+    private final FileChannel channel;
+    private final List<RowGroupInfo> rowGroups;
+    // The whole file, or null past the 2 GB a single mapping can hold
+    private final ByteBuffer mapped;
+
+    private ColumnarFileReader(FileChannel channel, List<RowGroupInfo> rowGroups, ByteBuffer mapped) {
+        this.channel = channel;
+        this.rowGroups = rowGroups;
+        this.mapped = mapped;
+    }
+
+    public static ColumnarFileReader open(Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            long size = channel.size();
+            if (size < ColumnarFileWriter.MAGIC.length + TRAILER_LENGTH) {
+                throw new IOException("Not a columnar transaction file: " + file);
+            }
+            ByteBuffer trailer = ByteBuffer.allocate(TRAILER_LENGTH);
+            channel.read(trailer, size - TRAILER_LENGTH);
+            trailer.flip();
+            long footerOffset = trailer.getLong();
+            byte[] magic = new byte[4];
+            trailer.get(magic);
+            if (!Arrays.equals(magic, ColumnarFileWriter.MAGIC)) {
+                throw new IOException("Not a columnar transaction file: " + file);
+            }
+            ByteBuffer footer = channel.map(FileChannel.MapMode.READ_ONLY, footerOffset,
+                    size - TRAILER_LENGTH - footerOffset);
+            int groupCount = footer.getInt();
+            List<RowGroupInfo> rowGroups = new ArrayList<>(groupCount);
+            for (int i = 0; i < groupCount; i++) {
+                rowGroups.add(new RowGroupInfo(footer.getLong(), footer.getInt(), footer.getInt(),
+                        readUtf(footer), readUtf(footer), footer.getLong(), footer.getLong()));
+            }
+            ByteBuffer mapped = size <= Integer.MAX_VALUE ? channel.map(FileChannel.MapMode.READ_ONLY, 0, size) : null;
+            return new ColumnarFileReader(channel, Collections.unmodifiableList(rowGroups), mapped);
+        } catch (IOException | RuntimeException ex) {
+            channel.close();
+            throw ex;
+        }
+    }
+
+    public List<RowGroupInfo> getRowGroups() {
+        return rowGroups;
+    }
+
+    public long getRowCount() {
+        return rowGroups.stream().mapToLong(RowGroupInfo::rowCount).sum();
+    }
+
+    public List<Transaction> readRowGroup(RowGroupInfo rowGroup) throws IOException {
+        if (mapped != null) {
+            return RowGroupCodec.decode(mapped.slice((int) rowGroup.offset(), rowGroup.length()));
+        }
+        return RowGroupCodec.decode(channel.map(FileChannel.MapMode.READ_ONLY, rowGroup.offset(), rowGroup.length()));
+    }
+
+    /** All rows, one row group in memory at a time. */
+    public Stream<Transaction> stream() {
+        return rowGroups.stream()
+                .flatMap(rowGroup -> {
+                    try {
+                        return readRowGroup(rowGroup).stream();
+                    } catch (IOException ex) {
+                        throw new UncheckedIOException(ex);
+                    }
+                });
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private static String readUtf(ByteBuffer in) {
+        int length = Short.toUnsignedInt(in.getShort());
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
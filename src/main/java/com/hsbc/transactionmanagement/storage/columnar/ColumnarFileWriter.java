@@ -0,0 +1,88 @@
+package com.hsbc.transactionmanagement.storage.columnar;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Appends encoded row groups to a stream and finishes it with a footer that locates them.
+ * <p>
+ * Layout: the {@link #MAGIC} header, the row groups back to back, the footer (one
+ * {@link RowGroupInfo} per group), then the footer offset and the magic again. The stream
+ * is written strictly sequentially, so it can go straight to an HTTP response.
+ */
+public final class ColumnarFileWriter implements Closeable {
+
+    static final byte[] MAGIC = {'T', 'X', 'C', '1'};
+    public static final String MEDIA_TYPE = "application/vnd.hsbc.transactions.columnar";
+    public static final String FILE_EXTENSION = ".txc";
+
+    private final OutputStream out;
+    private final List<RowGroupInfo> rowGroups = new ArrayList<>();
+    private long position;
+    private long rowCount;
+    private boolean closed;
+
+    public ColumnarFileWriter(OutputStream out) throws IOException {
+        this.out = out;
+        this.out.write(MAGIC);
+        this.position = MAGIC.length;
+    }
+
+    public void write(EncodedRowGroup rowGroup) throws IOException {
+        out.write(rowGroup.data());
+        rowGroups.add(new RowGroupInfo(position, rowGroup.data().length, rowGroup.rowCount(), rowGroup.minId(),
+                rowGroup.maxId(), rowGroup.minEpochSecond(), rowGroup.maxEpochSecond()));
+        position += rowGroup.data().length;
+        rowCount += rowGroup.rowCount();
+    }
+
+    public long getRowCount() {
+        return rowCount;
+    }
+
+    /** Bytes written so far; the final size once the writer is closed. */
+    public long getPosition() {
+        return position;
+    }
+
+    /** Writes the footer and closes the underlying stream. Later calls do nothing. */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        ByteArrayOutputStream footerBytes = new ByteArrayOutputStream(64 + rowGroups.size() * 64);
+        DataOutputStream footer = new DataOutputStream(footerBytes);
+        footer.writeInt(rowGroups.size());
+        for (RowGroupInfo rowGroup : rowGroups) {
+            footer.writeLong(rowGroup.offset());
+            footer.writeInt(rowGroup.length());
+            footer.writeInt(rowGroup.rowCount());
+            writeUtf(footer, rowGroup.minId());
+            writeUtf(footer, rowGroup.maxId());
+            footer.writeLong(rowGroup.minEpochSecond());
+            footer.writeLong(rowGroup.maxEpochSecond());
+        }
+        footer.writeLong(position);
+        footer.write(MAGIC);
+        footerBytes.writeTo(out);
+        position += footerBytes.size();
+        out.close();
+    }
+
+    private static void writeUtf(DataOutputStream footer, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > 0xFFFF) {
+            throw new IOException("Transaction ID too long for a columnar footer");
+        }
+        footer.writeShort(bytes.length);
+        footer.write(bytes);
+    }
+}
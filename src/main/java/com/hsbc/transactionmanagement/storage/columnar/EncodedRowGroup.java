@@ -0,0 +1,19 @@
+package com.hsbc.transactionmanagement.storage.columnar;
+
+/**
+ * One compressed row group, ready to be appended to a columnar file.
+ *
+ * @param minId smallest transaction ID in the group
+ * @param maxId largest transaction ID in the group
+ * @param minEpochSecond earliest timestamp (UTC epoch seconds), {@link Long#MAX_VALUE} if none is set
+ * @param maxEpochSecond latest timestamp (UTC epoch seconds), {@link Long#MIN_VALUE} if none is set
+ */
+public record EncodedRowGroup(
+        byte[] data,
+        int rowCount,
+        String minId,
+        String maxId,
+        long minEpochSecond,
+        long maxEpochSecond
+) {
+}
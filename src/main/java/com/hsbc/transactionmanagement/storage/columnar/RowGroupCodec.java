@@ -0,0 +1,253 @@
+package com.hsbc.transactionmanagement.storage.columnar;
+
+import com.hsbc.transactionmanagement.model.Transaction;
+
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Encodes a batch of transactions column by column.
+ * <p>
+ * Each column is written separately and deflated on its own, so values of one type sit
+ * next to each other: amounts as scale plus unscaled value, timestamps as deltas from the
+ * previous row, account IDs as zig-zag varints, currency and status as codes into a
+ * per-group dictionary, and status histories as varints of their packed entries. Row groups
+ * written before the history column existed still decode. Row groups are self-contained,
+ * so they can be encoded and decoded independently and in parallel.
+ */
+public final class RowGroupCodec {
+
+    private static final int COLUMN_COUNT = 11;
+    // Row groups written before status histories were kept
+    private static final int COLUMN_COUNT_WITHOUT_HISTORY = 10;
+
+    private RowGroupCodec() {
+    }
+
+    public static EncodedRowGroup encode(List<Transaction> rows) {
+        int rowCount = rows.size();
+        ColumnBuffer ids = new ColumnBuffer(rowCount * 12);
+        ColumnBuffer amounts = new ColumnBuffer(rowCount * 6);
+        ColumnBuffer currencies = new ColumnBuffer(rowCount + 32);
+        ColumnBuffer timestamps = new ColumnBuffer(rowCount * 4);
+        ColumnBuffer descriptions = new ColumnBuffer(rowCount * 24);
+        ColumnBuffer statuses = new ColumnBuffer(rowCount + 32);
+        ColumnBuffer senders = new ColumnBuffer(rowCount * 4);
+        ColumnBuffer receivers = new ColumnBuffer(rowCount * 4);
+        ColumnBuffer references = new ColumnBuffer(rowCount * 12);
+        ColumnBuffer versions = new ColumnBuffer(rowCount * 4);
+        ColumnBuffer histories = new ColumnBuffer(rowCount * 8);
+        Dictionary currencyDictionary = new Dictionary();
+        Dictionary statusDictionary = new Dictionary();
+
+        String minId = null;
+        String maxId = null;
+        long minEpochSecond = Long.MAX_VALUE;
+        long maxEpochSecond = Long.MIN_VALUE;
+        long previousEpochSecond = 0;
+        for (Transaction row : rows) {
+            String id = row.getTransactionId();
+            ids.writeString(id);
+            if (minId == null || id.compareTo(minId) < 0) {
+                minId = id;
+            }
+            if (maxId == null || id.compareTo(maxId) > 0) {
+                maxId = id;
+            }
+            amounts.writeDecimal(row.getAmount());
+            currencies.writeVarLong(currencyDictionary.code(row.getCurrency()));
+            LocalDateTime timestamp = row.getTimestamp();
+            if (timestamp == null) {
+                timestamps.writeByte(0);
+            } else {
+                long epochSecond = timestamp.toEpochSecond(ZoneOffset.UTC);
+                timestamps.writeByte(1);
+                timestamps.writeZigZag(epochSecond - previousEpochSecond);
+                timestamps.writeVarLong(timestamp.getNano());
+                previousEpochSecond = epochSecond;
+                minEpochSecond = Math.min(minEpochSecond, epochSecond);
+                maxEpochSecond = Math.max(maxEpochSecond, epochSecond);
+            }
+            descriptions.writeString(row.getDescription());
+            statuses.writeVarLong(statusDictionary.code(row.getStatus()));
+            senders.writeNullableLong(row.getSenderAccountId());
+            receivers.writeNullableLong(row.getReceiverAccountId());
+            references.writeString(row.getReferenceNumber());
+            versions.writeVarLong(row.getVersion());
+            long[] history = row.getStatusHistory();
+            histories.writeVarLong(history == null ? 0 : history.length);
+            if (history != null) {
+                for (long entry : history) {
+                    histories.writeVarLong(entry);
+                }
+            }
+        }
+
+        ColumnBuffer out = new ColumnBuffer(rowCount * 32);
+        out.writeVarLong(rowCount);
+        out.writeVarLong(COLUMN_COUNT);
+        Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION);
+        try {
+            for (ColumnBuffer column : List.of(ids, amounts, currencyDictionary.prepend(currencies), timestamps,
+                    descriptions, statusDictionary.prepend(statuses), senders, receivers, references, versions,
+                    histories)) {
+                writeCompressed(out, column, deflater);
+            }
+        } finally {
+            deflater.end();
+        }
+        byte[] data = Arrays.copyOf(out.array(), out.size());
+        return new EncodedRowGroup(data, rowCount, minId == null ? "" : minId, maxId == null ? "" : maxId,
+                minEpochSecond, maxEpochSecond);
+    }
+
+    public static List<Transaction> decode(ByteBuffer data) {
+        int rowCount = (int) ColumnBuffer.readVarLong(data);
+        int columnCount = (int) ColumnBuffer.readVarLong(data);
+        if (columnCount != COLUMN_COUNT && columnCount != COLUMN_COUNT_WITHOUT_HISTORY) {
+            throw new IllegalStateException("Unsupported row group with " + columnCount + " columns");
+        }
+        ByteBuffer[] columns = new ByteBuffer[columnCount];
+        Inflater inflater = new Inflater();
+        try {
+            for (int i = 0; i < columnCount; i++) {
+                columns[i] = readCompressed(data, inflater);
+            }
+        } finally {
+            inflater.end();
+        }
+        List<String> currencyDictionary = Dictionary.read(columns[2]);
+        List<String> statusDictionary = Dictionary.read(columns[5]);
+
+        List<Transaction> rows = new ArrayList<>(rowCount);
+        long previousEpochSecond = 0;
+        for (int i = 0; i < rowCount; i++) {
+            LocalDateTime timestamp = null;
+            if (columns[3].get() != 0) {
+                long epochSecond = previousEpochSecond + ColumnBuffer.readZigZag(columns[3]);
+                int nanos = (int) ColumnBuffer.readVarLong(columns[3]);
+                timestamp = LocalDateTime.ofEpochSecond(epochSecond, nanos, ZoneOffset.UTC);
+                previousEpochSecond = epochSecond;
+            }
+            Transaction row = Transaction.builder()
+                    .transactionId(ColumnBuffer.readString(columns[0]))
+                    .amount(ColumnBuffer.readDecimal(columns[1]))
+                    .currency(Dictionary.lookup(currencyDictionary, columns[2]))
+                    .timestamp(timestamp)
+                    .description(ColumnBuffer.readString(columns[4]))
+                    .status(Dictionary.lookup(statusDictionary, columns[5]))
+                    .senderAccountId(ColumnBuffer.readNullableLong(columns[6]))
+                    .receiverAccountId(ColumnBuffer.readNullableLong(columns[7]))
+                    .referenceNumber(ColumnBuffer.readString(columns[8]))
+                    .version(ColumnBuffer.readVarLong(columns[9]))
+                    .statusHistory(columnCount == COLUMN_COUNT ? readHistory(columns[10]) : null)
+                    .build();
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    private static long[] readHistory(ByteBuffer column) {
+        int length = (int) ColumnBuffer.readVarLong(column);
+        if (length == 0) {
+            return null;
+        }
+        long[] history = new long[length];
+        for (int i = 0; i < length; i++) {
+            history[i] = ColumnBuffer.readVarLong(column);
+        }
+        return history;
+    }
+
+    private static void writeCompressed(ColumnBuffer out, ColumnBuffer column, Deflater deflater) {
+        deflater.reset();
+        deflater.setInput(column.array(), 0, column.size());
+        deflater.finish();
+        byte[] compressed = new byte[Math.max(64, column.size() + column.size() / 16 + 64)];
+        int length = 0;
+        while (!deflater.finished()) {
+            if (length == compressed.length) {
+                compressed = Arrays.copyOf(compressed, compressed.length * 2);
+            }
+            length += deflater.deflate(compressed, length, compressed.length - length);
+        }
+        out.writeVarLong(column.size());
+        out.writeVarLong(length);
+        out.writeBytes(compressed, 0, length);
+    }
+
+    private static ByteBuffer readCompressed(ByteBuffer data, Inflater inflater) {
+        int rawLength = (int) ColumnBuffer.readVarLong(data);
+        int compressedLength = (int) ColumnBuffer.readVarLong(data);
+        ByteBuffer compressed = data.slice(data.position(), compressedLength);
+        data.position(data.position() + compressedLength);
+        byte[] raw = new byte[rawLength];
+        inflater.reset();
+        inflater.setInput(compressed);
+        try {
+            int read = 0;
+            while (read < rawLength) {
+                int n = inflater.inflate(raw, read, rawLength - read);
+                if (n == 0 && (inflater.finished() || inflater.needsInput())) {
+                    break;
+                }
+                read += n;
+            }
+            if (read != rawLength) {
+                throw new IllegalStateException("Truncated column in columnar data");
+            }
+        } catch (DataFormatException ex) {
+            throw new IllegalStateException("Corrupt column in columnar data", ex);
+        }
+        return ByteBuffer.wrap(raw);
+    }
+
+    /** Per-group dictionary for low-cardinality strings; code 0 is {@code null}. */
+    private static final class Dictionary {
+
+        private final Map<String, Integer> codes = new HashMap<>();
+        private final List<String> values = new ArrayList<>();
+
+        int code(String value) {
+            if (value == null) {
+                return 0;
+            }
+            return codes.computeIfAbsent(value, key -> {
+                values.add(key);
+                return values.size();
+            });
+        }
+
+        /** The column with the dictionary entries in front of the codes. */
+        ColumnBuffer prepend(ColumnBuffer codesColumn) {
+            ColumnBuffer column = new ColumnBuffer(codesColumn.size() + values.size() * 8 + 8);
+            column.writeVarLong(values.size());
+            values.forEach(column::writeString);
+            column.writeBytes(codesColumn.array(), 0, codesColumn.size());
+            return column;
+        }
+
+        static List<String> read(ByteBuffer column) {
+            int size = (int) ColumnBuffer.readVarLong(column);
+            List<String> values = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                values.add(ColumnBuffer.readString(column));
+            }
+            return values;
+        }
+
+        static String lookup(List<String> dictionary, ByteBuffer column) {
+            int code = (int) ColumnBuffer.readVarLong(column);
+            return code == 0 ? null : dictionary.get(code - 1);
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.hsbc.transactionmanagement.storage.columnar;
+
+/**
+ * Footer entry locating one row group in a columnar file, with the statistics readers use
+ * to skip groups without decoding them.
+ */
+public record RowGroupInfo(
+        long offset,
+        int length,
+        int rowCount,
+        String minId,
+        String maxId,
+        long minEpochSecond,
+        long maxEpochSecond
+) {
+
+    public boolean mayContainId(String id) {
+        return minId.compareTo(id) <= 0 && maxId.compareTo(id) >= 0;
+    }
+
+    /** Whether the group may hold a timestamp in {@code [fromEpochSecond, toEpochSecond)}. */
+    public boolean mayOverlap(long fromEpochSecond, long toEpochSecond) {
+        return minEpochSecond < toEpochSecond && maxEpochSecond >= fromEpochSecond;
+    }
+}
@@ -0,0 +1,117 @@
+package com.hsbc.transactionmanagement.storage.lsm;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * One decoded data block of a table: records sorted by internal key, each stored as
+ * {@code keyLength, key, valueLength, value} with a value length of -1 for a tombstone.
+ * Record offsets are found once when the block is loaded, so lookups binary-search it.
+ */
+final class Block {
+
+    private static final int TOMBSTONE_LENGTH = -1;
+
+    private final byte[] data;
+    private final int[] offsets;
+
+    private Block(byte[] data, int[] offsets) {
+        this.data = data;
+        this.offsets = offsets;
+    }
+
+    static Block parse(byte[] data) {
+        int count = 0;
+        int[] offsets = new int[16];
+        int position = 0;
+        while (position < data.length) {
+            if (count == offsets.length) {
+                offsets = Arrays.copyOf(offsets, count * 2);
+            }
+            offsets[count++] = position;
+            int keyLength = readInt(data, position);
+            int valueLength = readInt(data, position + 4 + keyLength);
+            position += 8 + keyLength + Math.max(0, valueLength);
+        }
+        return new Block(data, Arrays.copyOf(offsets, count));
+    }
+
+    /**
+     * Appends a record in block format to {@code out}.
+     */
+    static void write(DataOutput out, Record record) throws IOException {
+        out.writeInt(record.internalKey().length);
+        out.write(record.internalKey());
+        if (record.isTombstone()) {
+            out.writeInt(TOMBSTONE_LENGTH);
+        } else {
+            out.writeInt(record.value().length);
+            out.write(record.value());
+        }
+    }
+
+    static int encodedSize(Record record) {
+        return 8 + record.internalKey().length + (record.isTombstone() ? 0 : record.value().length);
+    }
+
+    int size() {
+        return offsets.length;
+    }
+
+    Record record(int index) {
+        int position = offsets[index];
+        int keyLength = readInt(data, position);
+        byte[] key = Arrays.copyOfRange(data, position + 4, position + 4 + keyLength);
+        int valueLength = readInt(data, position + 4 + keyLength);
+        int valueStart = position + 8 + keyLength;
+        return new Record(key, valueLength == TOMBSTONE_LENGTH
+                ? Record.TOMBSTONE
+                : Arrays.copyOfRange(data, valueStart, valueStart + valueLength));
+    }
+
+    /**
+     * Index of the first record at or after {@code internalKey}, or {@link #size()} if none.
+     */
+    int seek(byte[] internalKey) {
+        int low = 0;
+        int high = offsets.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (compareAt(mid, internalKey) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Approximate heap held, for the block cache's weigher.
+     */
+    int weight() {
+        return data.length + offsets.length * Integer.BYTES + 32;
+    }
+
+    private int compareAt(int index, byte[] internalKey) {
+        int keyStart = offsets[index] + 4;
+        int keyLength = readInt(data, offsets[index]);
+        int userLength = keyLength - InternalKeys.SEQUENCE_BYTES;
+        int byKey = Arrays.compareUnsigned(data, keyStart, keyStart + userLength,
+                internalKey, 0, internalKey.length - InternalKeys.SEQUENCE_BYTES);
+        if (byKey != 0) {
+            return byKey;
+        }
+        long sequence = 0;
+        for (int i = keyStart + userLength; i < keyStart + keyLength; i++) {
+            sequence = (sequence << 8) | (data[i] & 0xFF);
+        }
+        return Long.compare(InternalKeys.sequence(internalKey), sequence);
+    }
+
+    private static int readInt(byte[] data, int position) {
+        return ((data[position] & 0xFF) << 24) | ((data[position + 1] & 0xFF) << 16)
+                | ((data[position + 2] & 0xFF) << 8) | (data[position + 3] & 0xFF);
+    }
+}
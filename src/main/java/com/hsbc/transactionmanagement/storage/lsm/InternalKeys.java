@@ -0,0 +1,55 @@
+package com.hsbc.transactionmanagement.storage.lsm;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * Keys as the engine stores them: the caller's key followed by the 8-byte sequence number
+ * of the write. They sort by user key, then newest first, so the first entry at or after
+ * {@code (key, s)} is the version of {@code key} visible at sequence {@code s}.
+ */
+final class InternalKeys {
+
+    static final int SEQUENCE_BYTES = Long.BYTES;
+
+    static final Comparator<byte[]> ORDER = InternalKeys::compare;
+
+    private InternalKeys() {
+    }
+
+    static byte[] of(byte[] userKey, long sequence) {
+        byte[] key = Arrays.copyOf(userKey, userKey.length + SEQUENCE_BYTES);
+        for (int i = 0; i < SEQUENCE_BYTES; i++) {
+            key[userKey.length + i] = (byte) (sequence >>> (56 - 8 * i));
+        }
+        return key;
+    }
+
+    static int compare(byte[] a, byte[] b) {
+        int byKey = Arrays.compareUnsigned(a, 0, a.length - SEQUENCE_BYTES, b, 0, b.length - SEQUENCE_BYTES);
+        return byKey != 0 ? byKey : Long.compare(sequence(b), sequence(a));
+    }
+
+    static long sequence(byte[] internalKey) {
+        long sequence = 0;
+        for (int i = internalKey.length - SEQUENCE_BYTES; i < internalKey.length; i++) {
+            sequence = (sequence << 8) | (internalKey[i] & 0xFF);
+        }
+        return sequence;
+    }
+
+    static byte[] userKey(byte[] internalKey) {
+        return Arrays.copyOf(internalKey, internalKey.length - SEQUENCE_BYTES);
+    }
+
+    static boolean hasUserKey(byte[] internalKey, byte[] userKey) {
+        return Arrays.equals(internalKey, 0, internalKey.length - SEQUENCE_BYTES, userKey, 0, userKey.length);
+    }
+
+    /**
+     * Compares the user key part of {@code internalKey} with {@code userKey}.
+     */
+    static int compareUserKey(byte[] internalKey, byte[] userKey) {
+        return Arrays.compareUnsigned(internalKey, 0, internalKey.length - SEQUENCE_BYTES, userKey, 0, userKey.length);
+    }
+}
@@ -0,0 +1,681 @@
+package com.hsbc.transactionmanagement.storage.lsm;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+/**
+ * Embedded log-structured key-value store. Writes go to a write-ahead log and a sorted
+ * memtable; full memtables are written out as immutable sorted tables, which a background
+ * thread merges with size-tiered compaction. Reads check the memtables and then the tables
+ * newest first, skipping tables whose bloom filter rules the key out.
+ * <p>
+ * Every batch gets the next sequence number and every stored version keeps it, so a
+ * {@link Snapshot} reads the store as of one sequence while writes continue. Compaction
+ * keeps the versions open snapshots can still see and drops the rest.
+ * <p>
+ * Writers are serialised; reads never block. A write waits only when a full memtable is
+ * still being flushed, which bounds memory to about two memtables.
+ */
+public final class LsmStore implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(LsmStore.class);
+
+    private static final String TABLE_SUFFIX = ".sst";
+    private static final String LOG_SUFFIX = ".log";
+    private static final String PARTIAL_SUFFIX = ".partial";
+
+    /**
+     * @param memtableBytes     memtable size at which it is written to a table
+     * @param blockBytes        target size of a table's data blocks
+     * @param blockCacheBytes   heap shared by cached data blocks of all tables
+     * @param bloomBitsPerKey   bloom filter size; 10 gives about 1% false positives
+     * @param compactionTrigger number of similarly sized tables that are merged into one
+     * @param syncWrites        whether every write is forced to disk before it returns
+     */
+    public record Options(long memtableBytes, int blockBytes, long blockCacheBytes, int bloomBitsPerKey,
+                          int compactionTrigger, boolean syncWrites) {
+    }
+
+    /**
+     * One live key as read at some sequence.
+     *
+     * @param sequence the sequence of the write that stored {@code value}
+     */
+    public record Entry(byte[] key, long sequence, byte[] value) {
+    }
+
+    /**
+     * Pins the store at one sequence until closed.
+     */
+    public final class Snapshot implements AutoCloseable {
+
+        private final long sequence;
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        private Snapshot(long sequence) {
+            this.sequence = sequence;
+        }
+
+        public long sequence() {
+            return sequence;
+        }
+
+        @Override
+        public void close() {
+            if (closed.compareAndSet(false, true)) {
+                unpin(sequence);
+            }
+        }
+    }
+
+    private record Version(MemTable active, MemTable immutable, List<SortedTable> tables) {
+    }
+
+    private final Path directory;
+    private final Options options;
+    private final Cache<SortedTable.BlockKey, Block> blockCache;
+    private final ExecutorService background = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "lsm-background");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // Guards writes, memtable switches, file numbers and the manifest
+    private final Object lock = new Object();
+    private volatile Version version;
+    private volatile long lastSequence;
+    private long nextFileNumber;
+    private long logNumber;
+    private WriteAheadLog log;
+    private boolean closed;
+    private volatile Throwable backgroundError;
+
+    // Pinned sequence -> number of open snapshots at it
+    private final TreeMap<Long, Integer> pinned = new TreeMap<>();
+
+    private final LongAdder bloomNegatives = new LongAdder();
+    private final LongAdder flushes = new LongAdder();
+    private final LongAdder compactions = new LongAdder();
+
+    /**
+     * Opens the store in {@code directory}, creating it if needed. Writes still in the log
+     * are recovered into a new table before this returns.
+     */
+    public LsmStore(Path directory, Options options) throws IOException {
+        this.directory = directory;
+        this.options = options;
+        this.blockCache = Caffeine.newBuilder()
+                .maximumWeight(options.blockCacheBytes())
+                .weigher((SortedTable.BlockKey key, Block block) -> block.weight())
+                .recordStats()
+                .build();
+        Files.createDirectories(directory);
+
+        Manifest manifest = Manifest.read(directory);
+        if (manifest == null) {
+            manifest = Manifest.empty();
+        }
+        nextFileNumber = manifest.nextFileNumber();
+        removeUnlistedTables(manifest);
+        List<SortedTable> tables = new ArrayList<>();
+        for (long number : manifest.tables()) {
+            tables.add(SortedTable.open(number, tableFile(number), blockCache));
+        }
+
+        MemTable recovered = new MemTable();
+        long sequence = manifest.lastSequence();
+        for (Path file : logFiles()) {
+            if (fileNumber(file) >= manifest.logNumber()) {
+                sequence = Math.max(sequence, WriteAheadLog.replay(file, (seq, batch) -> recovered.apply(batch, seq)));
+            }
+        }
+        lastSequence = sequence;
+        if (!recovered.isEmpty()) {
+            SortedTable table = writeTable(recovered.iterator(null), recovered.size());
+            if (table != null) {
+                tables.add(0, table);
+            }
+            logger.info("Recovered {} writes from the log of {}", recovered.size(), directory);
+        }
+
+        logNumber = nextFileNumber++;
+        log = WriteAheadLog.create(logFile(logNumber), options.syncWrites());
+        version = new Version(new MemTable(), null, List.copyOf(tables));
+        writeManifest();
+        deleteLogsBefore(logNumber);
+        background.execute(this::compactWhileNeeded);
+    }
+
+    public Optional<Entry> get(byte[] key) {
+        return get(key, Long.MAX_VALUE);
+    }
+
+    /**
+     * Scans the live keys in {@code [from, to)} in key order; {@code null} bounds are open.
+     * Without a snapshot the scan is weakly consistent: it may or may not see writes made
+     * while it runs.
+     */
+    public Iterator<Entry> scan(byte[] from, byte[] to) {
+        return scan(from, to, Long.MAX_VALUE);
+    }
+
+    public Optional<Entry> get(byte[] key, Snapshot snapshot) {
+        return get(key, snapshot.sequence());
+    }
+
+    public Iterator<Entry> scan(byte[] from, byte[] to, Snapshot snapshot) {
+        return scan(from, to, snapshot.sequence());
+    }
+
+    /**
+     * Applies {@code batch} atomically.
+     *
+     * @return the sequence assigned to the batch
+     */
+    public long write(WriteBatch batch) {
+        synchronized (lock) {
+            checkWritable();
+            if (batch.isEmpty()) {
+                return lastSequence;
+            }
+            makeRoomForWrite();
+            long sequence = lastSequence + 1;
+            try {
+                log.append(sequence, batch);
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+            version.active().apply(batch, sequence);
+            // published last, so snapshots never see half a batch
+            lastSequence = sequence;
+            return sequence;
+        }
+    }
+
+    public long lastSequence() {
+        return lastSequence;
+    }
+
+    public Snapshot openSnapshot() {
+        synchronized (pinned) {
+            long sequence = lastSequence;
+            pinned.merge(sequence, 1, Integer::sum);
+            return new Snapshot(sequence);
+        }
+    }
+
+    /**
+     * Writes the memtable to a table and waits until that and any compaction it triggers
+     * have finished.
+     */
+    public void flush() {
+        synchronized (lock) {
+            checkWritable();
+            awaitImmutableFlushed();
+            if (!version.active().isEmpty()) {
+                switchMemtable();
+            }
+        }
+        try {
+            background.submit(() -> { }).get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while flushing", ex);
+        } catch (ExecutionException ex) {
+            throw new IllegalStateException(ex.getCause());
+        }
+        rethrowBackgroundError();
+    }
+
+    public int tableCount() {
+        return version.tables().size();
+    }
+
+    public long tableBytes() {
+        return version.tables().stream().mapToLong(SortedTable::sizeInBytes).sum();
+    }
+
+    public long memtableBytes() {
+        Version current = version;
+        return current.active().bytes() + (current.immutable() != null ? current.immutable().bytes() : 0);
+    }
+
+    public long blockCacheHits() {
+        return blockCache.stats().hitCount();
+    }
+
+    public long blockCacheMisses() {
+        return blockCache.stats().missCount();
+    }
+
+    /**
+     * Lookups a bloom filter answered without reading the table.
+     */
+    public long bloomNegatives() {
+        return bloomNegatives.sum();
+    }
+
+    public long flushCount() {
+        return flushes.sum();
+    }
+
+    public long compactionCount() {
+        return compactions.sum();
+    }
+
+    public int pinnedSnapshots() {
+        synchronized (pinned) {
+            return pinned.values().stream().mapToInt(Integer::intValue).sum();
+        }
+    }
+
+    /**
+     * Stops background work and closes the files. Writes not yet in a table stay in the log
+     * and are recovered on the next open.
+     */
+    @Override
+    public void close() throws IOException {
+        synchronized (lock) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            lock.notifyAll();
+        }
+        background.shutdown();
+        try {
+            if (!background.awaitTermination(1, TimeUnit.MINUTES)) {
+                logger.warn("Background work of {} did not finish", directory);
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (lock) {
+            log.close();
+        }
+        version.tables().forEach(SortedTable::close);
+        blockCache.invalidateAll();
+    }
+
+    private Optional<Entry> get(byte[] key, long sequence) {
+        Version current = version;
+        Record found = current.active().get(key, sequence);
+        if (found == null && current.immutable() != null) {
+            found = current.immutable().get(key, sequence);
+        }
+        for (int i = 0; found == null && i < current.tables().size(); i++) {
+            found = current.tables().get(i).get(key, sequence, bloomNegatives);
+        }
+        if (found == null || found.isTombstone()) {
+            return Optional.empty();
+        }
+        return Optional.of(new Entry(key, InternalKeys.sequence(found.internalKey()), found.value()));
+    }
+
+    private Iterator<Entry> scan(byte[] from, byte[] to, long sequence) {
+        Version current = version;
+        List<Iterator<Record>> sources = new ArrayList<>(current.tables().size() + 2);
+        sources.add(current.active().iterator(from));
+        if (current.immutable() != null) {
+            sources.add(current.immutable().iterator(from));
+        }
+        current.tables().forEach(table -> sources.add(table.iterator(from)));
+        MergingIterator records = new MergingIterator(sources);
+
+        return new Iterator<>() {
+            private byte[] resolvedKey;
+            private Entry next;
+            private boolean done;
+
+            @Override
+            public boolean hasNext() {
+                while (next == null && !done && records.hasNext()) {
+                    Record record = records.next();
+                    byte[] internalKey = record.internalKey();
+                    if (to != null && InternalKeys.compareUserKey(internalKey, to) >= 0) {
+                        done = true;
+                    } else if ((resolvedKey == null || !InternalKeys.hasUserKey(internalKey, resolvedKey))
+                            && InternalKeys.sequence(internalKey) <= sequence) {
+                        // the newest visible version decides; older ones of the same key are skipped
+                        resolvedKey = InternalKeys.userKey(internalKey);
+                        if (!record.isTombstone()) {
+                            next = new Entry(resolvedKey, InternalKeys.sequence(internalKey), record.value());
+                        }
+                    }
+                }
+                return next != null;
+            }
+
+            @Override
+            public Entry next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                Entry entry = next;
+                next = null;
+                return entry;
+            }
+        };
+    }
+
+    // Caller holds the lock
+    private void makeRoomForWrite() {
+        while (version.active().bytes() >= options.memtableBytes()) {
+            if (version.immutable() == null) {
+                switchMemtable();
+                return;
+            }
+            awaitImmutableFlushed();
+        }
+    }
+
+    // Caller holds the lock
+    private void awaitImmutableFlushed() {
+        while (version.immutable() != null) {
+            try {
+                lock.wait();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for a memtable flush", ex);
+            }
+            checkWritable();
+        }
+    }
+
+    // Caller holds the lock
+    private void switchMemtable() {
+        try {
+            long number = nextFileNumber++;
+            WriteAheadLog next = WriteAheadLog.create(logFile(number), options.syncWrites());
+            log.close();
+            log = next;
+            logNumber = number;
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        Version current = version;
+        version = new Version(new MemTable(), current.active(), current.tables());
+        background.execute(this::flushImmutable);
+    }
+
+    private void flushImmutable() {
+        try {
+            MemTable immutable = version.immutable();
+            SortedTable table = writeTable(new GarbageFilter(immutable.iterator(null), horizon(), false),
+                    immutable.size());
+            long flushedLogs;
+            synchronized (lock) {
+                Version current = version;
+                List<SortedTable> tables = new ArrayList<>(current.tables().size() + 1);
+                if (table != null) {
+                    tables.add(table);
+                }
+                tables.addAll(current.tables());
+                version = new Version(current.active(), null, List.copyOf(tables));
+                writeManifest();
+                flushedLogs = logNumber;
+                lock.notifyAll();
+            }
+            flushes.increment();
+            deleteLogsBefore(flushedLogs);
+            compactWhileNeeded();
+        } catch (Throwable ex) {
+            failBackground(ex);
+        }
+    }
+
+    /**
+     * Size-tiered compaction: starting from the newest table, tables are grouped while each
+     * next one is at most twice the size of the group so far, and a group of at least
+     * {@code compactionTrigger} tables is merged into one. Each merge leaves a larger table
+     * behind, so the number of tables grows with the logarithm of the data size.
+     */
+    private void compactWhileNeeded() {
+        try {
+            while (!isClosed()) {
+                List<SortedTable> tables = version.tables();
+                int end = 1;
+                long size = tables.isEmpty() ? 0 : tables.get(0).sizeInBytes();
+                while (end < tables.size() && tables.get(end).sizeInBytes() <= 2 * size) {
+                    size += tables.get(end).sizeInBytes();
+                    end++;
+                }
+                if (tables.isEmpty() || end < options.compactionTrigger()) {
+                    return;
+                }
+                compact(tables, end);
+            }
+        } catch (Throwable ex) {
+            failBackground(ex);
+        }
+    }
+
+    // Only the background thread changes the table list, so tables is still current here
+    private void compact(List<SortedTable> tables, int end) throws IOException {
+        List<SortedTable> inputs = tables.subList(0, end);
+        List<Iterator<Record>> sources = new ArrayList<>(inputs.size());
+        long entries = 0;
+        for (SortedTable input : inputs) {
+            sources.add(input.iterator(null));
+            entries += input.entryCount();
+        }
+        // a tombstone can only go once no older table may still hold the key
+        boolean dropTombstones = end == tables.size();
+        SortedTable output = writeTable(new GarbageFilter(new MergingIterator(sources), horizon(), dropTombstones),
+                entries);
+        synchronized (lock) {
+            Version current = version;
+            List<SortedTable> next = new ArrayList<>(current.tables().size() - end + 1);
+            if (output != null) {
+                next.add(output);
+            }
+            next.addAll(current.tables().subList(end, current.tables().size()));
+            version = new Version(current.active(), current.immutable(), List.copyOf(next));
+            writeManifest();
+        }
+        for (SortedTable input : inputs) {
+            input.delete();
+        }
+        compactions.increment();
+        logger.debug("Compacted {} tables of {} into {}", inputs.size(), directory,
+                output != null ? output.number() : "nothing");
+    }
+
+    /**
+     * Writes {@code records} to a new table file, or returns {@code null} if there are none.
+     */
+    private SortedTable writeTable(Iterator<Record> records, long expectedEntries) throws IOException {
+        long number;
+        synchronized (lock) {
+            number = nextFileNumber++;
+        }
+        Path partial = directory.resolve(String.format("%06d%s%s", number, TABLE_SUFFIX, PARTIAL_SUFFIX));
+        long written;
+        try (SortedTableWriter writer = new SortedTableWriter(partial, options.blockBytes(),
+                BloomFilter.create(Math.max(1, expectedEntries), options.bloomBitsPerKey()))) {
+            while (records.hasNext()) {
+                writer.add(records.next());
+            }
+            writer.finish();
+            written = writer.entryCount();
+        } catch (IOException | RuntimeException ex) {
+            Files.deleteIfExists(partial);
+            throw ex;
+        }
+        if (written == 0) {
+            Files.delete(partial);
+            return null;
+        }
+        Path file = tableFile(number);
+        Files.move(partial, file, StandardCopyOption.ATOMIC_MOVE);
+        return SortedTable.open(number, file, blockCache);
+    }
+
+    // Caller holds the lock
+    private void writeManifest() throws IOException {
+        List<Long> tables = version.tables().stream().map(SortedTable::number).toList();
+        new Manifest(nextFileNumber, logNumber, lastSequence, tables).write(directory);
+    }
+
+    /**
+     * The oldest sequence a reader can still ask for. Versions shadowed by a newer one at or
+     * below it are invisible to everyone.
+     */
+    private long horizon() {
+        synchronized (pinned) {
+            return pinned.isEmpty() ? lastSequence : pinned.firstKey();
+        }
+    }
+
+    private void unpin(long sequence) {
+        synchronized (pinned) {
+            pinned.computeIfPresent(sequence, (key, count) -> count > 1 ? count - 1 : null);
+        }
+    }
+
+    private void failBackground(Throwable ex) {
+        logger.error("Background flush or compaction of {} failed; writes are stopped", directory, ex);
+        synchronized (lock) {
+            backgroundError = ex;
+            lock.notifyAll();
+        }
+    }
+
+    // Caller holds the lock
+    private void checkWritable() {
+        if (closed) {
+            throw new IllegalStateException("Store is closed: " + directory);
+        }
+        rethrowBackgroundError();
+    }
+
+    private void rethrowBackgroundError() {
+        Throwable error = backgroundError;
+        if (error != null) {
+            throw new IllegalStateException("Background flush or compaction failed", error);
+        }
+    }
+
+    private boolean isClosed() {
+        synchronized (lock) {
+            return closed;
+        }
+    }
+
+    private void removeUnlistedTables(Manifest manifest) throws IOException {
+        Set<Long> live = new HashSet<>(manifest.tables());
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : files.toList()) {
+                String name = file.getFileName().toString();
+                if (name.endsWith(PARTIAL_SUFFIX) || name.endsWith(TABLE_SUFFIX) && !live.contains(fileNumber(file))) {
+                    Files.delete(file);
+                }
+            }
+        }
+    }
+
+    private List<Path> logFiles() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> file.getFileName().toString().endsWith(LOG_SUFFIX))
+                    .sorted((a, b) -> Long.compare(fileNumber(a), fileNumber(b)))
+                    .toList();
+        }
+    }
+
+    private void deleteLogsBefore(long number) throws IOException {
+        for (Path file : logFiles()) {
+            if (fileNumber(file) < number) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    private Path tableFile(long number) {
+        return directory.resolve(String.format("%06d%s", number, TABLE_SUFFIX));
+    }
+
+    private Path logFile(long number) {
+        return directory.resolve(String.format("%06d%s", number, LOG_SUFFIX));
+    }
+
+    private static long fileNumber(Path file) {
+        String name = file.getFileName().toString();
+        return Long.parseLong(name.substring(0, name.indexOf('.')));
+    }
+
+    /**
+     * Drops versions no reader can see: of the versions of a key at or below the horizon
+     * only the newest is kept, and that one too if it is a tombstone and
+     * {@code dropTombstones} is set.
+     */
+    private static final class GarbageFilter implements Iterator<Record> {
+
+        private final Iterator<Record> records;
+        private final long horizon;
+        private final boolean dropTombstones;
+        private byte[] currentKey;
+        private boolean keptBelowHorizon;
+        private Record next;
+
+        GarbageFilter(Iterator<Record> records, long horizon, boolean dropTombstones) {
+            this.records = records;
+            this.horizon = horizon;
+            this.dropTombstones = dropTombstones;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (next == null && records.hasNext()) {
+                Record record = records.next();
+                byte[] internalKey = record.internalKey();
+                if (currentKey == null || !InternalKeys.hasUserKey(internalKey, currentKey)) {
+                    currentKey = InternalKeys.userKey(internalKey);
+                    keptBelowHorizon = false;
+                }
+                if (InternalKeys.sequence(internalKey) > horizon) {
+                    next = record;
+                } else if (!keptBelowHorizon) {
+                    keptBelowHorizon = true;
+                    if (!(record.isTombstone() && dropTombstones)) {
+                        next = record;
+                    }
+                }
+            }
+            return next != null;
+        }
+
+        @Override
+        public Record next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            Record record = next;
+            next = null;
+            return record;
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.hsbc.transactionmanagement.storage.lsm;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The store's durable state: which tables are live and which log still needs replaying.
+ * Rewritten in full after every flush and compaction, via a temporary file renamed into
+ * place, so a crash leaves either the old manifest or the new one.
+ *
+ * @param nextFileNumber first file number not used yet, for tables and logs alike
+ * @param logNumber      oldest log that is not fully contained in the tables
+ * @param lastSequence   highest sequence assigned when the manifest was written; never reused
+ * @param tables         live table numbers, newest first
+ */
+record Manifest(long nextFileNumber, long logNumber, long lastSequence, List<Long> tables) {
+
+    static final String FILE_NAME = "MANIFEST";
+    private static final int MAGIC = 0x4C534D4D; // "LSMM"
+
+    static Manifest empty() {
+        return new Manifest(1, 0, 0, List.of());
+    }
+
+    /**
+     * @return the manifest of {@code directory}, or {@code null} if the store is new
+     */
+    static Manifest read(Path directory) throws IOException {
+        Path file = directory.resolve(FILE_NAME);
+        if (!Files.exists(file)) {
+            return null;
+        }
+        try (DataInputStream in = new DataInputStream(Files.newInputStream(file))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException("Not a manifest: " + file);
+            }
+            long nextFileNumber = in.readLong();
+            long logNumber = in.readLong();
+            long lastSequence = in.readLong();
+            int count = in.readInt();
+            List<Long> tables = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                tables.add(in.readLong());
+            }
+            return new Manifest(nextFileNumber, logNumber, lastSequence, List.copyOf(tables));
+        }
+    }
+
+    void write(Path directory) throws IOException {
+        Path temporary = directory.resolve(FILE_NAME + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(Files.newOutputStream(temporary))) {
+            out.writeInt(MAGIC);
+            out.writeLong(nextFileNumber);
+            out.writeLong(logNumber);
+            out.writeLong(lastSequence);
+            out.writeInt(tables.size());
+            for (long table : tables) {
+                out.writeLong(table);
+            }
+        }
+        Files.move(temporary, directory.resolve(FILE_NAME),
+                StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+}
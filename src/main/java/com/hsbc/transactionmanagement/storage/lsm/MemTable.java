@@ -0,0 +1,75 @@
+package com.hsbc.transactionmanagement.storage.lsm;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Sorted in-memory buffer of the latest writes. Every version is kept, so readers at an
+ * older sequence still find theirs; versions only go away when the memtable is written to
+ * a table and later compacted.
+ */
+final class MemTable {
+
+    // Rough per-entry cost of the skip list node, index levels and array headers
+    private static final int ENTRY_OVERHEAD = 96;
+
+    private final ConcurrentSkipListMap<byte[], byte[]> entries = new ConcurrentSkipListMap<>(InternalKeys.ORDER);
+    private final AtomicLong bytes = new AtomicLong();
+
+    void apply(WriteBatch batch, long sequence) {
+        for (int i = 0; i < batch.size(); i++) {
+            byte[] value = batch.value(i);
+            entries.put(InternalKeys.of(batch.key(i), sequence), value != null ? value : Record.TOMBSTONE);
+        }
+        bytes.addAndGet(batch.bytes() + (long) batch.size() * (InternalKeys.SEQUENCE_BYTES + ENTRY_OVERHEAD));
+    }
+
+    /**
+     * The newest version of {@code userKey} at or below {@code sequence}, or {@code null} if
+     * this memtable has none.
+     */
+    Record get(byte[] userKey, long sequence) {
+        Map.Entry<byte[], byte[]> found = entries.ceilingEntry(InternalKeys.of(userKey, sequence));
+        if (found == null || !InternalKeys.hasUserKey(found.getKey(), userKey)) {
+            return null;
+        }
+        return new Record(found.getKey(), found.getValue());
+    }
+
+    /**
+     * Every version of the keys from {@code from} (inclusive), in internal key order.
+     */
+    Iterator<Record> iterator(byte[] from) {
+        NavigableMap<byte[], byte[]> tail = from != null
+                ? entries.tailMap(InternalKeys.of(from, Long.MAX_VALUE), true)
+                : entries;
+        Iterator<Map.Entry<byte[], byte[]>> iterator = tail.entrySet().iterator();
+        return new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return iterator.hasNext();
+            }
+
+            @Override
+            public Record next() {
+                Map.Entry<byte[], byte[]> next = iterator.next();
+                return new Record(next.getKey(), next.getValue());
+            }
+        };
+    }
+
+    long bytes() {
+        return bytes.get();
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    boolean isEmpty() {
+        return entries.isEmpty();
+    }
+}
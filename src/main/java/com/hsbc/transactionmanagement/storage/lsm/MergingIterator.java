@@ -0,0 +1,59 @@
+package com.hsbc.transactionmanagement.storage.lsm;
+
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+
+/**
+ * Merges sorted record sources into one stream in internal key order, so every version of
+ * a key comes out together, newest first.
+ */
+final class MergingIterator implements Iterator<Record> {
+
+    private static final class Source {
+        final Iterator<Record> iterator;
+        Record head;
+
+        Source(Iterator<Record> iterator) {
+            this.iterator = iterator;
+            this.head = iterator.next();
+        }
+
+        boolean advance() {
+            head = iterator.hasNext() ? iterator.next() : null;
+            return head != null;
+        }
+    }
+
+    private final PriorityQueue<Source> queue;
+
+    MergingIterator(List<Iterator<Record>> sources) {
+        this.queue = new PriorityQueue<>(Math.max(1, sources.size()),
+                Comparator.comparing((Source source) -> source.head.internalKey(), InternalKeys.ORDER));
+        for (Iterator<Record> source : sources) {
+            if (source.hasNext()) {
+                queue.add(new Source(source));
+            }
+        }
+    }
+
+    @Override
+    public boolean hasNext() {
+        return !queue.isEmpty();
+    }
+
+    @Override
+    public Record next() {
+        Source source = queue.poll();
+        if (source == null) {
+            throw new NoSuchElementException();
+        }
+        Record next = source.head;
+        if (source.advance()) {
+            queue.add(source);
+        }
+        return next;
+    }
+}
@@ -0,0 +1,17 @@
+package com.hsbc.transactionmanagement.storage.lsm;
+
+/**
+ * One stored version of a key, as held by memtables and tables.
+ *
+ * @param internalKey see {@link InternalKeys}
+ * @param value       the value, or {@link #TOMBSTONE} if the version is a delete
+ */
+record Record(byte[] internalKey, byte[] value) {
+
+    /** Marks a delete; compared by identity, so an empty value is still a value. */
+    static final byte[] TOMBSTONE = new byte[0];
+
+    boolean isTombstone() {
+        return value == TOMBSTONE;
+    }
+}
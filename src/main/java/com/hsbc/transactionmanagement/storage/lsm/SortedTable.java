@@ -0,0 +1,251 @@
+package com.hsbc.transactionmanagement.storage.lsm;
+
+import com.github.benmanes.caffeine.cache.Cache;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.ref.Cleaner;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.CRC32;
+
+/**
+ * Read side of a table written by {@link SortedTableWriter}. The block index and bloom
+ * filter stay on the heap; data blocks are read with positional reads and shared through
+ * the store's block cache.
+ * <p>
+ * Once compaction replaces a table its file is deleted straight away. Readers that still
+ * hold the table keep reading through the open channel, which is closed when the table
+ * becomes unreachable.
+ */
+final class SortedTable {
+
+    record BlockKey(long table, int block) {
+    }
+
+    private static final Cleaner CLEANER = Cleaner.create();
+
+    private final long number;
+    private final Path file;
+    private final FileChannel channel;
+    private final byte[][] lastKeys;
+    private final long[] blockOffsets;
+    private final int[] blockLengths;
+    private final BloomFilter bloom;
+    private final long entryCount;
+    private final long maxSequence;
+    private final long sizeInBytes;
+    private final Cache<BlockKey, Block> blockCache;
+    private final Cleaner.Cleanable cleanable;
+
+    private SortedTable(long number, Path file, FileChannel channel, byte[][] lastKeys, long[] blockOffsets,
+                        int[] blockLengths, BloomFilter bloom, long entryCount, long maxSequence,
+                        long sizeInBytes, Cache<BlockKey, Block> blockCache) {
+        this.number = number;
+        this.file = file;
+        this.channel = channel;
+        this.lastKeys = lastKeys;
+        this.blockOffsets = blockOffsets;
+        this.blockLengths = blockLengths;
+        this.bloom = bloom;
+        this.entryCount = entryCount;
+        this.maxSequence = maxSequence;
+        this.sizeInBytes = sizeInBytes;
+        this.blockCache = blockCache;
+        this.cleanable = CLEANER.register(this, closer(channel));
+    }
+
+    static SortedTable open(long number, Path file, Cache<BlockKey, Block> blockCache) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            long size = channel.size();
+            if (size < SortedTableWriter.FOOTER_BYTES) {
+                throw new IOException("Not a table file: " + file);
+            }
+            ByteBuffer footer = readFully(channel, size - SortedTableWriter.FOOTER_BYTES, SortedTableWriter.FOOTER_BYTES);
+            long indexOffset = footer.getLong();
+            int indexLength = footer.getInt();
+            long bloomOffset = footer.getLong();
+            int bloomLength = footer.getInt();
+            long entryCount = footer.getLong();
+            long maxSequence = footer.getLong();
+            int formatVersion = footer.getInt();
+            if (footer.getInt() != SortedTableWriter.MAGIC || formatVersion != SortedTableWriter.FORMAT_VERSION) {
+                throw new IOException("Not a table file: " + file);
+            }
+
+            ByteBuffer index = readFully(channel, indexOffset, indexLength);
+            int blockCount = index.getInt();
+            byte[][] lastKeys = new byte[blockCount][];
+            long[] blockOffsets = new long[blockCount];
+            int[] blockLengths = new int[blockCount];
+            for (int i = 0; i < blockCount; i++) {
+                lastKeys[i] = new byte[index.getInt()];
+                index.get(lastKeys[i]);
+                blockOffsets[i] = index.getLong();
+                blockLengths[i] = index.getInt();
+            }
+            BloomFilter bloom = BloomFilter.readFrom(new DataInputStream(
+                    new ByteArrayInputStream(readFully(channel, bloomOffset, bloomLength).array())));
+            return new SortedTable(number, file, channel, lastKeys, blockOffsets, blockLengths, bloom,
+                    entryCount, maxSequence, size, blockCache);
+        } catch (IOException | RuntimeException ex) {
+            channel.close();
+            throw ex;
+        }
+    }
+
+    long number() {
+        return number;
+    }
+
+    long entryCount() {
+        return entryCount;
+    }
+
+    long maxSequence() {
+        return maxSequence;
+    }
+
+    long sizeInBytes() {
+        return sizeInBytes;
+    }
+
+    /**
+     * The newest version of {@code userKey} at or below {@code sequence}, or {@code null} if
+     * this table has none.
+     */
+    Record get(byte[] userKey, long sequence, LongAdder bloomNegatives) {
+        if (!bloom.mightContain(userKey)) {
+            bloomNegatives.increment();
+            return null;
+        }
+        byte[] target = InternalKeys.of(userKey, sequence);
+        int blockIndex = findBlock(target);
+        if (blockIndex == lastKeys.length) {
+            return null;
+        }
+        Block block = cachedBlock(blockIndex);
+        // the block's last key is at or after the target, so the seek always lands in it
+        Record found = block.record(block.seek(target));
+        return InternalKeys.hasUserKey(found.internalKey(), userKey) ? found : null;
+    }
+
+    /**
+     * Every version of the keys from {@code from} (inclusive; {@code null} for the start), in
+     * internal key order. Blocks already cached are reused, but a scan does not fill the
+     * cache, so one range read cannot evict the blocks that point lookups depend on.
+     */
+    Iterator<Record> iterator(byte[] from) {
+        int firstBlock = from != null ? findBlock(InternalKeys.of(from, Long.MAX_VALUE)) : 0;
+        return new Iterator<>() {
+            private int blockIndex = firstBlock;
+            private Block block;
+            private int position;
+
+            {
+                if (blockIndex < lastKeys.length) {
+                    block = scannedBlock(blockIndex);
+                    position = from != null ? block.seek(InternalKeys.of(from, Long.MAX_VALUE)) : 0;
+                }
+            }
+
+            @Override
+            public boolean hasNext() {
+                while (block != null && position == block.size()) {
+                    blockIndex++;
+                    block = blockIndex < lastKeys.length ? scannedBlock(blockIndex) : null;
+                    position = 0;
+                }
+                return block != null;
+            }
+
+            @Override
+            public Record next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return block.record(position++);
+            }
+        };
+    }
+
+    /**
+     * Deletes the file of a table compaction has replaced. Open readers are unaffected.
+     */
+    void delete() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    void close() {
+        cleanable.clean();
+    }
+
+    private int findBlock(byte[] internalKey) {
+        int low = 0;
+        int high = lastKeys.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (InternalKeys.compare(lastKeys[mid], internalKey) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private Block cachedBlock(int blockIndex) {
+        return blockCache.get(new BlockKey(number, blockIndex), key -> readBlock(key.block()));
+    }
+
+    private Block scannedBlock(int blockIndex) {
+        Block cached = blockCache.getIfPresent(new BlockKey(number, blockIndex));
+        return cached != null ? cached : readBlock(blockIndex);
+    }
+
+    private Block readBlock(int blockIndex) {
+        try {
+            ByteBuffer buffer = readFully(channel, blockOffsets[blockIndex], blockLengths[blockIndex] + Integer.BYTES);
+            byte[] data = new byte[blockLengths[blockIndex]];
+            buffer.get(data);
+            CRC32 crc = new CRC32();
+            crc.update(data);
+            if ((int) crc.getValue() != buffer.getInt()) {
+                throw new IOException("Checksum mismatch in block " + blockIndex + " of " + file);
+            }
+            return Block.parse(data);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private static ByteBuffer readFully(FileChannel channel, long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Unexpected end of table file");
+            }
+        }
+        return buffer.flip();
+    }
+
+    // Must not capture the table, or the cleaner would never run
+    private static Runnable closer(FileChannel channel) {
+        return () -> {
+            try {
+                channel.close();
+            } catch (IOException ignored) {
+                // nothing left to release
+            }
+        };
+    }
+}
@@ -0,0 +1,128 @@
+package com.hsbc.transactionmanagement.storage.lsm;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * Writes one table from records given in internal key order. The file holds the data
+ * blocks, each followed by its CRC-32, then the block index (last key, offset and length of
+ * every block), the bloom filter and a fixed-size footer locating both.
+ */
+final class SortedTableWriter implements Closeable {
+
+    static final int MAGIC = 0x4C534D54; // "LSMT"
+    static final int FORMAT_VERSION = 1;
+    static final int FOOTER_BYTES = 8 + 4 + 8 + 4 + 8 + 8 + 4 + 4;
+
+    private final FileChannel channel;
+    private final DataOutputStream out;
+    private final int blockSize;
+    private final BloomFilter bloom;
+    private final ByteArrayOutputStream block = new ByteArrayOutputStream();
+    private final DataOutputStream blockOut = new DataOutputStream(block);
+    private final List<byte[]> lastKeys = new ArrayList<>();
+    private final List<long[]> blockPositions = new ArrayList<>();
+    private long offset;
+    private byte[] lastKey;
+    private byte[] lastUserKey;
+    private long entryCount;
+    private long maxSequence;
+
+    SortedTableWriter(Path file, int blockSize, BloomFilter bloom) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+        this.out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel), 1 << 16));
+        this.blockSize = blockSize;
+        this.bloom = bloom;
+    }
+
+    void add(Record record) throws IOException {
+        byte[] key = record.internalKey();
+        if (lastKey != null && InternalKeys.compare(lastKey, key) >= 0) {
+            throw new IllegalArgumentException("Records must be added in increasing internal key order");
+        }
+        if (lastUserKey == null || !InternalKeys.hasUserKey(key, lastUserKey)) {
+            lastUserKey = InternalKeys.userKey(key);
+            bloom.add(lastUserKey);
+        }
+        Block.write(blockOut, record);
+        lastKey = key;
+        entryCount++;
+        maxSequence = Math.max(maxSequence, InternalKeys.sequence(key));
+        if (block.size() >= blockSize) {
+            finishBlock();
+        }
+    }
+
+    long entryCount() {
+        return entryCount;
+    }
+
+    /**
+     * Writes the index, bloom filter and footer and forces the file to disk.
+     */
+    void finish() throws IOException {
+        if (block.size() > 0) {
+            finishBlock();
+        }
+        long indexOffset = offset;
+        ByteArrayOutputStream index = new ByteArrayOutputStream();
+        DataOutputStream indexOut = new DataOutputStream(index);
+        indexOut.writeInt(lastKeys.size());
+        for (int i = 0; i < lastKeys.size(); i++) {
+            indexOut.writeInt(lastKeys.get(i).length);
+            indexOut.write(lastKeys.get(i));
+            indexOut.writeLong(blockPositions.get(i)[0]);
+            indexOut.writeInt((int) blockPositions.get(i)[1]);
+        }
+        writeRaw(index.toByteArray());
+
+        long bloomOffset = offset;
+        ByteArrayOutputStream bloomBytes = new ByteArrayOutputStream();
+        bloom.writeTo(new DataOutputStream(bloomBytes));
+        writeRaw(bloomBytes.toByteArray());
+
+        out.writeLong(indexOffset);
+        out.writeInt((int) (bloomOffset - indexOffset));
+        out.writeLong(bloomOffset);
+        out.writeInt((int) (offset - bloomOffset));
+        out.writeLong(entryCount);
+        out.writeLong(maxSequence);
+        out.writeInt(FORMAT_VERSION);
+        out.writeInt(MAGIC);
+        out.flush();
+        channel.force(true);
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+
+    private void finishBlock() throws IOException {
+        byte[] data = block.toByteArray();
+        block.reset();
+        CRC32 crc = new CRC32();
+        crc.update(data);
+        lastKeys.add(Arrays.copyOf(lastKey, lastKey.length));
+        blockPositions.add(new long[]{offset, data.length});
+        writeRaw(data);
+        out.writeInt((int) crc.getValue());
+        offset += Integer.BYTES;
+    }
+
+    private void writeRaw(byte[] data) throws IOException {
+        out.write(data);
+        offset += data.length;
+    }
+}
@@ -0,0 +1,162 @@
+package com.hsbc.transactionmanagement.storage.lsm;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only log of the batches not yet written to a table, replayed on open.
+ * <p>
+ * Each record is {@code length, crc, sequence, count} followed by the batch's operations.
+ * A crash can leave the last record half written; replay stops at the first record whose
+ * length or checksum does not add up, which loses only writes that were never acknowledged
+ * as durable.
+ */
+final class WriteAheadLog implements Closeable {
+
+    private static final byte DELETE = 0;
+    private static final byte PUT = 1;
+
+    @FunctionalInterface
+    interface Replayer {
+        void apply(long sequence, WriteBatch batch);
+    }
+
+    private final FileChannel channel;
+    private final boolean syncWrites;
+
+    private WriteAheadLog(FileChannel channel, boolean syncWrites) {
+        this.channel = channel;
+        this.syncWrites = syncWrites;
+    }
+
+    static WriteAheadLog create(Path file, boolean syncWrites) throws IOException {
+        return new WriteAheadLog(FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE),
+                syncWrites);
+    }
+
+    /**
+     * Appends one batch. With {@code syncWrites} the record is forced to disk before this
+     * returns; otherwise it survives a process crash but not necessarily a power loss.
+     */
+    void append(long sequence, WriteBatch batch) throws IOException {
+        ByteArrayOutputStream payload = new ByteArrayOutputStream((int) Math.min(Integer.MAX_VALUE - 8,
+                batch.bytes() + batch.size() * 9L + 12));
+        DataOutputStream out = new DataOutputStream(payload);
+        out.writeLong(sequence);
+        out.writeInt(batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+            byte[] value = batch.value(i);
+            out.writeByte(value != null ? PUT : DELETE);
+            out.writeInt(batch.key(i).length);
+            out.write(batch.key(i));
+            if (value != null) {
+                out.writeInt(value.length);
+                out.write(value);
+            }
+        }
+        byte[] bytes = payload.toByteArray();
+        CRC32 crc = new CRC32();
+        crc.update(bytes);
+        ByteBuffer record = ByteBuffer.allocate(8 + bytes.length);
+        record.putInt(bytes.length).putInt((int) crc.getValue()).put(bytes).flip();
+        while (record.hasRemaining()) {
+            channel.write(record);
+        }
+        if (syncWrites) {
+            channel.force(false);
+        }
+    }
+
+    /**
+     * Replays every intact record of {@code file} in order.
+     *
+     * @return the sequence of the last record replayed, or 0 if none was
+     */
+    static long replay(Path file, Replayer replayer) throws IOException {
+        long lastSequence = 0;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 1 << 16))) {
+            while (true) {
+                byte[] payload = readRecord(in);
+                if (payload == null) {
+                    return lastSequence;
+                }
+                DataInputStream record = new DataInputStream(new ByteArrayInputStream(payload));
+                long sequence = record.readLong();
+                int count = record.readInt();
+                WriteBatch batch = new WriteBatch();
+                for (int i = 0; i < count; i++) {
+                    byte type = record.readByte();
+                    byte[] key = new byte[record.readInt()];
+                    record.readFully(key);
+                    if (type == PUT) {
+                        byte[] value = new byte[record.readInt()];
+                        record.readFully(value);
+                        batch.put(key, value);
+                    } else {
+                        batch.delete(key);
+                    }
+                }
+                replayer.apply(sequence, batch);
+                lastSequence = sequence;
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            channel.force(false);
+        } finally {
+            channel.close();
+        }
+    }
+
+    // null at the end of the log or at a torn record
+    private static byte[] readRecord(DataInputStream in) throws IOException {
+        try {
+            int length = in.readInt();
+            int checksum = in.readInt();
+            if (length < 12) {
+                return null;
+            }
+            byte[] payload = readUpTo(in, length);
+            if (payload == null) {
+                return null;
+            }
+            CRC32 crc = new CRC32();
+            crc.update(payload);
+            return (int) crc.getValue() == checksum ? payload : null;
+        } catch (EOFException ex) {
+            return null;
+        }
+    }
+
+    // Reads in chunks so a garbage length cannot allocate a huge buffer up front
+    private static byte[] readUpTo(InputStream in, int length) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(Math.min(length, 1 << 16));
+        byte[] chunk = new byte[8192];
+        int remaining = length;
+        while (remaining > 0) {
+            int read = in.read(chunk, 0, Math.min(chunk.length, remaining));
+            if (read < 0) {
+                return null;
+            }
+            out.write(chunk, 0, read);
+            remaining -= read;
+        }
+        return out.toByteArray();
+    }
+}
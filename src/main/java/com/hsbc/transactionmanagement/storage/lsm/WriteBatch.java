@@ -0,0 +1,53 @@
+package com.hsbc.transactionmanagement.storage.lsm;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Puts and deletes applied atomically under one sequence number. A key may appear at most
+ * once per batch.
+ */
+public final class WriteBatch {
+
+    private final List<byte[]> keys = new ArrayList<>();
+    // null for a delete
+    private final List<byte[]> values = new ArrayList<>();
+    private long bytes;
+
+    public WriteBatch put(byte[] key, byte[] value) {
+        keys.add(key);
+        values.add(value);
+        bytes += key.length + value.length;
+        return this;
+    }
+
+    public WriteBatch delete(byte[] key) {
+        keys.add(key);
+        values.add(null);
+        bytes += key.length;
+        return this;
+    }
+
+    public int size() {
+        return keys.size();
+    }
+
+    public boolean isEmpty() {
+        return keys.isEmpty();
+    }
+
+    byte[] key(int index) {
+        return keys.get(index);
+    }
+
+    /**
+     * @return the value put, or {@code null} for a delete
+     */
+    byte[] value(int index) {
+        return values.get(index);
+    }
+
+    long bytes() {
+        return bytes;
+    }
+}
@@ -0,0 +1,94 @@
+package com.hsbc.transactionmanagement.web;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Relays a servlet request to the same path on another node and copies the answer back,
+ * status, headers and body, so the client cannot tell it was not served locally.
+ */
+public class RequestForwarder {
+
+    // Managed by the HTTP client, or connection-scoped and meaningless on the second hop
+    private static final Set<String> UNFORWARDED_HEADERS = Set.of(
+            "connection", "content-length", "expect", "host", "keep-alive", "transfer-encoding", "upgrade");
+
+    private final HttpClient httpClient;
+    private final Duration timeout;
+
+    public RequestForwarder(HttpClient httpClient, Duration timeout) {
+        this.httpClient = httpClient;
+        this.timeout = timeout;
+    }
+
+    /**
+     * @param body         the request body if it was already read, otherwise {@code null} to stream it
+     * @param extraHeaders added to the forwarded request
+     * @throws IOException if the node could not be reached, in which case the response is not
+     *                     committed yet, or if relaying its answer failed part way
+     */
+    public void forward(HttpServletRequest request, byte[] body, HttpServletResponse response, URI baseUrl,
+                        Map<String, String> extraHeaders) throws IOException {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(target(request, baseUrl))
+                .timeout(timeout)
+                .method(request.getMethod(), body != null ? HttpRequest.BodyPublishers.ofByteArray(body)
+                        : hasBody(request) ? HttpRequest.BodyPublishers.ofInputStream(() -> body(request))
+                        : HttpRequest.BodyPublishers.noBody());
+        for (String name : Collections.list(request.getHeaderNames())) {
+            if (!UNFORWARDED_HEADERS.contains(name.toLowerCase()) && !extraHeaders.containsKey(name)) {
+                Collections.list(request.getHeaders(name)).forEach(value -> builder.header(name, value));
+            }
+        }
+        extraHeaders.forEach(builder::header);
+        HttpResponse<InputStream> forwarded;
+        try {
+            forwarded = httpClient.send(builder.build(), HttpResponse.BodyHandlers.ofInputStream());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while forwarding to " + baseUrl, ex);
+        }
+        response.setStatus(forwarded.statusCode());
+        for (Map.Entry<String, List<String>> header : forwarded.headers().map().entrySet()) {
+            if (!UNFORWARDED_HEADERS.contains(header.getKey().toLowerCase()) && !header.getKey().startsWith(":")) {
+                header.getValue().forEach(value -> response.addHeader(header.getKey(), value));
+            }
+        }
+        try (InputStream in = forwarded.body()) {
+            in.transferTo(response.getOutputStream());
+        }
+    }
+
+    /**
+     * The request's path and query resolved against {@code baseUrl}.
+     */
+    public static URI target(HttpServletRequest request, URI baseUrl) {
+        String query = request.getQueryString();
+        return baseUrl.resolve(request.getRequestURI() + (query != null ? "?" + query : ""));
+    }
+
+    private static InputStream body(HttpServletRequest request) {
+        try {
+            return request.getInputStream();
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private static boolean hasBody(HttpServletRequest request) {
+        return request.getContentLengthLong() > 0 || request.getHeader(HttpHeaders.TRANSFER_ENCODING) != null;
+    }
+}
@@ -0,0 +1,84 @@
+package com.hsbc.transactionmanagement.admission;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AdaptiveConcurrencyLimiterTest {
+
+    private static final long TARGET_LATENCY = TimeUnit.MILLISECONDS.toNanos(100);
+
+    @Test
+    @DisplayName("Should reject requests beyond the current limit")
+    void shouldRejectBeyondLimit() {
+        // Given
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("write", 2, 1, 10,
+                TARGET_LATENCY, TimeUnit.SECONDS.toNanos(60), 0.5);
+
+        // When & Then
+        assertTrue(limiter.tryAcquire());
+        assertTrue(limiter.tryAcquire());
+        assertFalse(limiter.tryAcquire());
+        assertEquals(1, limiter.getRejectedCount());
+
+        limiter.release(1_000, false);
+        assertTrue(limiter.tryAcquire());
+        assertEquals(2, limiter.getInFlight());
+    }
+
+    @Test
+    @DisplayName("Should back off multiplicatively when latency exceeds the target")
+    void shouldBackOffOnSlowWindow() {
+        // Given
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("read", 40, 4, 100,
+                TARGET_LATENCY, 0, 0.5);
+
+        // When
+        assertTrue(limiter.tryAcquire());
+        limiter.release(TARGET_LATENCY * 3, false);
+
+        // Then
+        assertEquals(20, limiter.getLimit());
+    }
+
+    @Test
+    @DisplayName("Should back off on failed requests and never go below the minimum")
+    void shouldBackOffOnDropsDownToMinimum() {
+        // Given
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("write", 8, 4, 100,
+                TARGET_LATENCY, 0, 0.5);
+
+        // When
+        for (int i = 0; i < 5; i++) {
+            assertTrue(limiter.tryAcquire());
+            limiter.release(1_000, true);
+        }
+
+        // Then
+        assertEquals(4, limiter.getLimit());
+    }
+
+    @Test
+    @DisplayName("Should grow additively while fast and saturated")
+    void shouldGrowWhenFastAndBusy() {
+        // Given
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("read", 4, 1, 5,
+                TARGET_LATENCY, 0, 0.5);
+
+        // When
+        for (int round = 0; round < 3; round++) {
+            for (int i = 0; i < limiter.getLimit(); i++) {
+                assertTrue(limiter.tryAcquire());
+            }
+            while (limiter.getInFlight() > 0) {
+                limiter.release(1_000, false);
+            }
+        }
+
+        // Then
+        assertEquals(5, limiter.getLimit());
+    }
+}
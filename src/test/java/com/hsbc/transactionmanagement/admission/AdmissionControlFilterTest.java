@@ -0,0 +1,65 @@
+package com.hsbc.transactionmanagement.admission;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AdmissionControlFilterTest {
+
+    private AdaptiveConcurrencyLimiter readLimiter;
+    private AdaptiveConcurrencyLimiter writeLimiter;
+    private AdmissionControlFilter filter;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        long window = TimeUnit.SECONDS.toNanos(60);
+        readLimiter = new AdaptiveConcurrencyLimiter("read", 1, 1, 1, TimeUnit.SECONDS.toNanos(1), window, 0.9);
+        writeLimiter = new AdaptiveConcurrencyLimiter("write", 1, 1, 1, TimeUnit.SECONDS.toNanos(1), window, 0.9);
+        filter = new AdmissionControlFilter(readLimiter, writeLimiter, Duration.ofSeconds(2), new ObjectMapper());
+    }
+
+    @Test
+    @DisplayName("Should reject with 503 and Retry-After when the limit is reached")
+    void shouldRejectWhenLimitReached() throws Exception {
+        // Given
+        assertTrue(writeLimiter.tryAcquire());
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+
+        // When
+        filter.doFilter(new MockHttpServletRequest("POST", "/api/transactions"), response, chain);
+
+        // Then
+        assertEquals(503, response.getStatus());
+        assertEquals("2", response.getHeader("Retry-After"));
+        assertTrue(response.getContentAsString().contains("SERVICE_OVERLOADED"));
+        assertNull(chain.getRequest());
+    }
+
+    @Test
+    @DisplayName("Should admit reads while writes are saturated and release the slot afterwards")
+    void shouldUseSeparateLimitsForReadsAndWrites() throws Exception {
+        // Given
+        assertTrue(writeLimiter.tryAcquire());
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+
+        // When
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/transactions/1"), response, chain);
+
+        // Then
+        assertEquals(200, response.getStatus());
+        assertNotNull(chain.getRequest());
+        assertEquals(0, readLimiter.getInFlight());
+        assertEquals(0, readLimiter.getRejectedCount());
+    }
+}
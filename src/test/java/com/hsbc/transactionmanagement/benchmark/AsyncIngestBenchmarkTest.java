@@ -0,0 +1,114 @@
+package com.hsbc.transactionmanagement.benchmark;
+
+import com.hsbc.transactionmanagement.capacity.CapacityGuard;
+import com.hsbc.transactionmanagement.event.TransactionEventBuffer;
+import com.hsbc.transactionmanagement.event.TransactionEventPublisher;
+import com.hsbc.transactionmanagement.exceptions.IngestBufferFullException;
+import com.hsbc.transactionmanagement.ingest.AsyncTransactionWriter;
+import com.hsbc.transactionmanagement.ingest.IngestProperties;
+import com.hsbc.transactionmanagement.model.TransactionCreateRequest;
+import com.hsbc.transactionmanagement.repository.InMemoryTransactionRepository;
+import com.hsbc.transactionmanagement.service.TransactionServiceImpl;
+import com.hsbc.transactionmanagement.snapshot.SnapshotRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Creates per second through the synchronous service and through the asynchronous writer,
+ * from {@code benchmark.clients} threads (all cores by default). The asynchronous figure
+ * counts until every queued create is written.
+ * Run with {@code ./mvnw test -Dtest=AsyncIngestBenchmarkTest -Dbenchmark=true}.
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+public class AsyncIngestBenchmarkTest {
+
+    private static final int ROWS = Integer.getInteger("benchmark.rows", 200_000);
+    private static final int CLIENTS = Integer.getInteger("benchmark.clients",
+            Runtime.getRuntime().availableProcessors());
+
+    @Test
+    @DisplayName("Benchmark synchronous against asynchronous create throughput")
+    void benchmarkCreates() throws Exception {
+        InMemoryTransactionRepository syncRepository = new InMemoryTransactionRepository();
+        TransactionServiceImpl service = new TransactionServiceImpl(syncRepository, publisher(),
+                new SnapshotRegistry(syncRepository, Duration.ofMinutes(5), Duration.ofHours(1), 10), new ConcurrentMapCacheManager(),
+                unlimited(), new SimpleMeterRegistry());
+        run("sync", service::createTransaction);
+        assertEquals(ROWS, syncRepository.findAll().size());
+
+        InMemoryTransactionRepository asyncRepository = new InMemoryTransactionRepository();
+        TransactionServiceImpl asyncService = new TransactionServiceImpl(asyncRepository, publisher(),
+                new SnapshotRegistry(asyncRepository, Duration.ofMinutes(5), Duration.ofHours(1), 10), new ConcurrentMapCacheManager(),
+                unlimited(), new SimpleMeterRegistry());
+        AsyncTransactionWriter writer = new AsyncTransactionWriter(asyncRepository, asyncService::insertAll, publisher(),
+                unlimited(), new IngestProperties(65536, 512, Duration.ofMinutes(5), ROWS));
+        long start = System.nanoTime();
+        run("async-accept", request -> {
+            while (true) {
+                try {
+                    writer.submit(request);
+                    return;
+                } catch (IngestBufferFullException ex) {
+                    Thread.onSpinWait();
+                }
+            }
+        });
+        writer.close();
+        report("async-written", System.nanoTime() - start);
+        assertEquals(ROWS, asyncRepository.findAll().size());
+    }
+
+    private static void run(String name, Consumer<TransactionCreateRequest> create) throws Exception {
+        List<TransactionCreateRequest> requests = new ArrayList<>(ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            requests.add(new TransactionCreateRequest(String.valueOf(i), new BigDecimal(i % 10_000 + 1 + ".25"),
+                    "USD", LocalDateTime.of(2024, 1, 1, i % 24, 0), "Benchmark payment " + i, "PENDING",
+                    1000L + i % 97, 5000L + i % 89, "BM" + i));
+        }
+        ExecutorService clients = Executors.newFixedThreadPool(CLIENTS);
+        long start = System.nanoTime();
+        List<Future<?>> running = new ArrayList<>();
+        for (int c = 0; c < CLIENTS; c++) {
+            int client = c;
+            running.add(clients.submit(() -> {
+                for (int i = client; i < ROWS; i += CLIENTS) {
+                    create.accept(requests.get(i));
+                }
+            }));
+        }
+        for (Future<?> client : running) {
+            client.get();
+        }
+        long elapsed = System.nanoTime() - start;
+        clients.shutdown();
+        report(name, elapsed);
+    }
+
+    private static void report(String name, long nanos) {
+        System.out.printf("%s: rows=%d clients=%d elapsed=%d ms throughput=%d creates/s%n", name, ROWS, CLIENTS,
+                nanos / 1_000_000, ROWS * 1_000_000_000L / Math.max(1, nanos));
+    }
+
+    private static TransactionEventPublisher publisher() {
+        return new TransactionEventPublisher(new TransactionEventBuffer(8192));
+    }
+
+    private static CapacityGuard unlimited() {
+        return new CapacityGuard(() -> 0, Long.MAX_VALUE, Long.MAX_VALUE, () -> { }, 0);
+    }
+}
@@ -0,0 +1,64 @@
+package com.hsbc.transactionmanagement.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hsbc.transactionmanagement.bulk.BulkImportFormat;
+import com.hsbc.transactionmanagement.bulk.BulkImportResult;
+import com.hsbc.transactionmanagement.bulk.BulkImporter;
+import com.hsbc.transactionmanagement.capacity.CapacityGuard;
+import com.hsbc.transactionmanagement.event.TransactionEventBuffer;
+import com.hsbc.transactionmanagement.event.TransactionEventPublisher;
+import com.hsbc.transactionmanagement.repository.InMemoryTransactionRepository;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.io.BufferedWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Rows per second of a CSV bulk import with the default chunking on all cores.
+ * Run with {@code ./mvnw test -Dtest=BulkImportBenchmarkTest -Dbenchmark=true}; set
+ * {@code -Dbenchmark.rows} to change the file size (the search index needs heap for large runs).
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+public class BulkImportBenchmarkTest {
+
+    private static final int ROWS = Integer.getInteger("benchmark.rows", 200_000);
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("Benchmark CSV bulk import throughput")
+    void benchmarkCsvImport() throws Exception {
+        Path file = tempDir.resolve("feed.csv");
+        try (BufferedWriter writer = Files.newBufferedWriter(file)) {
+            writer.write("transactionId,amount,currency,timestamp,description,status,"
+                    + "senderAccountId,receiverAccountId,referenceNumber\n");
+            for (int i = 0; i < ROWS; i++) {
+                writer.write(i + "," + (i % 10_000 + 1) + ".25,USD,2024-01-01T" + String.format("%02d", i % 24)
+                        + ":00:00,Benchmark payment " + i + ",PENDING," + (1000 + i % 97) + "," + (5000 + i % 89)
+                        + ",BM" + i + "\n");
+            }
+        }
+        BulkImporter importer = new BulkImporter(new InMemoryTransactionRepository(),
+                new TransactionEventPublisher(new TransactionEventBuffer(8192)),
+                new CapacityGuard(() -> 0, Long.MAX_VALUE, Long.MAX_VALUE, () -> { }, 0),
+                new ObjectMapper().findAndRegisterModules(),
+                Validation.buildDefaultValidatorFactory().getValidator(),
+                DataSize.ofMegabytes(8), 1024, 0, 100);
+
+        BulkImportResult result = importer.importFile(file, BulkImportFormat.CSV);
+
+        System.out.printf("rows=%d bytes=%d elapsed=%d ms throughput=%d rows/s (%d cores)%n",
+                result.importedRows(), result.bytes(), result.elapsedMillis(), result.rowsPerSecond(),
+                Runtime.getRuntime().availableProcessors());
+        assertEquals(ROWS, result.importedRows());
+    }
+}
@@ -0,0 +1,115 @@
+package com.hsbc.transactionmanagement.benchmark;
+
+import com.hsbc.transactionmanagement.TransactionManagementApplication;
+import com.hsbc.transactionmanagement.partition.PartitionMembership;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Requests per second of a create-then-read workload against 1 to N partitioned nodes, each
+ * request sent to a random node so most are routed to another one. All nodes share this JVM
+ * and its cores, so the numbers show the cost of routing and how load spreads rather than
+ * the scaling of separate machines.
+ * Run with {@code ./mvnw test -Dtest=PartitionScalingBenchmarkTest -Dbenchmark=true}; set
+ * {@code -Dbenchmark.nodes}, {@code -Dbenchmark.clients} and {@code -Dbenchmark.seconds} to change the run.
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+public class PartitionScalingBenchmarkTest {
+
+    private static final int MAX_NODES = Integer.getInteger("benchmark.nodes", 4);
+    private static final int CLIENTS = Integer.getInteger("benchmark.clients", 32);
+    private static final int SECONDS = Integer.getInteger("benchmark.seconds", 10);
+
+    @Test
+    @DisplayName("Benchmark throughput from 1 to N partitioned nodes")
+    void benchmarkScaling() throws Exception {
+        for (int count = 1; count <= MAX_NODES; count++) {
+            List<ConfigurableApplicationContext> nodes = new ArrayList<>();
+            try {
+                Map<String, URI> members = new LinkedHashMap<>();
+                for (int i = 1; i <= count; i++) {
+                    ConfigurableApplicationContext node = new SpringApplicationBuilder(
+                            TransactionManagementApplication.class)
+                            .run("--server.port=0", "--spring.devtools.restart.enabled=false",
+                                    "--logging.level.com.hsbc=WARN", "--transaction.admission.enabled=false",
+                                    "--transaction.partition.enabled=true", "--transaction.partition.node-id=node-" + i);
+                    nodes.add(node);
+                    members.put("node-" + i,
+                            URI.create("http://localhost:" + node.getEnvironment().getProperty("local.server.port")));
+                }
+                nodes.forEach(node -> node.getBean(PartitionMembership.class).update(members));
+                run(count, new ArrayList<>(members.values()));
+            } finally {
+                nodes.forEach(ConfigurableApplicationContext::close);
+            }
+        }
+    }
+
+    private void run(int nodeCount, List<URI> urls) throws Exception {
+        HttpClient http = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        AtomicLong requests = new AtomicLong();
+        AtomicLong failures = new AtomicLong();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(SECONDS);
+        ExecutorService clients = Executors.newFixedThreadPool(CLIENTS);
+        List<Future<?>> running = new ArrayList<>();
+        for (int c = 0; c < CLIENTS; c++) {
+            int client = c;
+            running.add(clients.submit(() -> {
+                for (long i = 0; System.nanoTime() < deadline; i++) {
+                    String id = nodeCount + "-" + client + "-" + i;
+                    HttpResponse<Void> created = http.send(HttpRequest.newBuilder(
+                                    randomNode(urls).resolve("/api/transactions"))
+                            .header("Content-Type", "application/json")
+                            .POST(HttpRequest.BodyPublishers.ofString("""
+                                    {"transactionId": "%s", "amount": 12.50, "currency": "USD",
+                                     "timestamp": "2024-01-01T12:00:00", "description": "Benchmark payment",
+                                     "status": "PENDING", "senderAccountId": 1001, "receiverAccountId": 2001,
+                                     "referenceNumber": "BM-%s"}
+                                    """.formatted(id, id)))
+                            .build(), HttpResponse.BodyHandlers.discarding());
+                    HttpResponse<Void> found = http.send(HttpRequest.newBuilder(
+                                    randomNode(urls).resolve("/api/transactions/" + id)).GET().build(),
+                            HttpResponse.BodyHandlers.discarding());
+                    requests.addAndGet(2);
+                    if (created.statusCode() != 201 || found.statusCode() != 200) {
+                        failures.incrementAndGet();
+                    }
+                }
+                return null;
+            }));
+        }
+        for (Future<?> client : running) {
+            client.get();
+        }
+        clients.shutdown();
+
+        System.out.printf("nodes=%d clients=%d requests=%d throughput=%d req/s failures=%d (%d cores)%n",
+                nodeCount, CLIENTS, requests.get(), requests.get() / SECONDS, failures.get(),
+                Runtime.getRuntime().availableProcessors());
+        assertEquals(0, failures.get());
+    }
+
+    private static URI randomNode(List<URI> urls) {
+        return urls.get(ThreadLocalRandom.current().nextInt(urls.size()));
+    }
+}
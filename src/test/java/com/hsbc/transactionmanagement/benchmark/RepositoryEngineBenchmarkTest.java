@@ -0,0 +1,103 @@
+package com.hsbc.transactionmanagement.benchmark;
+
+import com.hsbc.transactionmanagement.model.Transaction;
+import com.hsbc.transactionmanagement.repository.InMemoryTransactionRepository;
+import com.hsbc.transactionmanagement.repository.LsmProperties;
+import com.hsbc.transactionmanagement.repository.LsmTransactionRepository;
+import com.hsbc.transactionmanagement.repository.TransactionRepository;
+import com.hsbc.transactionmanagement.storage.lsm.LsmStore;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Insert, point read and time-range read throughput of the in-memory and the LSM engine on
+ * the same data. Set {@code -Dbenchmark.rows} to go past what the heap holds; the LSM run
+ * also reports its table count, block cache hit rate and bloom filter savings.
+ * Run with {@code ./mvnw test -Dtest=RepositoryEngineBenchmarkTest -Dbenchmark=true}.
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+public class RepositoryEngineBenchmarkTest {
+
+    private static final int ROWS = Integer.getInteger("benchmark.rows", 200_000);
+    private static final int LOOKUPS = 200_000;
+    private static final int RANGES = 2_000;
+    private static final LocalDateTime BASE = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+    @TempDir
+    Path directory;
+
+    @Test
+    @DisplayName("Benchmark the in-memory engine against the LSM engine")
+    void benchmarkEngines() throws Exception {
+        run("memory", new InMemoryTransactionRepository());
+        LsmProperties properties = new LsmProperties(directory, DataSize.ofMegabytes(16), DataSize.ofKilobytes(4),
+                DataSize.ofMegabytes(64), 10, 4, false);
+        try (LsmTransactionRepository lsm = new LsmTransactionRepository(properties, Duration.ofHours(1))) {
+            run("lsm", lsm);
+            LsmStore store = lsm.store();
+            long gets = store.blockCacheHits() + store.blockCacheMisses();
+            System.out.printf("lsm    %d tables, %.1f MB on disk, block cache hit rate %.1f%%, %d bloom negatives%n",
+                    store.tableCount(), store.tableBytes() / 1e6,
+                    gets == 0 ? 0.0 : 100.0 * store.blockCacheHits() / gets, store.bloomNegatives());
+        }
+    }
+
+    private static void run(String engine, TransactionRepository repository) {
+        long start = System.nanoTime();
+        for (int i = 0; i < ROWS; i++) {
+            repository.save(transaction(i));
+        }
+        double insertNanos = (double) (System.nanoTime() - start) / ROWS;
+
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        start = System.nanoTime();
+        int found = 0;
+        for (int i = 0; i < LOOKUPS; i++) {
+            // one lookup in ten misses, which is where bloom filters pay off
+            int id = random.nextInt(ROWS + ROWS / 9);
+            if (repository.findById(String.valueOf(1_000_000_000L + id)).isPresent()) {
+                found++;
+            }
+        }
+        double lookupNanos = (double) (System.nanoTime() - start) / LOOKUPS;
+
+        start = System.nanoTime();
+        long rows = 0;
+        for (int i = 0; i < RANGES; i++) {
+            LocalDateTime from = BASE.plusSeconds(random.nextInt(ROWS));
+            rows += repository.findByTimestampBetween(from, from.plusSeconds(100)).size();
+        }
+        double rangeMicros = (System.nanoTime() - start) / 1e3 / RANGES;
+
+        System.out.printf("%-6s insert %7.0f ns/txn  findById %6.0f ns  range(100s) %7.1f us (%d rows)%n",
+                engine, insertNanos, lookupNanos, rangeMicros, rows / RANGES);
+        assertEquals(ROWS, repository.count());
+        assertTrue(found > 0);
+    }
+
+    private static Transaction transaction(int i) {
+        return Transaction.builder()
+                .transactionId(String.valueOf(1_000_000_000L + i))
+                .amount(new BigDecimal(i % 10_000).add(new BigDecimal("0.25")))
+                .currency(i % 3 == 0 ? "EUR" : "USD")
+                .timestamp(BASE.plusSeconds(i))
+                .description("Payment " + i)
+                .status(i % 4 == 0 ? "COMPLETED" : "PENDING")
+                .senderAccountId(100_000L + i % 5_000)
+                .receiverAccountId(200_000L + i % 7_000)
+                .referenceNumber("REF" + i)
+                .build();
+    }
+}
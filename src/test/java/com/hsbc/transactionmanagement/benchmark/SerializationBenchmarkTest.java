@@ -0,0 +1,100 @@
+package com.hsbc.transactionmanagement.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.hsbc.transactionmanagement.model.TransactionResponse;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.json.JsonTest;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Bytes per transaction and serialization time of the negotiable wire formats, using the
+ * same mapper configuration as the HTTP message converters: Boot's customized builder, with
+ * the binary formats derived from it as {@code WebConfig} does.
+ * Run with {@code ./mvnw test -Dtest=SerializationBenchmarkTest -Dbenchmark=true}.
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+@JsonTest
+public class SerializationBenchmarkTest {
+
+    private static final int TRANSACTIONS = 10_000;
+    private static final int ROUNDS = 20;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private Jackson2ObjectMapperBuilder objectMapperBuilder;
+
+    @Test
+    @DisplayName("Benchmark JSON vs CBOR vs Smile encoding of TransactionResponse lists")
+    void benchmarkWireFormats() throws Exception {
+        List<TransactionResponse> responses = sampleResponses();
+        Map<String, ObjectMapper> mappers = new LinkedHashMap<>();
+        mappers.put("json", objectMapper);
+        mappers.put("cbor", objectMapperBuilder.factory(new CBORFactory()).build());
+        mappers.put("smile", objectMapperBuilder.factory(new SmileFactory()).build());
+
+        Map<String, Integer> sizes = new LinkedHashMap<>();
+        for (Map.Entry<String, ObjectMapper> entry : mappers.entrySet()) {
+            ObjectMapper mapper = entry.getValue();
+            // Warm up the serializers before timing
+            for (int i = 0; i < ROUNDS; i++) {
+                mapper.writeValueAsBytes(responses);
+            }
+            long start = System.nanoTime();
+            int bytes = 0;
+            for (int i = 0; i < ROUNDS; i++) {
+                bytes = mapper.writeValueAsBytes(responses).length;
+            }
+            long encodeNanos = (System.nanoTime() - start) / ROUNDS;
+
+            byte[] encoded = mapper.writeValueAsBytes(responses);
+            start = System.nanoTime();
+            for (int i = 0; i < ROUNDS; i++) {
+                mapper.readValue(encoded, TransactionResponse[].class);
+            }
+            long decodeNanos = (System.nanoTime() - start) / ROUNDS;
+
+            sizes.put(entry.getKey(), bytes);
+            System.out.printf("%-6s %7.1f bytes/txn  encode %6.0f ns/txn  decode %6.0f ns/txn%n",
+                    entry.getKey(), (double) bytes / TRANSACTIONS,
+                    (double) encodeNanos / TRANSACTIONS, (double) decodeNanos / TRANSACTIONS);
+        }
+
+        assertTrue(sizes.get("cbor") < sizes.get("json"));
+        assertTrue(sizes.get("smile") < sizes.get("json"));
+    }
+
+    private static List<TransactionResponse> sampleResponses() {
+        List<TransactionResponse> responses = new ArrayList<>(TRANSACTIONS);
+        LocalDateTime base = LocalDateTime.of(2024, 1, 1, 0, 0);
+        for (int i = 0; i < TRANSACTIONS; i++) {
+            responses.add(new TransactionResponse(
+                    String.valueOf(1_000_000_000L + i),
+                    new BigDecimal(i % 10_000).add(new BigDecimal("0.25")),
+                    i % 3 == 0 ? "EUR" : "USD",
+                    base.plusSeconds(i),
+                    "Payment " + i,
+                    i % 4 == 0 ? "COMPLETED" : "PENDING",
+                    100_000L + i % 5_000,
+                    200_000L + i % 7_000,
+                    "REF" + i
+            ));
+        }
+        return responses;
+    }
+}
@@ -0,0 +1,116 @@
+package com.hsbc.transactionmanagement.benchmark;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.net.ConnectException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * Time from launching a fresh JVM to the first successful API response, which is what the
+ * readiness probe ends up waiting for. Run with
+ * {@code ./mvnw test -Dtest=StartupBenchmarkTest -Dbenchmark=true}.
+ * <p>
+ * By default the application starts from the test classpath. To compare builds, point
+ * {@code -Dbenchmark.jar} at a packaged or extracted jar and pass JVM flags in
+ * {@code -Dbenchmark.jvmArgs}, e.g. a {@code fast-startup} build with
+ * {@code "-XX:SharedArchiveFile=app.jsa -Dspring.aot.enabled=true"}.
+ * {@code -Dbenchmark.runs} sets the number of cold starts.
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+public class StartupBenchmarkTest {
+
+    private static final int RUNS = Integer.getInteger("benchmark.runs", 3);
+    private static final String JAR = System.getProperty("benchmark.jar", "");
+    private static final String JVM_ARGS = System.getProperty("benchmark.jvmArgs", "");
+    private static final String MAIN_CLASS = "com.hsbc.transactionmanagement.TransactionManagementApplication";
+    private static final Duration START_TIMEOUT = Duration.ofMinutes(2);
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("Benchmark time to first request from a cold JVM")
+    void benchmarkTimeToFirstRequest() throws Exception {
+        HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(1)).build();
+        long[] millis = new long[RUNS];
+        for (int run = 0; run < RUNS; run++) {
+            millis[run] = timeToFirstRequest(client, run);
+            System.out.printf("run=%d time-to-first-request=%d ms%n", run + 1, millis[run]);
+        }
+        Arrays.sort(millis);
+        System.out.printf("runs=%d min=%d ms median=%d ms max=%d ms (%s%s)%n", RUNS, millis[0], millis[RUNS / 2],
+                millis[RUNS - 1], JAR.isEmpty() ? "test classpath" : JAR, JVM_ARGS.isEmpty() ? "" : ", " + JVM_ARGS);
+    }
+
+    private long timeToFirstRequest(HttpClient client, int run) throws Exception {
+        int port = freePort();
+        Path log = tempDir.resolve("startup-" + run + ".log");
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/transactions/paged"))
+                .timeout(Duration.ofSeconds(5))
+                .build();
+
+        long start = System.nanoTime();
+        Process process = new ProcessBuilder(command(port))
+                .redirectErrorStream(true)
+                .redirectOutput(log.toFile())
+                .start();
+        try {
+            while (System.nanoTime() - start < START_TIMEOUT.toNanos()) {
+                if (!process.isAlive()) {
+                    fail("Application exited with " + process.exitValue() + ":\n" + Files.readString(log));
+                }
+                try {
+                    if (client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                        return (System.nanoTime() - start) / 1_000_000;
+                    }
+                } catch (ConnectException notListeningYet) {
+                    // Keep polling until the connector is up
+                }
+                Thread.sleep(10);
+            }
+            fail("Application did not answer within " + START_TIMEOUT + ":\n" + Files.readString(log));
+            return -1;
+        } finally {
+            process.destroy();
+            process.waitFor();
+        }
+    }
+
+    private static List<String> command(int port) {
+        List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        if (!JVM_ARGS.isBlank()) {
+            command.addAll(Arrays.asList(JVM_ARGS.trim().split("\\s+")));
+        }
+        // Devtools is on the test classpath and would otherwise fork a restart classloader
+        command.add("-Dspring.devtools.restart.enabled=false");
+        if (JAR.isEmpty()) {
+            command.addAll(List.of("-cp", System.getProperty("java.class.path"), MAIN_CLASS));
+        } else {
+            command.addAll(List.of("-jar", JAR));
+        }
+        command.add("--server.port=" + port);
+        return command;
+    }
+
+    private static int freePort() throws Exception {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package com.hsbc.transactionmanagement.bulk;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hsbc.transactionmanagement.capacity.CapacityGuard;
+import com.hsbc.transactionmanagement.event.TransactionEventBuffer;
+import com.hsbc.transactionmanagement.event.TransactionEventPublisher;
+import com.hsbc.transactionmanagement.exceptions.TransactionValidationException;
+import com.hsbc.transactionmanagement.model.Transaction;
+import com.hsbc.transactionmanagement.repository.InMemoryTransactionRepository;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BulkImporterTest {
+
+    private static final String HEADER = "transactionId,amount,currency,timestamp,description,status,"
+            + "senderAccountId,receiverAccountId,referenceNumber\n";
+
+    @TempDir
+    Path tempDir;
+
+    private InMemoryTransactionRepository repository;
+    private TransactionEventBuffer eventBuffer;
+    private BulkImporter importer;
+
+    @BeforeEach
+    void setUp() {
+        repository = new InMemoryTransactionRepository();
+        eventBuffer = new TransactionEventBuffer(1024);
+        // Tiny chunks and batches so even small files exercise chunk boundaries and several inserts
+        importer = new BulkImporter(repository, new TransactionEventPublisher(eventBuffer),
+                new CapacityGuard(repository::estimatedBytes, Long.MAX_VALUE, Long.MAX_VALUE, () -> { }, 0),
+                new ObjectMapper().findAndRegisterModules(),
+                Validation.buildDefaultValidatorFactory().getValidator(),
+                DataSize.ofBytes(64), 3, 4, 10);
+    }
+
+    @Test
+    @DisplayName("Should import every valid CSV row across chunks")
+    void shouldImportCsvAcrossChunks() throws Exception {
+        // Given
+        StringBuilder csv = new StringBuilder(HEADER);
+        for (int i = 0; i < 50; i++) {
+            csv.append(i).append(",10.50,USD,2024-01-01T10:00:00,\"Rent, flat ").append(i)
+                    .append("\",PENDING,1001,2001,REF").append(i).append("\r\n");
+        }
+        Path file = write("feed.csv", csv.toString());
+        long headBefore = eventBuffer.headSequence();
+
+        // When
+        BulkImportResult result = importer.importFile(file, BulkImportFormat.CSV);
+
+        // Then
+        assertEquals(50, result.importedRows());
+        assertEquals(0, result.rejectedRows());
+        assertEquals(Files.size(file), result.bytes());
+        assertEquals(50, repository.findAll().size());
+        assertEquals("Rent, flat 7", repository.findById("7").orElseThrow().getDescription());
+        assertEquals(new BigDecimal("10.50"), repository.findById("49").orElseThrow().getAmount());
+        assertEquals(headBefore + 50, eventBuffer.headSequence());
+        assertTrue(importer.currentProgress().isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should skip and report invalid rows and duplicate IDs")
+    void shouldReportRejectedRows() throws Exception {
+        // Given
+        String good = "1,10.00,USD,2024-01-01T10:00:00,ok,PENDING,1001,2001,REF1\n";
+        String badAmount = "2,abc,USD,2024-01-01T10:00:00,bad,PENDING,1001,2001,REF2\n";
+        String sameAccounts = "3,10.00,USD,2024-01-01T10:00:00,bad,PENDING,1001,1001,REF3\n";
+        String missingCurrency = "4,10.00,,2024-01-01T10:00:00,bad,PENDING,1001,2001,REF4\n";
+        String duplicate = "9,99.00,USD,2024-01-01T10:00:00,dup,PENDING,1001,2001,REF5\n";
+        Path file = write("feed.csv", HEADER + good + badAmount + sameAccounts + missingCurrency + duplicate);
+        repository.save(Transaction.builder().transactionId("9").amount(new BigDecimal("1.00")).status("PENDING").build());
+
+        // When
+        BulkImportResult result = importer.importFile(file, BulkImportFormat.CSV);
+
+        // Then
+        assertEquals(1, result.importedRows());
+        assertEquals(4, result.rejectedRows());
+        List<BulkImportResult.RejectedRow> rejections = result.rejections();
+        assertEquals(4, rejections.size());
+        long badAmountOffset = (HEADER + good).getBytes(StandardCharsets.UTF_8).length;
+        assertEquals(badAmountOffset, rejections.get(0).offset());
+        assertTrue(rejections.get(1).reason().contains("Sender and receiver"));
+        assertTrue(rejections.get(2).reason().startsWith("currency:"));
+        assertTrue(rejections.get(3).reason().contains("Duplicate transaction ID: 9"));
+        assertEquals(new BigDecimal("1.00"), repository.findById("9").orElseThrow().getAmount());
+    }
+
+    @Test
+    @DisplayName("Should import NDJSON from a stream")
+    void shouldImportNdjsonStream() throws Exception {
+        // Given
+        String ndjson = """
+                {"transactionId":"a","amount":5.00,"currency":"EUR","timestamp":"2024-01-01T10:00:00","status":"COMPLETED","senderAccountId":1,"receiverAccountId":2}
+
+                {"transactionId":"b","amount":6.00,"currency":"EUR","timestamp":"2024-01-01T11:00:00","status":"PENDING","senderAccountId":1,"receiverAccountId":2}
+                {"transactionId":"c",
+                """;
+
+        // When
+        BulkImportResult result = importer.importStream(
+                new ByteArrayInputStream(ndjson.getBytes(StandardCharsets.UTF_8)), BulkImportFormat.NDJSON, "test");
+
+        // Then
+        assertEquals(2, result.importedRows());
+        assertEquals(1, result.rejectedRows());
+        assertTrue(result.rejections().get(0).reason().startsWith("Malformed JSON"));
+        assertEquals("COMPLETED", repository.findById("a").orElseThrow().getStatus());
+    }
+
+    @Test
+    @DisplayName("Should refuse a CSV file without the required columns")
+    void shouldRejectIncompleteHeader() throws Exception {
+        Path file = write("feed.csv", "transactionId,amount\n1,10.00\n");
+
+        TransactionValidationException ex = assertThrows(TransactionValidationException.class,
+                () -> importer.importFile(file, BulkImportFormat.CSV));
+        assertEquals("INVALID_IMPORT_HEADER", ex.getErrorCode());
+        assertTrue(repository.findAll().isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should reject rows once the store is over its hard capacity limit")
+    void shouldRejectRowsOverCapacity() throws Exception {
+        // Given
+        BulkImporter guarded = new BulkImporter(repository, new TransactionEventPublisher(eventBuffer),
+                new CapacityGuard(repository::estimatedBytes, 1, 1, () -> { }, 0),
+                new ObjectMapper().findAndRegisterModules(),
+                Validation.buildDefaultValidatorFactory().getValidator(),
+                DataSize.ofBytes(64), 3, 1, 10);
+        repository.save(Transaction.builder().transactionId("existing").amount(new BigDecimal("1.00"))
+                .status("PENDING").build());
+        Path file = write("feed.csv", HEADER + "1,10.00,USD,2024-01-01T10:00:00,ok,PENDING,1001,2001,REF1\n");
+
+        // When
+        BulkImportResult result = guarded.importFile(file, BulkImportFormat.CSV);
+
+        // Then
+        assertEquals(0, result.importedRows());
+        assertEquals(1, result.rejectedRows());
+        assertTrue(result.rejections().get(0).reason().startsWith("Transaction store at capacity"));
+        assertFalse(repository.existsById("1"));
+    }
+
+    private Path write(String name, String content) throws Exception {
+        Path file = tempDir.resolve(name);
+        Files.writeString(file, content);
+        return file;
+    }
+}
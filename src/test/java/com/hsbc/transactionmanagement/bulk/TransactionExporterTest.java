@@ -0,0 +1,104 @@
+package com.hsbc.transactionmanagement.bulk;
+
+import com.hsbc.transactionmanagement.exceptions.TransactionValidationException;
+import com.hsbc.transactionmanagement.model.Transaction;
+import com.hsbc.transactionmanagement.repository.InMemoryTransactionRepository;
+import com.hsbc.transactionmanagement.storage.columnar.ColumnarFileReader;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TransactionExporterTest {
+
+    private static final LocalDateTime BASE = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+    @TempDir
+    Path tempDir;
+
+    private InMemoryTransactionRepository repository;
+    private TransactionExporter exporter;
+
+    @BeforeEach
+    void setUp() {
+        repository = new InMemoryTransactionRepository();
+        for (int i = 0; i < 100; i++) {
+            repository.save(Transaction.builder()
+                    .transactionId(String.valueOf(i))
+                    .amount(new BigDecimal("10.00"))
+                    .currency("USD")
+                    .timestamp(BASE.plusHours(i))
+                    .status(i % 2 == 0 ? "COMPLETED" : "PENDING")
+                    .senderAccountId(1L)
+                    .receiverAccountId(2L)
+                    .build());
+        }
+        // Small groups and two workers so the export pipelines several groups
+        exporter = new TransactionExporter(repository, tempDir.resolve("exports"), 8, 2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        exporter.shutdown();
+    }
+
+    @Test
+    @DisplayName("Should write a complete export file to the export directory")
+    void shouldExportEverythingToDirectory() throws Exception {
+        // When
+        ExportResult result = exporter.exportToDirectory(ExportFilter.all());
+
+        // Then
+        Path file = Path.of(result.file());
+        assertEquals(100, result.rows());
+        assertEquals(13, result.rowGroups());
+        assertEquals(Files.size(file), result.bytes());
+        try (var listing = Files.list(tempDir.resolve("exports"))) {
+            assertEquals(List.of(file), listing.toList());
+        }
+        try (ColumnarFileReader reader = ColumnarFileReader.open(file)) {
+            assertEquals(100, reader.getRowCount());
+        }
+    }
+
+    @Test
+    @DisplayName("Should apply time range and status filters")
+    void shouldExportFilteredRows() throws Exception {
+        // Given
+        ExportFilter filter = new ExportFilter(BASE.plusHours(10), BASE.plusHours(20), Set.of("COMPLETED"));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // When
+        ExportResult result = exporter.export(filter, out);
+
+        // Then
+        assertNull(result.file());
+        assertEquals(5, result.rows());
+        Path file = tempDir.resolve("filtered.txc");
+        Files.write(file, out.toByteArray());
+        try (ColumnarFileReader reader = ColumnarFileReader.open(file)) {
+            assertEquals(List.of("10", "12", "14", "16", "18"),
+                    reader.stream().map(Transaction::getTransactionId).toList());
+        }
+    }
+
+    @Test
+    @DisplayName("Should reject an empty range and unknown statuses")
+    void shouldValidateFilter() {
+        assertThrows(TransactionValidationException.class,
+                () -> new ExportFilter(BASE, BASE, Set.of()));
+        assertThrows(TransactionValidationException.class,
+                () -> new ExportFilter(null, null, Set.of("SETTLED")));
+    }
+}
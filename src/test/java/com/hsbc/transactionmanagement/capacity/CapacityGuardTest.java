@@ -0,0 +1,82 @@
+package com.hsbc.transactionmanagement.capacity;
+
+import com.hsbc.transactionmanagement.exceptions.CapacityExceededException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CapacityGuardTest {
+
+    private final AtomicLong footprint = new AtomicLong();
+    private final AtomicInteger reliefRuns = new AtomicInteger();
+
+    @Test
+    @DisplayName("Should step through the levels as the footprint grows and shrinks")
+    void shouldReportLevels() {
+        // Given
+        CapacityGuard guard = guard(0);
+
+        // When & Then
+        footprint.set(99);
+        assertEquals(CapacityGuard.Level.NORMAL, guard.level());
+        footprint.set(100);
+        assertEquals(CapacityGuard.Level.SOFT_LIMIT, guard.level());
+        footprint.set(200);
+        assertEquals(CapacityGuard.Level.HARD_LIMIT, guard.level());
+        footprint.set(50);
+        assertEquals(CapacityGuard.Level.NORMAL, guard.level());
+    }
+
+    @Test
+    @DisplayName("Should reject writes only over the hard limit")
+    void shouldRejectWritesOverHardLimit() {
+        // Given
+        CapacityGuard guard = guard(0);
+
+        // When
+        footprint.set(150);
+        guard.checkWrite();
+        footprint.set(250);
+
+        // Then
+        CapacityExceededException ex = assertThrows(CapacityExceededException.class, guard::checkWrite);
+        assertEquals(250, ex.getEstimatedBytes());
+        assertEquals(200, ex.getHardLimitBytes());
+        assertFalse(guard.tryAdmitWrite());
+        assertEquals(2, guard.getRejectedWrites());
+    }
+
+    @Test
+    @DisplayName("Should ask for relief over the soft limit at most once per interval")
+    void shouldRateLimitRelief() {
+        // Given
+        CapacityGuard guard = guard(TimeUnit.HOURS.toNanos(1));
+
+        // When
+        footprint.set(50);
+        guard.checkWrite();
+        footprint.set(120);
+        guard.checkWrite();
+        guard.checkWrite();
+        guard.level();
+
+        // Then
+        assertEquals(1, reliefRuns.get());
+    }
+
+    @Test
+    @DisplayName("Should refuse a soft limit above the hard limit")
+    void shouldRejectInvertedLimits() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new CapacityGuard(footprint::get, 300, 200, () -> { }, 0));
+    }
+
+    private CapacityGuard guard(long reliefIntervalNanos) {
+        return new CapacityGuard(footprint::get, 100, 200, reliefRuns::incrementAndGet, reliefIntervalNanos);
+    }
+}
@@ -0,0 +1,76 @@
+package com.hsbc.transactionmanagement.controller;
+
+import com.hsbc.transactionmanagement.config.AppConfig;
+import com.hsbc.transactionmanagement.exceptions.TransactionValidationException;
+import com.hsbc.transactionmanagement.model.LedgerEntry;
+import com.hsbc.transactionmanagement.model.LedgerPage;
+import com.hsbc.transactionmanagement.model.Transaction;
+import com.hsbc.transactionmanagement.service.TransactionService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(AccountController.class)
+@Import(AppConfig.class)
+public class AccountControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private TransactionService transactionService;
+
+    @Test
+    @DisplayName("Should return a ledger page with directions, balances and the next cursor")
+    void shouldGetLedgerPage() throws Exception {
+        Transaction received = Transaction.builder()
+                .transactionId("2")
+                .amount(new BigDecimal("50.00"))
+                .timestamp(LocalDateTime.of(2024, 1, 1, 12, 0))
+                .status("COMPLETED")
+                .senderAccountId(2001L)
+                .receiverAccountId(1001L)
+                .build();
+        Transaction sent = received.toBuilder()
+                .transactionId("1")
+                .senderAccountId(1001L)
+                .receiverAccountId(2001L)
+                .build();
+        when(transactionService.getAccountLedger(1001L, "9", 2)).thenReturn(new LedgerPage(1001L, List.of(
+                new LedgerEntry(8, received, new BigDecimal("30.00")),
+                new LedgerEntry(6, sent, new BigDecimal("-20.00"))), "6"));
+
+        mockMvc.perform(get("/api/accounts/1001/transactions").param("cursor", "9").param("size", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.accountId").value(1001))
+                .andExpect(jsonPath("$.entries[0].transaction.transactionId").value("2"))
+                .andExpect(jsonPath("$.entries[0].direction").value("CREDIT"))
+                .andExpect(jsonPath("$.entries[0].runningBalance").value(30.00))
+                .andExpect(jsonPath("$.entries[1].direction").value("DEBIT"))
+                .andExpect(jsonPath("$.nextCursor").value("6"));
+    }
+
+    @Test
+    @DisplayName("Should reject an invalid cursor with 422")
+    void shouldRejectInvalidCursor() throws Exception {
+        when(transactionService.getAccountLedger(1001L, "x", 20))
+                .thenThrow(new TransactionValidationException("Invalid ledger cursor: x", "INVALID_CURSOR"));
+
+        mockMvc.perform(get("/api/accounts/1001/transactions").param("cursor", "x"))
+                .andExpect(status().isUnprocessableEntity())
+                .andExpect(jsonPath("$.errorCode").value("INVALID_CURSOR"));
+    }
+}
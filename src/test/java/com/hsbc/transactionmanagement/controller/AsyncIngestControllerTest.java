@@ -0,0 +1,173 @@
+package com.hsbc.transactionmanagement.controller;
+
+import com.hsbc.transactionmanagement.config.AppConfig;
+import com.hsbc.transactionmanagement.exceptions.IngestBufferFullException;
+import com.hsbc.transactionmanagement.idempotency.IdempotencyStore;
+import com.hsbc.transactionmanagement.ingest.AsyncTransactionWriter;
+import com.hsbc.transactionmanagement.ingest.IngestOutcome;
+import com.hsbc.transactionmanagement.model.Transaction;
+import com.hsbc.transactionmanagement.service.TransactionService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Optional;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest({AsyncIngestController.class, TransactionController.class})
+@Import({AppConfig.class, IdempotencyStore.class})
+public class AsyncIngestControllerTest {
+
+    private static final String BODY = """
+            {"transactionId": "1", "amount": 100.00, "currency": "USD", "timestamp": "2024-01-01T10:00:00",
+             "status": "PENDING", "senderAccountId": 1001, "receiverAccountId": 2001}
+            """;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private AsyncTransactionWriter writer;
+
+    @MockBean
+    private TransactionService transactionService;
+
+    @Test
+    @DisplayName("Should answer an asynchronous create with 202 and where to find the outcome")
+    void shouldAcceptAsynchronousCreate() throws Exception {
+        when(writer.submit(any())).thenReturn(
+                new IngestOutcome("1", IngestOutcome.State.QUEUED, null, null, Instant.now()));
+
+        mockMvc.perform(post("/api/transactions")
+                        .header("Prefer", "respond-async")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(BODY))
+                .andExpect(status().isAccepted())
+                .andExpect(header().string("Location", "/api/transactions/1/ingest"))
+                .andExpect(header().string("Preference-Applied", "respond-async"))
+                .andExpect(jsonPath("$.transactionId").value("1"))
+                .andExpect(jsonPath("$.state").value("QUEUED"));
+    }
+
+    @Test
+    @DisplayName("Should find respond-async among other preferences, and create synchronously without it")
+    void shouldMatchRespondAsyncPreference() throws Exception {
+        when(writer.submit(any())).thenReturn(
+                new IngestOutcome("1", IngestOutcome.State.QUEUED, null, null, Instant.now()));
+        when(transactionService.createTransaction(any())).thenReturn(Transaction.builder()
+                .transactionId("1").amount(new BigDecimal("100.00")).status("PENDING").build());
+
+        mockMvc.perform(post("/api/transactions")
+                        .header("Prefer", "return=minimal, Respond-Async; foo=bar, wait=5")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(BODY))
+                .andExpect(status().isAccepted());
+        mockMvc.perform(post("/api/transactions")
+                        .header("Prefer", "wait=5")
+                        .header("Prefer", "respond-async")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(BODY))
+                .andExpect(status().isAccepted());
+        mockMvc.perform(post("/api/transactions")
+                        .header("Prefer", "return=minimal, respond-asynchronously")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(BODY))
+                .andExpect(status().isCreated());
+
+        verify(writer, times(2)).submit(any());
+        verify(transactionService).createTransaction(any());
+    }
+
+    @Test
+    @DisplayName("Should queue an asynchronous create once per Idempotency-Key and replay it after")
+    void shouldReplayAsynchronousCreateWithSameIdempotencyKey() throws Exception {
+        when(writer.submit(any())).thenReturn(
+                new IngestOutcome("1", IngestOutcome.State.QUEUED, null, null, Instant.now()));
+
+        mockMvc.perform(post("/api/transactions")
+                        .header("Prefer", "respond-async")
+                        .header("Idempotency-Key", "key-1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(BODY))
+                .andExpect(status().isAccepted())
+                .andExpect(header().string("Idempotent-Replayed", "false"));
+        mockMvc.perform(post("/api/transactions")
+                        .header("Prefer", "respond-async")
+                        .header("Idempotency-Key", "key-1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(BODY))
+                .andExpect(status().isAccepted())
+                .andExpect(header().string("Idempotent-Replayed", "true"))
+                .andExpect(header().string("Location", "/api/transactions/1/ingest"))
+                .andExpect(jsonPath("$.transactionId").value("1"));
+
+        verify(writer, times(1)).submit(any());
+    }
+
+    @Test
+    @DisplayName("Should reject reusing an Idempotency-Key across synchronous and asynchronous creates")
+    void shouldRejectIdempotencyKeyReusedAcrossModes() throws Exception {
+        when(writer.submit(any())).thenReturn(
+                new IngestOutcome("1", IngestOutcome.State.QUEUED, null, null, Instant.now()));
+
+        mockMvc.perform(post("/api/transactions")
+                        .header("Prefer", "respond-async")
+                        .header("Idempotency-Key", "key-2")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(BODY))
+                .andExpect(status().isAccepted());
+        mockMvc.perform(post("/api/transactions")
+                        .header("Idempotency-Key", "key-2")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(BODY))
+                .andExpect(status().isUnprocessableEntity());
+
+        verify(transactionService, never()).createTransaction(any());
+    }
+
+    @Test
+    @DisplayName("Should answer 503 with Retry-After when the ingest buffer is full")
+    void shouldRejectWhenBufferFull() throws Exception {
+        when(writer.submit(any())).thenThrow(new IngestBufferFullException(1024));
+
+        mockMvc.perform(post("/api/transactions")
+                        .header("Prefer", "respond-async")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(BODY))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "1"))
+                .andExpect(jsonPath("$.errorCode").value("INGEST_BUFFER_FULL"));
+    }
+
+    @Test
+    @DisplayName("Should return the outcome of a create, or 404 for an unknown ID")
+    void shouldGetOutcome() throws Exception {
+        when(writer.outcome("1")).thenReturn(Optional.of(new IngestOutcome("1", IngestOutcome.State.REJECTED,
+                "TRANSACTION_DUPLICATE", "Duplicate transaction detected: 1", Instant.now())));
+        when(writer.outcome("2")).thenReturn(Optional.empty());
+
+        mockMvc.perform(get("/api/transactions/1/ingest"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.state").value("REJECTED"))
+                .andExpect(jsonPath("$.errorCode").value("TRANSACTION_DUPLICATE"));
+        mockMvc.perform(get("/api/transactions/2/ingest"))
+                .andExpect(status().isNotFound());
+    }
+}
@@ -1,28 +1,44 @@
 package com.hsbc.transactionmanagement.controller;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import com.hsbc.transactionmanagement.config.AppConfig;
+import com.hsbc.transactionmanagement.exceptions.BatchUpdateRejectedException;
+import com.hsbc.transactionmanagement.exceptions.CapacityExceededException;
+import com.hsbc.transactionmanagement.exceptions.SnapshotExpiredException;
 import com.hsbc.transactionmanagement.exceptions.TransactionNotFoundException;
+import com.hsbc.transactionmanagement.idempotency.IdempotencyStore;
+import com.hsbc.transactionmanagement.model.StatusHistory;
 import com.hsbc.transactionmanagement.model.Transaction;
+import com.hsbc.transactionmanagement.model.TransactionBatchStatusUpdateRequest;
 import com.hsbc.transactionmanagement.model.TransactionCreateRequest;
 import com.hsbc.transactionmanagement.model.TransactionUpdateRequest;
 import com.hsbc.transactionmanagement.service.TransactionService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.parallel.Execution;
+import org.junit.jupiter.api.parallel.ExecutionMode;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 
 import java.math.BigDecimal;
+import java.time.Instant;
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
 
 import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
@@ -30,6 +46,9 @@ import static org.springframework.test.web.servlet.request.MockMvcRequestBuilder
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @WebMvcTest(TransactionController.class)
+@Import({AppConfig.class, IdempotencyStore.class})
+// Shared mock beans are reset between tests, so methods must not interleave
+@Execution(ExecutionMode.SAME_THREAD)
 public class TransactionControllerTest {
 
     @Autowired
@@ -119,6 +138,33 @@ public class TransactionControllerTest {
         verify(transactionService).getTransactionById("999");
     }
 
+    @Test
+    @DisplayName("Should return the status history, oldest first")
+    void shouldReturnStatusHistory() throws Exception {
+        long created = Instant.parse("2024-01-01T09:00:00Z").toEpochMilli();
+        long[] history = StatusHistory.append(StatusHistory.start("PENDING", created),
+                "PENDING", "COMPLETED", created + 60_000);
+        when(transactionService.getTransactionById("1")).thenReturn(
+                sampleTransaction.toBuilder().status("COMPLETED").statusHistory(history).build());
+
+        mockMvc.perform(get("/api/transactions/1/history"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.transactionId", is("1")))
+                .andExpect(jsonPath("$.history[*].status", contains("PENDING", "COMPLETED")))
+                .andExpect(jsonPath("$.history[0].enteredAt", is("2024-01-01T09:00:00Z")))
+                .andExpect(jsonPath("$.history[1].enteredAt", is("2024-01-01T09:01:00Z")));
+    }
+
+    @Test
+    @DisplayName("Should return 404 for the history of an unknown transaction")
+    void shouldReturn404ForHistoryOfUnknownTransaction() throws Exception {
+        when(transactionService.getTransactionById("999"))
+                .thenThrow(new TransactionNotFoundException("999"));
+
+        mockMvc.perform(get("/api/transactions/999/history"))
+                .andExpect(status().isNotFound());
+    }
+
     @Test
     @DisplayName("Should update transaction status")
     void shouldUpdateTransactionStatus() throws Exception {
@@ -219,6 +265,35 @@ public class TransactionControllerTest {
         verify(transactionService).getAllTransactionsPaged(any());
     }
 
+    @Test
+    @DisplayName("Should pass the requested sort on to the service")
+    void shouldGetSortedPagedTransactions() throws Exception {
+        when(transactionService.getAllTransactionsPaged(any()))
+                .thenReturn(new PageImpl<>(List.of(sampleTransaction), PageRequest.of(0, 5), 1));
+
+        mockMvc.perform(get("/api/transactions/paged").param("sort", "amount,desc"))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/transactions/paged").param("sort", "status", "timestamp,desc"))
+                .andExpect(status().isOk());
+
+        verify(transactionService).getAllTransactionsPaged(PageRequest.of(0, 5, Sort.by(Sort.Direction.DESC, "amount")));
+        verify(transactionService).getAllTransactionsPaged(
+                PageRequest.of(0, 5, Sort.by(Sort.Order.asc("status"), Sort.Order.desc("timestamp"))));
+    }
+
+    @Test
+    @DisplayName("Should reject an unsupported sort with 422")
+    void shouldRejectUnsupportedSort() throws Exception {
+        mockMvc.perform(get("/api/transactions/paged").param("sort", "currency"))
+                .andExpect(status().isUnprocessableEntity())
+                .andExpect(jsonPath("$.errorCode").value("INVALID_SORT"));
+        mockMvc.perform(get("/api/transactions/paged").param("sort", "amount", "timestamp"))
+                .andExpect(status().isUnprocessableEntity())
+                .andExpect(jsonPath("$.errorCode").value("INVALID_SORT"));
+
+        verify(transactionService, never()).getAllTransactionsPaged(any());
+    }
+
     @Test
     @DisplayName("Should validate transaction create request")
     void shouldValidateTransactionCreateRequest() throws Exception {
@@ -242,4 +317,257 @@ public class TransactionControllerTest {
 
         verify(transactionService, never()).createTransaction(any());
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Should get transactions by time range")
+    void shouldGetTransactionsByTimeRange() throws Exception {
+        LocalDateTime from = LocalDateTime.of(2024, 1, 1, 0, 0);
+        LocalDateTime to = LocalDateTime.of(2024, 1, 2, 0, 0);
+        when(transactionService.getTransactionsByTimeRange(eq(from), eq(to), any()))
+                .thenReturn(new PageImpl<>(List.of(sampleTransaction), PageRequest.of(0, 5), 1));
+
+        mockMvc.perform(get("/api/transactions/range")
+                .param("from", "2024-01-01T00:00:00")
+                .param("to", "2024-01-02T00:00:00"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content", hasSize(1)))
+                .andExpect(jsonPath("$.content[0].transactionId", is("1")));
+
+        verify(transactionService).getTransactionsByTimeRange(eq(from), eq(to), any());
+    }
+
+    @Test
+    @DisplayName("Should pass the requested sort of a time range on to the service")
+    void shouldGetSortedTransactionsByTimeRange() throws Exception {
+        LocalDateTime from = LocalDateTime.of(2024, 1, 1, 0, 0);
+        LocalDateTime to = LocalDateTime.of(2024, 1, 2, 0, 0);
+        when(transactionService.getTransactionsByTimeRange(eq(from), eq(to), any()))
+                .thenReturn(new PageImpl<>(List.of(sampleTransaction), PageRequest.of(1, 10), 11));
+
+        mockMvc.perform(get("/api/transactions/range")
+                .param("from", "2024-01-01T00:00:00")
+                .param("to", "2024-01-02T00:00:00")
+                .param("page", "1")
+                .param("size", "10")
+                .param("sort", "amount,desc"))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/transactions/range")
+                .param("from", "2024-01-01T00:00:00")
+                .param("to", "2024-01-02T00:00:00")
+                .param("sort", "currency"))
+                .andExpect(status().isUnprocessableEntity())
+                .andExpect(jsonPath("$.errorCode").value("INVALID_SORT"));
+
+        verify(transactionService).getTransactionsByTimeRange(from, to,
+                PageRequest.of(1, 10, Sort.by(Sort.Direction.DESC, "amount")));
+        verifyNoMoreInteractions(transactionService);
+    }
+
+    @Test
+    @DisplayName("Should search transactions")
+    void shouldSearchTransactions() throws Exception {
+        when(transactionService.searchTransactions(eq("REF123"), any()))
+                .thenReturn(new PageImpl<>(List.of(sampleTransaction), PageRequest.of(0, 5), 1));
+
+        mockMvc.perform(get("/api/transactions/search")
+                .param("q", "REF123"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalElements", is(1)))
+                .andExpect(jsonPath("$.content[0].referenceNumber", is("REF123456")));
+
+        verify(transactionService).searchTransactions(eq("REF123"), any());
+    }
+
+    @Test
+    @DisplayName("Should replay create response for a repeated Idempotency-Key")
+    void shouldReplayCreateForRepeatedIdempotencyKey() throws Exception {
+        when(transactionService.createTransaction(any(TransactionCreateRequest.class)))
+                .thenReturn(sampleTransaction);
+
+        for (String replayed : List.of("false", "true")) {
+            mockMvc.perform(post("/api/transactions")
+                    .header("Idempotency-Key", "retry-key-1")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(createRequest)))
+                    .andExpect(status().isCreated())
+                    .andExpect(header().string("Idempotent-Replayed", replayed))
+                    .andExpect(jsonPath("$.transactionId", is("1")));
+        }
+
+        verify(transactionService, times(1)).createTransaction(any(TransactionCreateRequest.class));
+    }
+
+    @Test
+    @DisplayName("Should negotiate CBOR and Smile while keeping JSON the default")
+    void shouldNegotiateBinaryFormats() throws Exception {
+        when(transactionService.getTransactionById("1")).thenReturn(sampleTransaction);
+        when(transactionService.getAllTransactionsPaged(any()))
+                .thenReturn(new PageImpl<>(List.of(sampleTransaction), PageRequest.of(0, 5), 1));
+
+        mockMvc.perform(get("/api/transactions/1"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON));
+
+        byte[] cbor = mockMvc.perform(get("/api/transactions/1")
+                .accept("application/cbor"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("application/cbor"))
+                .andReturn().getResponse().getContentAsByteArray();
+        JsonNode single = new CBORMapper().readTree(cbor);
+        assertEquals("1", single.get("transactionId").asText());
+        assertEquals(0,
+                new BigDecimal("100.00").compareTo(single.get("amount").decimalValue()));
+
+        byte[] smile = mockMvc.perform(get("/api/transactions/paged")
+                .accept("application/vnd.hsbc.transaction.v1+smile"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("application/vnd.hsbc.transaction.v1+smile"))
+                .andReturn().getResponse().getContentAsByteArray();
+        JsonNode page = new SmileMapper().readTree(smile);
+        assertEquals("1", page.get("content").get(0).get("transactionId").asText());
+    }
+
+    @Test
+    @DisplayName("Should accept CBOR request bodies")
+    void shouldAcceptCborRequestBody() throws Exception {
+        when(transactionService.createTransaction(any(TransactionCreateRequest.class)))
+                .thenReturn(sampleTransaction);
+        CBORMapper cborMapper = CBORMapper.builder().findAndAddModules().build();
+
+        mockMvc.perform(post("/api/transactions")
+                .contentType("application/cbor")
+                .content(cborMapper.writeValueAsBytes(createRequest)))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.transactionId", is("1")));
+
+        verify(transactionService).createTransaction(eq(createRequest));
+    }
+
+    @Test
+    @DisplayName("Should answer If-None-Match on a transaction with 304")
+    void shouldReturnNotModifiedForMatchingTransactionETag() throws Exception {
+        sampleTransaction.setVersion(7);
+        when(transactionService.getTransactionById("1")).thenReturn(sampleTransaction);
+
+        String etag = mockMvc.perform(get("/api/transactions/1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"t7-json\""))
+                .andReturn().getResponse().getHeader("ETag");
+
+        mockMvc.perform(get("/api/transactions/1").header("If-None-Match", etag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+
+        // Binary representations carry their own tags
+        mockMvc.perform(get("/api/transactions/1")
+                .header("If-None-Match", etag)
+                .accept("application/cbor"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"t7-cbor\""));
+
+        sampleTransaction.setVersion(8);
+        mockMvc.perform(get("/api/transactions/1").header("If-None-Match", etag))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"t8-json\""));
+    }
+
+    @Test
+    @DisplayName("Should skip loading an unchanged collection")
+    void shouldReturnNotModifiedForUnchangedCollection() throws Exception {
+        when(transactionService.getCollectionVersion()).thenReturn(42L);
+
+        mockMvc.perform(get("/api/transactions").header("If-None-Match", "\"c42-json\""))
+                .andExpect(status().isNotModified());
+        mockMvc.perform(get("/api/transactions/paged").header("If-None-Match", "\"c42-json\""))
+                .andExpect(status().isNotModified());
+
+        verify(transactionService, never()).getAllTransactions();
+        verify(transactionService, never()).getAllTransactionsPaged(any());
+    }
+
+    @Test
+    @DisplayName("Should open a snapshot and page through it with the returned token")
+    void shouldPageThroughSnapshot() throws Exception {
+        when(transactionService.openSnapshot()).thenReturn("snap-1");
+        when(transactionService.getSnapshotVersion("snap-1")).thenReturn(9L);
+        when(transactionService.getAllTransactionsPaged(eq("snap-1"), any()))
+                .thenReturn(new PageImpl<>(List.of(sampleTransaction), PageRequest.of(0, 1), 2));
+
+        mockMvc.perform(get("/api/transactions/paged").param("size", "1").param("snapshot", "true"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Snapshot-Token", "snap-1"))
+                .andExpect(header().string("ETag", "\"s9-json\""))
+                .andExpect(jsonPath("$.totalElements").value(2));
+
+        mockMvc.perform(get("/api/transactions/paged").param("page", "1").param("size", "1")
+                        .header("X-Snapshot-Token", "snap-1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Snapshot-Token", "snap-1"));
+
+        verify(transactionService, times(1)).openSnapshot();
+        verify(transactionService, never()).getAllTransactionsPaged(any());
+    }
+
+    @Test
+    @DisplayName("Should answer an expired snapshot token with 410")
+    void shouldRejectExpiredSnapshotToken() throws Exception {
+        when(transactionService.getSnapshotVersion("gone")).thenThrow(new SnapshotExpiredException("gone"));
+
+        mockMvc.perform(get("/api/transactions/paged").header("X-Snapshot-Token", "gone"))
+                .andExpect(status().isGone())
+                .andExpect(jsonPath("$.errorCode").value("SNAPSHOT_EXPIRED"))
+                .andExpect(jsonPath("$.snapshotToken").value("gone"));
+    }
+
+    @Test
+    @DisplayName("Should answer a create over capacity with 507")
+    void shouldRejectCreateOverCapacity() throws Exception {
+        when(transactionService.createTransaction(any(TransactionCreateRequest.class)))
+                .thenThrow(new CapacityExceededException(2048, 1024));
+
+        mockMvc.perform(post("/api/transactions")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(createRequest)))
+                .andExpect(status().isInsufficientStorage())
+                .andExpect(jsonPath("$.errorCode").value("CAPACITY_EXCEEDED"))
+                .andExpect(jsonPath("$.hardLimitBytes").value(1024));
+    }
+
+    @Test
+    @DisplayName("Should update the status of a batch of transactions")
+    void shouldUpdateStatusOfBatch() throws Exception {
+        sampleTransaction.setStatus("COMPLETED");
+        when(transactionService.updateTransactionStatuses(List.of("1"), "COMPLETED")).thenReturn(List.of(sampleTransaction));
+
+        mockMvc.perform(post("/api/transactions/status-updates")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(
+                                new TransactionBatchStatusUpdateRequest(List.of("1"), "COMPLETED"))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].transactionId").value("1"))
+                .andExpect(jsonPath("$[0].status").value("COMPLETED"));
+    }
+
+    @Test
+    @DisplayName("Should list every failure of a rejected batch")
+    void shouldReportRejectedBatch() throws Exception {
+        when(transactionService.updateTransactionStatuses(List.of("1", "2"), "COMPLETED"))
+                .thenThrow(new BatchUpdateRejectedException(List.of(
+                        new BatchUpdateRejectedException.Failure("2", "TRANSACTION_NOT_FOUND", "Transaction not found with ID: 2"))));
+
+        mockMvc.perform(post("/api/transactions/status-updates")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(
+                                new TransactionBatchStatusUpdateRequest(List.of("1", "2"), "COMPLETED"))))
+                .andExpect(status().isUnprocessableEntity())
+                .andExpect(jsonPath("$.errorCode").value("BATCH_UPDATE_REJECTED"))
+                .andExpect(jsonPath("$.failures[0].transactionId").value("2"))
+                .andExpect(jsonPath("$.failures[0].errorCode").value("TRANSACTION_NOT_FOUND"));
+
+        mockMvc.perform(post("/api/transactions/status-updates")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(
+                                new TransactionBatchStatusUpdateRequest(List.of(), "COMPLETED"))))
+                .andExpect(status().isBadRequest());
+    }
+}
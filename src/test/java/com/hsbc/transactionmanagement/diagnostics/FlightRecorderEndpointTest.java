@@ -0,0 +1,113 @@
+package com.hsbc.transactionmanagement.diagnostics;
+
+import com.hsbc.transactionmanagement.model.Transaction;
+import com.hsbc.transactionmanagement.repository.InMemoryTransactionRepository;
+import com.hsbc.transactionmanagement.repository.MeteredTransactionRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpStatus;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FlightRecorderEndpointTest {
+
+    private FlightRecorderEndpoint endpoint;
+
+    @BeforeEach
+    void setUp() {
+        endpoint = new FlightRecorderEndpoint(new FlightRecordingProperties(
+                "default", Duration.ofMinutes(1), Duration.ofMinutes(5), DataSize.ofMegabytes(10)));
+    }
+
+    @AfterEach
+    void tearDown() {
+        endpoint.destroy();
+    }
+
+    @Test
+    @DisplayName("Should capture application events in a downloadable recording")
+    void shouldCaptureApplicationEvents() throws Exception {
+        // Given
+        WebEndpointResponse<FlightRecorderEndpoint.RecordingStatus> started = endpoint.start(null);
+        assertEquals(WebEndpointResponse.STATUS_OK, started.getStatus());
+        long id = started.getBody().id();
+
+        // When
+        MeteredTransactionRepository repository =
+                new MeteredTransactionRepository(new InMemoryTransactionRepository(), new SimpleMeterRegistry());
+        repository.save(Transaction.builder()
+                .transactionId("jfr-1")
+                .amount(new BigDecimal("10.00"))
+                .currency("USD")
+                .timestamp(LocalDateTime.now())
+                .status("PENDING")
+                .build());
+        StatusTransitionEvent.emit("jfr-1", "PENDING", "COMPLETED");
+        ValidationFailureEvent.emit("jfr-2", "INVALID_AMOUNT", "Amount must be positive");
+        FlightRecorderEndpoint.RecordingStatus stopped = endpoint.stop();
+        Resource download = endpoint.download(id);
+
+        // Then
+        assertEquals("STOPPED", stopped.state());
+        List<RecordedEvent> events = readEvents(download).stream()
+                .filter(event -> event.getEventType().getName().startsWith("com.hsbc.transactionmanagement."))
+                .toList();
+        assertTrue(events.stream().anyMatch(event -> event.getEventType().getName().endsWith(".RepositoryOperation")
+                && "SAVE".equals(event.getString("operation"))
+                && "jfr-1".equals(event.getString("transactionId"))));
+        assertTrue(events.stream().anyMatch(event -> event.getEventType().getName().endsWith(".StatusTransition")
+                && "COMPLETED".equals(event.getString("toStatus"))));
+        assertTrue(events.stream().anyMatch(event -> event.getEventType().getName().endsWith(".ValidationFailure")
+                && "INVALID_AMOUNT".equals(event.getString("errorCode"))));
+    }
+
+    @Test
+    @DisplayName("Should refuse to start a second recording while one is running")
+    void shouldRefuseConcurrentRecording() throws Exception {
+        // Given
+        endpoint.start(Duration.ofHours(1));
+
+        // When
+        WebEndpointResponse<FlightRecorderEndpoint.RecordingStatus> second = endpoint.start(null);
+
+        // Then
+        assertEquals(HttpStatus.CONFLICT.value(), second.getStatus());
+        assertEquals(Duration.ofMinutes(5), endpoint.status().duration(), "Requested duration is capped");
+    }
+
+    @Test
+    @DisplayName("Should report nothing for an unknown recording")
+    void shouldReportNothingForUnknownRecording() throws Exception {
+        assertNull(endpoint.status());
+        assertNull(endpoint.stop());
+        assertNull(endpoint.download(42));
+    }
+
+    private static List<RecordedEvent> readEvents(Resource download) throws IOException {
+        Path copy = Files.createTempFile("recording-", ".jfr");
+        try (InputStream in = download.getInputStream()) {
+            Files.copy(in, copy, StandardCopyOption.REPLACE_EXISTING);
+            return RecordingFile.readAllEvents(copy);
+        } finally {
+            Files.deleteIfExists(copy);
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.hsbc.transactionmanagement.event;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TransactionEventBufferTest {
+
+    @Test
+    @DisplayName("Should read events in sequence order from a cursor")
+    void shouldReadEventsFromCursor() {
+        // Given
+        TransactionEventBuffer buffer = new TransactionEventBuffer(8);
+        long start = buffer.headSequence();
+        buffer.publish(TransactionEventType.CREATED, "1", "PENDING", null);
+        buffer.publish(TransactionEventType.STATUS_UPDATED, "1", "COMPLETED", "PENDING");
+        buffer.publish(TransactionEventType.DELETED, "1", null, null);
+
+        // When
+        TransactionEventBuffer.Batch first = buffer.read(start, 2);
+        TransactionEventBuffer.Batch second = buffer.read(first.nextCursor(), 10);
+
+        // Then
+        assertEquals(2, first.events().size());
+        assertEquals(TransactionEventType.CREATED, first.events().get(0).type());
+        assertEquals("PENDING", first.events().get(1).previousStatus());
+        assertEquals(1, second.events().size());
+        assertEquals(TransactionEventType.DELETED, second.events().get(0).type());
+        assertEquals(0, second.missed());
+        assertTrue(buffer.read(second.nextCursor(), 10).events().isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should report missed events when a reader is lapped")
+    void shouldReportMissedEventsWhenLapped() {
+        // Given
+        TransactionEventBuffer buffer = new TransactionEventBuffer(4);
+        long start = buffer.headSequence();
+        for (int i = 0; i < 10; i++) {
+            buffer.publish(TransactionEventType.CREATED, String.valueOf(i), "PENDING", null);
+        }
+
+        // When
+        TransactionEventBuffer.Batch batch = buffer.read(start, 100);
+
+        // Then
+        assertEquals(6, batch.missed());
+        assertEquals(4, batch.events().size());
+        assertEquals("6", batch.events().get(0).transactionId());
+        assertEquals(buffer.headSequence(), batch.nextCursor());
+    }
+
+    @Test
+    @DisplayName("Should assign unique sequences to concurrent publishers")
+    void shouldHandleConcurrentPublishers() throws Exception {
+        // Given
+        TransactionEventBuffer buffer = new TransactionEventBuffer(1024);
+        long start = buffer.headSequence();
+        int threads = 8;
+        int perThread = 100;
+        ExecutorService executorService = Executors.newFixedThreadPool(threads);
+        CountDownLatch latch = new CountDownLatch(threads);
+
+        // When
+        for (int t = 0; t < threads; t++) {
+            final int thread = t;
+            executorService.submit(() -> {
+                for (int i = 0; i < perThread; i++) {
+                    buffer.publish(TransactionEventType.CREATED, thread + "-" + i, "PENDING", null);
+                }
+                latch.countDown();
+            });
+        }
+        assertTrue(latch.await(10, TimeUnit.SECONDS));
+        executorService.shutdown();
+
+        // Then
+        TransactionEventBuffer.Batch batch = buffer.read(start, 10_000);
+        Set<String> ids = new HashSet<>();
+        long expectedSequence = start;
+        for (TransactionEvent event : batch.events()) {
+            assertEquals(expectedSequence++, event.sequence());
+            ids.add(event.transactionId());
+        }
+        assertEquals(threads * perThread, ids.size());
+        assertEquals(0, batch.missed());
+    }
+
+    @Test
+    @DisplayName("Should round capacity up to a power of two")
+    void shouldRoundCapacityToPowerOfTwo() {
+        assertEquals(8, new TransactionEventBuffer(5).capacity());
+        assertThrows(IllegalArgumentException.class, () -> new TransactionEventBuffer(1));
+    }
+}
@@ -0,0 +1,88 @@
+package com.hsbc.transactionmanagement.event;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TransactionEventStreamerTest {
+
+    private final TransactionEventBuffer buffer = new TransactionEventBuffer(64);
+    // An hour between ticks, so only the test dispatches
+    private final TransactionEventStreamer streamer = new TransactionEventStreamer(buffer, Duration.ofHours(1), 256,
+            Duration.ofMinutes(1), Duration.ofMillis(200));
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        streamer.shutdown();
+    }
+
+    @Test
+    @DisplayName("Should keep streaming to other subscribers while one is stalled, then drop the stalled one")
+    void shouldNotLetStalledSubscriberHoldUpOthers() throws Exception {
+        // Given
+        CountingEmitter stalled = new CountingEmitter(release);
+        CountingEmitter healthy = new CountingEmitter(null);
+        streamer.subscribe(stalled, null);
+        streamer.subscribe(healthy, null);
+        for (int i = 0; i < 3; i++) {
+            buffer.publish(TransactionEventType.CREATED, String.valueOf(i), "PENDING", null);
+        }
+
+        // When
+        streamer.dispatch();
+        awaitTrue(() -> healthy.sent.get() == 3);
+        buffer.publish(TransactionEventType.DELETED, "0", null, null);
+        streamer.dispatch();
+        awaitTrue(() -> healthy.sent.get() == 4);
+        Thread.sleep(250);
+        streamer.dispatch();
+
+        // Then
+        assertEquals(0, stalled.sent.get());
+        assertEquals(1, streamer.subscriberCount());
+    }
+
+    private static void awaitTrue(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "Timed out waiting");
+            Thread.sleep(5);
+        }
+    }
+
+    // Counts events; blocks every send until the latch opens when given one
+    private static final class CountingEmitter extends SseEmitter {
+
+        private final CountDownLatch gate;
+        private final AtomicInteger sent = new AtomicInteger();
+
+        private CountingEmitter(CountDownLatch gate) {
+            this.gate = gate;
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            if (gate != null) {
+                try {
+                    gate.await();
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException(ex);
+                }
+                return;
+            }
+            sent.incrementAndGet();
+        }
+    }
+}
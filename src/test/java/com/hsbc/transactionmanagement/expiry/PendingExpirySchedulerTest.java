@@ -0,0 +1,215 @@
+package com.hsbc.transactionmanagement.expiry;
+
+import com.hsbc.transactionmanagement.event.TransactionEventBuffer;
+import com.hsbc.transactionmanagement.event.TransactionEventPublisher;
+import com.hsbc.transactionmanagement.exceptions.BatchUpdateRejectedException;
+import com.hsbc.transactionmanagement.exceptions.TransactionValidationException;
+import com.hsbc.transactionmanagement.model.Transaction;
+import com.hsbc.transactionmanagement.repository.InMemoryTransactionRepository;
+import com.hsbc.transactionmanagement.service.TransactionService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+public class PendingExpirySchedulerTest {
+
+    private static final long START = Instant.parse("2024-01-01T10:00:00Z").toEpochMilli();
+    private static final long MINUTE = Duration.ofMinutes(1).toMillis();
+
+    private final AtomicLong now = new AtomicLong(START);
+    private InMemoryTransactionRepository repository;
+    private TransactionEventPublisher publisher;
+    private TransactionService service;
+    private PendingExpiryScheduler scheduler;
+
+    @BeforeEach
+    void setUp() {
+        repository = new InMemoryTransactionRepository();
+        publisher = new TransactionEventPublisher(new TransactionEventBuffer(64));
+        service = mock(TransactionService.class);
+        // Echo the IDs back as updated transactions
+        when(service.updateTransactionStatuses(anyList(), eq("FAILED"))).thenAnswer(invocation ->
+                invocation.<List<String>>getArgument(0).stream().map(id -> transaction(id, "FAILED")).toList());
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (scheduler != null) {
+            scheduler.close();
+        }
+    }
+
+    @Test
+    @DisplayName("Should fail a pending transaction once the timeout has passed")
+    void shouldExpirePendingTransaction() {
+        // Given
+        scheduler = scheduler(500);
+        publisher.transactionCreated(transaction("1", "PENDING"));
+        publisher.transactionCreated(transaction("2", "COMPLETED"));
+        assertEquals(1, scheduler.pendingCount());
+
+        // When / Then
+        now.set(START + 29 * MINUTE);
+        assertEquals(0, scheduler.tick());
+        verifyNoInteractions(service);
+
+        now.set(START + 30 * MINUTE);
+        assertEquals(1, scheduler.tick());
+        verify(service).updateTransactionStatuses(List.of("1"), "FAILED");
+        assertEquals(0, scheduler.pendingCount());
+        assertEquals(1, scheduler.expiredCount());
+    }
+
+    @Test
+    @DisplayName("Should stop the timer when a transaction settles or is deleted")
+    void shouldCancelOnSettleAndDelete() {
+        // Given
+        scheduler = scheduler(500);
+        publisher.transactionCreated(transaction("1", "PENDING"));
+        publisher.transactionCreated(transaction("2", "PENDING"));
+
+        // When
+        publisher.statusUpdated(transaction("1", "COMPLETED"), "PENDING");
+        publisher.transactionDeleted("2");
+        now.set(START + 60 * MINUTE);
+
+        // Then
+        assertEquals(0, scheduler.pendingCount());
+        assertEquals(0, scheduler.tick());
+        verifyNoInteractions(service);
+    }
+
+    @Test
+    @DisplayName("Should pick up stored pending transactions and expire them in batches")
+    void shouldExpireStoredPendingInBatches() {
+        // Given
+        for (int i = 1; i <= 5; i++) {
+            repository.save(transaction(String.valueOf(i), "PENDING"));
+        }
+        repository.save(transaction("6", "CANCELLED"));
+        scheduler = scheduler(2);
+        assertEquals(5, scheduler.pendingCount());
+
+        // When
+        now.set(START + 30 * MINUTE);
+
+        // Then
+        assertEquals(5, scheduler.tick());
+        verify(service, times(3)).updateTransactionStatuses(anyList(), eq("FAILED"));
+    }
+
+    @Test
+    @DisplayName("Should still expire the rest of a batch that a settled transaction rejected")
+    void shouldRetryBatchWithoutRejectedTransactions() {
+        // Given
+        scheduler = scheduler(500);
+        publisher.transactionCreated(transaction("1", "PENDING"));
+        publisher.transactionCreated(transaction("2", "PENDING"));
+        when(service.updateTransactionStatuses(List.of("1", "2"), "FAILED"))
+                .thenThrow(new BatchUpdateRejectedException(List.of(new BatchUpdateRejectedException.Failure(
+                        "1", "INVALID_STATUS_TRANSITION", "Cannot change status from COMPLETED to FAILED"))));
+
+        // When
+        now.set(START + 30 * MINUTE);
+
+        // Then
+        assertEquals(1, scheduler.tick());
+        verify(service).updateTransactionStatuses(List.of("2"), "FAILED");
+    }
+
+    @Test
+    @DisplayName("Should keep the timers of a batch that failed and try it again on the next tick")
+    void shouldRearmFailedBatch() {
+        // Given
+        scheduler = scheduler(1);
+        publisher.transactionCreated(transaction("1", "PENDING"));
+        publisher.transactionCreated(transaction("2", "PENDING"));
+        when(service.updateTransactionStatuses(List.of("1"), "FAILED"))
+                .thenThrow(new TransactionValidationException("Owned elsewhere", "BATCH_SPANS_PARTITIONS"))
+                .thenReturn(List.of(transaction("1", "FAILED")));
+
+        // When
+        now.set(START + 30 * MINUTE);
+        assertEquals(1, scheduler.tick());
+
+        // Then
+        verify(service).updateTransactionStatuses(List.of("2"), "FAILED");
+        assertEquals(1, scheduler.pendingCount());
+        now.set(START + 31 * MINUTE);
+        assertEquals(1, scheduler.tick());
+        verify(service, times(2)).updateTransactionStatuses(List.of("1"), "FAILED");
+        assertEquals(0, scheduler.pendingCount());
+        assertEquals(2, scheduler.expiredCount());
+    }
+
+    @Test
+    @DisplayName("Should not retry a failed batch whose transaction settled before the next tick")
+    void shouldNotRearmSettledTransaction() {
+        // Given
+        scheduler = scheduler(500);
+        publisher.transactionCreated(transaction("1", "PENDING"));
+        when(service.updateTransactionStatuses(List.of("1"), "FAILED"))
+                .thenThrow(new IllegalStateException("Store unavailable"));
+        now.set(START + 30 * MINUTE);
+        assertEquals(0, scheduler.tick());
+
+        // When
+        publisher.statusUpdated(transaction("1", "COMPLETED"), "PENDING");
+        now.set(START + 31 * MINUTE);
+
+        // Then
+        assertEquals(0, scheduler.tick());
+        assertEquals(0, scheduler.pendingCount());
+        verify(service, times(1)).updateTransactionStatuses(anyList(), eq("FAILED"));
+    }
+
+    @Test
+    @DisplayName("Should read transaction timestamps as UTC")
+    void shouldReadTimestampsAsUtc() {
+        // Given
+        scheduler = scheduler(500);
+        Transaction utc = transaction("1", "PENDING").toBuilder()
+                .timestamp(LocalDateTime.ofEpochSecond(START / 1000, 0, ZoneOffset.UTC))
+                .build();
+        publisher.transactionCreated(utc);
+
+        // When / Then
+        now.set(START + 30 * MINUTE - 1);
+        assertEquals(0, scheduler.tick());
+        now.set(START + 30 * MINUTE);
+        assertEquals(1, scheduler.tick());
+    }
+
+    private PendingExpiryScheduler scheduler(int batchSize) {
+        // Minute ticks, so the background thread never runs during a test
+        ExpiryProperties properties = new ExpiryProperties(true, Duration.ofMinutes(30), Duration.ofMinutes(1),
+                64, 3, batchSize);
+        return new PendingExpiryScheduler(service, repository, publisher, properties, now::get);
+    }
+
+    private static Transaction transaction(String id, String status) {
+        return Transaction.builder()
+                .transactionId(id)
+                .amount(new BigDecimal("10.00"))
+                .currency("USD")
+                .timestamp(LocalDateTime.ofInstant(Instant.ofEpochMilli(START), ZoneOffset.UTC))
+                .status(status)
+                .senderAccountId(1001L)
+                .receiverAccountId(2001L)
+                .build();
+    }
+}
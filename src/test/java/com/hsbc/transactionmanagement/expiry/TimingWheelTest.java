@@ -0,0 +1,99 @@
+package com.hsbc.transactionmanagement.expiry;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TimingWheelTest {
+
+    @Test
+    @DisplayName("Should return timers once their deadline is reached, in deadline order")
+    void shouldExpireInDeadlineOrder() {
+        // Given: 10 ms ticks, 4 slots per level
+        TimingWheel<String> wheel = new TimingWheel<>(10, 4, 3, 0);
+        wheel.schedule("c", 35);
+        wheel.schedule("a", 10);
+        wheel.schedule("b", 21);
+
+        // When / Then: deadlines round up to the tick
+        assertEquals(List.of(), wheel.advance(9));
+        assertEquals(List.of("a"), wheel.advance(19));
+        assertEquals(List.of("b"), wheel.advance(30));
+        assertEquals(List.of(), wheel.advance(39));
+        assertEquals(List.of("c"), wheel.advance(40));
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    @DisplayName("Should cascade timers down the levels and expire them on their own tick")
+    void shouldCascadeAcrossLevels() {
+        // Given: levels span 4, 16 and 64 ticks
+        TimingWheel<Integer> wheel = new TimingWheel<>(1, 4, 3, 0);
+        for (int deadline = 1; deadline < 64; deadline++) {
+            wheel.schedule(deadline, deadline);
+        }
+
+        // When
+        List<Integer> expired = new ArrayList<>();
+        for (long now = 1; now < 64; now++) {
+            List<Integer> due = wheel.advance(now);
+            // Then
+            assertEquals(List.of((int) now), due);
+            expired.addAll(due);
+        }
+        assertEquals(63, expired.size());
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    @DisplayName("Should not return cancelled timers")
+    void shouldCancelTimers() {
+        // Given
+        TimingWheel<String> wheel = new TimingWheel<>(1, 4, 2, 0);
+        TimingWheel.Timer<String> near = wheel.schedule("near", 2);
+        TimingWheel.Timer<String> far = wheel.schedule("far", 9);
+        wheel.schedule("kept", 9);
+
+        // When
+        assertTrue(wheel.cancel(near));
+        assertTrue(wheel.cancel(far));
+        assertFalse(wheel.cancel(far));
+
+        // Then
+        assertEquals(1, wheel.size());
+        assertEquals(List.of("kept"), wheel.advance(20));
+        assertFalse(near.isScheduled());
+    }
+
+    @Test
+    @DisplayName("Should hold deadlines beyond the top wheel until they come in reach")
+    void shouldParkDeadlinesBeyondHorizon() {
+        // Given: two levels reach 16 ticks ahead
+        TimingWheel<String> wheel = new TimingWheel<>(1, 4, 2, 0);
+        TimingWheel.Timer<String> timer = wheel.schedule("late", 100);
+
+        // When / Then
+        assertEquals(List.of(), wheel.advance(99));
+        assertTrue(timer.isScheduled());
+        assertEquals(List.of("late"), wheel.advance(100));
+    }
+
+    @Test
+    @DisplayName("Should return timers scheduled in the past on the next advance")
+    void shouldExpirePastDeadlines() {
+        // Given
+        TimingWheel<String> wheel = new TimingWheel<>(10, 8, 2, 1_000);
+
+        // When
+        wheel.schedule("overdue", 500);
+
+        // Then
+        assertEquals(1, wheel.size());
+        assertEquals(List.of("overdue"), wheel.advance(1_000));
+        assertEquals(0, wheel.size());
+    }
+}
@@ -0,0 +1,111 @@
+package com.hsbc.transactionmanagement.idempotency;
+
+import com.hsbc.transactionmanagement.exceptions.DuplicateTransactionException;
+import com.hsbc.transactionmanagement.exceptions.IdempotencyKeyReusedException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class IdempotencyStoreTest {
+
+    private IdempotencyStore store;
+
+    @BeforeEach
+    void setUp() {
+        store = new IdempotencyStore(Duration.ofMinutes(5), 100, Duration.ofSeconds(5));
+    }
+
+    @Test
+    @DisplayName("Should replay the stored response for a repeated key")
+    void shouldReplayStoredResponse() {
+        // Given
+        AtomicInteger executions = new AtomicInteger();
+
+        // When
+        IdempotencyStore.Result<String> first = store.execute("key-1", "request", () -> "response-" + executions.incrementAndGet());
+        IdempotencyStore.Result<String> second = store.execute("key-1", "request", () -> "response-" + executions.incrementAndGet());
+
+        // Then
+        assertFalse(first.replayed());
+        assertTrue(second.replayed());
+        assertEquals("response-1", second.response());
+        assertEquals(1, executions.get());
+    }
+
+    @Test
+    @DisplayName("Should reject a key reused with a different request")
+    void shouldRejectKeyReusedWithDifferentRequest() {
+        // Given
+        store.execute("key-1", "request", () -> "response");
+
+        // When & Then
+        assertThrows(IdempotencyKeyReusedException.class,
+                () -> store.execute("key-1", "other-request", () -> "response"));
+    }
+
+    @Test
+    @DisplayName("Should not remember failed requests")
+    void shouldNotRememberFailures() {
+        // Given
+        assertThrows(DuplicateTransactionException.class, () -> store.execute("key-1", "request", () -> {
+            throw new DuplicateTransactionException("1");
+        }));
+
+        // When
+        IdempotencyStore.Result<String> retry = store.execute("key-1", "request", () -> "response");
+
+        // Then
+        assertFalse(retry.replayed());
+        assertEquals("response", retry.response());
+    }
+
+    @Test
+    @DisplayName("Should coalesce concurrent in-flight duplicates into one execution")
+    void shouldCoalesceConcurrentDuplicates() throws Exception {
+        // Given
+        int concurrentRequests = 16;
+        AtomicInteger executions = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executorService = Executors.newFixedThreadPool(concurrentRequests);
+        List<Future<IdempotencyStore.Result<String>>> futures = new ArrayList<>();
+
+        // When
+        for (int i = 0; i < concurrentRequests; i++) {
+            futures.add(executorService.submit(() -> store.execute("key-1", "request", () -> {
+                executions.incrementAndGet();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return "response";
+            })));
+        }
+        Thread.sleep(100);
+        release.countDown();
+
+        // Then
+        int replayed = 0;
+        for (Future<IdempotencyStore.Result<String>> future : futures) {
+            IdempotencyStore.Result<String> result = future.get();
+            assertEquals("response", result.response());
+            if (result.replayed()) {
+                replayed++;
+            }
+        }
+        executorService.shutdown();
+        assertEquals(1, executions.get());
+        assertEquals(concurrentRequests - 1, replayed);
+    }
+}
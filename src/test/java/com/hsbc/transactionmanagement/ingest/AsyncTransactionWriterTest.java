@@ -0,0 +1,158 @@
+package com.hsbc.transactionmanagement.ingest;
+
+import com.hsbc.transactionmanagement.capacity.CapacityGuard;
+import com.hsbc.transactionmanagement.event.TransactionEvent;
+import com.hsbc.transactionmanagement.event.TransactionEventBuffer;
+import com.hsbc.transactionmanagement.event.TransactionEventPublisher;
+import com.hsbc.transactionmanagement.event.TransactionEventType;
+import com.hsbc.transactionmanagement.exceptions.DuplicateTransactionException;
+import com.hsbc.transactionmanagement.exceptions.TransactionValidationException;
+import com.hsbc.transactionmanagement.model.TransactionCreateRequest;
+import com.hsbc.transactionmanagement.repository.InMemoryTransactionRepository;
+import com.hsbc.transactionmanagement.service.TransactionServiceImpl;
+import com.hsbc.transactionmanagement.snapshot.SnapshotRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AsyncTransactionWriterTest {
+
+    private InMemoryTransactionRepository repository;
+    private TransactionEventBuffer eventBuffer;
+    private Cache cache;
+    private TransactionServiceImpl service;
+    private AtomicLong footprint;
+    private AsyncTransactionWriter writer;
+
+    @BeforeEach
+    void setUp() {
+        repository = new InMemoryTransactionRepository();
+        eventBuffer = new TransactionEventBuffer(1024);
+        CacheManager cacheManager = new ConcurrentMapCacheManager("transactions");
+        cache = cacheManager.getCache("transactions");
+        footprint = new AtomicLong();
+        CapacityGuard guard = new CapacityGuard(footprint::get, Long.MAX_VALUE - 1, Long.MAX_VALUE, () -> { }, 0);
+        TransactionEventPublisher publisher = new TransactionEventPublisher(eventBuffer);
+        service = new TransactionServiceImpl(repository, publisher,
+                new SnapshotRegistry(repository, Duration.ofMinutes(5), Duration.ofHours(1), 10), cacheManager, guard,
+                new SimpleMeterRegistry());
+        writer = new AsyncTransactionWriter(repository, service::insertAll, publisher, guard,
+                new IngestProperties(16, 4, Duration.ofMinutes(5), 1000));
+    }
+
+    @AfterEach
+    void tearDown() {
+        writer.close();
+    }
+
+    @Test
+    @DisplayName("Should queue a create and write it, its cache entry and its event on the writer thread")
+    void shouldWriteQueuedCreate() throws Exception {
+        // Given
+        long head = eventBuffer.headSequence();
+
+        // When
+        IngestOutcome queued = writer.submit(request("1"));
+
+        // Then
+        assertEquals(IngestOutcome.State.QUEUED, queued.state());
+        IngestOutcome outcome = awaitOutcome("1");
+        assertEquals(IngestOutcome.State.CREATED, outcome.state());
+        assertTrue(repository.existsById("1"));
+        assertNotNull(cache.get("1"));
+        TransactionEvent event = eventBuffer.read(head, 10).events().get(0);
+        assertEquals(TransactionEventType.CREATED, event.type());
+        assertEquals("1", event.transactionId());
+        assertEquals(1, writer.writtenCount());
+    }
+
+    @Test
+    @DisplayName("Should turn away invalid and duplicate creates before queuing them")
+    void shouldRejectInvalidAndDuplicateCreates() throws Exception {
+        // Given
+        writer.submit(request("1"));
+        awaitOutcome("1");
+        TransactionCreateRequest sameAccount = new TransactionCreateRequest("2", new BigDecimal("10.00"), "USD",
+                LocalDateTime.now(), null, "PENDING", 1001L, 1001L, null);
+
+        // When / Then
+        assertThrows(DuplicateTransactionException.class, () -> writer.submit(request("1")));
+        assertThrows(TransactionValidationException.class, () -> writer.submit(sameAccount));
+        assertTrue(writer.outcome("2").isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should reject a queued create the store has no room for and publish the rejection")
+    void shouldRejectWhenStoreFillsUp() throws Exception {
+        // Given: room when the request arrives, none by the time the writer gets to it
+        long head = eventBuffer.headSequence();
+        writer.close();
+        AtomicLong calls = new AtomicLong();
+        CapacityGuard guard = new CapacityGuard(() -> calls.getAndIncrement() == 0 ? 0 : Long.MAX_VALUE,
+                Long.MAX_VALUE - 1, Long.MAX_VALUE, () -> { }, 0);
+        writer = new AsyncTransactionWriter(repository, service::insertAll, new TransactionEventPublisher(eventBuffer),
+                guard, new IngestProperties(16, 4, Duration.ofMinutes(5), 1000));
+
+        // When
+        writer.submit(request("1"));
+
+        // Then
+        IngestOutcome outcome = awaitOutcome("1");
+        assertEquals(IngestOutcome.State.REJECTED, outcome.state());
+        assertEquals("CAPACITY_EXCEEDED", outcome.errorCode());
+        assertFalse(repository.existsById("1"));
+        assertEquals(TransactionEventType.REJECTED, eventBuffer.read(head, 10).events().get(0).type());
+        assertEquals(1, writer.rejectedCount());
+    }
+
+    @Test
+    @DisplayName("Should write every queued create before shutting down")
+    void shouldDrainOnClose() {
+        // When
+        int accepted = 0;
+        for (int i = 0; i < 200; i++) {
+            try {
+                writer.submit(request(String.valueOf(i)));
+                accepted++;
+            } catch (RuntimeException ex) {
+                // Buffer full; the writer is behind
+            }
+        }
+        writer.close();
+
+        // Then
+        assertEquals(accepted, repository.findAll().size());
+        assertEquals(0, writer.queued());
+    }
+
+    private IngestOutcome awaitOutcome(String id) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (System.nanoTime() < deadline) {
+            IngestOutcome outcome = writer.outcome(id).orElseThrow();
+            if (outcome.state() != IngestOutcome.State.QUEUED) {
+                return outcome;
+            }
+            Thread.sleep(5);
+        }
+        fail("Create " + id + " still queued");
+        return null;
+    }
+
+    private static TransactionCreateRequest request(String id) {
+        return new TransactionCreateRequest(id, new BigDecimal("10.00"), "USD", LocalDateTime.now(),
+                "Queued payment", "PENDING", 1001L, 2001L, "REF" + id);
+    }
+}
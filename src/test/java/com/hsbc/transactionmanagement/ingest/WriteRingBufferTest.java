@@ -0,0 +1,88 @@
+package com.hsbc.transactionmanagement.ingest;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class WriteRingBufferTest {
+
+    @Test
+    @DisplayName("Should drain values in order and refuse offers while full")
+    void shouldDrainInOrderAndRefuseWhenFull() {
+        // Given: rounded up to 4 slots
+        WriteRingBuffer<Integer> buffer = new WriteRingBuffer<>(3);
+        assertEquals(4, buffer.capacity());
+        for (int i = 0; i < 4; i++) {
+            assertTrue(buffer.offer(i));
+        }
+
+        // When / Then
+        assertFalse(buffer.offer(4));
+        List<Integer> drained = new ArrayList<>();
+        assertEquals(3, buffer.drainTo(drained, 3));
+        assertEquals(List.of(0, 1, 2), drained);
+        assertEquals(1, buffer.size());
+
+        // Freed slots are reused across the wrap
+        assertTrue(buffer.offer(4));
+        assertTrue(buffer.offer(5));
+        assertEquals(3, buffer.drainTo(drained, 10));
+        assertEquals(List.of(0, 1, 2, 3, 4, 5), drained);
+        assertEquals(0, buffer.drainTo(drained, 10));
+        assertEquals(0, buffer.size());
+    }
+
+    @Test
+    @DisplayName("Should deliver every value of concurrent producers once and in each producer's order")
+    void shouldDeliverConcurrentOffersOnce() throws Exception {
+        // Given
+        int producers = 4;
+        int perProducer = 20_000;
+        WriteRingBuffer<Long> buffer = new WriteRingBuffer<>(64);
+        ExecutorService executor = Executors.newFixedThreadPool(producers);
+        List<Future<?>> running = new ArrayList<>();
+
+        // When
+        for (int p = 0; p < producers; p++) {
+            long producer = p;
+            running.add(executor.submit(() -> {
+                for (long i = 0; i < perProducer; i++) {
+                    while (!buffer.offer(producer * perProducer + i)) {
+                        Thread.onSpinWait();
+                    }
+                }
+            }));
+        }
+        List<Long> drained = new ArrayList<>(producers * perProducer);
+        while (drained.size() < producers * perProducer) {
+            if (buffer.drainTo(drained, 32) == 0) {
+                Thread.onSpinWait();
+            }
+        }
+        for (Future<?> producer : running) {
+            producer.get();
+        }
+        executor.shutdown();
+
+        // Then
+        long[] last = new long[producers];
+        Arrays.fill(last, -1);
+        for (long value : drained) {
+            int producer = (int) (value / perProducer);
+            assertTrue(value > last[producer], "out of order: " + value);
+            last[producer] = value;
+        }
+        for (int p = 0; p < producers; p++) {
+            assertEquals((long) (p + 1) * perProducer - 1, last[p]);
+        }
+        assertEquals(0, buffer.size());
+    }
+}
@@ -0,0 +1,59 @@
+package com.hsbc.transactionmanagement.integration;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hsbc.transactionmanagement.model.TransactionCreateRequest;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+// Metrics export is switched off in tests unless asked for; this also gives the class its own context
+@AutoConfigureObservability
+public class MetricsEndpointIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    @DisplayName("Should expose controller, service and repository latency histograms for Prometheus")
+    void shouldExposeLayerTimersForPrometheus() throws Exception {
+        TransactionCreateRequest request = new TransactionCreateRequest(
+                "metrics-1", new BigDecimal("10.00"), "USD", LocalDateTime.now(),
+                "Metrics probe", "PENDING", 1001L, 2001L, "REF-METRICS");
+        mockMvc.perform(post("/api/transactions")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isCreated());
+        mockMvc.perform(get("/api/transactions/metrics-1"))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString(
+                        "http_server_requests_seconds_bucket{error=\"none\",exception=\"none\",method=\"POST\"")))
+                .andExpect(content().string(containsString(
+                        "transaction_service_seconds_bucket{operation=\"create\"")))
+                .andExpect(content().string(containsString(
+                        "transaction_repository_seconds_count{operation=\"save\"} 1\n")))
+                .andExpect(content().string(containsString("transaction_repository_size 1.0")))
+                .andExpect(content().string(containsString("cache_size{cache=\"transactions\"")));
+    }
+}
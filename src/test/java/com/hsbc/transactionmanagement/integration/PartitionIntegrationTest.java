@@ -0,0 +1,227 @@
+package com.hsbc.transactionmanagement.integration;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hsbc.transactionmanagement.TransactionManagementApplication;
+import com.hsbc.transactionmanagement.partition.ConsistentHashRing;
+import com.hsbc.transactionmanagement.partition.PartitionMembership;
+import com.hsbc.transactionmanagement.partition.PartitionRebalancer;
+import com.hsbc.transactionmanagement.repository.InMemoryTransactionRepository;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Three partitioned nodes as application contexts in this JVM. The cluster starts as
+ * node-1 and node-2; node-3 only routes until it is added as a member.
+ */
+public class PartitionIntegrationTest {
+
+    private static final int TRANSACTIONS = 60;
+
+    private static final List<ConfigurableApplicationContext> nodes = new ArrayList<>();
+    private static final List<String> urls = new ArrayList<>();
+
+    private final HttpClient http = HttpClient.newHttpClient();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @BeforeAll
+    static void startNodes() {
+        for (int i = 1; i <= 3; i++) {
+            ConfigurableApplicationContext node = new SpringApplicationBuilder(TransactionManagementApplication.class)
+                    .run("--server.port=0", "--spring.devtools.restart.enabled=false",
+                            "--transaction.partition.enabled=true", "--transaction.partition.node-id=node-" + i,
+                            "--transaction.partition.handoff-batch-size=7");
+            nodes.add(node);
+            urls.add("http://localhost:" + node.getEnvironment().getProperty("local.server.port"));
+        }
+        Map<String, URI> members = members(2);
+        nodes.forEach(node -> node.getBean(PartitionMembership.class).update(members));
+    }
+
+    @AfterAll
+    static void stopNodes() {
+        nodes.forEach(ConfigurableApplicationContext::close);
+    }
+
+    @Test
+    @DisplayName("Should route, gather and rebalance transactions across partitions")
+    void shouldRouteGatherAndRebalance() throws Exception {
+        // When
+        for (int i = 0; i < TRANSACTIONS; i++) {
+            HttpResponse<String> created = send(urls.get(i % 3) + "/api/transactions", "POST", """
+                    {"transactionId": "part-%d", "amount": 10.50, "currency": "USD",
+                     "timestamp": "2024-01-01T%02d:00:00", "description": "Partitioned payment",
+                     "status": "PENDING", "senderAccountId": 1001, "receiverAccountId": 2001,
+                     "referenceNumber": "REF-PART-%d"}
+                    """.formatted(i, i % 24, i));
+            assertEquals(201, created.statusCode(), created.body());
+        }
+
+        // Then
+        assertOwnedLocally(2);
+        assertEquals(0, store(2).count());
+        assertReadableEverywhere();
+
+        // When
+        String body = objectMapper.writeValueAsString(Map.of("members", members(3).entrySet().stream()
+                .map(member -> member.getKey() + "=" + member.getValue())
+                .collect(Collectors.joining(","))));
+        for (String url : urls) {
+            HttpResponse<String> updated = send(url + "/actuator/partitions", "POST", body);
+            assertEquals(200, updated.statusCode(), updated.body());
+        }
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!nodes.stream().allMatch(node -> node.getBean(PartitionRebalancer.class).isSettled())
+                && System.nanoTime() < deadline) {
+            Thread.sleep(20);
+        }
+
+        // Then
+        assertTrue(store(2).count() > 0);
+        assertOwnedLocally(3);
+        assertReadableEverywhere();
+    }
+
+    @Test
+    @DisplayName("Should reject a batch status update spanning partitions")
+    void shouldRejectBatchSpanningPartitions() throws Exception {
+        // Given: owned by node-1 and node-2 before and after node-3 joins, as the other test adds it
+        ConsistentHashRing two = new ConsistentHashRing(List.of("node-1", "node-2"), 128);
+        ConsistentHashRing three = new ConsistentHashRing(List.of("node-1", "node-2", "node-3"), 128);
+        String local = null;
+        String remote = null;
+        for (int i = 0; local == null || remote == null; i++) {
+            String id = "batch-" + i;
+            String owner = two.ownerOf(id);
+            if (owner.equals(three.ownerOf(id))) {
+                if (owner.equals("node-1")) {
+                    local = id;
+                } else {
+                    remote = id;
+                }
+            }
+        }
+
+        // When
+        HttpResponse<String> response = send(urls.get(0) + "/api/transactions/status-updates", "POST",
+                "{\"transactionIds\": [\"" + local + "\", \"" + remote + "\"], \"status\": \"COMPLETED\"}");
+
+        // Then
+        assertTrue(response.statusCode() >= 400 && response.statusCode() < 500, response.body());
+        assertTrue(response.body().contains("BATCH_SPANS_PARTITIONS"), response.body());
+    }
+
+    private void assertOwnedLocally(int memberCount) {
+        long total = 0;
+        for (int i = 0; i < memberCount; i++) {
+            PartitionMembership membership = nodes.get(i).getBean(PartitionMembership.class);
+            InMemoryTransactionRepository store = store(i);
+            store.stream()
+                    .filter(transaction -> transaction.getTransactionId().startsWith("part-"))
+                    .forEach(transaction -> assertTrue(membership.isLocal(transaction.getTransactionId()),
+                            transaction.getTransactionId() + " is not owned by " + membership.self()));
+            total += store.stream().filter(transaction -> transaction.getTransactionId().startsWith("part-")).count();
+        }
+        assertEquals(TRANSACTIONS, total);
+    }
+
+    private void assertReadableEverywhere() throws Exception {
+        for (String url : urls) {
+            for (int i = 0; i < TRANSACTIONS; i += 7) {
+                HttpResponse<String> found = send(url + "/api/transactions/part-" + i, "GET", null);
+                assertEquals(200, found.statusCode(), found.body());
+                assertTrue(found.body().contains("REF-PART-" + i + "\""));
+            }
+
+            Set<String> paged = new HashSet<>();
+            long total = -1;
+            for (int page = 0; total < 0 || page * 9L < total; page++) {
+                JsonNode body = objectMapper.readTree(
+                        send(url + "/api/transactions/paged?size=9&page=" + page, "GET", null).body());
+                total = body.get("totalElements").asLong();
+                body.get("content").forEach(row -> assertTrue(paged.add(row.get("transactionId").asText())));
+            }
+            assertEquals(TRANSACTIONS, paged.size());
+
+            Set<String> ledger = new HashSet<>();
+            String cursor = null;
+            do {
+                JsonNode body = objectMapper.readTree(send(url + "/api/accounts/1001/transactions?size=7"
+                        + (cursor == null ? "" : "&cursor=" + URLEncoder.encode(cursor, StandardCharsets.UTF_8)),
+                        "GET", null).body());
+                body.get("entries").forEach(entry -> {
+                    assertTrue(ledger.add(entry.get("transaction").get("transactionId").asText()));
+                    assertEquals("DEBIT", entry.get("direction").asText());
+                });
+                cursor = body.hasNonNull("nextCursor") ? body.get("nextCursor").asText() : null;
+            } while (cursor != null);
+            assertEquals(TRANSACTIONS, ledger.size());
+
+            JsonNode sorted = objectMapper.readTree(
+                    send(url + "/api/transactions/paged?size=20&page=1&sort=timestamp,desc", "GET", null).body());
+            assertEquals(TRANSACTIONS, sorted.get("totalElements").asLong());
+            List<String> descending = new ArrayList<>();
+            sorted.get("content").forEach(row -> descending.add(row.get("timestamp").asText()));
+            assertEquals(20, descending.size());
+            assertEquals(descending.stream().sorted(Comparator.reverseOrder()).toList(), descending);
+
+            JsonNode range = objectMapper.readTree(send(url
+                    + "/api/transactions/range?from=2024-01-01T00:00:00&to=2024-01-01T03:00:00&size=100", "GET", null)
+                    .body());
+            List<String> timestamps = new ArrayList<>();
+            range.get("content").forEach(row -> timestamps.add(row.get("timestamp").asText()));
+            assertEquals(9, timestamps.size());
+            assertEquals(timestamps.stream().sorted().toList(), timestamps);
+
+            JsonNode search = objectMapper.readTree(
+                    send(url + "/api/transactions/search?q=ref-part-1&size=5&page=1", "GET", null).body());
+            assertEquals(11, search.get("totalElements").asLong());
+            assertEquals(5, search.get("content").size());
+        }
+    }
+
+    private HttpResponse<String> send(String url, String method, String json) throws Exception {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(url));
+        if (json != null) {
+            request.header("Content-Type", "application/json")
+                    .method(method, HttpRequest.BodyPublishers.ofString(json));
+        } else {
+            request.method(method, HttpRequest.BodyPublishers.noBody());
+        }
+        return http.send(request.build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private static InMemoryTransactionRepository store(int node) {
+        return nodes.get(node).getBean(InMemoryTransactionRepository.class);
+    }
+
+    private static Map<String, URI> members(int count) {
+        Map<String, URI> members = new LinkedHashMap<>();
+        for (int i = 0; i < count; i++) {
+            members.put("node-" + (i + 1), URI.create(urls.get(i)));
+        }
+        return members;
+    }
+}
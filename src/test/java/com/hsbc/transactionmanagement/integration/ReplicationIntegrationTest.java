@@ -0,0 +1,109 @@
+package com.hsbc.transactionmanagement.integration;
+
+import com.hsbc.transactionmanagement.TransactionManagementApplication;
+import com.hsbc.transactionmanagement.replication.FollowerRequestFilter;
+import com.hsbc.transactionmanagement.replication.ReplicationServer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * A leader and a follower as two application contexts in this JVM, talking over localhost.
+ * Settings are passed as arguments so they win over {@code application.properties}.
+ */
+public class ReplicationIntegrationTest {
+
+    private static ConfigurableApplicationContext leader;
+    private static ConfigurableApplicationContext follower;
+    private static String leaderUrl;
+    private static String followerUrl;
+
+    private final HttpClient http = HttpClient.newHttpClient();
+
+    @BeforeAll
+    static void startNodes() {
+        leader = new SpringApplicationBuilder(TransactionManagementApplication.class)
+                .run("--server.port=0", "--spring.devtools.restart.enabled=false",
+                        "--transaction.replication.role=leader", "--transaction.replication.port=0",
+                        "--transaction.replication.heartbeat-interval=PT0.1S");
+        leaderUrl = "http://localhost:" + leader.getEnvironment().getProperty("local.server.port");
+        int replicationPort = leader.getBean(ReplicationServer.class).getPort();
+        follower = new SpringApplicationBuilder(TransactionManagementApplication.class)
+                .run("--server.port=0", "--spring.devtools.restart.enabled=false",
+                        "--transaction.replication.role=follower", "--transaction.replication.leader-port=" + replicationPort,
+                        "--transaction.replication.leader-url=" + leaderUrl,
+                        "--transaction.replication.heartbeat-interval=PT0.1S",
+                        "--transaction.replication.reconnect-delay=PT0.05S");
+        followerUrl = "http://localhost:" + follower.getEnvironment().getProperty("local.server.port");
+    }
+
+    @AfterAll
+    static void stopNodes() {
+        if (follower != null) {
+            follower.close();
+        }
+        if (leader != null) {
+            leader.close();
+        }
+    }
+
+    @Test
+    @DisplayName("Should forward writes from a follower to the leader and serve them back with lag headers")
+    void shouldForwardWritesAndServeReplicatedReads() throws Exception {
+        // When
+        HttpResponse<String> created = http.send(HttpRequest.newBuilder(URI.create(followerUrl + "/api/transactions"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString("""
+                        {"transactionId": "replicated-1", "amount": 42.50, "currency": "USD",
+                         "timestamp": "2024-01-01T12:00:00", "description": "Written through a follower",
+                         "status": "PENDING", "senderAccountId": 1001, "receiverAccountId": 2001,
+                         "referenceNumber": "REF-REPL-1"}
+                        """))
+                .build(), HttpResponse.BodyHandlers.ofString());
+
+        // Then
+        assertEquals(201, created.statusCode(), created.body());
+        assertEquals(200, get(leaderUrl + "/api/transactions/replicated-1").statusCode());
+        HttpResponse<String> replicated = awaitStatus(followerUrl + "/api/transactions/replicated-1", 200);
+        assertTrue(replicated.body().contains("Written through a follower"));
+        assertTrue(replicated.headers().firstValue(FollowerRequestFilter.LAG_HEADER).isPresent());
+        assertTrue(replicated.headers().firstValue(FollowerRequestFilter.LAG_ENTRIES_HEADER).isPresent());
+        assertTrue(get(leaderUrl + "/api/transactions/replicated-1").headers()
+                .firstValue(FollowerRequestFilter.LAG_HEADER).isEmpty());
+
+        // When
+        HttpResponse<String> deleted = http.send(HttpRequest.newBuilder(
+                URI.create(followerUrl + "/api/transactions/replicated-1")).DELETE().build(),
+                HttpResponse.BodyHandlers.ofString());
+
+        // Then
+        assertEquals(204, deleted.statusCode());
+        awaitStatus(followerUrl + "/api/transactions/replicated-1", 404);
+    }
+
+    private HttpResponse<String> get(String url) throws Exception {
+        return http.send(HttpRequest.newBuilder(URI.create(url)).GET().build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private HttpResponse<String> awaitStatus(String url, int status) throws Exception {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        HttpResponse<String> response = get(url);
+        while (response.statusCode() != status && System.nanoTime() < deadline) {
+            Thread.sleep(20);
+            response = get(url);
+        }
+        assertEquals(status, response.statusCode(), response.body());
+        return response;
+    }
+}
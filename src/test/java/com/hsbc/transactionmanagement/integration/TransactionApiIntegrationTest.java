@@ -8,21 +8,30 @@ import com.hsbc.transactionmanagement.repository.TransactionRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.parallel.Execution;
+import org.junit.jupiter.api.parallel.ExecutionMode;
+import org.junit.jupiter.api.parallel.ResourceLock;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
+import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @SpringBootTest
 @AutoConfigureMockMvc
+// Every test clears the repository shared through the cached application context, so they
+// must not interleave with each other or with other classes using it
+@Execution(ExecutionMode.SAME_THREAD)
+@ResourceLock("transactionRepository")
 public class TransactionApiIntegrationTest {
 
     @Autowired
@@ -218,4 +227,73 @@ public class TransactionApiIntegrationTest {
                 .content(objectMapper.writeValueAsString(invalidRequest)))
                 .andExpect(status().isUnprocessableEntity());
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Should accept an asynchronous create and report its outcome")
+    void shouldCreateAsynchronously() throws Exception {
+        TransactionCreateRequest asyncRequest = new TransactionCreateRequest("async-1", new BigDecimal("25.00"),
+                "USD", LocalDateTime.now(), "Queued payment", "PENDING", 1001L, 2001L, "REF-ASYNC");
+        String body = objectMapper.writeValueAsString(asyncRequest);
+
+        mockMvc.perform(post("/api/transactions")
+                .header("Prefer", "respond-async")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(body))
+                .andExpect(status().isAccepted())
+                .andExpect(header().string("Location", "/api/transactions/async-1/ingest"))
+                .andExpect(header().string("Preference-Applied", "respond-async"))
+                .andExpect(jsonPath("$.state", is("QUEUED")));
+
+        // The writer thread applies it shortly after
+        String state = null;
+        for (int attempt = 0; attempt < 250 && !"CREATED".equals(state); attempt++) {
+            Thread.sleep(20);
+            state = objectMapper.readTree(mockMvc.perform(get("/api/transactions/async-1/ingest"))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString()).get("state").asText();
+        }
+        assertThat(state, is("CREATED"));
+
+        mockMvc.perform(get("/api/transactions/async-1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.amount", is(25.00)));
+        mockMvc.perform(post("/api/transactions")
+                .header("Prefer", "respond-async")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(body))
+                .andExpect(status().isConflict());
+    }
+
+    @Test
+    @DisplayName("Should bulk import an uploaded CSV file")
+    void shouldBulkImportCsvUpload() throws Exception {
+        String csv = "transactionId,amount,currency,timestamp,status,senderAccountId,receiverAccountId\n"
+                + "bulk-1,10.00,USD,2024-01-01T10:00:00,PENDING,1001,2001\n"
+                + "bulk-2,0,USD,2024-01-01T10:00:00,PENDING,1001,2001\n";
+
+        mockMvc.perform(post("/api/admin/imports")
+                .contentType("text/csv")
+                .content(csv))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.importedRows", is(1)))
+                .andExpect(jsonPath("$.rejectedRows", is(1)))
+                .andExpect(jsonPath("$.rejections[0].reason", containsString("amount")));
+
+        mockMvc.perform(get("/api/transactions/bulk-1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.amount", is(10.00)));
+    }
+
+    @Test
+    @DisplayName("Should stream a columnar export as a download")
+    void shouldDownloadColumnarExport() throws Exception {
+        MvcResult started = mockMvc.perform(get("/api/admin/exports").param("status", "PENDING"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/vnd.hsbc.transactions.columnar"))
+                .andExpect(header().string("Content-Disposition", startsWith("attachment; filename=\"transactions-")));
+    }
+}
@@ -8,6 +8,7 @@ import org.junit.jupiter.params.provider.ValueSource;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -150,6 +151,48 @@ public class  TransactionTest {
         assertEquals("INVALID_STATUS", exception.getErrorCode());
     }
 
+    @Test
+    @DisplayName("Should allow a pending transaction to fail and a failed one to be cancelled")
+    void shouldAllowPendingToFailedTransition() {
+        // Given
+        Transaction transaction = Transaction.builder().transactionId("1").status("PENDING").build();
+
+        // When
+        transaction.updateStatus("FAILED");
+
+        // Then
+        assertEquals("FAILED", transaction.getStatus());
+        assertDoesNotThrow(() -> transaction.updateStatus("CANCELLED"));
+        assertEquals("CANCELLED", transaction.getStatus());
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"PENDING", "COMPLETED", "FAILED"})
+    @DisplayName("Should reject moving a failed transaction anywhere but cancelled")
+    void shouldRejectTransitionsOutOfFailed(String newStatus) {
+        // Given
+        Transaction transaction = Transaction.builder().transactionId("1").status("FAILED").build();
+
+        // When & Then
+        TransactionValidationException exception = assertThrows(TransactionValidationException.class,
+                () -> transaction.updateStatus(newStatus));
+        assertEquals("INVALID_STATUS_TRANSITION", exception.getErrorCode());
+        assertEquals("FAILED", transaction.getStatus());
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"COMPLETED", "CANCELLED"})
+    @DisplayName("Should reject failing a transaction that is already final")
+    void shouldRejectFailingFinalTransaction(String currentStatus) {
+        // Given
+        Transaction transaction = Transaction.builder().transactionId("1").status(currentStatus).build();
+
+        // When & Then
+        TransactionValidationException exception = assertThrows(TransactionValidationException.class,
+                () -> transaction.updateStatus("FAILED"));
+        assertEquals("INVALID_STATUS_TRANSITION", exception.getErrorCode());
+    }
+
     @Test
     @DisplayName("Should convert TransactionCreateRequest to Transaction entity")
     void shouldConvertTransactionCreateRequestToEntity() {
@@ -182,4 +225,41 @@ public class  TransactionTest {
         assertEquals(2001L, transaction.getReceiverAccountId());
         assertEquals("REF123456", transaction.getReferenceNumber());
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Should append status changes to a copy of the history")
+    void shouldAppendStatusChangesToCopyOfHistory() {
+        // Given
+        Transaction transaction = new TransactionCreateRequest("1", new BigDecimal("100.00"), "USD",
+                LocalDateTime.now(), "Test transaction", "PENDING", 1001L, 2001L, "REF123456").toEntity();
+        long[] created = transaction.getStatusHistory();
+
+        // When
+        transaction.updateStatus("COMPLETED");
+
+        // Then
+        assertEquals(1, created.length);
+        assertEquals(List.of("PENDING", "COMPLETED"), StatusHistory.entries(transaction.getStatusHistory(), "COMPLETED")
+                .stream().map(StatusHistory.Entry::status).toList());
+        assertTrue(StatusHistory.entries(transaction.getStatusHistory(), "COMPLETED").stream()
+                .allMatch(entry -> entry.enteredAt() != null));
+    }
+
+    @Test
+    @DisplayName("Should keep the status held before histories were kept, without a time")
+    void shouldKeepStatusHeldBeforeHistories() {
+        // Given
+        Transaction transaction = Transaction.builder().transactionId("1").status("PENDING").build();
+        assertEquals(List.of(new StatusHistory.Entry("PENDING", null)),
+                StatusHistory.entries(transaction.getStatusHistory(), transaction.getStatus()));
+
+        // When
+        transaction.updateStatus("FAILED");
+
+        // Then
+        List<StatusHistory.Entry> entries = StatusHistory.entries(transaction.getStatusHistory(), "FAILED");
+        assertEquals(new StatusHistory.Entry("PENDING", null), entries.get(0));
+        assertEquals("FAILED", entries.get(1).status());
+        assertNotNull(entries.get(1).enteredAt());
+    }
+}
@@ -0,0 +1,170 @@
+package com.hsbc.transactionmanagement.replication;
+
+import com.hsbc.transactionmanagement.model.Transaction;
+import com.hsbc.transactionmanagement.repository.InMemoryTransactionRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ReplicationTest {
+
+    private static final Duration HEARTBEAT = Duration.ofMillis(50);
+
+    private final List<AutoCloseable> resources = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() throws Exception {
+        for (AutoCloseable resource : resources) {
+            resource.close();
+        }
+    }
+
+    @Test
+    @DisplayName("Should bring followers to the leader's state and keep them there")
+    void shouldReplicateWritesToFollowers() throws Exception {
+        // Given
+        InMemoryTransactionRepository leader = new InMemoryTransactionRepository();
+        leader.save(transaction("before-1", "PENDING"));
+        leader.save(transaction("before-2", "PENDING"));
+        ReplicationServer server = startLeader(leader, new ReplicationLog(1024), 0);
+        InMemoryTransactionRepository first = new InMemoryTransactionRepository();
+        InMemoryTransactionRepository second = new InMemoryTransactionRepository();
+        ReplicationClient firstClient = startFollower(first, server.getPort());
+        ReplicationClient secondClient = startFollower(second, server.getPort());
+        awaitTrue(() -> firstClient.isSynced() && secondClient.isSynced());
+
+        // When
+        leader.save(transaction("after-1", "PENDING"));
+        leader.save(leader.findById("before-1").orElseThrow().toBuilder().status("COMPLETED").build());
+        leader.deleteById("before-2");
+        leader.insertAll(List.of(transaction("after-2", "FAILED"), transaction("after-3", "PENDING")));
+
+        // Then
+        awaitTrue(() -> sameContents(leader, first) && sameContents(leader, second));
+        awaitTrue(() -> firstClient.getLagEntries() == 0 && firstClient.getLagMillis() == 0);
+        assertEquals("COMPLETED", first.findById("before-1").orElseThrow().getStatus());
+        assertFalse(second.existsById("before-2"));
+        assertEquals(2, server.getFollowerCount());
+        assertEquals(1, firstClient.getResyncs());
+    }
+
+    @Test
+    @DisplayName("Should resync a follower that reconnects after the log moved past it")
+    void shouldResyncFollowerLappedByTheLog() throws Exception {
+        // Given
+        InMemoryTransactionRepository leader = new InMemoryTransactionRepository();
+        ReplicationLog log = new ReplicationLog(4);
+        ReplicationServer server = startLeader(leader, log, 0);
+        int port = server.getPort();
+        InMemoryTransactionRepository follower = new InMemoryTransactionRepository();
+        ReplicationClient client = startFollower(follower, port);
+        for (int i = 0; i < 3; i++) {
+            leader.save(transaction("tx-" + i, "PENDING"));
+        }
+        awaitTrue(() -> sameContents(leader, follower));
+
+        // When
+        server.close();
+        awaitTrue(() -> !client.isConnected());
+        leader.deleteById("tx-0");
+        for (int i = 3; i < 20; i++) {
+            leader.save(transaction("tx-" + i, "PENDING"));
+        }
+        // Only the listener restarts; the log and its epoch carry on
+        ReplicationServer restarted = startLeader(leader, log, port);
+
+        // Then
+        awaitTrue(() -> sameContents(leader, follower));
+        assertFalse(follower.existsById("tx-0"));
+        assertEquals(2, client.getResyncs());
+        // The follower can apply the copy before the leader's counter ticks
+        awaitTrue(() -> restarted.getSnapshotsSent() == 1);
+        assertEquals(1, restarted.getSnapshotsSent());
+    }
+
+    @Test
+    @DisplayName("Should report growing lag while the leader is unreachable")
+    void shouldReportLagWhileDisconnected() throws Exception {
+        // Given
+        InMemoryTransactionRepository leader = new InMemoryTransactionRepository();
+        ReplicationServer server = startLeader(leader, new ReplicationLog(16), 0);
+        ReplicationClient client = startFollower(new InMemoryTransactionRepository(), server.getPort());
+        awaitTrue(() -> client.isSynced() && client.getLagMillis() == 0);
+
+        // When
+        server.close();
+        awaitTrue(() -> !client.isConnected());
+        Thread.sleep(20);
+
+        // Then
+        assertTrue(client.getLagMillis() >= 20);
+    }
+
+    private ReplicationServer startLeader(InMemoryTransactionRepository repository, ReplicationLog log, int port)
+            throws IOException {
+        repository.setMutationListener(log);
+        ReplicationServer server = new ReplicationServer(log, repository, port, HEARTBEAT);
+        server.start();
+        resources.add(server);
+        return server;
+    }
+
+    private ReplicationClient startFollower(InMemoryTransactionRepository repository, int port) {
+        ReplicationClient client = new ReplicationClient(repository, "localhost", port, HEARTBEAT,
+                Duration.ofMillis(20), id -> {
+                });
+        client.start();
+        resources.add(client);
+        return client;
+    }
+
+    private static boolean sameContents(InMemoryTransactionRepository leader, InMemoryTransactionRepository follower) {
+        List<String> expected = leader.stream().sorted(Comparator.comparing(Transaction::getTransactionId))
+                .map(ReplicationTest::describe).toList();
+        List<String> actual = follower.stream().sorted(Comparator.comparing(Transaction::getTransactionId))
+                .map(ReplicationTest::describe).toList();
+        return expected.equals(actual);
+    }
+
+    private static String describe(Transaction t) {
+        return String.join("|", t.getTransactionId(), t.getAmount().toPlainString(), t.getCurrency(),
+                t.getTimestamp().toString(), t.getDescription(), t.getStatus(), String.valueOf(t.getSenderAccountId()),
+                String.valueOf(t.getReceiverAccountId()), String.valueOf(t.getReferenceNumber()));
+    }
+
+    private static void awaitTrue(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline) {
+                fail("Condition not met within 10 seconds");
+            }
+            Thread.sleep(10);
+        }
+    }
+
+    private static Transaction transaction(String id, String status) {
+        return Transaction.builder()
+                .transactionId(id)
+                .amount(new BigDecimal("123.45"))
+                .currency("USD")
+                .timestamp(LocalDateTime.of(2024, 1, 1, 12, 0, 0, 123_456_789))
+                .description("Replicated " + id)
+                .status(status)
+                .senderAccountId(1001L)
+                .receiverAccountId(2001L)
+                .referenceNumber(id.endsWith("1") ? null : "REF-" + id)
+                .build();
+    }
+}
@@ -0,0 +1,142 @@
+package com.hsbc.transactionmanagement.repository;
+
+import com.hsbc.transactionmanagement.model.Transaction;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LsmTransactionRepositoryTest extends TransactionRepositoryContractTest {
+
+    @TempDir
+    Path directory;
+
+    private LsmTransactionRepository lsmRepository;
+
+    /**
+     * A tiny memtable and block size, so even the contract tests read across several tables
+     * and blocks.
+     */
+    @Override
+    protected TransactionRepository createRepository() throws IOException {
+        lsmRepository = open();
+        return lsmRepository;
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        lsmRepository.close();
+    }
+
+    @Test
+    @DisplayName("Should keep rows, versions and deletes across a restart")
+    void shouldPersistAcrossReopen() throws IOException {
+        // Given
+        repository.save(sampleTransaction);
+        Transaction other = transaction("2", LocalDateTime.of(2024, 1, 1, 9, 0));
+        repository.save(other);
+        repository.save(transaction("3", LocalDateTime.of(2024, 1, 1, 10, 0)));
+        repository.deleteById("3");
+        long version = repository.currentVersion();
+
+        // When
+        lsmRepository.close();
+        lsmRepository = open();
+
+        // Then
+        assertEquals(2, lsmRepository.count());
+        assertEquals(version, lsmRepository.currentVersion());
+        assertEquals(other.getVersion(), lsmRepository.findById("2").orElseThrow().getVersion());
+        assertEquals("REF123456", lsmRepository.findById("1").orElseThrow().getReferenceNumber());
+        assertFalse(lsmRepository.existsById("3"));
+        assertEquals(List.of("2"), lsmRepository.findByTimestampBetween(LocalDateTime.of(2024, 1, 1, 0, 0),
+                LocalDateTime.of(2024, 1, 2, 0, 0)).stream().map(Transaction::getTransactionId).toList());
+        assertTrue(lsmRepository.save(transaction("4", null)).getVersion() > version);
+    }
+
+    @Test
+    @DisplayName("Should serve the latest state and open snapshots after flushes and compactions")
+    void shouldStayCorrectThroughCompaction() {
+        // Given
+        LocalDateTime base = LocalDateTime.of(2024, 1, 1, 0, 0);
+        for (int i = 0; i < 500; i++) {
+            repository.save(transaction(String.valueOf(i), base.plusMinutes(i)));
+        }
+        TransactionSnapshot snapshot = repository.openSnapshot();
+
+        // When
+        for (int i = 0; i < 500; i += 2) {
+            repository.deleteById(String.valueOf(i));
+        }
+        for (int i = 1; i < 500; i += 2) {
+            repository.save(repository.findById(String.valueOf(i)).orElseThrow().toBuilder().status("COMPLETED").build());
+        }
+        lsmRepository.store().flush();
+
+        // Then
+        assertTrue(lsmRepository.store().compactionCount() > 0);
+        assertEquals(250, repository.count());
+        assertEquals(250, repository.findAll().size());
+        assertTrue(repository.findAll().stream().allMatch(transaction -> "COMPLETED".equals(transaction.getStatus())));
+        assertFalse(repository.existsById("10"));
+        assertEquals(500, snapshot.findAll(PageRequest.of(0, 10)).getTotalElements());
+        assertEquals("PENDING", snapshot.findById("11").orElseThrow().getStatus());
+        assertTrue(snapshot.findById("10").isPresent());
+        assertEquals(List.of("20", "21"), snapshot.findByTimestampBetween(base.plusMinutes(20), base.plusMinutes(22),
+                PageRequest.of(0, 5)).getContent().stream().map(Transaction::getTransactionId).toList());
+        snapshot.close();
+    }
+
+    @Test
+    @DisplayName("Should not bring back deleted rows once compaction drops their tombstones")
+    void shouldNotResurrectDeletedRows() throws IOException {
+        // Given
+        for (int i = 0; i < 200; i++) {
+            repository.save(transaction(String.valueOf(i), LocalDateTime.of(2024, 1, 1, 0, 0).plusSeconds(i)));
+        }
+        lsmRepository.store().flush();
+
+        // When
+        for (int i = 0; i < 200; i++) {
+            repository.deleteById(String.valueOf(i));
+        }
+        lsmRepository.store().flush();
+        lsmRepository.close();
+        lsmRepository = open();
+
+        // Then
+        assertEquals(0, lsmRepository.count());
+        assertTrue(lsmRepository.findAll().isEmpty());
+        assertTrue(lsmRepository.findById("7").isEmpty());
+    }
+
+    private LsmTransactionRepository open() throws IOException {
+        LsmProperties properties = new LsmProperties(directory, DataSize.ofKilobytes(8), DataSize.ofBytes(512),
+                DataSize.ofKilobytes(64), 10, 2, false);
+        return new LsmTransactionRepository(properties, Duration.ofHours(1));
+    }
+
+    private static Transaction transaction(String id, LocalDateTime timestamp) {
+        return Transaction.builder()
+                .transactionId(id)
+                .amount(new BigDecimal("42.50"))
+                .currency("GBP")
+                .timestamp(timestamp)
+                .description("Disk row " + id)
+                .status("PENDING")
+                .senderAccountId(1001L)
+                .receiverAccountId(2001L)
+                .build();
+    }
+}
@@ -0,0 +1,234 @@
+package com.hsbc.transactionmanagement.repository;
+
+import com.hsbc.transactionmanagement.model.Transaction;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TieredTransactionRepositoryTest {
+
+    private static final LocalDateTime BASE = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+    @TempDir
+    Path directory;
+
+    private InMemoryTransactionRepository hot;
+    private TieredTransactionRepository repository;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        hot = new InMemoryTransactionRepository();
+        repository = new TieredTransactionRepository(hot, new ColdSegmentStore(directory, 4, 1_000, 64));
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        repository.close();
+    }
+
+    @Test
+    @DisplayName("Should archive only old transactions in a terminal status")
+    void shouldArchiveOnlyOldTerminalTransactions() throws IOException {
+        repository.save(transaction("old-done", BASE, "COMPLETED"));
+        repository.save(transaction("old-cancelled", BASE.plusMinutes(1), "CANCELLED"));
+        repository.save(transaction("old-pending", BASE.plusMinutes(2), "PENDING"));
+        repository.save(transaction("new-done", BASE.plusDays(2), "COMPLETED"));
+
+        int archived = repository.archive(BASE.plusDays(1), 100);
+
+        assertEquals(2, archived);
+        assertEquals(2, repository.hotCount());
+        assertEquals(2, repository.coldCount());
+        assertEquals(1, repository.segmentCount());
+        assertFalse(hot.existsById("old-done"));
+        assertTrue(repository.existsById("old-done"));
+        Transaction cold = repository.findById("old-cancelled").orElseThrow();
+        assertEquals("CANCELLED", cold.getStatus());
+        assertEquals(new BigDecimal("10.00"), cold.getAmount());
+        assertEquals(4, repository.findAll().size());
+    }
+
+    @Test
+    @DisplayName("Should find archived transactions across many blocks through the sparse index")
+    void shouldFindArchivedTransactionsAcrossBlocks() throws IOException {
+        for (int i = 0; i < 50; i++) {
+            repository.save(transaction(String.format("tx-%03d", i), BASE.plusSeconds(i), "COMPLETED"));
+        }
+
+        assertEquals(50, repository.archive(BASE.plusDays(1), 100));
+
+        for (int i = 0; i < 50; i++) {
+            String id = String.format("tx-%03d", i);
+            assertEquals(id, repository.findById(id).orElseThrow().getTransactionId());
+        }
+        assertTrue(repository.findById("tx-0255").isEmpty());
+        assertTrue(repository.findById("zzz").isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should merge small segments and keep deletes and the newest copies")
+    void shouldMergeSmallSegments() throws IOException {
+        // Given: MERGE_FACTOR archive runs of three rows each, one of them deleted before the merge
+        int runs = ColdSegmentStore.MERGE_FACTOR;
+        for (int run = 0; run < runs; run++) {
+            for (int i = 0; i < 3; i++) {
+                repository.save(transaction("tx-" + run + "-" + i, BASE.plusMinutes(run * 10L + i), "COMPLETED"));
+            }
+            if (run == runs - 1) {
+                repository.deleteById("tx-0-1");
+            }
+
+            // When
+            repository.archive(BASE.plusDays(1), 100);
+        }
+
+        // Then
+        assertEquals(1, repository.segmentCount());
+        assertEquals(3L * runs - 1, repository.coldCount());
+        assertTrue(repository.findById("tx-0-1").isEmpty());
+        for (int run = 0; run < runs; run++) {
+            assertEquals("tx-" + run + "-2", repository.findById("tx-" + run + "-2").orElseThrow().getTransactionId());
+        }
+        assertTrue(repository.findById("tx-9-9").isEmpty());
+        assertEquals(3 * runs - 1, repository.findAll().size());
+    }
+
+    @Test
+    @DisplayName("Should delete archived transactions and bump the collection version")
+    void shouldDeleteArchivedTransactions() throws IOException {
+        repository.save(transaction("a", BASE, "COMPLETED"));
+        repository.save(transaction("b", BASE, "COMPLETED"));
+        repository.archive(BASE.plusDays(1), 100);
+        long version = repository.currentVersion();
+
+        repository.deleteById("a");
+
+        assertFalse(repository.existsById("a"));
+        assertTrue(repository.findById("a").isEmpty());
+        assertEquals(1, repository.coldCount());
+        assertTrue(repository.currentVersion() > version);
+        assertEquals(List.of("b"), repository.findAll().stream().map(Transaction::getTransactionId).toList());
+    }
+
+    @Test
+    @DisplayName("Should page and range-query across both tiers")
+    void shouldPageAndRangeQueryAcrossTiers() throws IOException {
+        for (int i = 0; i < 6; i++) {
+            repository.save(transaction("cold-" + i, BASE.plusHours(i * 2), "COMPLETED"));
+            repository.save(transaction("hot-" + i, BASE.plusHours(i * 2 + 1), "PENDING"));
+        }
+        repository.archive(BASE.plusDays(1), 100);
+
+        Page<Transaction> page = repository.findAll(PageRequest.of(1, 5));
+        assertEquals(12, page.getTotalElements());
+        assertEquals(5, page.getContent().size());
+
+        List<Transaction> range = repository.findByTimestampBetween(BASE.plusHours(2), BASE.plusHours(6));
+        assertEquals(List.of("cold-1", "hot-1", "cold-2", "hot-2"),
+                range.stream().map(Transaction::getTransactionId).toList());
+
+        Page<Transaction> rangePage = repository.findByTimestampBetween(BASE, BASE.plusDays(1), PageRequest.of(2, 4));
+        assertEquals(12, rangePage.getTotalElements());
+        assertEquals(List.of("cold-4", "hot-4", "cold-5", "hot-5"),
+                rangePage.getContent().stream().map(Transaction::getTransactionId).toList());
+    }
+
+    @Test
+    @DisplayName("Should page a range in time order across segments whose blocks interleave in time")
+    void shouldPageRangeAcrossInterleavedSegments() throws IOException {
+        List<String> expected = new ArrayList<>();
+        for (int segment = 0; segment < 3; segment++) {
+            for (int i = 0; i < 10; i++) {
+                // IDs run against time, so every ID-ordered block spans the segment's hours
+                LocalDateTime timestamp = BASE.plusMinutes(i * 30L + segment * 10L);
+                repository.save(transaction("s" + segment + "-" + (9 - i), timestamp, "COMPLETED"));
+            }
+            repository.archive(BASE.plusDays(1), 100);
+        }
+        repository.save(transaction("hot", BASE.plusMinutes(65), "PENDING"));
+        repository.findByTimestampBetween(BASE, BASE.plusDays(1)).forEach(row -> expected.add(row.getTransactionId()));
+
+        Page<Transaction> page = repository.findByTimestampBetween(BASE.plusMinutes(30), BASE.plusHours(4),
+                PageRequest.of(1, 5));
+
+        assertEquals(3, repository.segmentCount());
+        assertEquals(31, expected.size());
+        assertEquals(List.of("s0-9", "s1-9", "s2-9", "s0-8", "s1-8", "s2-8", "s0-7", "hot"), expected.subList(0, 8));
+        assertEquals(22, page.getTotalElements());
+        assertEquals(expected.subList(8, 13), page.getContent().stream().map(Transaction::getTransactionId).toList());
+    }
+
+    @Test
+    @DisplayName("Should search archived transactions")
+    void shouldSearchArchivedTransactions() throws IOException {
+        repository.save(transaction("a", BASE, "COMPLETED"));
+        repository.save(transaction("b", BASE, "PENDING"));
+        repository.archive(BASE.plusDays(1), 100);
+
+        List<String> matches = repository.search("invoice", 10).stream().map(Transaction::getTransactionId).toList();
+
+        assertEquals(List.of("a", "b"), matches);
+    }
+
+    @Test
+    @DisplayName("Should not bulk insert IDs that were archived")
+    void shouldNotInsertArchivedIds() throws IOException {
+        repository.save(transaction("a", BASE, "COMPLETED"));
+        repository.archive(BASE.plusDays(1), 100);
+
+        List<Transaction> inserted = repository.insertAll(List.of(
+                transaction("a", BASE, "PENDING"), transaction("c", BASE, "PENDING")));
+
+        assertEquals(List.of("c"), inserted.stream().map(Transaction::getTransactionId).toList());
+        assertEquals("COMPLETED", repository.findById("a").orElseThrow().getStatus());
+    }
+
+    @Test
+    @DisplayName("Should not duplicate rows archived after a snapshot was opened")
+    void shouldKeepSnapshotConsistentAcrossArchiving() throws IOException {
+        repository.save(transaction("early", BASE, "COMPLETED"));
+        repository.archive(BASE.plusDays(1), 100);
+        repository.save(transaction("late", BASE.plusHours(1), "COMPLETED"));
+        repository.save(transaction("open", BASE.plusHours(2), "PENDING"));
+        TransactionSnapshot snapshot = repository.openSnapshot();
+
+        repository.archive(BASE.plusDays(1), 100);
+        repository.save(transaction("after", BASE.plusHours(3), "PENDING"));
+
+        assertEquals(List.of("late", "open", "early"), snapshot.findAll(PageRequest.of(0, 10)).getContent().stream()
+                .map(Transaction::getTransactionId).toList());
+        assertEquals(List.of("early", "late", "open"), snapshot.findByTimestampBetween(BASE, BASE.plusDays(1),
+                PageRequest.of(0, 10)).getContent().stream().map(Transaction::getTransactionId).toList());
+        assertTrue(snapshot.findById("late").isPresent());
+        assertTrue(snapshot.findById("early").isPresent());
+        assertTrue(snapshot.findById("after").isEmpty());
+        snapshot.close();
+    }
+
+    private static Transaction transaction(String id, LocalDateTime timestamp, String status) {
+        return Transaction.builder()
+                .transactionId(id)
+                .amount(new BigDecimal("10.00"))
+                .currency("USD")
+                .timestamp(timestamp)
+                .description("Invoice " + id)
+                .status(status)
+                .senderAccountId(1001L)
+                .receiverAccountId(2001L)
+                .referenceNumber("REF-" + id)
+                .build();
+    }
+}
@@ -0,0 +1,562 @@
+package com.hsbc.transactionmanagement.repository;
+
+import com.hsbc.transactionmanagement.model.LedgerEntry;
+import com.hsbc.transactionmanagement.model.Transaction;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Behaviour every {@link TransactionRepository} implementation must show.
+ */
+abstract class TransactionRepositoryContractTest {
+
+    protected TransactionRepository repository;
+    protected Transaction sampleTransaction;
+
+    protected abstract TransactionRepository createRepository() throws Exception;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        repository = createRepository();
+        
+        // Setup test data
+        sampleTransaction = Transaction.builder()
+                .transactionId("1")
+                .amount(new BigDecimal("100.00"))
+                .currency("USD")
+                .timestamp(LocalDateTime.now())
+                .description("Test transaction")
+                .status("PENDING")
+                .senderAccountId(1001L)
+                .receiverAccountId(2001L)
+                .referenceNumber("REF123456")
+                .build();
+    }
+
+    @Test
+    @DisplayName("Should save transaction and generate ID")
+    void shouldSaveTransactionAndGenerateId() {
+        // When
+        Transaction savedTransaction = repository.save(sampleTransaction);
+        
+        // Then
+        assertNotNull(savedTransaction);
+        assertNotNull(savedTransaction.getTransactionId());
+        assertEquals("1", savedTransaction.getTransactionId());
+    }
+
+    @Test
+    @DisplayName("Should save transaction with existing ID")
+    void shouldSaveTransactionWithExistingId() {
+        // Given
+        sampleTransaction.setTransactionId("custom-id");
+        
+        // When
+        Transaction savedTransaction = repository.save(sampleTransaction);
+        
+        // Then
+        assertNotNull(savedTransaction);
+        assertEquals("custom-id", savedTransaction.getTransactionId());
+    }
+
+    @Test
+    @DisplayName("Should find transaction by ID")
+    void shouldFindTransactionById() {
+        // Given
+        Transaction savedTransaction = repository.save(sampleTransaction);
+        
+        // When
+        Optional<Transaction> foundTransaction = repository.findById(savedTransaction.getTransactionId());
+        
+        // Then
+        assertTrue(foundTransaction.isPresent());
+        assertEquals(savedTransaction.getTransactionId(), foundTransaction.get().getTransactionId());
+    }
+
+    @Test
+    @DisplayName("Should return empty when transaction not found")
+    void shouldReturnEmptyWhenTransactionNotFound() {
+        // When
+        Optional<Transaction> foundTransaction = repository.findById("non-existent-id");
+        
+        // Then
+        assertFalse(foundTransaction.isPresent());
+    }
+
+    @Test
+    @DisplayName("Should delete transaction by ID")
+    void shouldDeleteTransactionById() {
+        // Given
+        Transaction savedTransaction = repository.save(sampleTransaction);
+        
+        // When
+        repository.deleteById(savedTransaction.getTransactionId());
+        Optional<Transaction> foundTransaction = repository.findById(savedTransaction.getTransactionId());
+        
+        // Then
+        assertFalse(foundTransaction.isPresent());
+    }
+
+    @Test
+    @DisplayName("Should find all transactions")
+    void shouldFindAllTransactions() {
+        // Given
+        repository.save(sampleTransaction);
+        
+        Transaction transaction2 = Transaction.builder()
+                .transactionId("2")
+                .amount(new BigDecimal("200.00"))
+                .currency("EUR")
+                .timestamp(LocalDateTime.now())
+                .description("Another transaction")
+                .status("COMPLETED")
+                .senderAccountId(1002L)
+                .receiverAccountId(2002L)
+                .referenceNumber("REF789012")
+                .build();
+        repository.save(transaction2);
+        
+        // When
+        List<Transaction> transactions = repository.findAll();
+        
+        // Then
+        assertNotNull(transactions);
+        assertEquals(2, transactions.size());
+    }
+
+    @Test
+    @DisplayName("Should check if transaction exists by ID")
+    void shouldCheckIfTransactionExistsById() {
+        // Given
+        Transaction savedTransaction = repository.save(sampleTransaction);
+        
+        // When
+        boolean exists = repository.existsById(savedTransaction.getTransactionId());
+        boolean nonExists = repository.existsById("non-existent-id");
+        
+        // Then
+        assertTrue(exists);
+        assertFalse(nonExists);
+    }
+
+    @Test
+    @DisplayName("Should find all transactions with pagination")
+    void shouldFindAllTransactionsWithPagination() {
+        // Given
+        for (int i = 0; i < 20; i++) {
+            Transaction transaction = Transaction.builder()
+                    .transactionId(String.valueOf(i))
+                    .amount(new BigDecimal("100.00"))
+                    .currency("USD")
+                    .timestamp(LocalDateTime.now())
+                    .description("Transaction " + i)
+                    .status("PENDING")
+                    .senderAccountId(1001L)
+                    .receiverAccountId(2001L)
+                    .referenceNumber("REF" + i)
+                    .build();
+            repository.save(transaction);
+        }
+        
+        // When
+        Pageable pageable = PageRequest.of(0, 5);
+        Page<Transaction> page = repository.findAll(pageable);
+        
+        // Then
+        assertNotNull(page);
+        assertEquals(5, page.getContent().size());
+        assertEquals(20, page.getTotalElements());
+        assertEquals(4, page.getTotalPages());
+        
+        // Test second page
+        pageable = PageRequest.of(1, 5);
+        page = repository.findAll(pageable);
+        assertEquals(5, page.getContent().size());
+        assertEquals(1, page.getNumber());
+    }
+
+    @Test
+    @DisplayName("Should page in every supported sort, following updates and deletes")
+    void shouldFindAllTransactionsSorted() {
+        // Given
+        LocalDateTime base = LocalDateTime.of(2024, 1, 1, 0, 0);
+        List<String> statuses = List.of("PENDING", "COMPLETED", "FAILED");
+        for (int i = 0; i < 40; i++) {
+            repository.save(Transaction.builder()
+                    .transactionId(String.format("%02d", i))
+                    .amount(new BigDecimal(10 * (i % 6)))
+                    .timestamp(base.plusMinutes(i * 7 % 40))
+                    .status(statuses.get(i % 3))
+                    .build());
+        }
+        for (int i = 0; i < 40; i += 5) {
+            Transaction current = repository.findById(String.format("%02d", i)).orElseThrow();
+            repository.save(current.toBuilder().status("COMPLETED").amount(new BigDecimal(i)).build());
+        }
+        repository.deleteById("07");
+        repository.deleteById("21");
+
+        for (Sort sort : List.of(Sort.by("amount"), Sort.by(Sort.Direction.DESC, "timestamp"),
+                Sort.by(Sort.Direction.DESC, "status"), Sort.by(Sort.Order.asc("status"), Sort.Order.desc("amount")),
+                Sort.by(Sort.Order.desc("status"), Sort.Order.asc("timestamp")))) {
+            // When
+            List<String> paged = new ArrayList<>();
+            for (int page = 0; page < 6; page++) {
+                Page<Transaction> result = repository.findAll(PageRequest.of(page, 7, sort));
+                assertEquals(38, result.getTotalElements(), sort::toString);
+                result.forEach(transaction -> paged.add(transaction.getTransactionId()));
+            }
+
+            // Then
+            List<String> expected = repository.findAll().stream()
+                    .sorted(TransactionSort.comparator(sort))
+                    .map(Transaction::getTransactionId)
+                    .toList();
+            assertEquals(expected, paged, sort::toString);
+        }
+    }
+
+    @Test
+    @DisplayName("Should sort rows missing the sorted field last in either direction")
+    void shouldSortMissingValuesLast() {
+        // Given
+        LocalDateTime base = LocalDateTime.of(2024, 1, 1, 0, 0);
+        List<String> statuses = List.of("PENDING", "COMPLETED", "FAILED");
+        for (int i = 0; i < 30; i++) {
+            repository.save(Transaction.builder()
+                    .transactionId(String.format("%02d", i))
+                    .amount(i % 4 == 0 ? null : new BigDecimal(i % 7))
+                    .timestamp(i % 5 == 0 ? null : base.plusMinutes(i % 11))
+                    .status(i % 9 == 0 ? null : statuses.get(i % 3))
+                    .build());
+        }
+
+        for (Sort sort : List.of(Sort.by("amount"), Sort.by(Sort.Direction.DESC, "amount"),
+                Sort.by(Sort.Direction.DESC, "timestamp"), Sort.by(Sort.Direction.DESC, "status"),
+                Sort.by(Sort.Order.desc("status"), Sort.Order.desc("amount")),
+                Sort.by(Sort.Order.asc("status"), Sort.Order.desc("timestamp")))) {
+            // When
+            List<Transaction> paged = new ArrayList<>();
+            for (int page = 0; page < 5; page++) {
+                paged.addAll(repository.findAll(PageRequest.of(page, 7, sort)).getContent());
+            }
+
+            // Then
+            List<Transaction> expected = repository.findAll().stream()
+                    .sorted(TransactionSort.comparator(sort))
+                    .toList();
+            assertEquals(expected.stream().map(Transaction::getTransactionId).toList(),
+                    paged.stream().map(Transaction::getTransactionId).toList(), sort::toString);
+            Sort.Order first = sort.toList().get(0);
+            int firstMissing = firstMissing(paged, first.getProperty());
+            assertTrue(firstMissing > 0, sort::toString);
+            for (Transaction transaction : paged.subList(firstMissing, paged.size())) {
+                assertNull(field(transaction, first.getProperty()), sort::toString);
+            }
+        }
+    }
+
+    private static int firstMissing(List<Transaction> transactions, String property) {
+        for (int i = 0; i < transactions.size(); i++) {
+            if (field(transactions.get(i), property) == null) {
+                return i;
+            }
+        }
+        return transactions.size();
+    }
+
+    private static Object field(Transaction transaction, String property) {
+        return switch (property) {
+            case "amount" -> transaction.getAmount();
+            case "timestamp" -> transaction.getTimestamp();
+            default -> transaction.getStatus();
+        };
+    }
+
+    @Test
+    @DisplayName("Should page an account's ledger newest first with running balances")
+    void shouldPageAccountLedger() {
+        // Given
+        LocalDateTime base = LocalDateTime.of(2024, 1, 1, 0, 0);
+        for (int i = 0; i < 12; i++) {
+            repository.save(Transaction.builder()
+                    .transactionId(String.format("%02d", i))
+                    .amount(new BigDecimal(10 * (i + 1)))
+                    .timestamp(base.plusMinutes(i))
+                    .status(i % 4 == 3 ? "PENDING" : "COMPLETED")
+                    .senderAccountId(i % 2 == 0 ? 1001L : 2001L)
+                    .receiverAccountId(i % 2 == 0 ? 2001L : 1001L)
+                    .build());
+        }
+        repository.save(sampleTransaction.toBuilder().senderAccountId(3001L).receiverAccountId(4001L).build());
+        repository.deleteById("05");
+        repository.save(repository.findById("03").orElseThrow().toBuilder().status("COMPLETED").build());
+
+        // When
+        List<LedgerEntry> paged = new ArrayList<>();
+        long before = Long.MAX_VALUE;
+        for (List<LedgerEntry> page; !(page = repository.findByAccount(1001L, before, 4)).isEmpty(); ) {
+            paged.addAll(page);
+            before = page.get(page.size() - 1).position();
+        }
+
+        // Then
+        List<Transaction> oldestFirst = repository.findAll().stream()
+                .filter(transaction -> Long.valueOf(1001L).equals(transaction.getSenderAccountId())
+                        || Long.valueOf(1001L).equals(transaction.getReceiverAccountId()))
+                .sorted(Comparator.comparing(Transaction::getTimestamp))
+                .toList();
+        assertEquals(11, oldestFirst.size());
+        List<String> expectedIds = new ArrayList<>();
+        List<BigDecimal> expectedBalances = new ArrayList<>();
+        BigDecimal balance = BigDecimal.ZERO;
+        for (Transaction transaction : oldestFirst) {
+            balance = balance.add(LedgerEntry.contribution(transaction, 1001L));
+            expectedIds.add(0, transaction.getTransactionId());
+            expectedBalances.add(0, balance);
+        }
+        assertEquals(expectedIds, paged.stream().map(entry -> entry.transaction().getTransactionId()).toList());
+        assertEquals(expectedBalances, paged.stream().map(LedgerEntry::balance).toList());
+        assertEquals("COMPLETED", paged.get(paged.size() - 4).transaction().getStatus());
+    }
+
+    @Test
+    @DisplayName("Should find transactions in a time range across partitions")
+    void shouldFindTransactionsByTimestampBetween() {
+        // Given
+        LocalDateTime base = LocalDateTime.of(2024, 1, 1, 10, 0);
+        for (int i = 0; i < 6; i++) {
+            Transaction transaction = Transaction.builder()
+                    .transactionId(String.valueOf(i))
+                    .amount(new BigDecimal("100.00"))
+                    .currency("USD")
+                    .timestamp(base.plusMinutes(30L * i))
+                    .status("PENDING")
+                    .senderAccountId(1001L)
+                    .receiverAccountId(2001L)
+                    .build();
+            repository.save(transaction);
+        }
+
+        // When
+        List<Transaction> inRange = repository.findByTimestampBetween(base.plusMinutes(30), base.plusHours(2));
+        Page<Transaction> page = repository.findByTimestampBetween(base, base.plusHours(3), PageRequest.of(1, 2));
+
+        // Then
+        assertEquals(List.of("1", "2", "3"), inRange.stream().map(Transaction::getTransactionId).toList());
+        assertEquals(6, page.getTotalElements());
+        assertEquals(List.of("2", "3"), page.getContent().stream().map(Transaction::getTransactionId).toList());
+    }
+
+    @Test
+    @DisplayName("Should keep time index in sync on update and delete")
+    void shouldKeepTimeIndexInSyncOnUpdateAndDelete() {
+        // Given
+        LocalDateTime timestamp = sampleTransaction.getTimestamp();
+        repository.save(sampleTransaction);
+        Transaction moved = Transaction.builder()
+                .transactionId("1")
+                .amount(new BigDecimal("100.00"))
+                .timestamp(timestamp.minusDays(1))
+                .status("PENDING")
+                .build();
+
+        // When
+        repository.save(moved);
+
+        // Then
+        assertTrue(repository.findByTimestampBetween(timestamp, timestamp.plusSeconds(1)).isEmpty());
+        assertEquals(1, repository.findByTimestampBetween(timestamp.minusDays(2), timestamp).size());
+
+        repository.deleteById("1");
+        assertTrue(repository.findByTimestampBetween(timestamp.minusDays(2), timestamp).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should drop partitions older than cutoff")
+    void shouldDropPartitionsBeforeCutoff() {
+        // Given
+        LocalDateTime base = LocalDateTime.of(2024, 1, 1, 0, 0);
+        for (int i = 0; i < 4; i++) {
+            Transaction transaction = Transaction.builder()
+                    .transactionId(String.valueOf(i))
+                    .amount(new BigDecimal("100.00"))
+                    .timestamp(base.plusHours(i).plusMinutes(15))
+                    .status("COMPLETED")
+                    .build();
+            repository.save(transaction);
+        }
+
+        // When
+        List<Transaction> dropped = repository.dropPartitionsBefore(base.plusHours(2).plusMinutes(30));
+
+        // Then
+        assertEquals(List.of("0", "1"), dropped.stream().map(Transaction::getTransactionId).toList());
+        assertFalse(repository.existsById("0"));
+        assertFalse(repository.existsById("1"));
+        assertTrue(repository.existsById("2"));
+    }
+
+    @Test
+    @DisplayName("Should search by reference prefix and description substring")
+    void shouldSearchByReferenceAndDescription() {
+        // Given
+        repository.save(sampleTransaction);
+        Transaction transaction2 = Transaction.builder()
+                .transactionId("2")
+                .amount(new BigDecimal("200.00"))
+                .description("Monthly RENT payment transfer")
+                .status("PENDING")
+                .referenceNumber("INV-2024-001")
+                .build();
+        repository.save(transaction2);
+
+        // When & Then
+        assertEquals(List.of("1"), repository.search("ref123", 10).stream().map(Transaction::getTransactionId).toList());
+        assertEquals(List.of("2"), repository.search("rent pay", 10).stream().map(Transaction::getTransactionId).toList());
+        assertEquals(List.of("1", "2"), repository.search("TRANS", 10).stream().map(Transaction::getTransactionId).toList());
+        assertTrue(repository.search("absent", 10).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should drop deleted transactions from search results and honour the limit")
+    void shouldKeepSearchIndexInSync() {
+        // Given
+        for (int i = 0; i < 5; i++) {
+            Transaction transaction = Transaction.builder()
+                    .transactionId(String.valueOf(i))
+                    .amount(new BigDecimal("100.00"))
+                    .description("Payroll batch " + i)
+                    .status("PENDING")
+                    .referenceNumber("PAY" + i)
+                    .build();
+            repository.save(transaction);
+        }
+
+        // When
+        repository.deleteById("3");
+
+        // Then
+        assertEquals(4, repository.search("payroll", 10).size());
+        assertEquals(2, repository.search("payroll", 2).size());
+        assertTrue(repository.search("pay3", 10).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should return the matches with the smallest IDs when there are more than the limit")
+    void shouldLimitSearchToSmallestIds() {
+        // Given
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            String id = String.format("%03d", (i * 37) % 200);
+            ids.add(id);
+            repository.save(Transaction.builder()
+                    .transactionId(id)
+                    .amount(new BigDecimal("100.00"))
+                    .description("Payroll batch " + id)
+                    .status("PENDING")
+                    .build());
+        }
+
+        // When
+        List<String> found = repository.search("payroll", 25).stream().map(Transaction::getTransactionId).toList();
+
+        // Then
+        assertEquals(ids.stream().sorted().limit(25).toList(), found);
+    }
+
+    @Test
+    @DisplayName("Should bump versions on every save and delete")
+    void shouldVersionWrites() {
+        // Given
+        long initial = repository.currentVersion();
+
+        // When
+        repository.save(sampleTransaction);
+        long created = sampleTransaction.getVersion();
+        sampleTransaction.setStatus("COMPLETED");
+        repository.save(sampleTransaction);
+        long updated = sampleTransaction.getVersion();
+        repository.deleteById("1");
+
+        // Then
+        assertTrue(created > initial);
+        assertTrue(updated > created);
+        assertEquals(updated, repository.currentVersion() - 1);
+        repository.deleteById("1");
+        assertEquals(updated + 1, repository.currentVersion());
+    }
+
+    @Test
+    @DisplayName("Should insert only transactions with new IDs")
+    void shouldInsertAllSkippingExistingIds() {
+        // Given
+        repository.save(sampleTransaction);
+        Transaction replacement = Transaction.builder().transactionId("1").status("FAILED").build();
+        Transaction transaction2 = Transaction.builder()
+                .transactionId("2")
+                .timestamp(LocalDateTime.now())
+                .description("Bulk loaded")
+                .status("PENDING")
+                .build();
+
+        // When
+        List<Transaction> inserted = repository.insertAll(List.of(replacement, transaction2));
+
+        // Then
+        assertEquals(List.of(transaction2), inserted);
+        assertEquals("PENDING", repository.findById("1").orElseThrow().getStatus());
+        assertEquals(List.of("2"), repository.search("bulk", 10).stream().map(Transaction::getTransactionId).toList());
+    }
+
+    @Test
+    @DisplayName("Should keep serving a snapshot's version while writes continue")
+    void shouldIsolateSnapshotFromLaterWrites() {
+        // Given
+        LocalDateTime base = LocalDateTime.of(2024, 1, 1, 0, 0);
+        for (int i = 0; i < 6; i++) {
+            repository.save(Transaction.builder().transactionId("s" + i).timestamp(base.plusMinutes(i))
+                    .description("Snapshot row").status("PENDING").build());
+        }
+        TransactionSnapshot snapshot = repository.openSnapshot();
+        Page<Transaction> firstPage = snapshot.findAll(PageRequest.of(0, 3));
+
+        // When
+        repository.deleteById("s1");
+        repository.deleteById("s4");
+        repository.save(Transaction.builder().transactionId("new").timestamp(base.minusMinutes(1))
+                .description("Inserted later").status("PENDING").build());
+        Transaction completed = repository.findById("s5").orElseThrow().toBuilder().status("COMPLETED").build();
+        repository.save(completed);
+
+        // Then
+        Page<Transaction> secondPage = snapshot.findAll(PageRequest.of(1, 3));
+        assertEquals(List.of("s0", "s1", "s2"), firstPage.getContent().stream().map(Transaction::getTransactionId).toList());
+        assertEquals(List.of("s3", "s4", "s5"), secondPage.getContent().stream().map(Transaction::getTransactionId).toList());
+        assertEquals(6, secondPage.getTotalElements());
+        assertEquals("PENDING", secondPage.getContent().get(2).getStatus());
+        assertEquals("PENDING", snapshot.findById("s5").orElseThrow().getStatus());
+        assertTrue(snapshot.findById("s1").isPresent());
+        assertTrue(snapshot.findById("new").isEmpty());
+        assertEquals(2, snapshot.findByTimestampBetween(base.plusMinutes(4), base.plusHours(1), PageRequest.of(0, 5))
+                .getTotalElements());
+
+        assertEquals("COMPLETED", repository.findById("s5").orElseThrow().getStatus());
+        assertEquals(5, repository.findAll().size());
+        snapshot.close();
+    }
+}
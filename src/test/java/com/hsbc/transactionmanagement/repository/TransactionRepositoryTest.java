@@ -1,182 +1,373 @@
 package com.hsbc.transactionmanagement.repository;
 
+import com.hsbc.transactionmanagement.model.LedgerEntry;
+import com.hsbc.transactionmanagement.model.StatusHistory;
 import com.hsbc.transactionmanagement.model.Transaction;
-import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.*;
 
-public class TransactionRepositoryTest {
+public class TransactionRepositoryTest extends TransactionRepositoryContractTest {
 
-    private InMemoryTransactionRepository repository;
-    private Transaction sampleTransaction;
+    private InMemoryTransactionRepository inMemoryRepository;
 
-    @BeforeEach
-    void setUp() {
-        repository = new InMemoryTransactionRepository();
-        
-        // Setup test data
-        sampleTransaction = Transaction.builder()
-                .transactionId("1")
-                .amount(new BigDecimal("100.00"))
-                .currency("USD")
-                .timestamp(LocalDateTime.now())
-                .description("Test transaction")
-                .status("PENDING")
-                .senderAccountId(1001L)
-                .receiverAccountId(2001L)
-                .referenceNumber("REF123456")
-                .build();
+    @Override
+    protected TransactionRepository createRepository() {
+        inMemoryRepository = new InMemoryTransactionRepository();
+        return inMemoryRepository;
     }
 
     @Test
-    @DisplayName("Should save transaction and generate ID")
-    void shouldSaveTransactionAndGenerateId() {
+    @DisplayName("Should release emptied time partitions")
+    void shouldReleaseDroppedPartitions() {
+        // Given
+        LocalDateTime base = LocalDateTime.of(2024, 1, 1, 0, 0);
+        for (int i = 0; i < 4; i++) {
+            repository.save(Transaction.builder()
+                    .transactionId(String.valueOf(i))
+                    .amount(new BigDecimal("100.00"))
+                    .timestamp(base.plusHours(i).plusMinutes(15))
+                    .status("COMPLETED")
+                    .build());
+        }
+
         // When
-        Transaction savedTransaction = repository.save(sampleTransaction);
-        
+        repository.dropPartitionsBefore(base.plusHours(2).plusMinutes(30));
+
         // Then
-        assertNotNull(savedTransaction);
-        assertNotNull(savedTransaction.getTransactionId());
-        assertEquals("1", savedTransaction.getTransactionId());
+        assertEquals(2, inMemoryRepository.partitionCount());
     }
 
     @Test
-    @DisplayName("Should save transaction with existing ID")
-    void shouldSaveTransactionWithExistingId() {
+    @DisplayName("Should release time partitions emptied by deletes")
+    void shouldReleasePartitionsEmptiedByDeletes() {
         // Given
-        sampleTransaction.setTransactionId("custom-id");
-        
+        LocalDateTime base = LocalDateTime.of(2024, 1, 1, 0, 0);
+        for (int i = 0; i < 3; i++) {
+            repository.save(transactionAt(String.valueOf(i), base.plusHours(i)));
+        }
+
         // When
-        Transaction savedTransaction = repository.save(sampleTransaction);
-        
+        repository.deleteById("0");
+        repository.deleteById("2");
+
+        // Then
+        assertEquals(1, inMemoryRepository.partitionCount());
+        repository.save(transactionAt("3", base));
+        assertEquals(2, inMemoryRepository.partitionCount());
+    }
+
+    @Test
+    @DisplayName("Should page a time range across partitions without losing rows at their edges")
+    void shouldPageTimeRangeAcrossPartitions() {
+        // Given: three rows in each of four hourly partitions
+        LocalDateTime base = LocalDateTime.of(2024, 1, 1, 0, 0);
+        for (int i = 0; i < 12; i++) {
+            repository.save(transactionAt(String.format("%02d", i), base.plusMinutes(20L * i + 5)));
+        }
+
+        // When: the range starts and ends inside a partition
+        List<String> ids = new ArrayList<>();
+        for (int page = 0; page < 4; page++) {
+            repository.findByTimestampBetween(base.plusMinutes(30), base.plusHours(3).plusMinutes(30),
+                    PageRequest.of(page, 3)).forEach(transaction -> ids.add(transaction.getTransactionId()));
+        }
+
         // Then
-        assertNotNull(savedTransaction);
-        assertEquals("custom-id", savedTransaction.getTransactionId());
+        assertEquals(List.of("02", "03", "04", "05", "06", "07", "08", "09", "10"), ids);
+        assertEquals(9, repository.findByTimestampBetween(base.plusMinutes(30), base.plusHours(3).plusMinutes(30),
+                PageRequest.of(0, 3)).getTotalElements());
     }
 
     @Test
-    @DisplayName("Should find transaction by ID")
-    void shouldFindTransactionById() {
+    @DisplayName("Should keep every row saved while its partition is dropped reachable by time")
+    void shouldKeepRowsSavedDuringDropReachable() throws InterruptedException {
         // Given
-        Transaction savedTransaction = repository.save(sampleTransaction);
-        
+        LocalDateTime old = LocalDateTime.of(2024, 1, 1, 0, 0);
+        AtomicBoolean done = new AtomicBoolean();
+        Thread dropper = new Thread(() -> {
+            while (!done.get()) {
+                repository.dropPartitionsBefore(old.plusHours(2));
+            }
+        });
+        dropper.start();
+
         // When
-        Optional<Transaction> foundTransaction = repository.findById(savedTransaction.getTransactionId());
-        
-        // Then
-        assertTrue(foundTransaction.isPresent());
-        assertEquals(savedTransaction.getTransactionId(), foundTransaction.get().getTransactionId());
+        try {
+            for (int i = 0; i < 5_000; i++) {
+                repository.save(transactionAt(String.valueOf(i), old.plusMinutes(i % 60)));
+            }
+        } finally {
+            done.set(true);
+            dropper.join();
+        }
+
+        // Then: whatever the drops left in the store, the time index still finds
+        Set<String> reachable = repository.findByTimestampBetween(old, old.plusHours(1)).stream()
+                .map(Transaction::getTransactionId)
+                .collect(Collectors.toSet());
+        assertEquals(reachable.size(), repository.count());
+        repository.findAll().forEach(transaction -> assertTrue(reachable.contains(transaction.getTransactionId())));
     }
 
     @Test
-    @DisplayName("Should return empty when transaction not found")
-    void shouldReturnEmptyWhenTransactionNotFound() {
+    @DisplayName("Should account for the estimated footprint of every write")
+    void shouldTrackEstimatedFootprint() {
+        // Given
+        Transaction longer = sampleTransaction.toBuilder()
+                .description(sampleTransaction.getDescription() + " with a much longer description")
+                .build();
+
         // When
-        Optional<Transaction> foundTransaction = repository.findById("non-existent-id");
-        
+        repository.save(sampleTransaction);
+        long afterCreate = inMemoryRepository.estimatedBytes();
+        repository.save(longer);
+        long afterUpdate = inMemoryRepository.estimatedBytes();
+        repository.deleteById("1");
+
         // Then
-        assertFalse(foundTransaction.isPresent());
+        assertTrue(afterCreate > 0);
+        assertTrue(afterUpdate > afterCreate);
+        assertEquals(0, inMemoryRepository.estimatedBytes());
     }
 
     @Test
-    @DisplayName("Should delete transaction by ID")
-    void shouldDeleteTransactionById() {
+    @DisplayName("Should measure the part of the footprint held by status histories")
+    void shouldTrackStatusHistoryFootprint() {
         // Given
-        Transaction savedTransaction = repository.save(sampleTransaction);
-        
+        Transaction pending = sampleTransaction.toBuilder()
+                .statusHistory(StatusHistory.start("PENDING", 1_704_099_600_000L))
+                .build();
+        Transaction completed = pending.toBuilder().build();
+        completed.updateStatus("COMPLETED");
+
         // When
-        repository.deleteById(savedTransaction.getTransactionId());
-        Optional<Transaction> foundTransaction = repository.findById(savedTransaction.getTransactionId());
-        
+        repository.save(pending);
+        long afterCreate = inMemoryRepository.statusHistoryBytes();
+        repository.save(completed);
+        long afterUpdate = inMemoryRepository.statusHistoryBytes();
+        repository.deleteById("1");
+
         // Then
-        assertFalse(foundTransaction.isPresent());
+        // Array header plus one packed entry per status
+        assertEquals(24, afterCreate);
+        assertEquals(32, afterUpdate);
+        assertEquals(0, inMemoryRepository.statusHistoryBytes());
     }
 
     @Test
-    @DisplayName("Should find all transactions")
-    void shouldFindAllTransactions() {
+    @DisplayName("Should drop ledger chunks whose entries were all deleted and page past them")
+    void shouldReclaimDeletedLedgerChunks() {
+        // Given
+        int total = AccountLedgers.CHUNK_SIZE * 3 + 100;
+        LocalDateTime base = LocalDateTime.of(2024, 1, 1, 0, 0);
+        for (int i = 0; i < total; i++) {
+            repository.save(transactionAt(String.valueOf(i), base.plusSeconds(i)).toBuilder()
+                    .senderAccountId(2001L).receiverAccountId(1001L).build());
+        }
+
+        // When: everything but the newest 10 of the first three chunks, and the 5 oldest of the last
+        for (int i = 0; i < AccountLedgers.CHUNK_SIZE * 3 - 10; i++) {
+            repository.deleteById(String.valueOf(i));
+        }
+        for (int i = AccountLedgers.CHUNK_SIZE * 3; i < AccountLedgers.CHUNK_SIZE * 3 + 5; i++) {
+            repository.deleteById(String.valueOf(i));
+        }
+
+        // Then
+        assertEquals(2, inMemoryRepository.ledgerChunkCount(1001L));
+        List<LedgerEntry> page = repository.findByAccount(1001L, AccountLedgers.CHUNK_SIZE * 3L, 20);
+        assertEquals(10, page.size());
+        assertEquals(AccountLedgers.CHUNK_SIZE * 3L - 1, page.get(0).position());
+        assertEquals(new BigDecimal("1000.00"), page.get(0).balance());
+        assertEquals(new BigDecimal("100.00"), page.get(9).balance());
+        List<LedgerEntry> newest = repository.findByAccount(1001L, Long.MAX_VALUE, 200);
+        assertEquals(105, newest.size());
+        assertEquals(new BigDecimal("10500.00"), newest.get(0).balance());
+    }
+
+    @Test
+    @DisplayName("Should drop write history once the last snapshot is closed")
+    void shouldReleaseHistoryWhenSnapshotsClose() {
         // Given
         repository.save(sampleTransaction);
-        
-        Transaction transaction2 = Transaction.builder()
-                .transactionId("2")
-                .amount(new BigDecimal("200.00"))
-                .currency("EUR")
-                .timestamp(LocalDateTime.now())
-                .description("Another transaction")
-                .status("COMPLETED")
-                .senderAccountId(1002L)
-                .receiverAccountId(2002L)
-                .referenceNumber("REF789012")
-                .build();
-        repository.save(transaction2);
-        
+        TransactionSnapshot older = repository.openSnapshot();
+        repository.deleteById("1");
+        TransactionSnapshot newer = repository.openSnapshot();
+        repository.save(sampleTransaction);
+        assertEquals(2, inMemoryRepository.historySize());
+
+        // When / Then
+        older.close();
+        assertEquals(1, inMemoryRepository.historySize());
+        assertTrue(newer.findById("1").isEmpty());
+        newer.close();
+        newer.close();
+        assertEquals(0, inMemoryRepository.historySize());
+
+        repository.deleteById("1");
+        assertEquals(0, inMemoryRepository.historySize());
+    }
+
+    @Test
+    @DisplayName("Should page a snapshot in order through moved, deleted and inserted rows")
+    void shouldPageSnapshotThroughConcurrentChanges() {
+        // Given
+        LocalDateTime base = LocalDateTime.of(2024, 1, 1, 0, 0);
+        for (int i = 0; i < 20; i++) {
+            repository.save(transactionAt(String.format("%02d", i), base.plusMinutes(i)));
+        }
+        TransactionSnapshot snapshot = repository.openSnapshot();
+        List<String> expected = repository.findAll().stream()
+                .sorted(TimePartitionedIndex.TIMESTAMP_ORDER)
+                .map(Transaction::getTransactionId)
+                .toList();
+
+        // When: rows move in time, disappear and appear between pages
+        List<String> paged = new ArrayList<>();
+        for (int page = 0; page < 5; page++) {
+            snapshot.findAll(PageRequest.of(page, 4)).forEach(transaction -> paged.add(transaction.getTransactionId()));
+            repository.save(repository.findById(String.format("%02d", 19 - page)).orElseThrow().toBuilder()
+                    .timestamp(base.minusMinutes(page + 1)).build());
+            repository.deleteById(String.format("%02d", page * 4 + 1));
+            repository.save(transactionAt("new-" + page, base.plusMinutes(page * 4L + 2).plusSeconds(30)));
+        }
+
+        // Then
+        assertEquals(expected, paged);
+        assertEquals(20, snapshot.findAll(PageRequest.of(3, 4)).getTotalElements());
+        assertEquals(expected.subList(12, 16), snapshot.findAll(PageRequest.of(3, 4)).stream()
+                .map(Transaction::getTransactionId).toList());
+        assertEquals(expected, snapshot.stream().map(Transaction::getTransactionId).toList());
+        snapshot.close();
+        assertEquals(0, inMemoryRepository.historySize());
+    }
+
+    @Test
+    @DisplayName("Should not pin a snapshot past a write that is stamped but not yet stored")
+    void shouldPinOnlyInstalledWrites() throws Exception {
+        // Given: a write held inside the map update, after its version was stamped
+        CountDownLatch stamped = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        inMemoryRepository.setMutationListener((version, id, after) -> {
+            stamped.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        Thread writer = new Thread(() -> repository.save(transactionAt("held", LocalDateTime.of(2024, 1, 1, 0, 0))));
+        writer.start();
+        assertTrue(stamped.await(5, TimeUnit.SECONDS));
+
         // When
-        List<Transaction> transactions = repository.findAll();
-        
+        CompletableFuture<TransactionSnapshot> opening = CompletableFuture.supplyAsync(repository::openSnapshot);
+        Thread.sleep(100);
+        boolean openedEarly = opening.isDone();
+        release.countDown();
+        writer.join();
+        TransactionSnapshot snapshot = opening.get(5, TimeUnit.SECONDS);
+
         // Then
-        assertNotNull(transactions);
-        assertEquals(2, transactions.size());
+        assertFalse(openedEarly);
+        assertEquals(1, snapshot.version());
+        assertTrue(snapshot.findById("held").isPresent());
+        snapshot.close();
     }
 
     @Test
-    @DisplayName("Should check if transaction exists by ID")
-    void shouldCheckIfTransactionExistsById() {
+    @DisplayName("Should leave no history behind once snapshots close under concurrent writes")
+    void shouldLeaveNoHistoryAfterConcurrentWrites() throws InterruptedException {
         // Given
-        Transaction savedTransaction = repository.save(sampleTransaction);
-        
+        AtomicBoolean done = new AtomicBoolean();
+        Thread writer = new Thread(() -> {
+            for (int i = 0; !done.get(); i++) {
+                repository.save(transactionAt(String.valueOf(i % 100), LocalDateTime.of(2024, 1, 1, 0, 0)));
+            }
+        });
+        writer.start();
+
         // When
-        boolean exists = repository.existsById(savedTransaction.getTransactionId());
-        boolean nonExists = repository.existsById("non-existent-id");
-        
+        try {
+            for (int i = 0; i < 2_000; i++) {
+                repository.openSnapshot().close();
+            }
+        } finally {
+            done.set(true);
+            writer.join();
+        }
+
         // Then
-        assertTrue(exists);
-        assertFalse(nonExists);
+        assertEquals(0, inMemoryRepository.historySize());
     }
 
     @Test
-    @DisplayName("Should find all transactions with pagination")
-    void shouldFindAllTransactionsWithPagination() {
+    @DisplayName("Should keep sorted pages whole while writers save concurrently")
+    void shouldPageSortedWhileSavingConcurrently() throws InterruptedException {
         // Given
-        for (int i = 0; i < 20; i++) {
-            Transaction transaction = Transaction.builder()
-                    .transactionId(String.valueOf(i))
-                    .amount(new BigDecimal("100.00"))
-                    .currency("USD")
-                    .timestamp(LocalDateTime.now())
-                    .description("Transaction " + i)
-                    .status("PENDING")
-                    .senderAccountId(1001L)
-                    .receiverAccountId(2001L)
-                    .referenceNumber("REF" + i)
-                    .build();
-            repository.save(transaction);
+        int writers = 4;
+        int perWriter = 500;
+        List<Thread> threads = new ArrayList<>();
+        for (int w = 0; w < writers; w++) {
+            int writer = w;
+            threads.add(new Thread(() -> {
+                for (int i = 0; i < perWriter; i++) {
+                    repository.save(Transaction.builder()
+                            .transactionId(writer + "-" + i)
+                            .amount(new BigDecimal(i % 37))
+                            .timestamp(LocalDateTime.of(2024, 1, 1, 0, 0).plusSeconds(i))
+                            .status(i % 2 == 0 ? "PENDING" : "COMPLETED")
+                            .build());
+                }
+            }));
         }
-        
+        threads.forEach(Thread::start);
+
         // When
-        Pageable pageable = PageRequest.of(0, 5);
-        Page<Transaction> page = repository.findAll(pageable);
-        
+        Sort sort = Sort.by(Sort.Order.desc("status"), Sort.Order.asc("amount"));
+        while (threads.stream().anyMatch(Thread::isAlive)) {
+            Page<Transaction> page = repository.findAll(PageRequest.of(3, 20, sort));
+            assertTrue(page.getContent().size() == 20 || page.getTotalElements() < 80);
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
         // Then
-        assertNotNull(page);
-        assertEquals(5, page.getContent().size());
-        assertEquals(20, page.getTotalElements());
-        assertEquals(4, page.getTotalPages());
-        
-        // Test second page
-        pageable = PageRequest.of(1, 5);
-        page = repository.findAll(pageable);
-        assertEquals(5, page.getContent().size());
-        assertEquals(1, page.getNumber());
+        List<String> paged = new ArrayList<>();
+        for (int page = 0; page < writers * perWriter / 100; page++) {
+            repository.findAll(PageRequest.of(page, 100, sort)).forEach(row -> paged.add(row.getTransactionId()));
+        }
+        List<String> expected = repository.findAll().stream()
+                .sorted(TransactionSort.comparator(sort))
+                .map(Transaction::getTransactionId)
+                .toList();
+        assertEquals(writers * perWriter, expected.size());
+        assertEquals(expected, paged);
+    }
+
+    private static Transaction transactionAt(String id, LocalDateTime timestamp) {
+        return Transaction.builder()
+                .transactionId(id)
+                .amount(new BigDecimal("100.00"))
+                .timestamp(timestamp)
+                .status("COMPLETED")
+                .build();
     }
-}
\ No newline at end of file
+}
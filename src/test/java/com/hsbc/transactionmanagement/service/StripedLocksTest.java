@@ -0,0 +1,79 @@
+package com.hsbc.transactionmanagement.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StripedLocksTest {
+
+    @Test
+    @DisplayName("Should take each stripe once however many keys share it")
+    void shouldLockEachStripeOnce() {
+        StripedLocks locks = new StripedLocks(4);
+        List<String> keys = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            keys.add("key-" + i);
+        }
+
+        try (StripedLocks.Held held = locks.lockAll(keys)) {
+            assertEquals(4, held.stripeCount());
+            // Reentrant, so a single-key lock inside a batch does not deadlock the same thread
+            try (StripedLocks.Held inner = locks.lock("key-1")) {
+                assertEquals(1, inner.stripeCount());
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Should not deadlock batches locking overlapping keys in opposite orders")
+    void shouldNotDeadlockOverlappingBatches() throws Exception {
+        StripedLocks locks = new StripedLocks(64);
+        List<String> forward = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            forward.add("tx-" + i);
+        }
+        List<String> backward = new ArrayList<>(forward.reversed());
+        int threads = 8;
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger batches = new AtomicInteger();
+        ExecutorService executorService = Executors.newFixedThreadPool(threads);
+        List<Future<?>> futures = new ArrayList<>();
+
+        for (int t = 0; t < threads; t++) {
+            List<String> keys = t % 2 == 0 ? forward : backward;
+            futures.add(executorService.submit(() -> {
+                start.await();
+                for (int i = 0; i < 500; i++) {
+                    try (StripedLocks.Held ignored = locks.lockAll(keys)) {
+                        batches.incrementAndGet();
+                    }
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+
+        for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        executorService.shutdown();
+        assertEquals(threads * 500, batches.get());
+    }
+
+    @Test
+    @DisplayName("Should reject stripe counts that are not powers of two")
+    void shouldRejectInvalidStripeCount() {
+        assertThrows(IllegalArgumentException.class, () -> new StripedLocks(0));
+        assertThrows(IllegalArgumentException.class, () -> new StripedLocks(12));
+    }
+}
@@ -0,0 +1,178 @@
+package com.hsbc.transactionmanagement.service;
+
+import com.hsbc.transactionmanagement.capacity.CapacityGuard;
+import com.hsbc.transactionmanagement.config.CacheConfig;
+import com.hsbc.transactionmanagement.event.TransactionEventPublisher;
+import com.hsbc.transactionmanagement.exceptions.TransactionNotFoundException;
+import com.hsbc.transactionmanagement.model.Transaction;
+import com.hsbc.transactionmanagement.model.TransactionUpdateRequest;
+import com.hsbc.transactionmanagement.repository.TransactionRepository;
+import com.hsbc.transactionmanagement.snapshot.SnapshotRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.parallel.Execution;
+import org.junit.jupiter.api.parallel.ExecutionMode;
+import org.mockito.InOrder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@SpringJUnitConfig({CacheConfig.class, TransactionServiceImpl.class, SimpleMeterRegistry.class})
+// Shared mock beans are reset between tests, so methods must not interleave
+@Execution(ExecutionMode.SAME_THREAD)
+public class TransactionServiceCachingTest {
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @MockBean
+    private TransactionRepository transactionRepository;
+
+    @MockBean
+    private TransactionEventPublisher eventPublisher;
+
+    @MockBean
+    private SnapshotRegistry snapshotRegistry;
+
+    @MockBean
+    private CapacityGuard capacityGuard;
+
+    private Transaction sampleTransaction;
+
+    @BeforeEach
+    void setUp() {
+        cacheManager.getCache("transactions").clear();
+        sampleTransaction = Transaction.builder()
+                .transactionId("1")
+                .amount(new BigDecimal("100.00"))
+                .currency("USD")
+                .timestamp(LocalDateTime.now())
+                .status("PENDING")
+                .senderAccountId(1001L)
+                .receiverAccountId(2001L)
+                .build();
+    }
+
+    @Test
+    @DisplayName("Should load a missing key once for concurrent readers")
+    void shouldCoalesceConcurrentMisses() throws Exception {
+        // Given
+        int concurrentReads = 16;
+        CountDownLatch start = new CountDownLatch(1);
+        when(transactionRepository.findById("1")).thenAnswer(invocation -> {
+            Thread.sleep(200);
+            return Optional.of(sampleTransaction);
+        });
+        ExecutorService executorService = Executors.newFixedThreadPool(concurrentReads);
+        List<Future<Transaction>> futures = new ArrayList<>();
+
+        // When
+        for (int i = 0; i < concurrentReads; i++) {
+            futures.add(executorService.submit(() -> {
+                start.await();
+                return transactionService.getTransactionById("1");
+            }));
+        }
+        start.countDown();
+
+        // Then
+        for (Future<Transaction> future : futures) {
+            assertSame(sampleTransaction, future.get());
+        }
+        executorService.shutdown();
+        verify(transactionRepository, times(1)).findById("1");
+    }
+
+    @Test
+    @DisplayName("Should not cache failed loads")
+    void shouldNotCacheMisses() throws Exception {
+        // Given
+        when(transactionRepository.findById("404")).thenReturn(Optional.empty());
+
+        // When & Then
+        assertThrows(TransactionNotFoundException.class, () -> transactionService.getTransactionById("404"));
+        awaitEviction("404");
+        assertThrows(TransactionNotFoundException.class, () -> transactionService.getTransactionById("404"));
+        verify(transactionRepository, times(2)).findById("404");
+    }
+
+    // Caffeine drops a failed load on the loader's thread, which can finish after the caller sees the failure
+    private void awaitEviction(String key) throws InterruptedException {
+        CaffeineCache cache = (CaffeineCache) cacheManager.getCache("transactions");
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (cache.getAsyncCache().getIfPresent(key) != null && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+    }
+
+    @Test
+    @DisplayName("Should refresh cached entries of a batch status update")
+    void shouldRefreshCacheOnBatchUpdate() {
+        // Given
+        when(transactionRepository.findById("1")).thenReturn(Optional.of(sampleTransaction));
+        transactionService.getTransactionById("1");
+
+        // When
+        transactionService.updateTransactionStatuses(List.of("1"), "COMPLETED");
+
+        // Then
+        assertEquals("COMPLETED", transactionService.getTransactionById("1").getStatus());
+        verify(transactionRepository, times(2)).findById("1");
+    }
+
+    @Test
+    @DisplayName("Should hold an update of an ID back until its asynchronous insert is cached and published")
+    void shouldOrderUpdateAfterLockedInsert() throws Exception {
+        // Given: an insert paused inside the repository
+        CountDownLatch inserting = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(transactionRepository.insertAll(anyList())).thenAnswer(invocation -> {
+            inserting.countDown();
+            release.await();
+            return invocation.getArgument(0);
+        });
+        when(transactionRepository.findById("1")).thenReturn(Optional.of(sampleTransaction));
+        when(transactionRepository.save(any(Transaction.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        ExecutorService executorService = Executors.newFixedThreadPool(2);
+        Future<List<Transaction>> insert = executorService.submit(() -> transactionService.insertAll(List.of(sampleTransaction)));
+        assertTrue(inserting.await(5, TimeUnit.SECONDS));
+
+        // When
+        Future<Transaction> update = executorService.submit(() ->
+                transactionService.updateTransaction("1", new TransactionUpdateRequest("COMPLETED")));
+        Thread.sleep(100);
+        boolean updatedEarly = update.isDone();
+        release.countDown();
+        insert.get(5, TimeUnit.SECONDS);
+        update.get(5, TimeUnit.SECONDS);
+        executorService.shutdown();
+
+        // Then
+        assertFalse(updatedEarly);
+        assertEquals("COMPLETED", transactionService.getTransactionById("1").getStatus());
+        InOrder order = inOrder(eventPublisher);
+        order.verify(eventPublisher).transactionCreated(sampleTransaction);
+        order.verify(eventPublisher).statusUpdated(any(Transaction.class), eq("PENDING"));
+    }
+}
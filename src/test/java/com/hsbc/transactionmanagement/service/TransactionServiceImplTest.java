@@ -1,28 +1,41 @@
 package com.hsbc.transactionmanagement.service;
 
+import com.hsbc.transactionmanagement.capacity.CapacityGuard;
+import com.hsbc.transactionmanagement.event.TransactionEventPublisher;
+import com.hsbc.transactionmanagement.exceptions.BatchUpdateRejectedException;
+import com.hsbc.transactionmanagement.exceptions.CapacityExceededException;
 import com.hsbc.transactionmanagement.exceptions.DuplicateTransactionException;
 import com.hsbc.transactionmanagement.exceptions.TransactionNotFoundException;
+import com.hsbc.transactionmanagement.exceptions.TransactionValidationException;
+import com.hsbc.transactionmanagement.model.LedgerEntry;
+import com.hsbc.transactionmanagement.model.LedgerPage;
 import com.hsbc.transactionmanagement.model.Transaction;
 import com.hsbc.transactionmanagement.model.TransactionCreateRequest;
 import com.hsbc.transactionmanagement.model.TransactionUpdateRequest;
 import com.hsbc.transactionmanagement.repository.TransactionRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.CacheManager;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -34,6 +47,18 @@ public class TransactionServiceImplTest {
     @Mock
     private TransactionRepository transactionRepository;
 
+    @Mock
+    private TransactionEventPublisher eventPublisher;
+
+    @Mock
+    private CacheManager cacheManager;
+
+    @Mock
+    private CapacityGuard capacityGuard;
+
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
     @InjectMocks
     private TransactionServiceImpl transactionService;
 
@@ -88,6 +113,7 @@ public class TransactionServiceImplTest {
         assertEquals("USD", result.getCurrency());
         assertEquals("PENDING", result.getStatus());
         verify(transactionRepository).save(any(Transaction.class));
+        verify(eventPublisher).transactionCreated(sampleTransaction);
     }
 
     @Test
@@ -102,6 +128,18 @@ public class TransactionServiceImplTest {
         assertThrows(DuplicateTransactionException.class, () -> {
             transactionService.createTransaction(createRequest);
         });
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    @DisplayName("Should refuse new transactions when the store is over capacity")
+    void shouldRejectCreateOverCapacity() {
+        // Given
+        doThrow(new CapacityExceededException(2048, 1024)).when(capacityGuard).checkWrite();
+
+        // When & Then
+        assertThrows(CapacityExceededException.class, () -> transactionService.createTransaction(createRequest));
+        verifyNoInteractions(transactionRepository, eventPublisher);
     }
 
     @Test
@@ -159,6 +197,7 @@ public class TransactionServiceImplTest {
         assertEquals("COMPLETED", result.getStatus());
         verify(transactionRepository).findById("1");
         verify(transactionRepository).save(any(Transaction.class));
+        verify(eventPublisher).statusUpdated(updatedTransaction, "PENDING");
     }
 
     @Test
@@ -174,6 +213,7 @@ public class TransactionServiceImplTest {
         // Then
         verify(transactionRepository).existsById("1");
         verify(transactionRepository).deleteById("1");
+        verify(eventPublisher).transactionDeleted("1");
     }
 
     @Test
@@ -239,4 +279,156 @@ public class TransactionServiceImplTest {
         assertEquals(2, result.getContent().size());
         verify(transactionRepository).findAll(pageable);
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Should get transactions by time range")
+    void shouldGetTransactionsByTimeRange() {
+        // Given
+        LocalDateTime from = LocalDateTime.now().minusHours(1);
+        LocalDateTime to = LocalDateTime.now();
+        Pageable pageable = PageRequest.of(0, 10);
+        when(transactionRepository.findByTimestampBetween(from, to, pageable))
+                .thenReturn(new PageImpl<>(List.of(sampleTransaction), pageable, 1));
+
+        // When
+        Page<Transaction> result = transactionService.getTransactionsByTimeRange(from, to, pageable);
+
+        // Then
+        assertEquals(1, result.getTotalElements());
+        verify(transactionRepository).findByTimestampBetween(from, to, pageable);
+    }
+
+    @Test
+    @DisplayName("Should sort a time range when a sort is requested")
+    void shouldSortTransactionsByTimeRange() {
+        // Given
+        LocalDateTime from = LocalDateTime.now().minusHours(1);
+        LocalDateTime to = LocalDateTime.now();
+        Transaction small = sampleTransaction.toBuilder().transactionId("2").amount(new BigDecimal("5.00")).build();
+        Transaction large = sampleTransaction.toBuilder().transactionId("3").amount(new BigDecimal("500.00")).build();
+        when(transactionRepository.streamByTimestampBetween(from, to))
+                .thenReturn(Stream.of(small, sampleTransaction, large));
+
+        // When
+        Page<Transaction> result = transactionService.getTransactionsByTimeRange(from, to,
+                PageRequest.of(0, 2, Sort.by(Sort.Direction.DESC, "amount")));
+
+        // Then
+        assertEquals(3, result.getTotalElements());
+        assertEquals(List.of("3", "1"), result.map(Transaction::getTransactionId).getContent());
+        verify(transactionRepository, never()).findByTimestampBetween(any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Should reject inverted time range")
+    void shouldRejectInvertedTimeRange() {
+        // Given
+        LocalDateTime now = LocalDateTime.now();
+
+        // When & Then
+        TransactionValidationException exception = assertThrows(TransactionValidationException.class,
+                () -> transactionService.getTransactionsByTimeRange(now, now.minusHours(1), PageRequest.of(0, 10)));
+        assertEquals("INVALID_TIME_RANGE", exception.getErrorCode());
+        verifyNoInteractions(transactionRepository);
+    }
+
+    @Test
+    @DisplayName("Should page bounded search results")
+    void shouldPageSearchResults() {
+        // Given
+        Transaction transaction2 = Transaction.builder()
+                .transactionId("2")
+                .amount(new BigDecimal("200.00"))
+                .description("Another test transaction")
+                .status("PENDING")
+                .build();
+        when(transactionRepository.search("test", TransactionServiceImpl.MAX_SEARCH_RESULTS))
+                .thenReturn(List.of(sampleTransaction, transaction2));
+
+        // When
+        Page<Transaction> result = transactionService.searchTransactions(" test ", PageRequest.of(1, 1));
+
+        // Then
+        assertEquals(2, result.getTotalElements());
+        assertEquals(1, result.getContent().size());
+        assertEquals("2", result.getContent().get(0).getTransactionId());
+    }
+
+    @Test
+    @DisplayName("Should reject search queries that are too short")
+    void shouldRejectShortSearchQuery() {
+        // When & Then
+        TransactionValidationException exception = assertThrows(TransactionValidationException.class,
+                () -> transactionService.searchTransactions("ab", PageRequest.of(0, 10)));
+        assertEquals("INVALID_SEARCH_QUERY", exception.getErrorCode());
+        verifyNoInteractions(transactionRepository);
+    }
+
+    @Test
+    @DisplayName("Should page an account's ledger by position cursor")
+    void shouldPageAccountLedger() {
+        // Given
+        List<LedgerEntry> entries = List.of(
+                new LedgerEntry(7, sampleTransaction, BigDecimal.ZERO),
+                new LedgerEntry(4, sampleTransaction, BigDecimal.ZERO),
+                new LedgerEntry(2, sampleTransaction, BigDecimal.ZERO));
+        when(transactionRepository.findByAccount(1001L, Long.MAX_VALUE, 3)).thenReturn(entries);
+        when(transactionRepository.findByAccount(1001L, 4, 3)).thenReturn(entries.subList(2, 3));
+
+        // When
+        LedgerPage first = transactionService.getAccountLedger(1001L, null, 2);
+        LedgerPage last = transactionService.getAccountLedger(1001L, first.nextCursor(), 2);
+
+        // Then
+        assertEquals(2, first.entries().size());
+        assertEquals("4", first.nextCursor());
+        assertEquals(1, last.entries().size());
+        assertNull(last.nextCursor());
+
+        TransactionValidationException exception = assertThrows(TransactionValidationException.class,
+                () -> transactionService.getAccountLedger(1001L, "-1", 2));
+        assertEquals("INVALID_CURSOR", exception.getErrorCode());
+    }
+
+    @Test
+    @DisplayName("Should update the status of every transaction in a batch")
+    void shouldUpdateStatusOfBatch() {
+        // Given
+        Transaction second = sampleTransaction.toBuilder().transactionId("2").build();
+        when(transactionRepository.findById("1")).thenReturn(Optional.of(sampleTransaction));
+        when(transactionRepository.findById("2")).thenReturn(Optional.of(second));
+
+        // When
+        List<Transaction> updated = transactionService.updateTransactionStatuses(List.of("1", "2", "1"), "FAILED");
+
+        // Then
+        assertEquals(List.of("1", "2"), updated.stream().map(Transaction::getTransactionId).toList());
+        assertTrue(updated.stream().allMatch(transaction -> "FAILED".equals(transaction.getStatus())));
+        assertEquals("PENDING", sampleTransaction.getStatus());
+        verify(transactionRepository, times(2)).save(any(Transaction.class));
+        verify(eventPublisher).statusUpdated(updated.get(0), "PENDING");
+        verify(eventPublisher).statusUpdated(updated.get(1), "PENDING");
+    }
+
+    @Test
+    @DisplayName("Should reject the whole batch if any transaction cannot be updated")
+    void shouldRejectWholeBatchOnAnyFailure() {
+        // Given
+        Transaction completed = sampleTransaction.toBuilder().transactionId("2").status("COMPLETED").build();
+        when(transactionRepository.findById("1")).thenReturn(Optional.of(sampleTransaction));
+        when(transactionRepository.findById("2")).thenReturn(Optional.of(completed));
+        when(transactionRepository.findById("3")).thenReturn(Optional.empty());
+
+        // When
+        BatchUpdateRejectedException exception = assertThrows(BatchUpdateRejectedException.class,
+                () -> transactionService.updateTransactionStatuses(List.of("1", "2", "3"), "COMPLETED"));
+
+        // Then
+        assertEquals(List.of("2", "3"), exception.getFailures().stream()
+                .map(BatchUpdateRejectedException.Failure::transactionId).toList());
+        assertEquals("INVALID_STATUS_TRANSITION", exception.getFailures().get(0).errorCode());
+        assertEquals("TRANSACTION_NOT_FOUND", exception.getFailures().get(1).errorCode());
+        verify(transactionRepository, never()).save(any(Transaction.class));
+        verifyNoInteractions(eventPublisher, cacheManager);
+    }
+}
@@ -0,0 +1,37 @@
+package com.hsbc.transactionmanagement.snapshot;
+
+import com.hsbc.transactionmanagement.exceptions.SnapshotExpiredException;
+import com.hsbc.transactionmanagement.repository.InMemoryTransactionRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SnapshotRegistryTest {
+
+    @Test
+    @DisplayName("Should close a snapshot after its maximum lifetime even while it is read")
+    void shouldExpireSnapshotsReadContinuously() throws InterruptedException {
+        // Given
+        SnapshotRegistry registry = new SnapshotRegistry(new InMemoryTransactionRepository(),
+                Duration.ofHours(1), Duration.ofMillis(300), 10);
+        String token = registry.open();
+
+        // When: polled well within the idle timeout
+        long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        boolean expired = false;
+        while (!expired && System.nanoTime() < deadline) {
+            try {
+                registry.get(token);
+                Thread.sleep(20);
+            } catch (SnapshotExpiredException ex) {
+                expired = true;
+            }
+        }
+
+        // Then
+        assertTrue(expired);
+    }
+}
@@ -0,0 +1,70 @@
+package com.hsbc.transactionmanagement.storage;
+
+import com.hsbc.transactionmanagement.model.StatusHistory;
+import com.hsbc.transactionmanagement.model.Transaction;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TransactionRowCodecTest {
+
+    private final Transaction transaction = Transaction.builder()
+            .transactionId("tx-1")
+            .amount(new BigDecimal("1234.56"))
+            .currency("USD")
+            .timestamp(LocalDateTime.of(2024, 3, 1, 12, 30))
+            .status("CANCELLED")
+            .senderAccountId(1001L)
+            .statusHistory(StatusHistory.append(StatusHistory.start("PENDING", 1_709_295_000_000L),
+                    "PENDING", "CANCELLED", 1_709_295_060_000L))
+            .build();
+
+    @Test
+    @DisplayName("Should round-trip a row with its status history")
+    void shouldRoundTripStatusHistory() throws IOException {
+        // When
+        Transaction decoded = read(write(transaction));
+
+        // Then
+        assertEquals("tx-1", decoded.getTransactionId());
+        assertEquals(new BigDecimal("1234.56"), decoded.getAmount());
+        assertEquals("CANCELLED", decoded.getStatus());
+        assertArrayEquals(transaction.getStatusHistory(), decoded.getStatusHistory());
+    }
+
+    @Test
+    @DisplayName("Should read rows written before histories were kept")
+    void shouldReadRowsWithoutHistory() throws IOException {
+        // Given: the old layout is the new one without the trailing history
+        byte[] row = write(transaction);
+        byte[] legacy = Arrays.copyOf(row, row.length - 1 - Long.BYTES * transaction.getStatusHistory().length);
+
+        // When
+        Transaction decoded = read(legacy);
+
+        // Then
+        assertEquals("CANCELLED", decoded.getStatus());
+        assertNull(decoded.getStatusHistory());
+        assertEquals(1, StatusHistory.entries(decoded.getStatusHistory(), decoded.getStatus()).size());
+    }
+
+    private static byte[] write(Transaction transaction) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        TransactionRowCodec.write(new DataOutputStream(bytes), transaction);
+        return bytes.toByteArray();
+    }
+
+    private static Transaction read(byte[] row) throws IOException {
+        return TransactionRowCodec.read(new DataInputStream(new ByteArrayInputStream(row)));
+    }
+}
@@ -0,0 +1,133 @@
+package com.hsbc.transactionmanagement.storage.columnar;
+
+import com.hsbc.transactionmanagement.model.StatusHistory;
+import com.hsbc.transactionmanagement.model.Transaction;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ColumnarFileTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("Should round-trip every field, including nulls and large amounts")
+    void shouldRoundTripRowGroup() {
+        // Given
+        Transaction full = Transaction.builder()
+                .transactionId("tx-1")
+                .amount(new BigDecimal("1234.56"))
+                .currency("USD")
+                .timestamp(LocalDateTime.of(2024, 3, 1, 12, 30, 15, 123_456_789))
+                .description("Invoice 42, café")
+                .status("COMPLETED")
+                .senderAccountId(1001L)
+                .receiverAccountId(-5L)
+                .referenceNumber("REF-1")
+                .version(17)
+                .statusHistory(StatusHistory.append(StatusHistory.start("PENDING", 1_709_295_015_123L),
+                        "PENDING", "COMPLETED", 1_709_295_075_000L))
+                .build();
+        Transaction sparse = Transaction.builder()
+                .transactionId("tx-2")
+                .amount(new BigDecimal("123456789012345678901234567890.1234"))
+                .timestamp(LocalDateTime.of(1999, 12, 31, 23, 59))
+                .build();
+        Transaction empty = Transaction.builder().transactionId("tx-0").build();
+
+        // When
+        EncodedRowGroup encoded = RowGroupCodec.encode(List.of(full, sparse, empty));
+        List<Transaction> decoded = RowGroupCodec.decode(ByteBuffer.wrap(encoded.data()));
+
+        // Then
+        assertEquals(3, encoded.rowCount());
+        assertEquals("tx-0", encoded.minId());
+        assertEquals("tx-2", encoded.maxId());
+        assertEquals(LocalDateTime.of(1999, 12, 31, 23, 59).toEpochSecond(ZoneOffset.UTC), encoded.minEpochSecond());
+        assertSameTransaction(full, decoded.get(0));
+        assertSameTransaction(sparse, decoded.get(1));
+        assertSameTransaction(empty, decoded.get(2));
+    }
+
+    @Test
+    @DisplayName("Should locate row groups through the footer and compress repetitive columns")
+    void shouldWriteAndReadFile() throws IOException {
+        // Given
+        Path file = tempDir.resolve("export.txc");
+        List<Transaction> rows = new ArrayList<>();
+        for (int i = 0; i < 3000; i++) {
+            rows.add(Transaction.builder()
+                    .transactionId(String.format("%05d", i))
+                    .amount(new BigDecimal(i % 500 + ".25"))
+                    .currency(i % 2 == 0 ? "USD" : "EUR")
+                    .timestamp(LocalDateTime.of(2024, 1, 1, 0, 0).plusSeconds(i))
+                    .description("Payroll run " + i % 10)
+                    .status(i % 3 == 0 ? "PENDING" : "COMPLETED")
+                    .senderAccountId(1000L + i % 7)
+                    .receiverAccountId(2000L + i % 11)
+                    .build());
+        }
+
+        // When
+        long written;
+        try (OutputStream out = Files.newOutputStream(file);
+             ColumnarFileWriter writer = new ColumnarFileWriter(out)) {
+            for (int start = 0; start < rows.size(); start += 1000) {
+                writer.write(RowGroupCodec.encode(rows.subList(start, start + 1000)));
+            }
+            writer.close();
+            written = writer.getPosition();
+        }
+
+        // Then
+        assertEquals(Files.size(file), written);
+        assertTrue(written < rows.size() * 20L, "expected under 20 bytes per row but wrote " + written);
+        try (ColumnarFileReader reader = ColumnarFileReader.open(file)) {
+            assertEquals(3, reader.getRowGroups().size());
+            assertEquals(3000, reader.getRowCount());
+            RowGroupInfo second = reader.getRowGroups().get(1);
+            assertTrue(second.mayContainId("01500"));
+            assertFalse(second.mayContainId("02500"));
+            assertEquals("01500", reader.readRowGroup(second).get(500).getTransactionId());
+            assertEquals(rows.stream().map(Transaction::getTransactionId).toList(),
+                    reader.stream().map(Transaction::getTransactionId).toList());
+        }
+    }
+
+    @Test
+    @DisplayName("Should refuse files that are not columnar exports")
+    void shouldRejectForeignFile() throws IOException {
+        Path file = tempDir.resolve("foreign.txc");
+        Files.writeString(file, "transactionId,amount\n1,10.00\n");
+
+        assertThrows(IOException.class, () -> ColumnarFileReader.open(file));
+    }
+
+    private static void assertSameTransaction(Transaction expected, Transaction actual) {
+        assertEquals(expected.getTransactionId(), actual.getTransactionId());
+        assertEquals(expected.getAmount(), actual.getAmount());
+        assertEquals(expected.getCurrency(), actual.getCurrency());
+        assertEquals(expected.getTimestamp(), actual.getTimestamp());
+        assertEquals(expected.getDescription(), actual.getDescription());
+        assertEquals(expected.getStatus(), actual.getStatus());
+        assertEquals(expected.getSenderAccountId(), actual.getSenderAccountId());
+        assertEquals(expected.getReceiverAccountId(), actual.getReceiverAccountId());
+        assertEquals(expected.getReferenceNumber(), actual.getReferenceNumber());
+        assertEquals(expected.getVersion(), actual.getVersion());
+        assertArrayEquals(expected.getStatusHistory(), actual.getStatusHistory());
+    }
+}
@@ -0,0 +1,155 @@
+package com.hsbc.transactionmanagement.storage.lsm;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LsmStoreTest {
+
+    private static final LsmStore.Options SMALL = new LsmStore.Options(4096, 256, 1 << 16, 10, 2, false);
+
+    @TempDir
+    Path directory;
+
+    @Test
+    @DisplayName("Should return the newest version of each key and hide deleted keys in range scans")
+    void shouldScanNewestLiveVersions() throws IOException {
+        try (LsmStore store = new LsmStore(directory, SMALL)) {
+            // Given
+            for (int i = 0; i < 300; i++) {
+                store.write(new WriteBatch().put(key(i), bytes("v1-" + i)));
+            }
+            for (int i = 0; i < 300; i += 3) {
+                store.write(new WriteBatch().put(key(i), bytes("v2-" + i)));
+            }
+            store.write(new WriteBatch().delete(key(11)).delete(key(12)));
+
+            // When
+            List<String> scanned = values(store.scan(key(10), key(16)));
+
+            // Then
+            assertEquals(List.of("v1-10", "v1-13", "v1-14", "v2-15"), scanned);
+            assertEquals("v2-0", text(store.get(key(0)).orElseThrow().value()));
+            assertTrue(store.get(key(11)).isEmpty());
+            assertTrue(store.tableCount() > 0);
+        }
+    }
+
+    @Test
+    @DisplayName("Should keep serving a snapshot across flushes and compactions")
+    void shouldIsolateSnapshotsThroughCompaction() throws IOException {
+        try (LsmStore store = new LsmStore(directory, SMALL)) {
+            // Given
+            for (int i = 0; i < 200; i++) {
+                store.write(new WriteBatch().put(key(i), bytes("old")));
+            }
+            LsmStore.Snapshot snapshot = store.openSnapshot();
+
+            // When
+            for (int round = 0; round < 5; round++) {
+                for (int i = 0; i < 200; i++) {
+                    store.write(i % 2 == 0 ? new WriteBatch().delete(key(i)) : new WriteBatch().put(key(i), bytes("new")));
+                }
+                store.flush();
+            }
+
+            // Then
+            assertTrue(store.compactionCount() > 0);
+            assertEquals(200, values(store.scan(null, null, snapshot)).stream().filter("old"::equals).count());
+            assertEquals("old", text(store.get(key(4), snapshot).orElseThrow().value()));
+            assertTrue(store.get(key(4)).isEmpty());
+            assertEquals(100, values(store.scan(null, null)).size());
+            assertEquals(1, store.pinnedSnapshots());
+
+            snapshot.close();
+            store.flush();
+            assertEquals(0, store.pinnedSnapshots());
+            assertEquals(100, values(store.scan(null, null)).size());
+        }
+    }
+
+    @Test
+    @DisplayName("Should recover acknowledged writes from the log and stop at a torn record")
+    void shouldRecoverFromLogWithTornTail() throws IOException {
+        // Given
+        LsmStore.Options large = new LsmStore.Options(1 << 20, 4096, 1 << 16, 10, 4, true);
+        try (LsmStore store = new LsmStore(directory, large)) {
+            for (int i = 0; i < 10; i++) {
+                store.write(new WriteBatch().put(key(i), bytes("value-" + i)));
+            }
+        }
+        Path log;
+        try (Stream<Path> files = Files.list(directory)) {
+            log = files.filter(file -> file.toString().endsWith(".log")).findFirst().orElseThrow();
+        }
+        // Cut the last record in half, as a crash during the write would
+        try (FileChannel channel = FileChannel.open(log, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 5);
+        }
+
+        // When
+        try (LsmStore store = new LsmStore(directory, large)) {
+            // Then
+            assertEquals(9, store.lastSequence());
+            assertEquals(9, values(store.scan(null, null)).size());
+            assertTrue(store.get(key(9)).isEmpty());
+            assertEquals(1, store.tableCount());
+            assertEquals(10, store.write(new WriteBatch().put(key(9), bytes("again"))));
+        }
+    }
+
+    @Test
+    @DisplayName("Should keep the bloom filter false positive rate near one percent at ten bits per key")
+    void shouldBoundBloomFalsePositives() {
+        // Given
+        BloomFilter bloom = BloomFilter.create(10_000, 10);
+        for (int i = 0; i < 10_000; i++) {
+            bloom.add(key(i));
+        }
+
+        // When
+        int falsePositives = 0;
+        for (int i = 10_000; i < 110_000; i++) {
+            if (bloom.mightContain(key(i))) {
+                falsePositives++;
+            }
+        }
+
+        // Then
+        for (int i = 0; i < 10_000; i++) {
+            assertTrue(bloom.mightContain(key(i)));
+        }
+        assertTrue(falsePositives < 2_000, "false positives: " + falsePositives);
+    }
+
+    private static byte[] key(int i) {
+        return bytes(String.format("key-%08d", i));
+    }
+
+    private static byte[] bytes(String text) {
+        return text.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String text(byte[] bytes) {
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static List<String> values(Iterator<LsmStore.Entry> entries) {
+        List<String> values = new ArrayList<>();
+        entries.forEachRemaining(entry -> values.add(text(entry.value())));
+        return values;
+    }
+}